@@ -0,0 +1,57 @@
+package com.booklovers.community.benchmark;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// argumenty w postaci --nazwa=wartość dla narzędzi uruchamianych z wiersza poleceń
+public final class Arguments {
+    private final Map<String, String> values = new HashMap<>();
+
+    private Arguments() {
+    }
+
+    public static Arguments parse(String[] args) {
+        Arguments arguments = new Arguments();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Nieprawidłowy argument: " + arg + " (oczekiwano --nazwa=wartość)");
+            }
+            int eq = arg.indexOf('=');
+            arguments.values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return arguments;
+    }
+
+    public String getString(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    public long getLong(String name, long defaultValue) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+
+    public double getDouble(String name, double defaultValue) {
+        return values.containsKey(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+    }
+
+    // ISO-8601, np. PT30S
+    public Duration getDuration(String name, Duration defaultValue) {
+        return values.containsKey(name) ? Duration.parse(values.get(name)) : defaultValue;
+    }
+
+    // rozmiar katalogu wspólny dla generatora danych i generatora ruchu
+    public SyntheticCatalog.Spec catalogSpec() {
+        return new SyntheticCatalog.Spec(
+                getInt("books", 100_000),
+                getInt("users", 20_000),
+                getLong("reviews", 1_000_000),
+                getInt("shelf-size", 200),
+                getDouble("zipf", 1.0),
+                getLong("seed", 42));
+    }
+}
@@ -0,0 +1,25 @@
+package com.booklovers.community.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// punkt wejścia - zwykłe argumenty JMH (filtr benchmarków, -p, -f, -wi ...),
+// domyślnie wyniki w JSON do target/jmh-result.json do porównania między wersjami
+public class BenchmarkRunner {
+    private static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(cli)
+                .resultFormat(cli.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(cli.getResult().orElse(DEFAULT_RESULT))
+                .build();
+        new Runner(options).run();
+    }
+}
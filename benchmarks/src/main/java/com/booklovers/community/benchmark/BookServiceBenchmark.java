@@ -0,0 +1,56 @@
+package com.booklovers.community.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookStatsDto;
+import com.booklovers.community.service.BookService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    private BookService bookService;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        bookService = catalog.bean(BookService.class);
+    }
+
+    @Benchmark
+    public Page<BookDto> getAllBooks(CatalogState catalog) {
+        int pages = Math.max(1, catalog.books / PAGE_SIZE);
+        return bookService.getAllBooks(PageRequest.of(ThreadLocalRandom.current().nextInt(pages), PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<BookDto> searchBooks() {
+        String query = SyntheticCatalog.WORDS.get(ThreadLocalRandom.current().nextInt(SyntheticCatalog.WORDS.size()));
+        return bookService.searchBooks(query, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public BookStatsDto getBookStatistics(CatalogState catalog) {
+        return bookService.getBookStatistics(SyntheticCatalog.bookId(catalog.randomBook()));
+    }
+}
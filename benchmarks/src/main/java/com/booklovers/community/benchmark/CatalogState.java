@@ -0,0 +1,60 @@
+package com.booklovers.community.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// kontekst aplikacji (bez warstwy web) na osobnej bazie H2 w pamięci, zasilonej syntetycznym katalogiem;
+// rozmiar katalogu ustawiany parametrami JMH, np. -p books=50000 -p users=5000
+@State(Scope.Benchmark)
+public class CatalogState {
+    private static final double ZIPF_EXPONENT = 1.0;
+
+    @Param("10000")
+    public int books;
+
+    @Param("1000")
+    public int users;
+
+    @Param("20")
+    public int reviewsPerUser;
+
+    @Param("20")
+    public int booksPerShelf;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // bez cache - mierzone są zapytania, a nie trafienia w Caffeine
+        context = CommunityContext.start(WebApplicationType.NONE, "--spring.cache.type=none");
+        CommunityContext.seed(context, new SyntheticCatalog.Spec(books, users, (long) users * reviewsPerUser,
+                booksPerShelf, ZIPF_EXPONENT, 42L));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int randomBook() {
+        return ThreadLocalRandom.current().nextInt(books);
+    }
+
+    public int randomUser() {
+        return ThreadLocalRandom.current().nextInt(users);
+    }
+}
@@ -0,0 +1,77 @@
+package com.booklovers.community.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.booklovers.community.CommunityApplication;
+import com.booklovers.community.service.BookRatingSummaryService;
+import com.booklovers.community.service.BookSearchIndex;
+import com.booklovers.community.service.PopularBooksService;
+import com.booklovers.community.service.ReadingStatsService;
+
+// uruchamianie aplikacji na potrzeby benchmarków i generatora ruchu
+public final class CommunityContext {
+    public static final String DEFAULT_URL = "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1";
+
+    private CommunityContext() {
+    }
+
+    // argumenty wiersza poleceń (--nazwa=wartość) - pierwszeństwo przed application.yml;
+    // ta sama właściwość podana dwa razy zostałaby sklejona przecinkiem, więc nadpisania zastępują domyślne
+    public static ConfigurableApplicationContext start(WebApplicationType webType, String... overrides) {
+        return start(webType, List.of(), overrides);
+    }
+
+    // z dodatkowymi źródłami konfiguracji (np. symulacją opóźnień)
+    public static ConfigurableApplicationContext start(WebApplicationType webType, List<Class<?>> sources,
+            String... overrides) {
+        Map<String, String> args = new LinkedHashMap<>();
+        for (String arg : List.of(
+                "--spring.datasource.url=" + DEFAULT_URL,
+                "--spring.jpa.show-sql=false",
+                "--booklovers.security.tokens.secret=benchmark-token-secret",
+                "--logging.level.root=WARN")) {
+            args.put(arg.substring(0, arg.indexOf('=')), arg);
+        }
+        for (String arg : overrides) {
+            args.put(arg.substring(0, arg.indexOf('=')), arg);
+        }
+        return new SpringApplicationBuilder(CommunityApplication.class)
+                .sources(sources.toArray(Class<?>[]::new))
+                .web(webType)
+                .run(args.values().toArray(String[]::new));
+    }
+
+    // baza wskazana argumentami --url/--username/--password; dla PostgreSQL także sterownik i dialekt
+    public static List<String> datasource(Arguments arguments) {
+        String url = arguments.getString("url", DEFAULT_URL);
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + arguments.getString("username", "sa"),
+                "--spring.datasource.password=" + arguments.getString("password", "password")));
+        if (url.startsWith("jdbc:postgresql:")) {
+            args.add("--spring.datasource.driverClassName=org.postgresql.Driver");
+            args.add("--spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect");
+        }
+        return args;
+    }
+
+    // zasilenie bazy i przebudowa struktur, które aplikacja liczy przy starcie (przed zasileniem)
+    public static SyntheticCatalog seed(ConfigurableApplicationContext context, SyntheticCatalog.Spec spec) {
+        SyntheticCatalog catalog = new SyntheticCatalog(context.getBean(JdbcTemplate.class), spec);
+        catalog.seed();
+
+        context.getBean(BookSearchIndex.class).rebuild();
+        context.getBean(BookRatingSummaryService.class).rebuildAll();
+        context.getBean(ReadingStatsService.class).rebuildAll();
+        context.getBean(PopularBooksService.class).refresh();
+        return catalog;
+    }
+}
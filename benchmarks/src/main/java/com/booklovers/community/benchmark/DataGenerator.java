@@ -0,0 +1,41 @@
+package com.booklovers.community.benchmark;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+// zasilenie pustej bazy H2 lub PostgreSQL syntetycznym katalogiem; schemat zakładają migracje Flyway aplikacji,
+// tabele pochodne (oceny, statystyki czytania, indeks wyszukiwania) aplikacja przelicza przy starcie
+//
+// --url=jdbc:postgresql://localhost/booklovers?reWriteBatchedInserts=true --username=... --password=...
+// --books=100000 --users=20000 --reviews=1000000 --shelf-size=200 --zipf=1.0 --seed=42
+public class DataGenerator {
+
+    public static void main(String[] args) {
+        Arguments arguments = Arguments.parse(args);
+        String url = arguments.getString("url", "jdbc:h2:file:./target/bench-db");
+        // jedno połączenie na cały import - bez otwierania nowego dla każdej paczki
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url,
+                arguments.getString("username", "sa"), arguments.getString("password", "password"), true);
+
+        String vendor = url.startsWith("jdbc:postgresql:") ? "postgresql" : "h2";
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/" + vendor)
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+
+        SyntheticCatalog.Spec spec = arguments.catalogSpec();
+        Instant start = Instant.now();
+        try {
+            new SyntheticCatalog(new JdbcTemplate(dataSource), spec).seed();
+        } finally {
+            dataSource.destroy();
+        }
+        System.out.printf("Wygenerowano %s w %ds%n", spec, Duration.between(start, Instant.now()).toSeconds());
+    }
+}
@@ -0,0 +1,47 @@
+package com.booklovers.community.benchmark;
+
+import java.util.Arrays;
+
+// czasy odpowiedzi jednej operacji w nanosekundach; jeden rejestr na wątek, łączone po pomiarze
+public class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+
+    public void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public void recordError() {
+        errors++;
+    }
+
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.samples[i]);
+        }
+        errors += other.errors;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int errors() {
+        return errors;
+    }
+
+    // percentyl metodą najbliższej rangi, w milisekundach
+    public double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,226 @@
+package com.booklovers.community.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// generator ruchu w tej samej JVM: aplikacja z Tomcatem na losowym porcie, zasilona syntetycznym katalogiem,
+// i N klientów odtwarzających mieszany ruch; na koniec p50/p99 i przepustowość per operacja
+//
+// --concurrency=32 --warmup=PT30S --duration=PT60S
+// --mix=books:30,book:40,search:20,shelf:10   (wagi; shelf = dodanie i usunięcie książki z półki)
+// --books=... --users=... --reviews=... --shelf-size=... --zipf=... --seed=...   (jak w DataGenerator)
+// --url=... --username=... --password=...   (baza inna niż H2 w pamięci - musi być pusta)
+public class LoadDriver {
+    private static final String BOOKS = "GET /books";
+    private static final String BOOK = "GET /books/{id}";
+    private static final String SEARCH = "GET /api/v1/books/search";
+    private static final String SHELF_ADD = "POST /api/v1/shelves/{id}/books";
+    private static final String SHELF_REMOVE = "DELETE /api/v1/shelves/{id}/books/{bookId}";
+    private static final List<String> OPERATIONS = List.of(BOOKS, BOOK, SEARCH, SHELF_ADD, SHELF_REMOVE);
+
+    private final String baseUrl;
+    private final SyntheticCatalog.Spec spec;
+    private final ZipfDistribution popularity;
+    private final Mix mix;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private LoadDriver(String baseUrl, SyntheticCatalog.Spec spec, ZipfDistribution popularity, Mix mix) {
+        this.baseUrl = baseUrl;
+        this.spec = spec;
+        this.popularity = popularity;
+        this.mix = mix;
+    }
+
+    // klient dla aplikacji uruchomionej na losowym porcie i zasilonej katalogiem
+    static LoadDriver forContext(ConfigurableApplicationContext context, SyntheticCatalog catalog, SyntheticCatalog.Spec spec,
+            Mix mix) {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return new LoadDriver("http://localhost:" + port, spec, catalog.popularity(), mix);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = Arguments.parse(args);
+        SyntheticCatalog.Spec spec = arguments.catalogSpec();
+        int concurrency = arguments.getInt("concurrency", 32);
+        Duration warmup = arguments.getDuration("warmup", Duration.ofSeconds(30));
+        Duration duration = arguments.getDuration("duration", Duration.ofSeconds(60));
+        Mix mix = Mix.parse(arguments.getString("mix", "books:30,book:40,search:20,shelf:10"));
+
+        List<String> overrides = new ArrayList<>(CommunityContext.datasource(arguments));
+        overrides.add("--server.port=0");
+
+        try (ConfigurableApplicationContext context = CommunityContext.start(WebApplicationType.SERVLET,
+                overrides.toArray(String[]::new))) {
+            System.out.printf("Zasilanie bazy: %s%n", spec);
+            SyntheticCatalog catalog = CommunityContext.seed(context, spec);
+            LoadDriver driver = forContext(context, catalog, spec, mix);
+
+            System.out.printf("Rozgrzewka %ds, %d klientów%n", warmup.toSeconds(), concurrency);
+            driver.run(concurrency, warmup);
+            System.out.printf("Pomiar %ds, %d klientów%n", duration.toSeconds(), concurrency);
+            Map<String, LatencyRecorder> results = driver.run(concurrency, duration);
+            report(results, duration);
+        }
+    }
+
+    // każdy klient na własnym wątku wirtualnym - tysiące klientów nie wymagają tysięcy wątków systemowych
+    Map<String, LatencyRecorder> run(int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Map<String, LatencyRecorder>>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                long seed = spec.seed() * 31 + i;
+                workers.add(executor.submit(() -> drive(new Random(seed), deadline)));
+            }
+
+            Map<String, LatencyRecorder> merged = recorders();
+            for (Future<Map<String, LatencyRecorder>> worker : workers) {
+                worker.get().forEach((operation, recorder) -> merged.get(operation).merge(recorder));
+            }
+            return merged;
+        }
+    }
+
+    private Map<String, LatencyRecorder> drive(Random random, long deadline) {
+        Map<String, LatencyRecorder> recorders = recorders();
+        while (System.nanoTime() < deadline) {
+            switch (mix.pick(random)) {
+                case "books" -> {
+                    // co druga lista z filtrem tytułu
+                    String query = random.nextBoolean() ? "?query=" + word(random) : "";
+                    send(recorders.get(BOOKS), get("/books" + query));
+                }
+                case "book" -> send(recorders.get(BOOK), get("/books/" + SyntheticCatalog.bookId(popularity.sample(random))));
+                case "search" -> send(recorders.get(SEARCH), get("/api/v1/books/search?query=" + word(random) + "&size=20"));
+                case "shelf" -> {
+                    // półka "Chcę przeczytać" jest pusta - para dodanie/usunięcie nie zmienia stanu bazy
+                    int user = random.nextInt(spec.users());
+                    long shelfId = SyntheticCatalog.shelfId(user, 1);
+                    long bookId = SyntheticCatalog.bookId(popularity.sample(random));
+                    String auth = basicAuth(SyntheticCatalog.username(user));
+                    send(recorders.get(SHELF_ADD), request("/api/v1/shelves/" + shelfId + "/books?bookId=" + bookId, auth)
+                            .POST(HttpRequest.BodyPublishers.noBody()).build());
+                    send(recorders.get(SHELF_REMOVE), request("/api/v1/shelves/" + shelfId + "/books/" + bookId, auth)
+                            .DELETE().build());
+                }
+                default -> throw new IllegalStateException();
+            }
+        }
+        return recorders;
+    }
+
+    private void send(LatencyRecorder recorder, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                recorder.recordError();
+                return;
+            }
+            recorder.record(System.nanoTime() - start);
+        } catch (Exception e) {
+            recorder.recordError();
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return request(path, null).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path, String authorization) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        return builder;
+    }
+
+    private static String basicAuth(String username) {
+        String credentials = username + ":" + SyntheticCatalog.PASSWORD;
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String word(Random random) {
+        return SyntheticCatalog.WORDS.get(random.nextInt(SyntheticCatalog.WORDS.size()));
+    }
+
+    private static Map<String, LatencyRecorder> recorders() {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        OPERATIONS.forEach(operation -> recorders.put(operation, new LatencyRecorder()));
+        return recorders;
+    }
+
+    static void report(Map<String, LatencyRecorder> results, Duration duration) {
+        double seconds = duration.toMillis() / 1000.0;
+        LatencyRecorder total = new LatencyRecorder();
+        System.out.printf("%n%-45s %10s %8s %10s %10s %10s%n", "Operacja", "Żądania", "Błędy", "req/s", "p50 ms", "p99 ms");
+        results.forEach((operation, recorder) -> {
+            total.merge(recorder);
+            print(operation, recorder, seconds);
+        });
+        print("RAZEM", total, seconds);
+    }
+
+    private static void print(String operation, LatencyRecorder recorder, double seconds) {
+        System.out.printf("%-45s %10d %8d %10.1f %10.2f %10.2f%n", operation, recorder.count(), recorder.errors(),
+                recorder.count() / seconds, recorder.percentileMillis(50), recorder.percentileMillis(99));
+    }
+
+    // wagi rodzajów ruchu, np. books:30,book:40,search:20,shelf:10
+    record Mix(List<String> kinds, int[] cumulative) {
+        private static final List<String> KINDS = List.of("books", "book", "search", "shelf");
+
+        static Mix parse(String value) {
+            List<String> kinds = new ArrayList<>();
+            List<Integer> weights = new ArrayList<>();
+            for (String part : value.split(",")) {
+                String[] kv = part.trim().split(":");
+                if (kv.length != 2 || !KINDS.contains(kv[0])) {
+                    throw new IllegalArgumentException("Nieprawidłowy składnik ruchu: " + part + " (dozwolone: " + KINDS + ")");
+                }
+                kinds.add(kv[0]);
+                weights.add(Integer.parseInt(kv[1]));
+            }
+            int[] cumulative = new int[weights.size()];
+            int sum = 0;
+            for (int i = 0; i < cumulative.length; i++) {
+                sum += weights.get(i);
+                cumulative[i] = sum;
+            }
+            if (sum <= 0) {
+                throw new IllegalArgumentException("Suma wag ruchu musi być dodatnia");
+            }
+            return new Mix(kinds, cumulative);
+        }
+
+        String pick(Random random) {
+            int value = random.nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (value < cumulative[i]) {
+                    return kinds.get(i);
+                }
+            }
+            return kinds.get(kinds.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.booklovers.community.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.booklovers.community.service.ShelfService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShelfServiceBenchmark {
+    private ShelfService shelfService;
+    // kolejne pary (użytkownik, książka) - półka "Chcę przeczytać" jest pusta, więc to głównie wstawienia
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        shelfService = catalog.bean(ShelfService.class);
+    }
+
+    @Benchmark
+    public void addBookToShelf(CatalogState catalog) {
+        long n = sequence.getAndIncrement();
+        int user = (int) (n % catalog.users);
+        int book = (int) ((n / catalog.users) % catalog.books);
+        shelfService.addBookToShelf(SyntheticCatalog.shelfId(user, 1), SyntheticCatalog.bookId(book),
+                SyntheticCatalog.username(user));
+    }
+}
@@ -0,0 +1,115 @@
+package com.booklovers.community.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// opóźnienia dokładane do aplikacji w porównaniu trybów wątków (źródło kontekstu podawane jawnie - bez @Configuration,
+// żeby skanowanie pakietów com.booklovers.community go nie podchwyciło):
+// bench.response-delay - wątek żądania zajęty po obsłudze, jak przy zapisie odpowiedzi do wolnego klienta;
+// bench.db-delay - każde wykonanie instrukcji SQL trwa dłużej, jak przy zdalnej bazie
+public class SlowClientSimulation {
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> slowClientFilter(
+            @Value("${bench.response-delay:PT0S}") Duration responseDelay) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                chain.doFilter(request, response);
+                // odpowiedź jeszcze w buforze - klient dostaje ją dopiero po opóźnieniu, połączenie z bazą już zwolnione
+                pause(responseDelay);
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // przed ogranicznikiem połączeń (ten bez kolejności) - opóźnienie liczy się do czasu trzymania połączenia
+    @Bean
+    public static BeanPostProcessor databaseLatencyPostProcessor(@Value("${bench.db-delay:PT0S}") Duration dbDelay) {
+        return new OrderedPostProcessor(dbDelay);
+    }
+
+    private static void pause(Duration delay) {
+        if (delay.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record OrderedPostProcessor(Duration dbDelay) implements BeanPostProcessor, Ordered {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            if (dbDelay.isZero() || !(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return delayed(super.getConnection(), Connection.class);
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return delayed(super.getConnection(username, password), Connection.class);
+                }
+            };
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        // Connection zwraca opakowane Statement, a Statement usypia wątek przed każdym execute*
+        private <T> T delayed(T target, Class<T> type) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+                if (Statement.class.isAssignableFrom(type) && method.getName().startsWith("execute")) {
+                    pause(dbDelay);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                if (type == Connection.class && result instanceof Statement statement) {
+                    return delayed(statement, statementType(method.getReturnType()));
+                }
+                return result;
+            }));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Class<Statement> statementType(Class<?> returnType) {
+            return (Class<Statement>) returnType;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.booklovers.community.benchmark;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+// syntetyczny katalog (autorzy, książki, użytkownicy, półki, recenzje) wstawiany wsadowo przez JDBC (H2 i PostgreSQL);
+// deterministyczny dla danego ziarna, identyfikatory od ID_OFFSET, żeby nie kolidowały z danymi demonstracyjnymi
+public class SyntheticCatalog {
+    public static final long ID_OFFSET = 1_000;
+    public static final int SHELVES_PER_USER = 3;
+    // wszyscy użytkownicy syntetyczni logują się tym samym hasłem (np. generator ruchu przez HTTP Basic)
+    public static final String PASSWORD = "password";
+    // tytuły i opisy z małego słownika - zapytania z benchmarków wyszukiwania zawsze coś trafiają
+    public static final List<String> WORDS = List.of(
+            "smok", "miecz", "zamek", "las", "noc", "król", "cień", "rzeka", "wiedźma", "gwiazda",
+            "morze", "wojna", "pieśń", "kamień", "ogień", "wilk", "korona", "sekret", "droga", "zima");
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int BOOKS_PER_AUTHOR = 10;
+    private static final int PROGRESS_EVERY = 100_000;
+    // ile prób losowania bez powtórzeń, zanim brana jest pierwsza wolna książka
+    private static final int MAX_DRAWS = 32;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Spec spec;
+    private final Random random;
+    private final ZipfDistribution popularity;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    // rozmiar katalogu; recenzje i półki "Przeczytane" losują książki z rozkładu Zipfa o wykładniku zipfExponent
+    public record Spec(int books, int users, long reviews, int booksPerShelf, double zipfExponent, long seed) {
+        public Spec {
+            if (books <= 0 || users <= 0) {
+                throw new IllegalArgumentException("Katalog wymaga co najmniej jednej książki i jednego użytkownika");
+            }
+        }
+    }
+
+    public SyntheticCatalog(JdbcTemplate jdbcTemplate, Spec spec) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.spec = spec;
+        this.random = new Random(spec.seed());
+        this.popularity = new ZipfDistribution(spec.books(), spec.zipfExponent(), spec.seed());
+    }
+
+    public static long bookId(int index) {
+        return ID_OFFSET + index;
+    }
+
+    public static long userId(int index) {
+        return ID_OFFSET + index;
+    }
+
+    public static String username(int index) {
+        return "reader" + index;
+    }
+
+    // półki użytkownika: 0 - "Przeczytane", 1 - "Chcę przeczytać" (pusta), 2 - "Teraz czytam"
+    public static long shelfId(int userIndex, int shelf) {
+        return ID_OFFSET + (long) userIndex * SHELVES_PER_USER + shelf;
+    }
+
+    public ZipfDistribution popularity() {
+        return popularity;
+    }
+
+    public void seed() {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE id >= ?", Long.class, ID_OFFSET);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("Baza zawiera już dane syntetyczne (" + existing + " książek)");
+        }
+
+        int books = spec.books();
+        int users = spec.users();
+        int authors = Math.max(1, books / BOOKS_PER_AUTHOR);
+
+        batch("authors", "INSERT INTO authors (id, first_name, last_name, bio) VALUES (?, ?, ?, ?)", authors,
+                i -> new Object[] { ID_OFFSET + i, "Autor" + i, capitalize(word()), sentence(12) });
+
+        batch("books", "INSERT INTO books (id, title, isbn, description, author_id) VALUES (?, ?, ?, ?, ?)", books,
+                i -> new Object[] { bookId((int) i), capitalize(sentence(3)), String.format("978%010d", i),
+                        sentence(30), ID_OFFSET + i % authors });
+
+        // jeden hash BCrypt dla wszystkich - kodowanie hasła per użytkownik trwałoby dłużej niż cały import
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        batch("users", "INSERT INTO users (id, username, email, password, role, enabled, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)", users,
+                i -> new Object[] { userId((int) i), username((int) i), username((int) i) + "@example.com", passwordHash,
+                        "ROLE_USER", true, Timestamp.valueOf(now.minusDays(800)) });
+
+        String[] shelfNames = { "Przeczytane", "Chcę przeczytać", "Teraz czytam" };
+        batch("shelves", "INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (?, ?, ?, ?)", (long) users * SHELVES_PER_USER,
+                i -> new Object[] { ID_OFFSET + i, shelfNames[(int) (i % SHELVES_PER_USER)], true, userId((int) (i / SHELVES_PER_USER)) });
+
+        int perShelf = Math.min(spec.booksPerShelf(), books);
+        batchPerUser("shelf_books", "INSERT INTO shelf_books (shelf_id, book_id, added_at) VALUES (?, ?, ?)", user -> perShelf,
+                (user, book, k) -> new Object[] { shelfId(user, 0), bookId(book), randomTime() });
+
+        // recenzje rozłożone równo między użytkowników, książki z rozkładu Zipfa (bez powtórzeń u jednego użytkownika)
+        long reviewsPerUser = spec.reviews() / users;
+        long remainder = spec.reviews() % users;
+        long[] nextReviewId = { ID_OFFSET };
+        batchPerUser("reviews", "INSERT INTO reviews (id, rating, content, created_at, book_id, user_id) VALUES (?, ?, ?, ?, ?, ?)",
+                user -> (int) Math.min(books, reviewsPerUser + (user < remainder ? 1 : 0)),
+                (user, book, k) -> new Object[] { nextReviewId[0]++, 1 + random.nextInt(10), sentence(25), randomTime(),
+                        bookId(book), userId(user) });
+
+        // kolejne wstawienia przez JPA dostają identyfikatory za danymi syntetycznymi
+        restartIdentity("authors", ID_OFFSET + authors);
+        restartIdentity("books", bookId(books));
+        restartIdentity("users", userId(users));
+        restartIdentity("shelves", ID_OFFSET + (long) users * SHELVES_PER_USER);
+        restartIdentity("reviews", nextReviewId[0]);
+    }
+
+    private void batch(String table, String sql, long count, Row row) {
+        Batch batch = new Batch(table, sql);
+        for (long i = 0; i < count; i++) {
+            batch.add(row.values(i));
+        }
+        batch.flush();
+    }
+
+    // wiersze per użytkownik: count(user) różnych książek z rozkładu popularności
+    private void batchPerUser(String table, String sql, UserCount count, UserRow row) {
+        Batch batch = new Batch(table, sql);
+        Set<Integer> picked = new HashSet<>();
+        for (int user = 0; user < spec.users(); user++) {
+            picked.clear();
+            int n = count.of(user);
+            for (int k = 0; k < n; k++) {
+                batch.add(row.values(user, pickDistinct(picked), k));
+            }
+        }
+        batch.flush();
+    }
+
+    private int pickDistinct(Set<Integer> picked) {
+        for (int attempt = 0; attempt < MAX_DRAWS; attempt++) {
+            int book = popularity.sample(random);
+            if (picked.add(book)) {
+                return book;
+            }
+        }
+        // przy silnym skupieniu (lub prawie pełnej półce) pierwsza wolna książka od losowego miejsca
+        int book = random.nextInt(spec.books());
+        while (!picked.add(book)) {
+            book = (book + 1) % spec.books();
+        }
+        return book;
+    }
+
+    private void restartIdentity(String table, long next) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+    }
+
+    private String word() {
+        return WORDS.get(random.nextInt(WORDS.size()));
+    }
+
+    private String sentence(int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(word());
+        }
+        return sb.toString();
+    }
+
+    // z ostatnich dwóch lat
+    private Timestamp randomTime() {
+        return Timestamp.valueOf(now.minusMinutes(random.nextInt(2 * 365 * 24 * 60)));
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    private final class Batch {
+        private final String table;
+        private final String sql;
+        private final List<Object[]> args = new ArrayList<>(BATCH_SIZE);
+        private long written;
+
+        private Batch(String table, String sql) {
+            this.table = table;
+            this.sql = sql;
+        }
+
+        private void add(Object[] values) {
+            args.add(values);
+            if (args.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!args.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, args);
+                long before = written;
+                written += args.size();
+                args.clear();
+                if (written / PROGRESS_EVERY > before / PROGRESS_EVERY) {
+                    System.out.printf("%s: %,d%n", table, written);
+                }
+            }
+        }
+    }
+
+    private interface Row {
+        Object[] values(long index);
+    }
+
+    private interface UserCount {
+        int of(int user);
+    }
+
+    private interface UserRow {
+        Object[] values(int user, int book, int index);
+    }
+}
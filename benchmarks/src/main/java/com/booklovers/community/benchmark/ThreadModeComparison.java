@@ -0,0 +1,70 @@
+package com.booklovers.community.benchmark;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// przepustowość przy tysiącach równoczesnych wolnych klientów: ta sama aplikacja i ten sam ruch najpierw na puli
+// wątków systemowych Tomcata, potem na wątkach wirtualnych (spring.threads.virtual.enabled) z ogranicznikiem połączeń;
+// każdy tryb na osobnej bazie H2 w pamięci zasilonej tym samym katalogiem
+//
+// --clients=5000 --warmup=PT15S --duration=PT30S
+// --response-delay=PT0.2S   (wątek żądania zajęty po obsłudze - wolny odbiór odpowiedzi)
+// --db-delay=PT0.002S   (opóźnienie każdej instrukcji SQL)
+// --tomcat-threads=200 --mix=... --books=... --users=... --reviews=...   (jak w LoadDriver)
+public class ThreadModeComparison {
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = Arguments.parse(args);
+        SyntheticCatalog.Spec spec = arguments.catalogSpec();
+        int clients = arguments.getInt("clients", 5000);
+        Duration warmup = arguments.getDuration("warmup", Duration.ofSeconds(15));
+        Duration duration = arguments.getDuration("duration", Duration.ofSeconds(30));
+        LoadDriver.Mix mix = LoadDriver.Mix.parse(arguments.getString("mix", "books:30,book:40,search:20,shelf:10"));
+        List<String> common = List.of(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + arguments.getInt("tomcat-threads", 200),
+                // kolejka połączeń czekających na accept - wszyscy klienci łączą się naraz
+                "--server.tomcat.accept-count=" + clients,
+                "--bench.response-delay=" + arguments.getDuration("response-delay", Duration.ofMillis(200)),
+                "--bench.db-delay=" + arguments.getDuration("db-delay", Duration.ofMillis(2)));
+
+        Map<String, LatencyRecorder> totals = new LinkedHashMap<>();
+        for (String mode : List.of("platform", "virtual")) {
+            String[] overrides = concat(common,
+                    "--spring.datasource.url=jdbc:h2:mem:bench-" + mode,
+                    "--spring.threads.virtual.enabled=" + mode.equals("virtual"));
+            try (ConfigurableApplicationContext context = CommunityContext.start(WebApplicationType.SERVLET,
+                    List.of(SlowClientSimulation.class), overrides)) {
+                System.out.printf("[%s] Zasilanie bazy: %s%n", mode, spec);
+                SyntheticCatalog catalog = CommunityContext.seed(context, spec);
+                LoadDriver driver = LoadDriver.forContext(context, catalog, spec, mix);
+
+                System.out.printf("[%s] Rozgrzewka %ds, %d klientów%n", mode, warmup.toSeconds(), clients);
+                driver.run(clients, warmup);
+                System.out.printf("[%s] Pomiar %ds, %d klientów%n", mode, duration.toSeconds(), clients);
+                Map<String, LatencyRecorder> results = driver.run(clients, duration);
+                LoadDriver.report(results, duration);
+
+                LatencyRecorder total = new LatencyRecorder();
+                results.values().forEach(total::merge);
+                totals.put(mode, total);
+            }
+        }
+
+        double seconds = duration.toMillis() / 1000.0;
+        System.out.printf("%n%-10s %10s %8s %10s %10s %10s%n", "Tryb", "Żądania", "Błędy", "req/s", "p50 ms", "p99 ms");
+        totals.forEach((mode, total) -> System.out.printf("%-10s %10d %8d %10.1f %10.2f %10.2f%n", mode, total.count(),
+                total.errors(), total.count() / seconds, total.percentileMillis(50), total.percentileMillis(99)));
+    }
+
+    private static String[] concat(List<String> common, String... extra) {
+        String[] all = common.toArray(new String[common.size() + extra.length]);
+        System.arraycopy(extra, 0, all, common.size(), extra.length);
+        return all;
+    }
+}
@@ -0,0 +1,63 @@
+package com.booklovers.community.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.booklovers.community.model.User;
+import com.booklovers.community.service.UserService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+    private UserService userService;
+    private User[] users;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        userService = catalog.bean(UserService.class);
+        users = new User[catalog.users];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = userService.findByUsername(SyntheticCatalog.username(i));
+        }
+    }
+
+    // backup profilu (półki + recenzje) strumieniowany do wyjścia, które tylko liczy bajty
+    @Benchmark
+    public void writeProfileBackup(CatalogState catalog, Blackhole blackhole) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        userService.writeProfileBackup(users[catalog.randomUser()], out);
+        blackhole.consume(out.count);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
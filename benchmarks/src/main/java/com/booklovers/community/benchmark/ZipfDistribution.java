@@ -0,0 +1,49 @@
+package com.booklovers.community.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// rozkład Zipfa po n elementach: element o randze r (od 1) losowany z wagą 1 / r^s;
+// rangi przypisane do indeksów przez deterministyczną permutację, więc popularne nie są kolejnymi id
+public class ZipfDistribution {
+    private final double[] cumulative;
+    private final int[] indexByRank;
+
+    public ZipfDistribution(int n, double exponent, long seed) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Rozkład wymaga co najmniej jednego elementu");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+
+        indexByRank = new int[n];
+        Arrays.setAll(indexByRank, i -> i);
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = indexByRank[i];
+            indexByRank[i] = indexByRank[j];
+            indexByRank[j] = tmp;
+        }
+    }
+
+    // indeks elementu (0..n-1)
+    public int sample(Random random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (rank < 0) {
+            rank = Math.min(-rank - 1, cumulative.length - 1);
+        }
+        return indexByRank[rank];
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+}
@@ -0,0 +1,59 @@
+package com.booklovers.community.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.booklovers.community.metrics.QueryCounter;
+
+import lombok.extern.slf4j.Slf4j;
+
+// osobna pula dla długich zadań w tle (import profilu), żeby nie zajmowały wątków servletów
+// ani domyślnego applicationTaskExecutor (spring.task.execution.mode=force w application.yml)
+@Slf4j
+@Configuration
+public class AsyncConfig {
+    public static final String PROFILE_IMPORT_EXECUTOR = "profileImportExecutor";
+    public static final String PAGE_QUERY_EXECUTOR = "pageQueryExecutor";
+
+    @Bean(name = PROFILE_IMPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor profileImportExecutor(
+            @Value("${booklovers.import.threads:2}") int threads,
+            @Value("${booklovers.import.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("profile-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // równoległe odczyty stron (PageViewService); bez kolejki - gdy wszystkie wątki są zajęte, odczyt wykonuje
+    // wątek żądania (strona wolniejsza, ale bez czekania w kolejce i bez odrzucenia);
+    // zapytania z puli liczą się do pomiaru żądania, które je zleciło (QueryCounter.propagate);
+    // każdy wątek trzyma w czasie odczytu jedno połączenie - pula wątków większa niż połowa puli Hikari
+    // zostawia za mało połączeń wątkom żądań
+    @Bean(name = PAGE_QUERY_EXECUTOR)
+    public ThreadPoolTaskExecutor pageQueryExecutor(
+            @Value("${booklovers.page-queries.threads:4}") int threads,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+            QueryCounter queryCounter) {
+        if (threads > connectionPoolSize / 2) {
+            log.warn("booklovers.page-queries.threads={} przekracza połowę puli połączeń ({}) - wątki żądań będą czekać na połączenia",
+                    threads, connectionPoolSize);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(0);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(queryCounter::propagate);
+        executor.setThreadNamePrefix("page-query-");
+        return executor;
+    }
+}
@@ -0,0 +1,57 @@
+package com.booklovers.community.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.booklovers.community.metrics.QueryCounter;
+import com.booklovers.community.metrics.QueryCountingDataSource;
+import com.booklovers.community.metrics.QueryGuard;
+import com.booklovers.community.metrics.RequestQueryMetricsFilter;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// metryki gorących ścieżek (Prometheus: /actuator/prometheus):
+// - @Timed na serwisach i DAO (booklovers.service / booklovers.dao, tagi class i method)
+// - liczba zapytań SQL na żądanie (booklovers.http.queries) i strażnik N+1 / budżetów zapytań (QueryGuard)
+// reszta z autokonfiguracji: http.server.requests, spring.data.repository.invocations, hikaricp.*, hibernate.*, cache.*
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // statyczny - post-processor musi powstać przed DataSource; licznik pobierany dopiero przy opakowaniu
+    @Bean
+    public static BeanPostProcessor queryCountingPostProcessor(ObjectProvider<QueryCounter> queryCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource, queryCounter.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    // filtr rejestrowany tutaj, a nie jako @Component - testy @WebMvcTest nie mają MeterRegistry
+    @Bean
+    public FilterRegistrationBean<RequestQueryMetricsFilter> requestQueryMetricsFilter(QueryCounter queryCounter,
+                                                                                        QueryGuard queryGuard,
+                                                                                        MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestQueryMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestQueryMetricsFilter(queryCounter, queryGuard, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
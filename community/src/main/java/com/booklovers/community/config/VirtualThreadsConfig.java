@@ -0,0 +1,73 @@
+package com.booklovers.community.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// tryb wątków wirtualnych (spring.threads.virtual.enabled=true): Tomcat, @Async i @Scheduled na wątkach wirtualnych,
+// a DataSource za ogranicznikiem równoczesnych połączeń (booklovers.datasource.limiter)
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    // statyczny - post-processor musi powstać przed DataSource
+    @Bean
+    public static BeanPostProcessor connectionLimiterPostProcessor(
+            @Value("${booklovers.datasource.limiter.max-concurrent:0}") int maxConcurrent,
+            @Value("${booklovers.datasource.limiter.acquire-timeout:PT5S}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    // 0 = tyle, ile połączeń ma pula Hikari - nadmiar czeka na semaforze, a nie w puli
+                    int limit = maxConcurrent > 0 ? maxConcurrent : poolSize(dataSource);
+                    return new ConnectionLimitingDataSource(dataSource, limit, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            // nieznana pula - domyślny rozmiar Hikari
+        }
+        return 10;
+    }
+
+    @Bean
+    public MeterBinder connectionLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionLimitingDataSource limiter;
+            try {
+                limiter = dataSource.unwrap(ConnectionLimitingDataSource.class);
+            } catch (Exception e) {
+                return;
+            }
+            Gauge.builder("booklovers.datasource.limiter.waiting", limiter, ConnectionLimitingDataSource::getWaitingThreads)
+                    .description("Wątki czekające na połączenie z bazą")
+                    .register(registry);
+            Gauge.builder("booklovers.datasource.limiter.available", limiter, ConnectionLimitingDataSource::getAvailablePermits)
+                    .description("Wolne miejsca w limicie połączeń")
+                    .register(registry);
+        };
+    }
+}
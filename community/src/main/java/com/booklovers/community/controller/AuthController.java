@@ -0,0 +1,85 @@
+package com.booklovers.community.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.booklovers.community.dto.RefreshTokenRequest;
+import com.booklovers.community.dto.TokenRequest;
+import com.booklovers.community.dto.TokenResponse;
+import com.booklovers.community.dto.UserRegisterDto;
+import com.booklovers.community.model.User;
+import com.booklovers.community.security.TokenRevocationService;
+import com.booklovers.community.security.TokenService;
+import com.booklovers.community.service.UserService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+@RequiredArgsConstructor
+@Tag(name = "Uwierzytelnianie", description = "Rejestracja i tokeny dostępowe API")
+public class AuthController {
+
+    private final UserService userService;
+    private final AuthenticationManager authenticationManager;
+    private final UserDetailsService userDetailsService;
+    private final TokenService tokenService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Operation(summary = "Rejestracja użytkownika")
+    @PostMapping("/register")
+    public ResponseEntity<String> register(@Valid @RequestBody UserRegisterDto userDto) {
+        User user = userService.registerUser(userDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body("Użytkownik zarejestrowany pomyślnie. ID: " + user.getId());
+    }
+
+    @Operation(summary = "Wydanie tokenów", description = "Jednorazowa weryfikacja hasła; kolejne żądania z nagłówkiem Authorization: Bearer.")
+    @PostMapping("/token")
+    public ResponseEntity<TokenResponse> token(@Valid @RequestBody TokenRequest request) {
+        Authentication authentication = authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword()));
+        return ResponseEntity.ok(toResponse(tokenService.issue(authentication.getName(), authentication.getAuthorities())));
+    }
+
+    @Operation(summary = "Odświeżenie tokenów", description = "Stary refresh token jest odwoływany (rotacja); ponowne użycie jest odrzucane.")
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        TokenService.TokenClaims claims = tokenService.verify(request.getToken(), TokenService.REFRESH);
+        // aktualne role i stan konta z bazy - odświeżenie jest rzadkie, więc to jedyne miejsce z zapytaniem
+        UserDetails user = userDetailsService.loadUserByUsername(claims.sub());
+        if (!user.isEnabled()) {
+            throw new DisabledException("Konto jest zablokowane");
+        }
+        tokenRevocationService.consumeRefreshToken(claims);
+        return ResponseEntity.ok(toResponse(tokenService.issue(user.getUsername(), user.getAuthorities())));
+    }
+
+    @Operation(summary = "Odwołanie tokenu")
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revoke(@Valid @RequestBody RefreshTokenRequest request) {
+        tokenRevocationService.revokeToken(request.getToken());
+        return ResponseEntity.noContent().build();
+    }
+
+    private TokenResponse toResponse(TokenService.TokenPair pair) {
+        return TokenResponse.builder()
+                .accessToken(pair.accessToken())
+                .refreshToken(pair.refreshToken())
+                .tokenType("Bearer")
+                .expiresIn(pair.expiresIn())
+                .build();
+    }
+}
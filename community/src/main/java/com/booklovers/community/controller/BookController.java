@@ -17,9 +17,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookSlice;
 import com.booklovers.community.dto.RatingStatDto;
+import com.booklovers.community.metrics.QueryBudget;
 import com.booklovers.community.model.Book;
 import com.booklovers.community.repository.BookRepository;
+import com.booklovers.community.service.BookCursor.BookSort;
 import com.booklovers.community.service.BookService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -37,24 +40,41 @@ public class BookController {
 
     @Operation(summary = "Pobierz listę książek", description = "Zwraca paginowaną listę wszystkich książek.")
     @GetMapping
+    @QueryBudget(2)
     public ResponseEntity<org.springframework.data.domain.Page<BookDto>> getAllBooks(Pageable pageable) {
         return ResponseEntity.ok(bookService.getAllBooks(pageable));
     }
 
+    @Operation(summary = "Przewijanie listy książek kursorem",
+               description = "Stronicowanie bez OFFSET: nextCursor/previousCursor z odpowiedzi wskazują sąsiednie strony. "
+                       + "Z parametrem query - wyniki wyszukiwania po trafności. approximateTotal tylko dla withTotal=true.")
+    @GetMapping("/scroll")
+    @QueryBudget(2)
+    public ResponseEntity<BookSlice> scrollBooks(@RequestParam(required = false) String query,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20") int size,
+                                                 @RequestParam(defaultValue = "ID") BookSort sort,
+                                                 @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(bookService.scrollBooks(query, cursor, size, sort, withTotal));
+    }
+
     @Operation(summary = "Szczegóły książki", description = "Pobiera informacje o książce na podstawie ID.")
     @GetMapping("/search")
+    @QueryBudget(2)
     public ResponseEntity<Page<BookDto>> searchBooks(@RequestParam String query, Pageable pageable) {
         return ResponseEntity.ok(bookService.searchBooks(query, pageable));
     }
 
     @Operation(summary = "Wyszukiwanie książek", description = "Szuka książek po tytule, autorze lub ISBN.")
     @GetMapping("/{id}")
+    @QueryBudget(3)
     public ResponseEntity<BookDto> getBookById(@PathVariable Long id) {
         return ResponseEntity.ok(bookService.getBookById(id));
     }
 
     @Operation(summary = "Statystyki ocen", description = "Zwraca histogram ocen dla danej książki (dane z JdbcTemplate).")
     @GetMapping("/{id}/stats")
+    @QueryBudget(3)
     public ResponseEntity<List<RatingStatDto>> getBookStats(@PathVariable Long id) {
         List<RatingStatDto> stats = bookService.getBookRatingStats(id);
         if (stats == null || stats.isEmpty()) {
@@ -0,0 +1,30 @@
+package com.booklovers.community.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.booklovers.community.dto.CacheStatsDto;
+import com.booklovers.community.service.BookCache;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/admin/cache")
+@RequiredArgsConstructor
+@Tag(name = "Cache", description = "Statystyki cache (Admin)")
+public class CacheController {
+
+    private final BookCache bookCache;
+
+    @Operation(summary = "Statystyki cache", description = "Rozmiar, trafienia, chybienia i eksmisje dla każdego cache.")
+    @GetMapping
+    public ResponseEntity<List<CacheStatsDto>> getCacheStatistics() {
+        return ResponseEntity.ok(bookCache.getStatistics());
+    }
+}
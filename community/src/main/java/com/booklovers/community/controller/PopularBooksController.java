@@ -0,0 +1,30 @@
+package com.booklovers.community.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.service.PopularBooksService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/admin/popular-books")
+@RequiredArgsConstructor
+@Tag(name = "Popular Books", description = "Ranking najpopularniejszych książek (Admin)")
+public class PopularBooksController {
+
+    private final PopularBooksService popularBooksService;
+
+    @Operation(summary = "Odśwież ranking", description = "Przelicza ranking od razu, bez czekania na zadanie cykliczne.")
+    @PostMapping("/refresh")
+    public ResponseEntity<List<BookDto>> refreshRanking() {
+        return ResponseEntity.ok(popularBooksService.refresh());
+    }
+}
@@ -0,0 +1,68 @@
+package com.booklovers.community.controller;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.booklovers.community.model.User;
+import com.booklovers.community.service.UserService;
+
+// wspólna odpowiedź z backupem profilu dla API i widoków (strumień JSON, opcjonalnie gzip);
+// strumień działa jako żądanie asynchroniczne - czas pobierania ogranicza spring.mvc.async.request-timeout
+final class ProfileBackupResponses {
+
+    private ProfileBackupResponses() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> backup(UserService userService, String username, String acceptEncoding) {
+        // użytkownika szukamy przed startem strumienia, żeby brak konta dał zwykłą odpowiedź błędu
+        User user = userService.findByUsername(username);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                try (OutputStream gzipStream = new GZIPOutputStream(outputStream)) {
+                    userService.writeProfileBackup(user, gzipStream);
+                }
+            } else {
+                userService.writeProfileBackup(user, outputStream);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"backup_" + username + ".json\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // "gzip" na liście Accept-Encoding, chyba że klient wprost go wyklucza (q=0)
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(String::trim)
+                .anyMatch(coding -> {
+                    String[] parts = coding.split(";");
+                    if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                        return false;
+                    }
+                    for (int i = 1; i < parts.length; i++) {
+                        String param = parts[i].trim().replace(" ", "");
+                        if (param.matches("q=0(\\.0*)?")) {
+                            return false;
+                        }
+                    }
+                    return true;
+                });
+    }
+}
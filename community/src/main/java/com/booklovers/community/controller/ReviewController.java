@@ -1,8 +1,11 @@
 package com.booklovers.community.controller;
 
-import java.util.List;
-
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,11 +13,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.booklovers.community.dto.CreateReviewRequest;
-import com.booklovers.community.model.Review;
+import com.booklovers.community.dto.ReviewFeedItemDto;
+import com.booklovers.community.dto.ReviewFilter;
+import com.booklovers.community.dto.ReviewModerationDto;
+import com.booklovers.community.metrics.QueryBudget;
 import com.booklovers.community.service.ReviewService;
+import com.booklovers.community.service.ReviewService.FeedSort;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -29,10 +38,15 @@ public class ReviewController {
 
     private final ReviewService reviewService;
 
-    @Operation(summary = "Pobierz recenzje dla książki")
+    @Operation(summary = "Pobierz recenzje dla książki",
+            description = "Stronicowane (max 50 na stronę); sort: NEWEST (domyślnie) lub HELPFUL")
     @GetMapping("/books/{bookId}/reviews")
-    public ResponseEntity<List<Review>> getReviewsForBook(@PathVariable Long bookId) {
-        return ResponseEntity.ok(reviewService.getReviewsForBook(bookId));
+    @QueryBudget(2)
+    public ResponseEntity<Slice<ReviewFeedItemDto>> getReviewsForBook(@PathVariable Long bookId,
+                                                                      @RequestParam(defaultValue = "NEWEST") FeedSort sort,
+                                                                      @RequestParam(defaultValue = "0") int page,
+                                                                      @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(reviewService.getReviewFeed(bookId, sort, page, size));
     }
 
     @Operation(summary = "Dodaj recenzję do książki", description = "Wymaga bycia zalogowanym (Bearer Token lub Sesja)")
@@ -45,10 +59,21 @@ public class ReviewController {
         return ResponseEntity.status(HttpStatus.CREATED).body("Recenzja została dodana");
     }
 
-    @Operation(summary = "Pobierz wszystkie recenzje (Admin)")
+    @Operation(summary = "Pobierz recenzje do moderacji (Admin)",
+            description = "Stronicowane, od najnowszych; filtry: bookId, username, minRating, maxRating, from, to (yyyy-MM-dd)")
     @GetMapping("/admin/reviews")
-    public ResponseEntity<List<Review>> getAllReviews() {
-        return ResponseEntity.ok(reviewService.getAllReviews());
+    public ResponseEntity<Page<ReviewModerationDto>> getReviewsForModeration(ReviewFilter filter,
+                                                                             @PageableDefault(size = 50) Pageable pageable) {
+        return ResponseEntity.ok(reviewService.getReviewsForModeration(filter, pageable));
+    }
+
+    @Operation(summary = "Eksportuj recenzje do moderacji jako NDJSON (Admin)", description = "Te same filtry co lista, bez stronicowania")
+    @GetMapping(value = "/admin/reviews/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportReviewsForModeration(ReviewFilter filter) {
+        StreamingResponseBody body = outputStream -> reviewService.exportReviewsForModeration(filter, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     @Operation(summary = "Usuń recenzję (Admin)")
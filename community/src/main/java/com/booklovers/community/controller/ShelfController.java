@@ -8,15 +8,19 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.booklovers.community.dto.ShelfBatchRequest;
+import com.booklovers.community.metrics.QueryBudget;
 import com.booklovers.community.model.Shelf;
 import com.booklovers.community.service.ShelfService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -29,8 +33,9 @@ public class ShelfController {
     
     @Operation(summary = "Pobierz półki zalogowanego użytkownika")
     @GetMapping
+    @QueryBudget(3)
     public ResponseEntity<List<Shelf>> getUserShelves(java.security.Principal principal) {
-        return ResponseEntity.ok(shelfService.getUserShelves(principal.getName()));
+        return ResponseEntity.ok(shelfService.getUserShelvesWithBooks(principal.getName()));
     }
 
     @Operation(summary = "Utwórz nową półkę")
@@ -47,6 +52,7 @@ public class ShelfController {
 
     @Operation(summary = "Dodaj książkę do półki")
     @PostMapping("/{shelfId}/books")
+    @QueryBudget(6)
     public ResponseEntity<?> addBookToShelf(@PathVariable Long shelfId,
                                             @RequestParam Long bookId,
                                             java.security.Principal principal) {
@@ -60,6 +66,7 @@ public class ShelfController {
 
     @Operation(summary = "Usuń książkę z półki")
     @DeleteMapping("/{shelfId}/books/{bookId}")
+    @QueryBudget(5)
     public ResponseEntity<?> removeBookFromShelf(@PathVariable Long shelfId,
                                                  @PathVariable Long bookId,
                                                  java.security.Principal principal) {
@@ -84,4 +91,17 @@ public class ShelfController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Operacja zbiorcza na książkach półki",
+               description = "ADD / REMOVE / MOVE (z targetShelfId) dla wielu książek w jednej transakcji; wynik dla każdej pozycji.")
+    @PostMapping("/{shelfId}/books:batch")
+    public ResponseEntity<?> applyBatch(@PathVariable Long shelfId,
+                                        @Valid @RequestBody ShelfBatchRequest request,
+                                        java.security.Principal principal) {
+        try {
+            return ResponseEntity.ok(shelfService.applyBatch(shelfId, request, principal.getName()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.booklovers.community.controller;
 
+import java.net.URI;
+import java.time.LocalDate;
+
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -10,12 +13,18 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.booklovers.community.dto.ImportJobDto;
 import com.booklovers.community.dto.UserRegisterDto;
+import com.booklovers.community.dto.YearInReviewDto;
+import com.booklovers.community.service.ProfileImportService;
+import com.booklovers.community.service.ReadingStatsService;
 import com.booklovers.community.service.UserService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -30,6 +39,8 @@ import lombok.RequiredArgsConstructor;
 public class UserController {
 
     private final UserService userService;
+    private final ProfileImportService profileImportService;
+    private final ReadingStatsService readingStatsService;
 
     @Operation(summary = "Rejestracja użytkownika")
     @PostMapping("/register")
@@ -51,18 +62,13 @@ public class UserController {
 
     @Operation(summary = "Pobierz backup profilu (JSON)")
     @GetMapping("/profile/export")
-    public ResponseEntity<byte[]> exportProfile(java.security.Principal principal) {
-        String username = principal.getName();
-        byte[] fileContent = userService.generateProfileBackup(username);
-        String filename = "backup_" + username + ".json";
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(fileContent);
+    public ResponseEntity<StreamingResponseBody> exportProfile(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            java.security.Principal principal) {
+        return ProfileBackupResponses.backup(userService, principal.getName(), acceptEncoding);
     }
 
-    @Operation(summary = "Importuj profil z backupu")
+    @Operation(summary = "Importuj profil z backupu", description = "Import działa w tle; stan zadania pod adresem z nagłówka Location.")
     @PostMapping(value = "/profile/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> importProfile(@RequestParam("file") MultipartFile file,
                                            java.security.Principal principal) {
@@ -70,13 +76,29 @@ public class UserController {
             return ResponseEntity.badRequest().body("Plik jest pusty");
         }
         try {
-            userService.importProfile(principal.getName(), file);
-            return ResponseEntity.ok("Profil zaimportowany pomyślnie");
+            ImportJobDto job = profileImportService.submit(principal.getName(), file);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/users/profile/import/" + job.getId()))
+                    .body(job);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Błąd importu: " + e.getMessage());
         }
     }
 
+    @Operation(summary = "Stan zadania importu profilu")
+    @GetMapping("/profile/import/{jobId}")
+    public ResponseEntity<ImportJobDto> getImportStatus(@PathVariable String jobId, java.security.Principal principal) {
+        return ResponseEntity.ok(profileImportService.getJob(jobId, principal.getName()));
+    }
+
+    @Operation(summary = "Podsumowanie roku czytelnika", description = "Książki i średnia ocen w każdym miesiącu; domyślnie bieżący rok")
+    @GetMapping("/profile/year-in-review")
+    public ResponseEntity<YearInReviewDto> getYearInReview(@RequestParam(required = false) Integer year,
+                                                           java.security.Principal principal) {
+        int selectedYear = year != null ? year : LocalDate.now().getYear();
+        return ResponseEntity.ok(readingStatsService.getYearInReview(principal.getName(), selectedYear));
+    }
+
     @Operation(summary = "Zablokuj/Odblokuj użytkownika")
     @PatchMapping("/{id}/toggle-block")
     public ResponseEntity<?> toggleUserBlock(@PathVariable Long id) {
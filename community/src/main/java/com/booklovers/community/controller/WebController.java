@@ -1,8 +1,5 @@
 package com.booklovers.community.controller;
 
-import java.util.List;
-
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
@@ -15,19 +12,28 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookDetailsView;
+import com.booklovers.community.dto.BookSlice;
+import com.booklovers.community.dto.ImportJobDto;
+import com.booklovers.community.dto.ProfileView;
+import com.booklovers.community.dto.ReviewFilter;
 import com.booklovers.community.dto.UserRegisterDto;
+import com.booklovers.community.metrics.QueryBudget;
 import com.booklovers.community.model.Author;
 import com.booklovers.community.model.Book;
-import com.booklovers.community.model.Shelf;
-import com.booklovers.community.model.User;
 import com.booklovers.community.repository.AuthorRepository;
 import com.booklovers.community.service.AuthorService;
+import com.booklovers.community.service.BookCursor.BookSort;
 import com.booklovers.community.service.BookService;
+import com.booklovers.community.service.PageViewService;
+import com.booklovers.community.service.ProfileImportService;
 import com.booklovers.community.service.ReviewService;
+import com.booklovers.community.service.ReviewService.FeedSort;
 import com.booklovers.community.service.ShelfService;
 import com.booklovers.community.service.UserService;
 
@@ -37,15 +43,21 @@ import lombok.RequiredArgsConstructor;
 @Controller
 @RequiredArgsConstructor
 public class WebController {
+    private static final int ADMIN_REVIEWS_PAGE_SIZE = 50;
+    private static final int BOOK_REVIEWS_PAGE_SIZE = 20;
+
     private final BookService bookService;
     private final UserService userService;
     private final ShelfService shelfService;
     private final ReviewService reviewService;
     private final AuthorService authorService;
     private final AuthorRepository authorRepository;
+    private final ProfileImportService profileImportService;
+    private final PageViewService pageViewService;
 
     // strona główna
     @GetMapping("/")
+    @QueryBudget(2)
     public String home(Model model) {
         model.addAttribute("popularBooks", bookService.getMostPopularBooks());
         return "index";
@@ -81,41 +93,40 @@ public class WebController {
         return "login";
     }
 
-    // lista książek
+    // lista książek - stronicowanie kursorem (koszt strony nie rośnie z jej numerem)
     @GetMapping("/books")
+    @QueryBudget(3)
     public String listBooks(
             @RequestParam(defaultValue = "") String query, 
-            @RequestParam(defaultValue = "0") int page,   
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size,  
             Model model) {
 
-        PageRequest pageable = PageRequest.of(page, size);
-        
-        Page<?> bookPage;
-
-        if (query == null || query.isBlank()) {
-            bookPage = bookService.getAllBooks(pageable);
-        } else {
-            bookPage = bookService.searchBooks(query, pageable);
-        }
+        BookSlice books = bookService.scrollBooks(query, cursor, size, BookSort.ID, true);
 
-        model.addAttribute("books", bookPage);
+        model.addAttribute("books", books);
         model.addAttribute("query", query); 
 
         return "books";
     }
 
-    // szczegóły książki
+    // szczegóły książki - odczyty równolegle (PageViewService)
     @GetMapping("/books/{id}")
-    public String bookDetails(@PathVariable Long id, Model model, java.security.Principal principal) {
-        BookDto book = bookService.getBookById(id);
-        model.addAttribute("book", book);
-
-        model.addAttribute("reviews", reviewService.getReviewsForBook(id));
-        model.addAttribute("stats", bookService.getBookStatistics(id));
+    @QueryBudget(8)
+    public String bookDetails(@PathVariable Long id,
+                              @RequestParam(defaultValue = "NEWEST") FeedSort reviewSort,
+                              @RequestParam(defaultValue = "0") int reviewPage,
+                              Model model, java.security.Principal principal) {
+        BookDetailsView page = pageViewService.getBookDetails(id, reviewSort, reviewPage, BOOK_REVIEWS_PAGE_SIZE,
+                principal != null ? principal.getName() : null);
+        model.addAttribute("book", page.getBook());
+
+        model.addAttribute("reviews", page.getReviews());
+        model.addAttribute("reviewSort", reviewSort);
+        model.addAttribute("stats", page.getStats());
 
         if (principal != null) {
-            model.addAttribute("userShelves", shelfService.getUserShelves(principal.getName()));
+            model.addAttribute("userShelves", page.getUserShelves());
         }
 
         return "book-details";
@@ -140,26 +151,20 @@ public class WebController {
         return "redirect:/books/" + id + "?added";
     }
 
-    // wyświetlanie profilu
+    // wyświetlanie profilu - odczyty równolegle (PageViewService)
     @GetMapping("/profile")
+    @QueryBudget(5)
     public String profile(Model model, java.security.Principal principal) {
-        String username = principal.getName();
-        User user = userService.findByUsername(username);
-        List<Shelf> shelves = shelfService.getUserShelves(username);
-        
-        int readCount = shelfService.getBooksReadCount(username);
-        int challengeTarget = 52;
-        
-        int progressPercent = (challengeTarget > 0) ? (int)((double)readCount / challengeTarget * 100) : 0;
-        if (progressPercent > 100) progressPercent = 100;
+        int currentYear = java.time.Year.now().getValue();
+        ProfileView page = pageViewService.getProfile(principal.getName(), currentYear);
 
-        model.addAttribute("user", user);
-        model.addAttribute("shelves", shelves);
+        model.addAttribute("user", page.getUser());
+        model.addAttribute("shelves", page.getShelves());
         
-        model.addAttribute("booksReadYear", readCount);
-        model.addAttribute("challengeTarget", challengeTarget);
-        model.addAttribute("challengeProgress", progressPercent);
-        model.addAttribute("currentYear", java.time.Year.now().getValue());
+        model.addAttribute("booksReadYear", page.getChallenge().getBooksRead());
+        model.addAttribute("challengeTarget", page.getChallenge().getTarget());
+        model.addAttribute("challengeProgress", page.getChallenge().getProgressPercent());
+        model.addAttribute("currentYear", currentYear);
 
         return "profile";
     }
@@ -175,16 +180,10 @@ public class WebController {
     }
 
     @GetMapping("/profile/export")
-    public ResponseEntity<byte[]> exportProfile(java.security.Principal principal) {
-        String username = principal.getName();
-        byte[] fileContent = userService.generateProfileBackup(username);
-
-        String filename = "backup_" + username + ".json";
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(fileContent);
+    public ResponseEntity<StreamingResponseBody> exportProfile(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            java.security.Principal principal) {
+        return ProfileBackupResponses.backup(userService, principal.getName(), acceptEncoding);
     }
 
     @PostMapping("/profile/shelves/create")
@@ -223,8 +222,8 @@ public class WebController {
             if (file.isEmpty()) {
                 throw new RuntimeException("Nie wybrano pliku.");
             }
-            userService.importProfile(principal.getName(), file);
-            return "redirect:/profile?imported=true";
+            ImportJobDto job = profileImportService.submit(principal.getName(), file);
+            return "redirect:/profile?importJob=" + job.getId();
         } catch (Exception e) {
             return "redirect:/profile?error=" + java.net.URLEncoder.encode(e.getMessage(), java.nio.charset.StandardCharsets.UTF_8);
         }
@@ -331,8 +330,11 @@ public class WebController {
 
     // recenzje
     @GetMapping("/admin/reviews")
-    public String manageReviews(Model model) {
-        model.addAttribute("reviews", reviewService.getAllReviews());
+    public String manageReviews(@ModelAttribute("filter") ReviewFilter filter,
+                                @RequestParam(defaultValue = "0") int page,
+                                Model model) {
+        model.addAttribute("reviews",
+                reviewService.getReviewsForModeration(filter, PageRequest.of(Math.max(page, 0), ADMIN_REVIEWS_PAGE_SIZE)));
         return "admin/reviews";
     }
 
@@ -345,13 +347,13 @@ public class WebController {
 
     // export listy książek do CSV
     @GetMapping("/admin/books/export")
-    public ResponseEntity<byte[]> exportBooks() {
-        byte[] csvData = bookService.exportBooksToCsv();
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
         String fileName = "ksiazki_export_" + System.currentTimeMillis() + ".csv";
+        StreamingResponseBody body = bookService::exportBooksToCsv;
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
                 .contentType(MediaType.parseMediaType("text/csv"))
-                .body(csvData);
+                .body(body);
     }
 
     // usuwanie użytkownika
@@ -0,0 +1,48 @@
+package com.booklovers.community.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.booklovers.community.dto.BookExportRow;
+
+@Repository
+public class BookExportDao {
+    // wiersze pobierane z bazy porcjami, niezależnie od rozmiaru katalogu
+    public static final int EXPORT_FETCH_SIZE = 500;
+
+    // jedno zapytanie: książka + autor + gotowy agregat ocen (bez GROUP BY, więc baza oddaje wiersze od razu)
+    private static final String EXPORT_SQL = "SELECT b.id, b.title, a.first_name, a.last_name, b.isbn, "
+            + "s.rating_sum, s.rating_count "
+            + "FROM books b JOIN authors a ON a.id = b.author_id "
+            + "LEFT JOIN book_rating_summary s ON s.book_id = b.id "
+            + "ORDER BY b.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookExportDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // kursor tylko do przodu; na PostgreSQL fetch size działa tylko w transakcji (autocommit wyłączony)
+    public void forEachBookExportRow(Consumer<BookExportRow> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            long ratingCount = rs.getLong("rating_count");
+            double averageRating = ratingCount > 0 ? (double) rs.getLong("rating_sum") / ratingCount : 0.0;
+            consumer.accept(new BookExportRow(
+                    rs.getLong("id"),
+                    rs.getString("title"),
+                    rs.getString("first_name") + " " + rs.getString("last_name"),
+                    rs.getString("isbn"),
+                    averageRating));
+        });
+    }
+}
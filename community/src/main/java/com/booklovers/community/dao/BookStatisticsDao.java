@@ -2,20 +2,35 @@ package com.booklovers.community.dao;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import com.booklovers.community.dto.RatingStatDto;
+import com.booklovers.community.model.BookRatingSummary;
+import com.booklovers.community.model.UserReadingMonth;
+import com.booklovers.community.model.UserReadingMonthId;
+
+import io.micrometer.core.annotation.Timed;
 
 @Repository
+@Timed(value = "booklovers.dao", description = "Czas zapytań JDBC")
 public class BookStatisticsDao {
     private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
 
     public BookStatisticsDao(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        this.postgres = Databases.isPostgres(jdbcTemplate);
     }
 
     public List<RatingStatDto> getRatingDistribution(Long bookId) {
@@ -31,9 +46,12 @@ public class BookStatisticsDao {
         }, bookId);
     }
 
+    // zakres [1 stycznia, 1 stycznia następnego roku) zamiast EXTRACT(YEAR ...) - korzysta z indeksu (user_id, created_at)
     public Integer countBooksReadInYear(Long userId, int year) {
-        String sql = "SELECT COUNT(*) FROM reviews WHERE user_id = ? AND EXTRACT(YEAR FROM created_at) = ?";
-        return jdbcTemplate.queryForObject(sql, Integer.class, userId, year);
+        String sql = "SELECT COUNT(*) FROM reviews WHERE user_id = ? AND created_at >= ? AND created_at < ?";
+        return jdbcTemplate.queryForObject(sql, Integer.class, userId,
+                Timestamp.valueOf(LocalDate.of(year, 1, 1).atStartOfDay()),
+                Timestamp.valueOf(LocalDate.of(year + 1, 1, 1).atStartOfDay()));
     }
 
     public void updateBookDescriptionRaw(Long bookId, String newDescription) {
@@ -48,4 +66,152 @@ public class BookStatisticsDao {
         String sql = "DELETE FROM reviews WHERE user_id = ?";
         jdbcTemplate.update(sql, userId);
     }
+
+    // przyrostowa aktualizacja agregatu ocen (delta = +1 przy dodaniu, -1 przy usunięciu recenzji)
+    public void applyRatingDelta(Long bookId, int rating, int delta) {
+        if (rating < BookRatingSummary.MIN_RATING || rating > BookRatingSummary.MAX_RATING) {
+            throw new IllegalArgumentException("Ocena poza zakresem: " + rating);
+        }
+        // nazwa kolumny budowana z liczby z zakresu 1-10, więc nie ma ryzyka SQL injection
+        String starsColumn = "stars_" + rating;
+        String updateSql = "UPDATE book_rating_summary SET rating_sum = rating_sum + ?, rating_count = rating_count + ?, "
+                + starsColumn + " = " + starsColumn + " + ? WHERE book_id = ?";
+
+        int rowsAffected = jdbcTemplate.update(updateSql, (long) rating * delta, delta, delta, bookId);
+        if (rowsAffected > 0 || delta < 0) {
+            return;
+        }
+
+        // pierwsza ocena książki, której nie objęła jeszcze odbudowa - tworzymy pusty wiersz i powtarzamy UPDATE
+        insertIfAbsent("INSERT INTO book_rating_summary (book_id, rating_sum, rating_count, "
+                + "stars_1, stars_2, stars_3, stars_4, stars_5, stars_6, stars_7, stars_8, stars_9, stars_10) "
+                + "SELECT ?, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 FROM books b WHERE b.id = ? "
+                + "AND NOT EXISTS (SELECT 1 FROM book_rating_summary s WHERE s.book_id = b.id)", bookId, bookId);
+        jdbcTemplate.update(updateSql, (long) rating * delta, delta, delta, bookId);
+    }
+
+    public void deleteRatingSummary(Long bookId) {
+        jdbcTemplate.update("DELETE FROM book_rating_summary WHERE book_id = ?", bookId);
+    }
+
+    // odbudowa wszystkich agregatów od zera na podstawie tabeli reviews
+    public int rebuildRatingSummaries() {
+        jdbcTemplate.update("DELETE FROM book_rating_summary");
+
+        StringBuilder columns = new StringBuilder();
+        StringBuilder buckets = new StringBuilder();
+        for (int i = BookRatingSummary.MIN_RATING; i <= BookRatingSummary.MAX_RATING; i++) {
+            columns.append(", stars_").append(i);
+            buckets.append(", SUM(CASE WHEN r.rating = ").append(i).append(" THEN 1 ELSE 0 END)");
+        }
+
+        // LEFT JOIN - wiersz dostaje każda książka, także bez recenzji
+        String sql = "INSERT INTO book_rating_summary (book_id, rating_sum, rating_count" + columns + ") "
+                + "SELECT b.id, COALESCE(SUM(r.rating), 0), COUNT(r.id)" + buckets
+                + " FROM books b LEFT JOIN reviews r ON r.book_id = b.id GROUP BY b.id";
+        return jdbcTemplate.update(sql);
+    }
+
+    // przyrostowa aktualizacja miesięcznego podsumowania czytelnika (delta = +1 / -1 recenzja)
+    public void applyReadingDelta(Long userId, LocalDateTime reviewedAt, int rating, int delta) {
+        int year = reviewedAt.getYear();
+        int month = reviewedAt.getMonthValue();
+        String updateSql = "UPDATE user_reading_monthly SET books_read = books_read + ?, rating_sum = rating_sum + ? "
+                + "WHERE user_id = ? AND read_year = ? AND read_month = ?";
+
+        int rowsAffected = jdbcTemplate.update(updateSql, delta, (long) rating * delta, userId, year, month);
+        if (rowsAffected > 0 || delta < 0) {
+            return;
+        }
+
+        // pierwsza recenzja użytkownika w tym miesiącu
+        insertIfAbsent("INSERT INTO user_reading_monthly (user_id, read_year, read_month, books_read, rating_sum) "
+                + "SELECT ?, ?, ?, 0, 0 FROM users u WHERE u.id = ? AND NOT EXISTS (SELECT 1 FROM user_reading_monthly m "
+                + "WHERE m.user_id = ? AND m.read_year = ? AND m.read_month = ?)",
+                userId, year, month, userId, userId, year, month);
+        jdbcTemplate.update(updateSql, delta, (long) rating * delta, userId, year, month);
+    }
+
+    // wstawienie pustego wiersza agregatu, jeśli go brak; dwa równoległe pierwsze zapisy mogą oba przejść NOT EXISTS:
+    // na PostgreSQL błąd klucza przerwałby całą transakcję, więc ON CONFLICT DO NOTHING, na H2 błąd wycofuje
+    // tylko tę instrukcję - wiersz wstawił równoległy zapis, a kolejny UPDATE go zwiększy
+    private void insertIfAbsent(String sql, Object... args) {
+        if (postgres) {
+            jdbcTemplate.update(sql + " ON CONFLICT DO NOTHING", args);
+            return;
+        }
+        try {
+            jdbcTemplate.update(sql, args);
+        } catch (DuplicateKeyException e) {
+            // wiersz już jest
+        }
+    }
+
+    // odjęcie z podsumowań wszystkich recenzji książki (przed jej usunięciem) - jedno zapytanie grupujące, potem batch
+    public void subtractBookFromReadingMonths(Long bookId) {
+        String sql = "SELECT user_id, EXTRACT(YEAR FROM created_at) AS read_year, EXTRACT(MONTH FROM created_at) AS read_month, "
+                + "COUNT(*) AS cnt, SUM(rating) AS rating_sum FROM reviews "
+                + "WHERE book_id = ? AND user_id IS NOT NULL AND created_at IS NOT NULL "
+                + "GROUP BY user_id, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at)";
+        List<Object[]> deltas = jdbcTemplate.query(sql, (rs, rowNum) -> new Object[] {
+                rs.getLong("cnt"), rs.getLong("rating_sum"),
+                rs.getLong("user_id"), rs.getInt("read_year"), rs.getInt("read_month") }, bookId);
+        if (!deltas.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE user_reading_monthly SET books_read = books_read - ?, rating_sum = rating_sum - ? "
+                    + "WHERE user_id = ? AND read_year = ? AND read_month = ?", deltas);
+        }
+    }
+
+    public void deleteReadingMonths(Long userId) {
+        jdbcTemplate.update("DELETE FROM user_reading_monthly WHERE user_id = ?", userId);
+    }
+
+    // miesiące roku z co najmniej jedną recenzją - odczyt po kluczu głównym
+    public List<UserReadingMonth> findReadingMonths(Long userId, int year) {
+        String sql = "SELECT read_month, books_read, rating_sum FROM user_reading_monthly "
+                + "WHERE user_id = ? AND read_year = ? AND books_read > 0 ORDER BY read_month";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> UserReadingMonth.builder()
+                .id(new UserReadingMonthId(userId, year, rs.getInt("read_month")))
+                .booksRead(rs.getLong("books_read"))
+                .ratingSum(rs.getLong("rating_sum"))
+                .build(), userId, year);
+    }
+
+    // odbudowa podsumowań od zera; pełny skan recenzji tylko w zadaniu uzgadniającym
+    public int rebuildReadingMonths() {
+        jdbcTemplate.update("DELETE FROM user_reading_monthly");
+        String sql = "INSERT INTO user_reading_monthly (user_id, read_year, read_month, books_read, rating_sum) "
+                + "SELECT user_id, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at), COUNT(*), SUM(rating) "
+                + "FROM reviews WHERE user_id IS NOT NULL AND created_at IS NOT NULL "
+                + "GROUP BY user_id, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at)";
+        return jdbcTemplate.update(sql);
+    }
+
+    // liczba recenzji na książkę; przy halfLifeDays > 0 recenzje ważone wykładniczo wiekiem (okres półtrwania w dniach)
+    public Map<Long, Double> sumReviewScores(LocalDate today, double halfLifeDays) {
+        Map<Long, Double> scores = new HashMap<>();
+        if (halfLifeDays <= 0) {
+            jdbcTemplate.query("SELECT book_id, COUNT(*) AS cnt FROM reviews GROUP BY book_id",
+                    rs -> { scores.put(rs.getLong("book_id"), (double) rs.getLong("cnt")); });
+            return scores;
+        }
+
+        // agregacja po dniu w bazie - do aplikacji trafia co najwyżej (książki x dni) wierszy zamiast wszystkich recenzji
+        String sql = "SELECT book_id, CAST(created_at AS DATE) AS review_day, COUNT(*) AS cnt FROM reviews "
+                + "WHERE created_at IS NOT NULL GROUP BY book_id, CAST(created_at AS DATE)";
+        jdbcTemplate.query(sql, rs -> {
+            long ageDays = Math.max(0, ChronoUnit.DAYS.between(rs.getDate("review_day").toLocalDate(), today));
+            double weight = Math.pow(0.5, ageDays / halfLifeDays);
+            scores.merge(rs.getLong("book_id"), rs.getLong("cnt") * weight, Double::sum);
+        });
+        return scores;
+    }
+
+    // liczba półek, na których jest książka (shelf_books)
+    public Map<Long, Long> countShelfEntriesPerBook() {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT book_id, COUNT(*) AS cnt FROM shelf_books GROUP BY book_id",
+                rs -> { counts.put(rs.getLong("book_id"), rs.getLong("cnt")); });
+        return counts;
+    }
 }
@@ -0,0 +1,24 @@
+package com.booklovers.community.dao;
+
+import java.sql.DatabaseMetaData;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+// rodzaj bazy dla DAO, które różnią SQL między PostgreSQL a H2 (np. ON CONFLICT DO NOTHING)
+final class Databases {
+
+    private Databases() {
+    }
+
+    static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(product);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Nie można ustalić rodzaju bazy danych", e);
+        }
+    }
+}
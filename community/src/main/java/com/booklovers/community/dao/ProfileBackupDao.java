@@ -0,0 +1,67 @@
+package com.booklovers.community.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+// dane do backupu profilu czytane kursorem (wiersz po wierszu), bez budowania grafu encji
+@Repository
+public class ProfileBackupDao {
+    public static final int FETCH_SIZE = 500;
+
+    // półki z książkami jednym złączeniem; półka bez książek daje jeden wiersz z bookTitle = null
+    private static final String SHELVES_SQL = "SELECT s.id AS shelf_id, s.name AS shelf_name, b.title AS book_title "
+            + "FROM shelves s LEFT JOIN shelf_books sb ON sb.shelf_id = s.id LEFT JOIN books b ON b.id = sb.book_id "
+            + "WHERE s.user_id = ? ORDER BY s.id";
+
+    private static final String REVIEWS_SQL = "SELECT b.title AS book_title, r.rating, r.content, r.created_at "
+            + "FROM reviews r JOIN books b ON b.id = r.book_id WHERE r.user_id = ? ORDER BY r.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProfileBackupDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record ShelfEntry(Long shelfId, String shelfName, String bookTitle) {
+    }
+
+    public record ReviewEntry(String bookTitle, Integer rating, String content, LocalDateTime createdAt) {
+    }
+
+    // wiersze posortowane po półce - kolejne wpisy tej samej półki następują po sobie
+    public void forEachShelfEntry(Long userId, Consumer<ShelfEntry> consumer) {
+        query(SHELVES_SQL, userId, rs -> consumer.accept(new ShelfEntry(
+                rs.getLong("shelf_id"),
+                rs.getString("shelf_name"),
+                rs.getString("book_title"))));
+    }
+
+    public void forEachReview(Long userId, Consumer<ReviewEntry> consumer) {
+        query(REVIEWS_SQL, userId, rs -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            consumer.accept(new ReviewEntry(
+                    rs.getString("book_title"),
+                    rs.getObject("rating", Integer.class),
+                    rs.getString("content"),
+                    createdAt != null ? createdAt.toLocalDateTime() : null));
+        });
+    }
+
+    // kursor tylko do przodu; na PostgreSQL fetch size działa tylko w transakcji
+    private void query(String sql, Long userId, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, userId);
+            return statement;
+        }, handler);
+    }
+}
@@ -0,0 +1,110 @@
+package com.booklovers.community.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.booklovers.community.dto.ReviewFilter;
+import com.booklovers.community.dto.ReviewModerationDto;
+
+// lista moderacji recenzji: filtry składane w jeden WHERE, książka i użytkownik z jednego złączenia
+@Repository
+public class ReviewModerationDao {
+    public static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String FROM = " FROM reviews r JOIN books b ON b.id = r.book_id LEFT JOIN users u ON u.id = r.user_id";
+    private static final String SELECT = "SELECT r.id, r.rating, r.content, r.created_at, b.id AS book_id, b.title AS book_title, "
+            + "u.id AS user_id, u.username" + FROM;
+    // najnowsze najpierw; id rozstrzyga remisy, żeby strony się nie nakładały
+    private static final String ORDER_BY = " ORDER BY r.created_at DESC, r.id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReviewModerationDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // COUNT tylko gdy potrzebny (np. nie dla ostatniej, niepełnej strony)
+    public Page<ReviewModerationDto> findPage(ReviewFilter filter, Pageable pageable) {
+        List<Object> args = new ArrayList<>();
+        String where = where(filter, args);
+
+        List<Object> pageArgs = new ArrayList<>(args);
+        pageArgs.add(pageable.getPageSize());
+        pageArgs.add(pageable.getOffset());
+        List<ReviewModerationDto> content = jdbcTemplate.query(SELECT + where + ORDER_BY + " LIMIT ? OFFSET ?",
+                (rs, rowNum) -> mapRow(rs), pageArgs.toArray());
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> jdbcTemplate.queryForObject("SELECT COUNT(*)" + FROM + where, Long.class, args.toArray()));
+    }
+
+    // kursor tylko do przodu dla eksportu strumieniowego; na PostgreSQL fetch size działa tylko w transakcji
+    public void forEach(ReviewFilter filter, Consumer<ReviewModerationDto> consumer) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT + where(filter, args) + ORDER_BY;
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(statement);
+            return statement;
+        }, rs -> {
+            consumer.accept(mapRow(rs));
+        });
+    }
+
+    private static String where(ReviewFilter filter, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.getBookId() != null) {
+            conditions.add("r.book_id = ?");
+            args.add(filter.getBookId());
+        }
+        if (filter.getUsername() != null && !filter.getUsername().isBlank()) {
+            conditions.add("u.username = ?");
+            args.add(filter.getUsername().trim());
+        }
+        if (filter.getMinRating() != null) {
+            conditions.add("r.rating >= ?");
+            args.add(filter.getMinRating());
+        }
+        if (filter.getMaxRating() != null) {
+            conditions.add("r.rating <= ?");
+            args.add(filter.getMaxRating());
+        }
+        if (filter.getFrom() != null) {
+            conditions.add("r.created_at >= ?");
+            args.add(Timestamp.valueOf(filter.getFrom().atStartOfDay()));
+        }
+        if (filter.getTo() != null) {
+            conditions.add("r.created_at < ?");
+            args.add(Timestamp.valueOf(filter.getTo().plusDays(1).atStartOfDay()));
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static ReviewModerationDto mapRow(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return ReviewModerationDto.builder()
+                .id(rs.getLong("id"))
+                .bookId(rs.getLong("book_id"))
+                .bookTitle(rs.getString("book_title"))
+                .userId(rs.getObject("user_id", Long.class))
+                .username(rs.getString("username"))
+                .rating(rs.getInt("rating"))
+                .content(rs.getString("content"))
+                .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.booklovers.community.dao;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// masowe operacje na tabeli łączącej shelf_books (z pominięciem ładowania encji Shelf/Book)
+@Repository
+public class ShelfBookDao {
+    public static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public ShelfBookDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgres = Databases.isPostgres(jdbcTemplate);
+    }
+
+    public Set<Long> findBookIds(Long shelfId) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT book_id FROM shelf_books WHERE shelf_id = ?", Long.class, shelfId));
+    }
+
+    // które z podanych książek są na półce (jedno zapytanie z IN zamiast odczytu całej półki)
+    public Set<Long> findBookIds(Long shelfId, Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        String placeholders = String.join(",", Collections.nCopies(bookIds.size(), "?"));
+        List<Object> args = new ArrayList<>(bookIds.size() + 1);
+        args.add(shelfId);
+        args.addAll(bookIds);
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT book_id FROM shelf_books WHERE shelf_id = ? AND book_id IN (" + placeholders + ")",
+                Long.class, args.toArray()));
+    }
+
+    // wstawienie jednego wiersza, jeśli go brak; dwa równoległe dodania tej samej książki mogą oba przejść NOT EXISTS:
+    // na PostgreSQL ON CONFLICT DO NOTHING, na H2 błąd klucza wycofuje tylko tę instrukcję (jak w BookStatisticsDao);
+    // true - wiersz wstawiło to wywołanie
+    public boolean insertBookIfAbsent(Long shelfId, Long bookId, LocalDateTime addedAt) {
+        try {
+            return jdbcTemplate.update(insertIfAbsentSql(), bookId, Timestamp.valueOf(addedAt), shelfId, bookId) > 0;
+        } catch (DuplicateKeyException e) {
+            // wiersz wstawiło równoległe dodanie
+            return false;
+        }
+    }
+
+    // wstawianie wsadowe (JDBC batch) z pominięciem wierszy, które już są; zwraca id faktycznie wstawionych książek
+    // (z liczby wierszy każdej instrukcji wsadu); addedAt podawane wprost (np. ShelfBook.UNKNOWN_ADDED_AT przy imporcie),
+    // a nie domyślne CURRENT_TIMESTAMP bazy
+    public Set<Long> insertBooks(Long shelfId, Collection<Long> bookIds, LocalDateTime addedAt) {
+        if (bookIds.isEmpty()) {
+            return new LinkedHashSet<>();
+        }
+        List<Long> ids = new ArrayList<>(bookIds);
+        Timestamp addedAtValue = Timestamp.valueOf(addedAt);
+        int[][] counts = jdbcTemplate.batchUpdate(insertIfAbsentSql(), ids, BATCH_SIZE,
+                (ps, bookId) -> {
+                    ps.setLong(1, bookId);
+                    ps.setTimestamp(2, addedAtValue);
+                    ps.setLong(3, shelfId);
+                    ps.setLong(4, bookId);
+                });
+        return affected(ids, counts);
+    }
+
+    // usuwanie wsadowe (JDBC batch) po kluczu (shelf_id, book_id); zwraca id faktycznie usuniętych książek
+    public Set<Long> deleteBooks(Long shelfId, Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new LinkedHashSet<>();
+        }
+        List<Long> ids = new ArrayList<>(bookIds);
+        int[][] counts = jdbcTemplate.batchUpdate("DELETE FROM shelf_books WHERE shelf_id = ? AND book_id = ?", ids, BATCH_SIZE,
+                (ps, bookId) -> {
+                    ps.setLong(1, shelfId);
+                    ps.setLong(2, bookId);
+                });
+        return affected(ids, counts);
+    }
+
+    private String insertIfAbsentSql() {
+        String sql = "INSERT INTO shelf_books (shelf_id, book_id, added_at) SELECT s.id, ?, ? FROM shelves s WHERE s.id = ? "
+                + "AND NOT EXISTS (SELECT 1 FROM shelf_books sb WHERE sb.shelf_id = s.id AND sb.book_id = ?)";
+        return postgres ? sql + " ON CONFLICT DO NOTHING" : sql;
+    }
+
+    // wyniki batchUpdate idą w kolejności ids (wsad po wsadzie); SUCCESS_NO_INFO - sterownik nie podał liczby wierszy,
+    // instrukcja się wykonała, więc wiersz liczony jako zmieniony
+    private static Set<Long> affected(List<Long> ids, int[][] counts) {
+        Set<Long> result = new LinkedHashSet<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                Long bookId = ids.get(index++);
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    result.add(bookId);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,24 @@
+package com.booklovers.community.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+
+import com.booklovers.community.model.Shelf;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// dane strony szczegółów książki; userShelves tylko dla zalogowanego
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookDetailsView {
+    private BookDto book;
+    private Slice<ReviewFeedItemDto> reviews;
+    private BookStatsDto stats;
+    private List<Shelf> userShelves;
+}
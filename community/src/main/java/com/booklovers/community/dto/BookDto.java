@@ -37,4 +37,7 @@ public class BookDto {
     @Min(value = 1, message = "Ocena nie może być mniejsza niż 1")
     @Max(value = 10, message = "Ocena nie może być większa niż 10")
     private Double averageRating;
+
+    @Min(value = 0, message = "Liczba ocen nie może być ujemna")
+    private Long ratingCount;
 }
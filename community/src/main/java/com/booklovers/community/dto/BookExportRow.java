@@ -0,0 +1,17 @@
+package com.booklovers.community.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// jeden wiersz eksportu CSV katalogu książek
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookExportRow {
+    private Long id;
+    private String title;
+    private String authorName;
+    private String isbn;
+    private double averageRating;
+}
@@ -0,0 +1,17 @@
+package com.booklovers.community.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// pola książki indeksowane przez wyszukiwarkę pełnotekstową
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookSearchDocument {
+    private Long id;
+    private String title;
+    private String authorName;
+    private String isbn;
+    private String description;
+}
@@ -0,0 +1,31 @@
+package com.booklovers.community.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// strona listy książek wyznaczona kursorem (bez OFFSET i bez COUNT przy każdym żądaniu);
+// approximateTotal tylko na życzenie, z cache
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSlice {
+    private List<BookDto> content;
+    private int size;
+    private boolean hasNext;
+    private boolean hasPrevious;
+    private String nextCursor;
+    private String previousCursor;
+    private Long approximateTotal;
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return content == null || content.isEmpty();
+    }
+}
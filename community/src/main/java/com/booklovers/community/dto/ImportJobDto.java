@@ -0,0 +1,25 @@
+package com.booklovers.community.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// stan zadania importu profilu (odpytywany przez klienta)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobDto {
+    private String id;
+    private String status;
+    private long shelvesProcessed;
+    private long titlesProcessed;
+    private long booksAdded;
+    private long booksNotFound;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,22 @@
+package com.booklovers.community.dto;
+
+import java.util.List;
+
+import com.booklovers.community.model.Shelf;
+import com.booklovers.community.model.User;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// dane strony profilu: użytkownik, półki z książkami i postęp rocznego wyzwania
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfileView {
+    private User user;
+    private List<Shelf> shelves;
+    private ReadingChallengeDto challenge;
+}
@@ -0,0 +1,24 @@
+package com.booklovers.community.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// postęp rocznego wyzwania czytelniczego (książki dodane na półkę "Przeczytane" w danym roku)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadingChallengeDto {
+    private int year;
+    private long booksRead;
+    private int target;
+
+    public int getProgressPercent() {
+        if (target <= 0) {
+            return 0;
+        }
+        return (int) Math.min(100, booksRead * 100 / target);
+    }
+}
@@ -0,0 +1,15 @@
+package com.booklovers.community.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// odświeżenie lub odwołanie tokenu
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenRequest {
+    @NotBlank(message = "Token jest wymagany")
+    private String token;
+}
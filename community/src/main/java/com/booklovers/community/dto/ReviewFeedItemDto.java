@@ -0,0 +1,22 @@
+package com.booklovers.community.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// recenzja w liście pod książką - autor (nazwa i avatar) pobrany w tym samym zapytaniu; null = konto usunięte
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewFeedItemDto {
+    private Long id;
+    private Integer rating;
+    private String content;
+    private LocalDateTime createdAt;
+    private String username;
+    private String avatar;
+}
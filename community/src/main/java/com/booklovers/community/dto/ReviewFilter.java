@@ -0,0 +1,28 @@
+package com.booklovers.community.dto;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// kryteria listy moderacji recenzji; puste pole = bez ograniczenia, daty włącznie
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewFilter {
+    private Long bookId;
+    private String username;
+    private Integer minRating;
+    private Integer maxRating;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+}
@@ -0,0 +1,24 @@
+package com.booklovers.community.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// recenzja do moderacji - płaski wiersz (książka i autor recenzji z jednego złączenia), bez encji i proxy
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewModerationDto {
+    private Long id;
+    private Long bookId;
+    private String bookTitle;
+    private Long userId;
+    private String username;
+    private Integer rating;
+    private String content;
+    private LocalDateTime createdAt;
+}
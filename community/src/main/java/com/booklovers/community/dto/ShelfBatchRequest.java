@@ -0,0 +1,31 @@
+package com.booklovers.community.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// operacja na wielu książkach jednej półki; targetShelfId tylko dla MOVE
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShelfBatchRequest {
+    public static final int MAX_BOOKS = 1000;
+
+    public enum Action { ADD, REMOVE, MOVE }
+
+    @NotNull(message = "Operacja jest wymagana")
+    private Action action;
+
+    @NotEmpty(message = "Lista książek nie może być pusta")
+    @Size(max = MAX_BOOKS, message = "Jednorazowo można przetworzyć najwyżej " + MAX_BOOKS + " książek")
+    private List<@NotNull Long> bookIds;
+
+    private Long targetShelfId;
+}
@@ -0,0 +1,31 @@
+package com.booklovers.community.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// wynik operacji zbiorczej - status dla każdej książki w kolejności z żądania
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShelfBatchResponse {
+
+    public enum Status { ADDED, REMOVED, MOVED, ALREADY_ON_SHELF, NOT_ON_SHELF, BOOK_NOT_FOUND, DUPLICATE }
+
+    private Long shelfId;
+    private ShelfBatchRequest.Action action;
+    private int changed;
+    private List<ItemResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Long bookId;
+        private Status status;
+    }
+}
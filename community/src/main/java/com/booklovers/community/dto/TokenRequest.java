@@ -0,0 +1,17 @@
+package com.booklovers.community.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRequest {
+    @NotBlank(message = "Nazwa użytkownika jest wymagana")
+    private String username;
+
+    @NotBlank(message = "Hasło jest wymagane")
+    private String password;
+}
@@ -0,0 +1,29 @@
+package com.booklovers.community.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// podsumowanie roku czytelnika z tabeli user_reading_monthly - zawsze 12 miesięcy (także puste)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class YearInReviewDto {
+    private int year;
+    private long booksRead;
+    private double averageRating;
+    private List<Month> months;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Month {
+        private int month;
+        private long booksRead;
+        private double averageRating;
+    }
+}
@@ -0,0 +1,8 @@
+package com.booklovers.community.exception;
+
+// przekroczony budżet zapytań endpointu (QueryGuard w trybie enforce, np. w testach)
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
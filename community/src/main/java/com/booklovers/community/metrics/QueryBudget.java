@@ -0,0 +1,16 @@
+package com.booklovers.community.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// maksymalna liczba zapytań SQL (Hibernate i JdbcTemplate) na jedno żądanie do endpointu, łącznie z uwierzytelnieniem i widokiem;
+// sprawdzana przez QueryGuard - przekroczenie jest logowane, a w trybie enforce kończy żądanie wyjątkiem
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryBudget {
+    int value();
+}
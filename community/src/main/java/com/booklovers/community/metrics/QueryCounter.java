@@ -0,0 +1,94 @@
+package com.booklovers.community.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+// licznik zapytań SQL wysłanych w bieżącym wątku (żądaniu HTTP), z podziałem na kształt instrukcji;
+// zasilany przez QueryCountingDataSource (MetricsConfig) - liczy zarówno Hibernate, jak i JdbcTemplate
+@Component
+public class QueryCounter {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ThreadLocal<Queries> current = new ThreadLocal<>();
+
+    // początek pomiaru w bieżącym wątku
+    public void start() {
+        current.set(new Queries());
+    }
+
+    // koniec pomiaru - zapytania od start() (puste, gdy pomiar nie był rozpoczęty)
+    public Queries stop() {
+        Queries queries = current.get();
+        current.remove();
+        return queries != null ? queries : new Queries();
+    }
+
+    public void record(String sql) {
+        Queries queries = current.get();
+        if (queries != null) {
+            queries.record(shape(sql));
+        }
+    }
+
+    // zadanie zlecone puli wątków liczy zapytania do pomiaru wątku zlecającego (np. równoległe odczyty strony);
+    // TaskDecorator puli, a nie bean TaskDecorator - ten Spring Boot dołożyłby do domyślnego applicationTaskExecutor
+    public Runnable propagate(Runnable task) {
+        Queries queries = current.get();
+        if (queries == null) {
+            return task;
+        }
+        return () -> {
+            // CallerRunsPolicy - zadanie może wykonać sam wątek zlecający, jego pomiar zostaje
+            Queries previous = current.get();
+            current.set(queries);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    current.set(previous);
+                } else {
+                    current.remove();
+                }
+            }
+        };
+    }
+
+    // kształt instrukcji - literały i listy IN zastąpione "?", żeby to samo zapytanie z innym id liczyło się razem
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    public static final class Queries {
+        private final Map<String, Integer> byShape = new LinkedHashMap<>();
+        private int total;
+
+        // zapis także z wątków puli (decorate), więc dostęp synchronizowany
+        private synchronized void record(String shape) {
+            byShape.merge(shape, 1, Integer::sum);
+            total++;
+        }
+
+        public synchronized int total() {
+            return total;
+        }
+
+        // kształty wykonane co najmniej threshold razy, od najczęstszego
+        public synchronized List<Map.Entry<String, Integer>> repeated(int threshold) {
+            return byShape.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= threshold)
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                    .toList();
+        }
+    }
+}
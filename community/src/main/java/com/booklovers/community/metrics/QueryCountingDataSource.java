@@ -0,0 +1,84 @@
+package com.booklovers.community.metrics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// DataSource liczący instrukcje SQL do pomiaru QueryCounter - na poziomie JDBC, więc obejmuje Hibernate i DAO na JdbcTemplate;
+// instrukcja przygotowana (prepareStatement/prepareCall) liczy się raz, także przy wsadzie,
+// zwykła (createStatement) - przy każdym execute/addBatch z tekstem SQL
+public class QueryCountingDataSource extends DelegatingDataSource {
+    private static final Set<String> PREPARE_METHODS = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+
+    private final QueryCounter queryCounter;
+
+    public QueryCountingDataSource(DataSource target, QueryCounter queryCounter) {
+        super(target);
+        this.queryCounter = queryCounter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            if (PREPARE_METHODS.contains(method.getName()) && args != null && args[0] instanceof String sql) {
+                queryCounter.record(sql);
+            }
+            Object result = invoke(connection, method, args);
+            if (method.getName().equals("createStatement") && result instanceof Statement statement) {
+                return counting(statement);
+            }
+            return result;
+        });
+    }
+
+    private Statement counting(Statement statement) {
+        return proxy(Statement.class, statement, (method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName()) && args != null && args[0] instanceof String sql) {
+                queryCounter.record(sql);
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    // unwrap na własny interfejs zwraca proxy, żeby kod wołający nie ominął licznika
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (method.getName().equals("unwrap") && args[0] instanceof Class<?> iface && iface.isInstance(proxy)) {
+                return proxy;
+            }
+            return handler.handle(method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+}
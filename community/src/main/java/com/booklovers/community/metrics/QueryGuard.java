@@ -0,0 +1,54 @@
+package com.booklovers.community.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.booklovers.community.exception.QueryBudgetExceededException;
+
+import lombok.extern.slf4j.Slf4j;
+
+// strażnik liczby zapytań na żądanie:
+// - ta sama instrukcja powtórzona repeat-threshold razy = podejrzenie N+1 (log z endpointem i kształtem zapytania)
+// - przekroczenie @QueryBudget endpointu (lub default-budget) = log, a przy enforce=true wyjątek (tryb testowy)
+@Slf4j
+@Component
+public class QueryGuard {
+    private final int repeatThreshold;
+    private final int defaultBudget;
+    private final boolean enforce;
+
+    public QueryGuard(
+            @Value("${booklovers.query-guard.repeat-threshold:5}") int repeatThreshold,
+            @Value("${booklovers.query-guard.default-budget:0}") int defaultBudget,
+            @Value("${booklovers.query-guard.enforce:false}") boolean enforce) {
+        this.repeatThreshold = repeatThreshold;
+        this.defaultBudget = defaultBudget;
+        this.enforce = enforce;
+    }
+
+    // budget - z @QueryBudget handlera albo null
+    public void check(String endpoint, Integer budget, QueryCounter.Queries queries) {
+        List<Map.Entry<String, Integer>> repeated = queries.repeated(repeatThreshold);
+        for (Map.Entry<String, Integer> entry : repeated) {
+            log.warn("Podejrzenie N+1: {} wykonało {}x zapytanie: {}", endpoint, entry.getValue(), entry.getKey());
+        }
+
+        int limit = budget != null ? budget : defaultBudget;
+        if (limit <= 0 || queries.total() <= limit) {
+            return;
+        }
+
+        String message = String.format("%s wykonało %d zapytań SQL przy budżecie %d%s", endpoint, queries.total(), limit,
+                repeated.isEmpty() ? "" : repeated.stream()
+                        .map(entry -> entry.getValue() + "x " + entry.getKey())
+                        .collect(Collectors.joining("; ", " (powtórzone: ", ")")));
+        if (enforce) {
+            throw new QueryBudgetExceededException(message);
+        }
+        log.warn("Przekroczony budżet zapytań: {}", message);
+    }
+}
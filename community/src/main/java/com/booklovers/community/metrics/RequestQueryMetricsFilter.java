@@ -0,0 +1,64 @@
+package com.booklovers.community.metrics;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// liczba zapytań SQL na żądanie HTTP jako rozkład booklovers.http.queries (method, uri) i kontrola w QueryGuard;
+// uri to wzorzec mapowania (/books/{id}), żeby nie mnożyć serii per identyfikator
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+    public static final String METRIC_NAME = "booklovers.http.queries";
+
+    private final QueryCounter queryCounter;
+    private final QueryGuard queryGuard;
+    private final MeterRegistry meterRegistry;
+
+    public RequestQueryMetricsFilter(QueryCounter queryCounter, QueryGuard queryGuard, MeterRegistry meterRegistry) {
+        this.queryCounter = queryCounter;
+        this.queryGuard = queryGuard;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter.Queries queries;
+        queryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            queries = queryCounter.stop();
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("Zapytania SQL (Hibernate i JdbcTemplate) wykonane w czasie żądania")
+                    .baseUnit("queries")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri(request))
+                    .register(meterRegistry)
+                    .record(queries.total());
+        }
+        // poza finally - wyjątek z łańcucha nie zostanie przykryty przekroczeniem budżetu
+        queryGuard.check(request.getMethod() + " " + uri(request), budget(request), queries);
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    private static Integer budget(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+            return budget != null ? budget.value() : null;
+        }
+        return null;
+    }
+}
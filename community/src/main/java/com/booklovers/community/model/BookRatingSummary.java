@@ -0,0 +1,91 @@
+package com.booklovers.community.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// zdenormalizowane agregaty ocen książki (suma, liczba, histogram 1-10),
+// aktualizowane przy dodawaniu/usuwaniu recenzji i odbudowywane przez zadanie uzgadniające
+@Entity
+@Table(name = "book_rating_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookRatingSummary {
+
+    public static final int MIN_RATING = 1;
+    public static final int MAX_RATING = 10;
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    @Column(nullable = false)
+    private long ratingCount;
+
+    @Column(name = "stars_1", nullable = false)
+    private long stars1;
+    @Column(name = "stars_2", nullable = false)
+    private long stars2;
+    @Column(name = "stars_3", nullable = false)
+    private long stars3;
+    @Column(name = "stars_4", nullable = false)
+    private long stars4;
+    @Column(name = "stars_5", nullable = false)
+    private long stars5;
+    @Column(name = "stars_6", nullable = false)
+    private long stars6;
+    @Column(name = "stars_7", nullable = false)
+    private long stars7;
+    @Column(name = "stars_8", nullable = false)
+    private long stars8;
+    @Column(name = "stars_9", nullable = false)
+    private long stars9;
+    @Column(name = "stars_10", nullable = false)
+    private long stars10;
+
+    public static BookRatingSummary empty(Long bookId) {
+        return BookRatingSummary.builder().bookId(bookId).build();
+    }
+
+    public double getAverageRating() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+    }
+
+    public long getStars(int rating) {
+        return switch (rating) {
+            case 1 -> stars1;
+            case 2 -> stars2;
+            case 3 -> stars3;
+            case 4 -> stars4;
+            case 5 -> stars5;
+            case 6 -> stars6;
+            case 7 -> stars7;
+            case 8 -> stars8;
+            case 9 -> stars9;
+            case 10 -> stars10;
+            default -> throw new IllegalArgumentException("Ocena poza zakresem: " + rating);
+        };
+    }
+
+    // histogram w kolejności 1..10 (zawsze 10 kubełków)
+    public Map<Integer, Long> getDistribution() {
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        for (int i = MIN_RATING; i <= MAX_RATING; i++) {
+            distribution.put(i, getStars(i));
+        }
+        return distribution;
+    }
+}
@@ -0,0 +1,49 @@
+package com.booklovers.community.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// pojedyncze członkostwo książki na półce - ten sam wiersz shelf_books co w Shelf.books,
+// ale dodawany/usuwany/sprawdzany po kluczu złożonym, bez ładowania całej kolekcji półki
+@Entity
+@Table(name = "shelf_books", indexes = @Index(name = "idx_shelf_books_shelf_added_at", columnList = "shelf_id, added_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShelfBook implements Persistable<ShelfBookId> {
+
+    @EmbeddedId
+    private ShelfBookId id;
+
+    // umowna data dodania, gdy prawdziwa jest nieznana (wiersze sprzed migracji V5, import profilu) -
+    // takie wiersze nie wchodzą do żadnego roku wyzwania czytelniczego
+    public static final LocalDateTime UNKNOWN_ADDED_AT = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // chwila dodania na półkę (dla "Przeczytane" - rok do wyzwania czytelniczego);
+    // domyślna wartość w bazie obejmuje wiersze wstawiane przez Shelf.books, wsadowo przez JDBC data jest podawana wprost
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "added_at", nullable = false)
+    private LocalDateTime addedAt;
+
+    public static ShelfBook of(Long shelfId, Long bookId) {
+        return new ShelfBook(new ShelfBookId(shelfId, bookId), LocalDateTime.now());
+    }
+
+    // wiersz jest tylko wstawiany, nigdy aktualizowany - save() robi persist bez SELECT-a przed INSERT-em;
+    // usuwanie idzie przez ShelfBookRepository.deleteMembership
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,23 @@
+package com.booklovers.community.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// klucz główny (shelf_id, book_id) tabeli shelf_books
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShelfBookId implements Serializable {
+
+    @Column(name = "shelf_id", nullable = false)
+    private Long shelfId;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+}
@@ -0,0 +1,46 @@
+package com.booklovers.community.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// odwołanie tokenu (jti) albo wszystkich tokenów użytkownika wydanych przed revokedAt (username);
+// wspólne dla wszystkich instancji aplikacji, każda wczytuje nowe wpisy do pamięci
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_revoked_at", columnList = "revokedAt"),
+        @Index(name = "idx_token_revocations_jti", columnList = "jti", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64)
+    private String jti;
+
+    @Column(length = 50)
+    private String username;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    // po tej chwili wpis niczego już nie blokuje i może zostać usunięty
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,30 @@
+package com.booklovers.community.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// miesięczne podsumowanie czytania użytkownika (zrecenzowane książki i suma ocen),
+// aktualizowane przy dodawaniu/usuwaniu recenzji i odbudowywane przez zadanie uzgadniające
+@Entity
+@Table(name = "user_reading_monthly")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserReadingMonth {
+
+    @EmbeddedId
+    private UserReadingMonthId id;
+
+    @Column(nullable = false)
+    private long booksRead;
+
+    @Column(nullable = false)
+    private long ratingSum;
+}
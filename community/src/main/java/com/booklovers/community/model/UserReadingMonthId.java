@@ -0,0 +1,26 @@
+package com.booklovers.community.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// klucz główny (user_id, read_year, read_month) tabeli user_reading_monthly
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserReadingMonthId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "read_year", nullable = false)
+    private Integer readYear;
+
+    @Column(name = "read_month", nullable = false)
+    private Integer readMonth;
+}
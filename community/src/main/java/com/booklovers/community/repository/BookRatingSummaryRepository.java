@@ -0,0 +1,10 @@
+package com.booklovers.community.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.booklovers.community.model.BookRatingSummary;
+
+@Repository
+public interface BookRatingSummaryRepository extends JpaRepository<BookRatingSummary, Long> {
+}
@@ -1,32 +1,89 @@
 package com.booklovers.community.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookSearchDocument;
 import com.booklovers.community.model.Book;
 
+import jakarta.persistence.QueryHint;
+
 public interface BookRepository extends JpaRepository<Book, Long> {
     boolean existsByIsbn(String isbn);
 
-    @Query("SELECT b FROM Book b " +
-       "WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) " +
-       "OR LOWER(b.author.firstName) LIKE LOWER(CONCAT('%', :query, '%')) " +
-       "OR LOWER(b.author.lastName) LIKE LOWER(CONCAT('%', :query, '%')) " +
-       "OR LOWER(b.isbn) LIKE LOWER(CONCAT('%', :query, '%'))")
-    Page<Book> searchBooks(@Param("query") String query, Pageable pageable);
-    
-    Page<Book> findAll(Pageable pageable);
+    String BOOK_DTO_PROJECTION = "SELECT new com.booklovers.community.dto.BookDto(" +
+           "b.id, b.title, CONCAT(a.firstName, ' ', a.lastName), b.isbn, b.coverImage, b.description, " +
+           "CASE WHEN s.ratingCount > 0 THEN 1.0 * s.ratingSum / s.ratingCount ELSE 0.0 END, COALESCE(s.ratingCount, 0L)) " +
+           "FROM Book b JOIN b.author a LEFT JOIN BookRatingSummary s ON s.bookId = b.id";
+
+    String SEARCH_DOCUMENT_PROJECTION = "SELECT new com.booklovers.community.dto.BookSearchDocument(" +
+           "b.id, b.title, CONCAT(a.firstName, ' ', a.lastName), b.isbn, b.description) " +
+           "FROM Book b JOIN b.author a";
+
+    // lista książek jako DTO jednym zapytaniem (autor + średnia i liczba ocen z book_rating_summary), bez N+1
+    @Query(value = BOOK_DTO_PROJECTION, countQuery = "SELECT COUNT(b) FROM Book b")
+    Page<BookDto> findAllBookDtos(Pageable pageable);
+
+    // stronicowanie kursorem (keyset): warunek "po/przed (klucz, id)" + LIMIT korzysta z indeksu,
+    // więc koszt strony nie zależy od jej numeru; pobieramy o jeden wiersz więcej, żeby wiedzieć czy jest dalej
+    @Query(BOOK_DTO_PROJECTION + " WHERE b.id > :afterId ORDER BY b.id")
+    List<BookDto> findBookDtosAfterId(@Param("afterId") long afterId, Pageable limit);
+
+    @Query(BOOK_DTO_PROJECTION + " WHERE b.id < :beforeId ORDER BY b.id DESC")
+    List<BookDto> findBookDtosBeforeId(@Param("beforeId") long beforeId, Pageable limit);
+
+    @Query(BOOK_DTO_PROJECTION + " WHERE b.title > :title OR (b.title = :title AND b.id > :afterId) ORDER BY b.title, b.id")
+    List<BookDto> findBookDtosAfterTitle(@Param("title") String title, @Param("afterId") long afterId, Pageable limit);
+
+    @Query(BOOK_DTO_PROJECTION + " WHERE b.title < :title OR (b.title = :title AND b.id < :beforeId) ORDER BY b.title DESC, b.id DESC")
+    List<BookDto> findBookDtosBeforeTitle(@Param("title") String title, @Param("beforeId") long beforeId, Pageable limit);
+
+    // DTO dla konkretnych książek (np. strona wyników z indeksu wyszukiwania)
+    @Query(BOOK_DTO_PROJECTION + " WHERE b.id IN :ids")
+    List<BookDto> findBookDtosByIds(@Param("ids") Collection<Long> ids);
 
-    @Query("SELECT b FROM Book b LEFT JOIN b.reviews r GROUP BY b ORDER BY COUNT(r) DESC")
-    List<Book> findMostPopularBooks(Pageable pageable);
+    // dane do indeksu wyszukiwania - strumieniowo, żeby nie trzymać całego katalogu w pamięci
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SEARCH_DOCUMENT_PROJECTION)
+    Stream<BookSearchDocument> streamSearchDocuments();
+
+    @Query(SEARCH_DOCUMENT_PROJECTION + " WHERE b.id = :id")
+    Optional<BookSearchDocument> findSearchDocument(@Param("id") Long id);
+
+    @Query(SEARCH_DOCUMENT_PROJECTION + " WHERE a.id = :authorId")
+    List<BookSearchDocument> findSearchDocumentsByAuthorId(@Param("authorId") Long authorId);
 
     boolean existsByAuthorId(Long authorId);
 
+    @Query("SELECT b.id FROM Book b ORDER BY b.id")
+    List<Long> findIdsOrderedById(Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b WHERE b.author.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
     Optional<Book> findByTitle(String title);
+
+    // encja razem z autorem - formularz edycji wiąże autora poza transakcją
+    @EntityGraph(attributePaths = "author")
+    Optional<Book> findWithAuthorById(Long id);
+
+    // rozwiązywanie tytułów paczkami (import profilu); przy zdublowanych tytułach wygrywa najniższe id
+    @Query("SELECT b.title, b.id FROM Book b WHERE b.title IN :titles ORDER BY b.id")
+    List<Object[]> findTitleIdPairsByTitleIn(@Param("titles") Collection<String> titles);
+
+    // które z podanych id książek istnieją (operacje zbiorcze na półkach)
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -2,18 +2,26 @@ package com.booklovers.community.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.booklovers.community.dto.ReviewFeedItemDto;
 import com.booklovers.community.model.Review;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByBookId(Long bookId);
 
+    // strona recenzji książki z autorem w jednym zapytaniu; Slice - bez COUNT, o jeden wiersz więcej
+    @Query("SELECT new com.booklovers.community.dto.ReviewFeedItemDto(r.id, r.rating, r.content, r.createdAt, u.username, u.avatar) "
+            + "FROM Review r LEFT JOIN r.user u WHERE r.book.id = :bookId")
+    Slice<ReviewFeedItemDto> findFeedByBookId(@Param("bookId") Long bookId, Pageable pageable);
+
     @Query("SELECT AVG(r.rating) FROM Review r WHERE r.book.id = :bookId")
     Double getAverageRatingForBook(@Param("bookId") Long bookId);
 
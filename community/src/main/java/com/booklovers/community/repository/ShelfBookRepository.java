@@ -0,0 +1,42 @@
+package com.booklovers.community.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.booklovers.community.model.ShelfBook;
+import com.booklovers.community.model.ShelfBookId;
+
+@Repository
+public interface ShelfBookRepository extends JpaRepository<ShelfBook, ShelfBookId> {
+
+    // usunięcie jednego wiersza po kluczu złożonym; zwraca liczbę usuniętych (0 lub 1)
+    @Modifying
+    @Query("DELETE FROM ShelfBook sb WHERE sb.id.shelfId = :shelfId AND sb.id.bookId = :bookId")
+    int deleteMembership(@Param("shelfId") Long shelfId, @Param("bookId") Long bookId);
+
+    // COUNT(*) po kluczu głównym - bez ładowania encji Book
+    long countByIdShelfId(Long shelfId);
+
+    // zakres [from, to) zamiast YEAR(added_at) - zapytanie korzysta z indeksu (shelf_id, added_at)
+    @Query("SELECT COUNT(sb) FROM ShelfBook sb WHERE sb.id.shelfId = :shelfId AND sb.addedAt >= :from AND sb.addedAt < :to")
+    long countAddedBetween(@Param("shelfId") Long shelfId,
+                           @Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to);
+
+    // przeniesienie wiersza jednym UPDATE-em (blokada wiersza serializuje równoległe przeniesienia tej samej książki),
+    // added_at liczony od nowa - przeniesienie na "Przeczytane" to przeczytanie w tym roku;
+    // pomija przypadek, gdy książka już jest na półce docelowej - wtedy wynik 0
+    @Modifying
+    @Query(value = "UPDATE shelf_books SET shelf_id = :targetShelfId, added_at = CURRENT_TIMESTAMP "
+            + "WHERE shelf_id = :sourceShelfId AND book_id = :bookId "
+            + "AND NOT EXISTS (SELECT 1 FROM shelf_books t WHERE t.shelf_id = :targetShelfId AND t.book_id = :bookId)",
+            nativeQuery = true)
+    int moveMembership(@Param("sourceShelfId") Long sourceShelfId,
+                       @Param("targetShelfId") Long targetShelfId,
+                       @Param("bookId") Long bookId);
+}
@@ -1,8 +1,10 @@
 package com.booklovers.community.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +15,12 @@ import com.booklovers.community.model.Shelf;
 @Repository
 public interface ShelfRepository extends JpaRepository<Shelf, Long> {
     List<Shelf> findAllByUserId(Long userId);
+
+    // półki z książkami i ich autorami w jednym zapytaniu (profil, API półek) - bez doczytywania per półka i per autor;
+    // właściciel też pobrany, bo API półek serializuje encję razem z nim
+    @EntityGraph(attributePaths = { "user", "books", "books.author" })
+    @Query("SELECT s FROM Shelf s WHERE s.user.username = :username ORDER BY s.id")
+    List<Shelf> findAllWithBooksByUsername(@Param("username") String username);
     
     boolean existsByNameAndUserId(String name, Long userId);
 
@@ -22,4 +30,15 @@ public interface ShelfRepository extends JpaRepository<Shelf, Long> {
 
     @Query("SELECT COUNT(s) FROM Shelf s JOIN s.books b WHERE b.id = :bookId")
     long countReadersByBookId(@Param("bookId") Long bookId);
+
+    @Query("SELECT DISTINCT b.id FROM Shelf s JOIN s.books b WHERE s.user.id = :userId")
+    List<Long> findBookIdsByUserId(@Param("userId") Long userId);
+
+    // pary [id półki, nazwa właściciela] - walidacja kilku półek jednym zapytaniem
+    @Query("SELECT s.id, s.user.username FROM Shelf s WHERE s.id IN :ids")
+    List<Object[]> findOwnerUsernames(@Param("ids") Collection<Long> ids);
+
+    // samo id półki (bez encji użytkownika i półki), np. "Przeczytane" do liczników
+    @Query("SELECT s.id FROM Shelf s WHERE s.user.username = :username AND s.name = :name")
+    Optional<Long> findIdByUsernameAndName(@Param("username") String username, @Param("name") String name);
 }
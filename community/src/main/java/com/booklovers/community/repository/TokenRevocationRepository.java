@@ -0,0 +1,21 @@
+package com.booklovers.community.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.booklovers.community.model.TokenRevocation;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    List<TokenRevocation> findByRevokedAtAfterAndExpiresAtAfter(Instant revokedAfter, Instant now);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,111 @@
+package com.booklovers.community.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// cache zweryfikowanych poświadczeń (HTTP Basic) - pomija BCrypt dla powtarzających się żądań tego samego klienta.
+// klucz to nazwa użytkownika (szybkie unieważnianie), hasło przechowywane tylko jako HMAC-SHA256 z losowym kluczem procesu
+@Component
+public class AuthenticationCache {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, CachedAuthentication> cache;
+    private final SecretKeySpec secretKey;
+    // numer unieważnienia per użytkownik - put odrzuca wynik weryfikacji rozpoczętej przed ostatnim unieważnieniem;
+    // wpisy zostają tylko dla kont, które były unieważniane (blokada, usunięcie), więc mapa rośnie najwyżej do liczby kont
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    public AuthenticationCache(
+            @Value("${booklovers.security.auth-cache.ttl:PT1M}") Duration ttl,
+            @Value("${booklovers.security.auth-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        this.secretKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+    }
+
+    // zwraca zapamiętane uwierzytelnienie tylko przy zgodnym haśle
+    public Authentication get(String username, String password) {
+        CachedAuthentication cached = cache.getIfPresent(username);
+        if (cached == null) {
+            return null;
+        }
+        byte[] digest = digest(username, password);
+        // porównanie w stałym czasie
+        return MessageDigest.isEqual(cached.digest(), digest) ? cached.authentication() : null;
+    }
+
+    // numer pobierany przed weryfikacją w bazie i przekazywany do put
+    public long generation(String username) {
+        return generations.getOrDefault(username, 0L);
+    }
+
+    // zapis tylko wtedy, gdy od pobrania numeru nie było unieważnienia - inaczej weryfikacja mogła czytać stan sprzed
+    // blokady; sprawdzenie i zapis atomowo względem invalidate (ta sama pozycja mapy cache)
+    public void put(String username, String password, Authentication authentication, long generation) {
+        CachedAuthentication entry = new CachedAuthentication(digest(username, password), authentication);
+        cache.asMap().compute(username, (key, current) -> generation(key) == generation ? entry : current);
+    }
+
+    // blokada, usunięcie konta lub zmiana hasła - po commicie, żeby równoległe logowanie nie zapisało starego stanu;
+    // inne instancje unieważniają wpis przy synchronizacji odwołań tokenów (TokenRevocationService)
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(username);
+                }
+            });
+        } else {
+            invalidate(username);
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private void invalidate(String username) {
+        generations.merge(username, 1L, Long::sum);
+        cache.invalidate(username);
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Brak algorytmu " + HMAC_ALGORITHM, e);
+        }
+    }
+
+    private record CachedAuthentication(byte[] digest, Authentication authentication) {
+    }
+}
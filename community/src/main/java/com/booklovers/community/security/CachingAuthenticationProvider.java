@@ -0,0 +1,57 @@
+package com.booklovers.community.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+// standardowe uwierzytelnienie (użytkownik z bazy + BCrypt) z cache'owaniem udanych prób;
+// nieudane próby i zablokowane konta zawsze przechodzą pełną weryfikację
+@Component
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+    private final DaoAuthenticationProvider delegate;
+    private final AuthenticationCache authenticationCache;
+
+    public CachingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+            AuthenticationCache authenticationCache) {
+        this.delegate = new DaoAuthenticationProvider(userDetailsService);
+        this.delegate.setPasswordEncoder(passwordEncoder);
+        this.authenticationCache = authenticationCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (username == null || !(credentials instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+
+        Authentication cached = authenticationCache.get(username, password);
+        if (cached != null) {
+            return copyOf(cached, authentication.getDetails());
+        }
+
+        long generation = authenticationCache.generation(username);
+        Authentication result = delegate.authenticate(authentication);
+        // w cache bez hasła - ProviderManager i tak czyści poświadczenia zwróconego obiektu
+        authenticationCache.put(username, password, copyOf(result, null), generation);
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    private Authentication copyOf(Authentication source, Object details) {
+        UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.authenticated(
+                source.getPrincipal(), null, source.getAuthorities());
+        token.setDetails(details);
+        return token;
+    }
+}
@@ -1,7 +1,15 @@
 package com.booklovers.community.security;
 
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -10,18 +18,45 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import static org.springframework.security.config.Customizer.withDefaults;
 
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
+    public static final String DEV_PROFILE = "dev";
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder(); 
     }
 
+    // bez wspólnego sekretu tokeny działałyby tylko na jednej instancji i do restartu - dopuszczalne wyłącznie w profilu dev
+    @Bean
+    public TokenService tokenService(
+            @Value("${booklovers.security.tokens.secret:}") String secret,
+            @Value("${booklovers.security.tokens.access-ttl:PT15M}") Duration accessTtl,
+            @Value("${booklovers.security.tokens.refresh-ttl:P7D}") Duration refreshTtl,
+            Environment environment) {
+        if (secret.isBlank()) {
+            if (!environment.acceptsProfiles(Profiles.of(DEV_PROFILE))) {
+                throw new IllegalStateException(
+                        "Brak booklovers.security.tokens.secret (BOOKLOVERS_TOKEN_SECRET) - losowy klucz tylko w profilu " + DEV_PROFILE);
+            }
+            log.warn("Brak booklovers.security.tokens.secret - profil {}, używam losowego klucza (tokeny nie przetrwają restartu)",
+                    DEV_PROFILE);
+            byte[] randomKey = new byte[32];
+            new SecureRandom().nextBytes(randomKey);
+            secret = Base64.getEncoder().encodeToString(randomKey);
+        }
+        return new TokenService(secret, accessTtl, refreshTtl, Clock.systemUTC());
+    }
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, TokenService tokenService) throws Exception {
         http
             // wyłączamy CSRF (dla uproszczenia przy REST API i konsoli H2)
             .csrf(csrf -> csrf.disable())
@@ -52,6 +87,7 @@ public class SecurityConfig {
                 
                 // publiczne API (Endpointy REST)
                 .requestMatchers(HttpMethod.POST, "/api/v1/users/register").permitAll() 
+                .requestMatchers(HttpMethod.POST, "/api/v1/auth/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/v1/books/**").permitAll()      
                 .requestMatchers(HttpMethod.GET, "/api/v1/authors/**").permitAll()    
                 .requestMatchers(HttpMethod.GET, "/api/v1/books/*/reviews").permitAll() 
@@ -66,12 +102,16 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.PUT, "/api/v1/authors/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/v1/authors/**").hasRole("ADMIN")
 
-                // zarządzanie recenzjami
-                .requestMatchers("/api/v1/admin/reviews/**").hasRole("ADMIN")
+                // zarządzanie recenzjami i pozostałe API admina (np. statystyki cache)
+                .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
 
                 // panel admina
                 .requestMatchers("/admin/**").hasRole("ADMIN")
 
+                // actuator - sondy publiczne, metryki (Prometheus) tylko dla ADMIN
+                .requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                 .requestMatchers(HttpMethod.DELETE, "/api/v1/users/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PATCH, "/api/v1/users/*/toggle-block").hasRole("ADMIN")
                 .anyRequest().authenticated()
@@ -92,7 +132,10 @@ public class SecurityConfig {
                 .permitAll()
             )
 
-            .httpBasic(withDefaults());
+            .httpBasic(withDefaults())
+
+            // tokeny Bearer dla klientów API (bez sesji, bez bazy i BCrypt przy każdym żądaniu)
+            .addFilterBefore(new BearerTokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class);
 
         return http.build();
     }
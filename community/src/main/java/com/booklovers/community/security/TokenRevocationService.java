@@ -0,0 +1,109 @@
+package com.booklovers.community.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.booklovers.community.model.TokenRevocation;
+import com.booklovers.community.repository.TokenRevocationRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// trwała lista odwołań tokenów; weryfikacja tokenu czyta tylko kopię w pamięci (TokenService),
+// inne instancje dociągają nowe wpisy cyklicznie
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+    // zakładka przy synchronizacji - wpisy z transakcji zatwierdzonych z opóźnieniem też zostaną wczytane
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final TokenService tokenService;
+    private final AuthenticationCache authenticationCache;
+
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    // wylogowanie / odwołanie pojedynczego tokenu (podpis musi się zgadzać, ważność nie); ponowne odwołanie nic nie zmienia
+    public void revokeToken(String token) {
+        TokenService.TokenClaims claims = tokenService.parse(token);
+        record(claims);
+        tokenService.revokeToken(claims.jti(), claims.expiresAt());
+    }
+
+    // rotacja: refresh token jest jednorazowy - wpis odwołania powstaje przed wydaniem nowych tokenów,
+    // a unikalny jti sprawia, że drugie użycie (także na innej instancji, przed synchronizacją) zostaje odrzucone
+    public void consumeRefreshToken(TokenService.TokenClaims claims) {
+        if (!record(claims)) {
+            log.warn("Ponowne użycie refresh tokenu {} użytkownika {}", claims.jti(), claims.sub());
+            throw new BadCredentialsException("Token został już użyty");
+        }
+        tokenService.revokeToken(claims.jti(), claims.expiresAt());
+    }
+
+    // blokada lub usunięcie konta - wszystkie wydane dotąd tokeny użytkownika przestają działać
+    @Transactional
+    public void revokeAllForUser(String username) {
+        Instant now = tokenService.now();
+        tokenRevocationRepository.save(TokenRevocation.builder()
+                .username(username)
+                .revokedAt(now)
+                .expiresAt(now.plus(tokenService.getRefreshTtl()))
+                .build());
+        tokenService.revokeTokensIssuedBefore(username, now);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${booklovers.security.tokens.revocation-sync:PT10S}")
+    @Transactional(readOnly = true)
+    public void synchronize() {
+        Instant now = tokenService.now();
+        List<TokenRevocation> revocations = tokenRevocationRepository
+                .findByRevokedAtAfterAndExpiresAtAfter(lastSync.minus(SYNC_OVERLAP), now);
+        revocations.forEach(this::apply);
+        lastSync = now;
+        tokenService.purgeExpired();
+    }
+
+    @Scheduled(cron = "${booklovers.security.tokens.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = tokenRevocationRepository.deleteExpired(tokenService.now());
+        log.info("Usunięto {} wygasłych odwołań tokenów", removed);
+    }
+
+    // zapis we własnej transakcji repozytorium - naruszenie klucza nie psuje transakcji wywołującego;
+    // false, gdy token był już odwołany
+    private boolean record(TokenService.TokenClaims claims) {
+        try {
+            tokenRevocationRepository.save(TokenRevocation.builder()
+                    .jti(claims.jti())
+                    .revokedAt(tokenService.now())
+                    .expiresAt(claims.expiresAt())
+                    .build());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void apply(TokenRevocation revocation) {
+        if (revocation.getJti() != null) {
+            tokenService.revokeToken(revocation.getJti(), revocation.getExpiresAt());
+        }
+        if (revocation.getUsername() != null) {
+            tokenService.revokeTokensIssuedBefore(revocation.getUsername(), revocation.getRevokedAt());
+            // blokada / usunięcie konta na innej instancji - poświadczenia Basic z cache też przestają działać
+            authenticationCache.evict(revocation.getUsername());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.booklovers.community.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// podpisane tokeny (HMAC-SHA256) weryfikowane bez zapytania do bazy.
+// format: base64url(JSON z claimami).base64url(podpis); odwołania trzymane w pamięci (synchronizuje TokenRevocationService)
+public class TokenService {
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec secretKey;
+    private final Duration accessTtl;
+    private final Duration refreshTtl;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // jti -> wygaśnięcie tokenu (po nim wpis jest zbędny)
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    // użytkownik -> tokeny wydane wcześniej są nieważne (blokada / usunięcie konta)
+    private final Map<String, Instant> userCutoffs = new ConcurrentHashMap<>();
+
+    public TokenService(String secret, Duration accessTtl, Duration refreshTtl, Clock clock) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("Sekret tokenów nie może być pusty");
+        }
+        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        this.secretKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        this.accessTtl = accessTtl;
+        this.refreshTtl = refreshTtl;
+        this.clock = clock;
+    }
+
+    public record TokenClaims(String jti, String sub, List<String> roles, String type, long iat, long exp) {
+        public Instant expiresAt() {
+            return Instant.ofEpochMilli(exp);
+        }
+    }
+
+    public record TokenPair(String accessToken, String refreshToken, long expiresIn) {
+    }
+
+    public TokenPair issue(String username, Collection<? extends GrantedAuthority> authorities) {
+        List<String> roles = authorities.stream().map(GrantedAuthority::getAuthority).toList();
+        return new TokenPair(
+                sign(newClaims(username, roles, ACCESS, accessTtl)),
+                sign(newClaims(username, roles, REFRESH, refreshTtl)),
+                accessTtl.toSeconds());
+    }
+
+    // pełna weryfikacja: podpis, typ, ważność, lista odwołań
+    public TokenClaims verify(String token, String expectedType) {
+        TokenClaims claims = parse(token);
+        if (!expectedType.equals(claims.type())) {
+            throw new BadCredentialsException("Nieprawidłowy typ tokenu");
+        }
+        long now = clock.millis();
+        if (claims.exp() <= now) {
+            throw new BadCredentialsException("Token wygasł");
+        }
+        if (revokedTokens.containsKey(claims.jti())) {
+            throw new BadCredentialsException("Token został unieważniony");
+        }
+        Instant cutoff = userCutoffs.get(claims.sub());
+        if (cutoff != null && claims.iat() <= cutoff.toEpochMilli()) {
+            throw new BadCredentialsException("Token został unieważniony");
+        }
+        return claims;
+    }
+
+    // tylko podpis - do odwoływania tokenów, także tych już nieważnych
+    public TokenClaims parse(String token) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            throw new BadCredentialsException("Nieprawidłowy token");
+        }
+        String payload = token.substring(0, dot);
+        byte[] signature;
+        try {
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new BadCredentialsException("Nieprawidłowy token");
+        }
+        if (!MessageDigest.isEqual(hmac(payload), signature)) {
+            throw new BadCredentialsException("Nieprawidłowy podpis tokenu");
+        }
+        try {
+            return objectMapper.readValue(DECODER.decode(payload), TokenClaims.class);
+        } catch (Exception e) {
+            throw new BadCredentialsException("Nieprawidłowy token");
+        }
+    }
+
+    public void revokeToken(String jti, Instant expiresAt) {
+        revokedTokens.put(jti, expiresAt);
+    }
+
+    public void revokeTokensIssuedBefore(String username, Instant cutoff) {
+        userCutoffs.merge(username, cutoff, (current, added) -> added.isAfter(current) ? added : current);
+    }
+
+    // wpisy starsze niż najdłuższy czas życia tokenu niczego już nie blokują
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        Instant oldestValidIssue = now.minus(refreshTtl);
+        userCutoffs.values().removeIf(cutoff -> cutoff.isBefore(oldestValidIssue));
+    }
+
+    public Duration getRefreshTtl() {
+        return refreshTtl;
+    }
+
+    public Instant now() {
+        return clock.instant();
+    }
+
+    private TokenClaims newClaims(String username, List<String> roles, String type, Duration ttl) {
+        long now = clock.millis();
+        return new TokenClaims(UUID.randomUUID().toString(), username, roles, type, now, now + ttl.toMillis());
+    }
+
+    private String sign(TokenClaims claims) {
+        try {
+            String payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return payload + "." + ENCODER.encodeToString(hmac(payload));
+        } catch (Exception e) {
+            throw new IllegalStateException("Nie udało się wygenerować tokenu", e);
+        }
+    }
+
+    private byte[] hmac(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Brak algorytmu " + HMAC_ALGORITHM, e);
+        }
+    }
+}
@@ -18,6 +18,8 @@ import lombok.RequiredArgsConstructor;
 public class AuthorService {
     private final AuthorRepository authorRepository;
     private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookCache bookCache;
     
     public List<Author> getAllAuthors() {
         return authorRepository.findAll();
@@ -31,6 +33,9 @@ public class AuthorService {
     @Transactional
     public void saveAuthor(Author author) {
         authorRepository.save(author);
+        // imię i nazwisko autora są indeksowane razem z jego książkami
+        bookSearchIndex.reindexAuthor(author.getId());
+        bookCache.evictBooks(bookRepository.findIdsByAuthorId(author.getId()));
     }
 
     @Transactional
@@ -0,0 +1,172 @@
+package com.booklovers.community.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookStatsDto;
+import com.booklovers.community.dto.CacheStatsDto;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.RequiredArgsConstructor;
+
+// cache szczegółów i statystyk książek po id: unieważnianie po commicie transakcji, a zapis z numerem unieważnienia -
+// odczyt rozpoczęty przed commitem zmiany nie zapisze starych danych już po jej unieważnieniu
+@Component
+@RequiredArgsConstructor
+public class BookCache {
+    public static final String BOOK_DETAILS = "bookDetails";
+    public static final String BOOK_STATS = "bookStats";
+    public static final String BOOK_COUNT = "bookCount";
+
+    private final CacheManager cacheManager;
+    // numery unieważnień: per wpis (cache, id) i per cały cache (clear); zapis porównuje ich sumę sprzed odczytu z bazy;
+    // wpisy zostają tylko dla zmienianych książek, więc mapa rośnie najwyżej do liczby książek
+    private final Map<Entry, Long> generations = new ConcurrentHashMap<>();
+    private final Map<String, Long> clears = new ConcurrentHashMap<>();
+
+    public BookDto getDetails(Long bookId, Supplier<BookDto> loader) {
+        return get(BOOK_DETAILS, bookId, loader);
+    }
+
+    public BookStatsDto getStats(Long bookId, Supplier<BookStatsDto> loader) {
+        return get(BOOK_STATS, bookId, loader);
+    }
+
+    // zmiana książki lub jej ocen - DTO i statystyki
+    public void evictBook(Long bookId) {
+        if (bookId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            evict(BOOK_DETAILS, bookId);
+            evict(BOOK_STATS, bookId);
+        });
+    }
+
+    public void evictBooks(Collection<Long> bookIds) {
+        bookIds.forEach(this::evictBook);
+    }
+
+    // zmiana półek - zmienia się tylko liczba czytelników w statystykach
+    public void evictStats(Long bookId) {
+        if (bookId == null) {
+            return;
+        }
+        afterCommit(() -> evict(BOOK_STATS, bookId));
+    }
+
+    public void evictStats(Collection<Long> bookIds) {
+        bookIds.forEach(this::evictStats);
+    }
+
+    // przybliżona liczba książek do stronicowania kursorem - COUNT najwyżej raz na czas życia wpisu
+    public long getApproximateBookCount(Supplier<Long> counter) {
+        Cache cache = cacheManager.getCache(BOOK_COUNT);
+        if (cache == null) {
+            return counter.get();
+        }
+        Long count = cache.get(SimpleKey.EMPTY, counter::get);
+        return count != null ? count : 0L;
+    }
+
+    // dodanie/usunięcie książki
+    public void evictBookCount() {
+        afterCommit(() -> {
+            Cache cache = cacheManager.getCache(BOOK_COUNT);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+    }
+
+    public void evictAll() {
+        afterCommit(() -> List.of(BOOK_DETAILS, BOOK_STATS, BOOK_COUNT).forEach(cacheName -> {
+            clears.merge(cacheName, 1L, Long::sum);
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }));
+    }
+
+    public List<CacheStatsDto> getStatistics() {
+        return cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(CaffeineCache.class::isInstance)
+                .map(CaffeineCache.class::cast)
+                .map(this::toStatsDto)
+                .toList();
+    }
+
+    private CacheStatsDto toStatsDto(CaffeineCache cache) {
+        CacheStats stats = cache.getNativeCache().stats();
+        return CacheStatsDto.builder()
+                .name(cache.getName())
+                .size(cache.getNativeCache().estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    // zapis tylko wtedy, gdy od pobrania numeru nie było unieważnienia; sprawdzenie i zapis atomowo względem evict
+    // (ta sama pozycja mapy cache), jak w AuthenticationCache
+    @SuppressWarnings("unchecked")
+    private <T> T get(String cacheName, Long bookId, Supplier<T> loader) {
+        if (!(cacheManager.getCache(cacheName) instanceof CaffeineCache cache)) {
+            return loader.get();
+        }
+        Cache.ValueWrapper cached = cache.get(bookId);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        long generation = generation(cacheName, bookId);
+        T value = loader.get();
+        if (value != null) {
+            cache.getNativeCache().asMap().compute(bookId,
+                    (key, current) -> generation(cacheName, bookId) == generation ? value : current);
+        }
+        return value;
+    }
+
+    private long generation(String cacheName, Long bookId) {
+        return clears.getOrDefault(cacheName, 0L) + generations.getOrDefault(new Entry(cacheName, bookId), 0L);
+    }
+
+    private void evict(String cacheName, Long bookId) {
+        generations.merge(new Entry(cacheName, bookId), 1L, Long::sum);
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(bookId);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Entry(String cacheName, Long bookId) {
+    }
+}
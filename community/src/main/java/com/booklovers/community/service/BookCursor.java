@@ -0,0 +1,39 @@
+package com.booklovers.community.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// nieprzezroczysty kursor stronicowania: pozycja (klucz sortowania, id) ostatniej/pierwszej książki strony
+// oraz kierunek - następna strona to "po" pozycji, poprzednia to "przed" nią
+public record BookCursor(BookSort sort, boolean backward, String key, long id) {
+    private static final String VERSION = "v1";
+
+    public enum BookSort { ID, TITLE, RELEVANCE }
+
+    public static BookCursor after(BookSort sort, String key, long id) {
+        return new BookCursor(sort, false, key, id);
+    }
+
+    public static BookCursor before(BookSort sort, String key, long id) {
+        return new BookCursor(sort, true, key, id);
+    }
+
+    // klucz na końcu - może zawierać separator (tytuł)
+    public String encode() {
+        String raw = String.join("|", VERSION, sort.name(), backward ? "B" : "F", Long.toString(id), key != null ? key : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0]) || !(parts[2].equals("B") || parts[2].equals("F"))) {
+                throw new IllegalArgumentException(raw);
+            }
+            return new BookCursor(BookSort.valueOf(parts[1]), parts[2].equals("B"), parts[4], Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Nieprawidłowy kursor stronicowania");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.booklovers.community.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.booklovers.community.dao.BookStatisticsDao;
+import com.booklovers.community.model.BookRatingSummary;
+import com.booklovers.community.repository.BookRatingSummaryRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// utrzymanie tabeli book_rating_summary - odczyt statystyk ocen w O(1) zamiast skanowania recenzji
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookRatingSummaryService {
+    private final BookRatingSummaryRepository bookRatingSummaryRepository;
+    private final BookStatisticsDao bookStatisticsDao;
+    private final BookCache bookCache;
+
+    @Transactional(readOnly = true)
+    public BookRatingSummary getSummary(Long bookId) {
+        return bookRatingSummaryRepository.findById(bookId)
+                .orElseGet(() -> BookRatingSummary.empty(bookId));
+    }
+
+    // wywoływane w transakcji dodania recenzji
+    @Transactional
+    public void recordRating(Long bookId, int rating) {
+        bookStatisticsDao.applyRatingDelta(bookId, rating, 1);
+    }
+
+    // wywoływane w transakcji usunięcia recenzji
+    @Transactional
+    public void removeRating(Long bookId, int rating) {
+        bookStatisticsDao.applyRatingDelta(bookId, rating, -1);
+    }
+
+    @Transactional
+    public void deleteSummary(Long bookId) {
+        bookStatisticsDao.deleteRatingSummary(bookId);
+    }
+
+    // zadanie uzgadniające: odbudowa agregatów od zera (przy starcie i cyklicznie)
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Scheduled(cron = "${booklovers.ratings.reconcile-cron:0 0 3 * * *}")
+    @Transactional
+    public void rebuildAll() {
+        int rows = bookStatisticsDao.rebuildRatingSummaries();
+        bookCache.evictAll();
+        log.info("Odbudowano agregaty ocen dla {} książek", rows);
+    }
+}
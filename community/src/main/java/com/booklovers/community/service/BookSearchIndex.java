@@ -0,0 +1,251 @@
+package com.booklovers.community.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.booklovers.community.dto.BookSearchDocument;
+import com.booklovers.community.repository.BookRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// indeks odwrócony (term -> książki) trzymany w pamięci; zastępuje skan LIKE '%q%' po tabelach books i authors;
+// zmiany z transakcji (reindexBook, reindexAuthor, removeBook) trafiają do indeksu dopiero po jej commicie
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndex {
+
+    static final int TITLE_WEIGHT = 5;
+    static final int ISBN_WEIGHT = 4;
+    static final int AUTHOR_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    // trafienie całego słowa liczy się wyżej niż trafienie prefiksu ("wiedzmin" vs "wiedz")
+    private static final double EXACT_MATCH_BOOST = 2.0;
+    private static final int MIN_ISBN_QUERY_LENGTH = 4;
+
+    private final BookRepository bookRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<String>> documentTerms = new ConcurrentHashMap<>();
+
+    // budowa indeksu przy starcie aplikacji
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            postings.clear();
+            documentTerms.clear();
+            try (Stream<BookSearchDocument> documents = bookRepository.streamSearchDocuments()) {
+                documents.forEach(this::index);
+            }
+        }
+        log.info("Zbudowano indeks wyszukiwania dla {} książek", documentTerms.size());
+    }
+
+    public void reindexBook(Long bookId) {
+        afterCommit(() -> readCommitted(() -> bookRepository.findSearchDocument(bookId)
+                .ifPresentOrElse(this::index, () -> remove(bookId))));
+    }
+
+    // zmiana imienia/nazwiska autora zmienia termy wszystkich jego książek
+    public void reindexAuthor(Long authorId) {
+        afterCommit(() -> readCommitted(() -> bookRepository.findSearchDocumentsByAuthorId(authorId).forEach(this::index)));
+    }
+
+    public void removeBook(Long bookId) {
+        afterCommit(() -> remove(bookId));
+    }
+
+    public synchronized void index(BookSearchDocument document) {
+        remove(document.getId());
+
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, document.getTitle(), TITLE_WEIGHT);
+        addField(weights, document.getAuthorName(), AUTHOR_WEIGHT);
+        addField(weights, document.getIsbn(), ISBN_WEIGHT);
+        addField(weights, SearchTokenizer.compactIsbn(document.getIsbn()), ISBN_WEIGHT);
+        addField(weights, document.getDescription(), DESCRIPTION_WEIGHT);
+
+        weights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(document.getId(), weight));
+        documentTerms.put(document.getId(), weights.keySet());
+    }
+
+    public synchronized void remove(Long bookId) {
+        Set<String> terms = documentTerms.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            postings.computeIfPresent(term, (t, books) -> {
+                books.remove(bookId);
+                return books.isEmpty() ? null : books;
+            });
+        }
+    }
+
+    public int size() {
+        return documentTerms.size();
+    }
+
+    // trafienie z oceną trafności; kolejność wyników: ocena malejąco, potem id rosnąco
+    public record Hit(long bookId, double score) {
+        public static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparingLong(Hit::bookId);
+    }
+
+    // strona rankingu i liczba wszystkich trafień zapytania
+    public record HitPage(List<Hit> hits, int total) {
+    }
+
+    // id wszystkich książek pasujących do wszystkich słów zapytania, od najtrafniejszej
+    public List<Long> search(String query) {
+        return searchPage(query, 0, Integer.MAX_VALUE).hits().stream().map(Hit::bookId).toList();
+    }
+
+    // strona od pozycji offset - sortowane jest tylko offset + limit najlepszych trafień, nie wszystkie
+    public HitPage searchPage(String query, int offset, int limit) {
+        Map<Long, Double> scores = score(query);
+        int count = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        List<Hit> top = top(scores, hit -> true, Hit.RANKING, count);
+        return new HitPage(top.subList(Math.min(offset, top.size()), top.size()), scores.size());
+    }
+
+    // strona za pozycją kursora (anchor) albo, wstecz, przed nią - wtedy od trafienia najbliższego kursorowi
+    public HitPage searchAfter(String query, Hit anchor, boolean backward, int limit) {
+        Map<Long, Double> scores = score(query);
+        List<Hit> top;
+        if (anchor == null) {
+            top = top(scores, hit -> true, Hit.RANKING, limit);
+        } else if (backward) {
+            top = top(scores, hit -> Hit.RANKING.compare(hit, anchor) < 0, Hit.RANKING.reversed(), limit);
+        } else {
+            top = top(scores, hit -> Hit.RANKING.compare(hit, anchor) > 0, Hit.RANKING, limit);
+        }
+        return new HitPage(top, scores.size());
+    }
+
+    private Map<Long, Double> score(String query) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        Map<Long, Double> scores = matchAllTokens(tokens);
+
+        // zapytanie w stylu "978-83-7578" dopasowujemy też do ISBN zapisanego bez myślników
+        String compactQuery = SearchTokenizer.compactIsbn(query);
+        if (compactQuery.length() >= MIN_ISBN_QUERY_LENGTH && !(tokens.size() == 1 && tokens.get(0).equals(compactQuery))) {
+            matchToken(compactQuery).forEach((bookId, score) -> scores.merge(bookId, score, Double::sum));
+        }
+        return scores;
+    }
+
+    // count pierwszych trafień w kolejności order - kopiec z najsłabszym zachowanym na szczycie, O(h log count)
+    private static List<Hit> top(Map<Long, Double> scores, Predicate<Hit> filter, Comparator<Hit> order, int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Hit> heap = new PriorityQueue<>(order.reversed());
+        scores.forEach((bookId, score) -> {
+            Hit hit = new Hit(bookId, score);
+            if (!filter.test(hit)) {
+                return;
+            }
+            if (heap.size() < count) {
+                heap.offer(hit);
+            } else if (order.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.offer(hit);
+            }
+        });
+        List<Hit> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+
+    private Map<Long, Double> matchAllTokens(List<String> tokens) {
+        Map<Long, Double> result = null;
+        for (String token : tokens) {
+            Map<Long, Double> tokenScores = matchToken(token);
+            if (result == null) {
+                result = tokenScores;
+            } else {
+                result.keySet().retainAll(tokenScores.keySet());
+                result.replaceAll((bookId, score) -> score + tokenScores.get(bookId));
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result != null ? result : new HashMap<>();
+    }
+
+    // trafienia jednego słowa: dokładny term oraz wszystkie termy zaczynające się od niego (przeszukiwanie zakresu
+    // w posortowanej mapie) - bez limitu rozwinięć, żeby wynik zgadzał się z dawnym LIKE
+    private Map<Long, Double> matchToken(String token) {
+        Map<Long, Double> scores = new HashMap<>();
+        int totalDocuments = Math.max(documentTerms.size(), 1);
+
+        for (Map.Entry<String, Map<Long, Integer>> entry : postings.tailMap(token, true).entrySet()) {
+            String term = entry.getKey();
+            if (!term.startsWith(token)) {
+                break;
+            }
+            Map<Long, Integer> books = entry.getValue();
+            double boost = term.equals(token) ? EXACT_MATCH_BOOST : 1.0;
+            // rzadsze słowa są bardziej znaczące (idf)
+            double idf = Math.log(1.0 + (double) totalDocuments / Math.max(books.size(), 1));
+
+            books.forEach((bookId, weight) -> scores.merge(bookId, weight * boost * idf, Math::max));
+        }
+        return scores;
+    }
+
+    private void addField(Map<String, Integer> weights, String text, int fieldWeight) {
+        // każde słowo liczy się raz na pole, żeby długie opisy nie zawyżały wyniku
+        SearchTokenizer.tokenize(text).stream()
+                .distinct()
+                .forEach(term -> weights.merge(term, fieldWeight, Integer::sum));
+    }
+
+    // wycofana transakcja nie zostawia w indeksie termów, których nie ma w bazie
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // odczyt po commicie - zasoby zakończonej transakcji są jeszcze związane z wątkiem, więc osobna transakcja
+    private void readCommitted(Runnable read) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> read.run());
+    }
+}
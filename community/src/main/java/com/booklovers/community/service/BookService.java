@@ -1,27 +1,40 @@
 package com.booklovers.community.service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
-import com.booklovers.community.dao.BookStatisticsDao;
+import com.booklovers.community.dao.BookExportDao;
 import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookSlice;
 import com.booklovers.community.dto.BookStatsDto;
 import com.booklovers.community.dto.RatingStatDto;
 import com.booklovers.community.exception.ResourceNotFoundException;
 import com.booklovers.community.model.Book;
+import com.booklovers.community.model.BookRatingSummary;
 import com.booklovers.community.repository.BookRepository;
-import com.booklovers.community.repository.ReviewRepository;
 import com.booklovers.community.repository.ShelfRepository;
+import com.booklovers.community.service.BookCursor.BookSort;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -29,46 +42,168 @@ import lombok.RequiredArgsConstructor;
 @Service
 @RequiredArgsConstructor
 @Validated
+@Timed(value = "booklovers.service", description = "Czas wywołań metod serwisu")
 public class BookService {
+    public static final int MAX_SCROLL_SIZE = 100;
+
     private final BookRepository bookRepository;
-    private final ReviewRepository reviewRepository;
-    private final BookStatisticsDao bookStatisticsDao;
     private final ShelfRepository shelfRepository;
+    private final BookRatingSummaryService bookRatingSummaryService;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookCache bookCache;
+    private final PopularBooksService popularBooksService;
+    private final BookExportDao bookExportDao;
+    private final ReadingStatsService readingStatsService;
     
-    // pobieranie listy książek z paginacją i mapowaniem na DTO
+    // pobieranie listy książek z paginacją - DTO (z autorem i oceną) budowane w jednym zapytaniu
     @Transactional(readOnly = true)
     public Page<BookDto> getAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable)
-                .map(this::mapToDto);
+        return bookRepository.findAllBookDtos(pageable);
     }
 
-    // wyszukiwanie (Tytuł, Autor, ISBN)
+    // wyszukiwanie (Tytuł, Autor, ISBN, Opis) - ranking z indeksu w pamięci, DTO tylko dla bieżącej strony
     @Transactional(readOnly = true)
     public Page<BookDto> searchBooks(String query, Pageable pageable) {
-        return bookRepository.searchBooks(query, pageable)
-                .map(this::mapToDto);
+        if (query == null || query.isBlank()) {
+            return getAllBooks(pageable);
+        }
+
+        int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE);
+        BookSearchIndex.HitPage page = bookSearchIndex.searchPage(query, offset, pageable.getPageSize());
+        List<Long> pageIds = page.hits().stream().map(BookSearchIndex.Hit::bookId).toList();
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, page.total());
+        }
+
+        // zachowujemy kolejność trafności z indeksu
+        Map<Long, BookDto> booksById = bookRepository.findBookDtosByIds(pageIds).stream()
+                .collect(Collectors.toMap(BookDto::getId, Function.identity()));
+        List<BookDto> content = pageIds.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new PageImpl<>(content, pageable, page.total());
     }
 
-    // pobranie szczegółów książki (można by tu dodać statystyki z DAO)
+    // stronicowanie kursorem: lista (sortowanie po id lub tytule) albo wyniki wyszukiwania (po trafności);
+    // kursor sam niesie sortowanie i kierunek, więc kolejne strony nie wymagają ponownego podania parametru sort
     @Transactional(readOnly = true)
+    public BookSlice scrollBooks(String query, String cursor, int size, BookSort sort, boolean withTotal) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        BookCursor position = (cursor == null || cursor.isBlank()) ? null : BookCursor.decode(cursor);
+
+        if (query != null && !query.isBlank()) {
+            return scrollSearchResults(query, position, pageSize, withTotal);
+        }
+
+        BookSort effectiveSort = position != null ? position.sort() : (sort != null ? sort : BookSort.ID);
+        if (effectiveSort == BookSort.RELEVANCE) {
+            effectiveSort = BookSort.ID;
+        }
+        boolean backward = position != null && position.backward();
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+
+        List<BookDto> rows = switch (effectiveSort) {
+            case TITLE -> backward
+                    ? bookRepository.findBookDtosBeforeTitle(position.key(), position.id(), limit)
+                    : bookRepository.findBookDtosAfterTitle(position != null ? position.key() : "", position != null ? position.id() : 0L, limit);
+            default -> backward
+                    ? bookRepository.findBookDtosBeforeId(position.id(), limit)
+                    : bookRepository.findBookDtosAfterId(position != null ? position.id() : 0L, limit);
+        };
+
+        BookSort keySort = effectiveSort;
+        Long total = withTotal ? bookCache.getApproximateBookCount(bookRepository::count) : null;
+        return toSlice(rows, pageSize, position, total, book -> keySort == BookSort.TITLE
+                ? BookCursor.after(keySort, book.getTitle(), book.getId())
+                : BookCursor.after(keySort, "", book.getId()));
+    }
+
+    // wyniki z indeksu w pamięci: strona za pozycją kursora (ocena, id) w rankingu, bez sortowania wszystkich trafień
+    private BookSlice scrollSearchResults(String query, BookCursor position, int pageSize, boolean withTotal) {
+        boolean backward = position != null && position.backward();
+        BookSearchIndex.Hit anchor = position == null || position.sort() != BookSort.RELEVANCE
+                ? null
+                : new BookSearchIndex.Hit(position.id(), Double.parseDouble(position.key()));
+        BookSearchIndex.HitPage page = bookSearchIndex.searchAfter(query, anchor, backward, pageSize + 1);
+
+        // przy kierunku wstecz trafienia są od najbliższego kursorowi, jak wiersze z bazy
+        List<Long> ids = page.hits().stream().map(BookSearchIndex.Hit::bookId).toList();
+        Map<Long, BookSearchIndex.Hit> hitsById = page.hits().stream()
+                .collect(Collectors.toMap(BookSearchIndex.Hit::bookId, Function.identity()));
+        Map<Long, BookDto> booksById = ids.isEmpty() ? Map.of() : bookRepository.findBookDtosByIds(ids).stream()
+                .collect(Collectors.toMap(BookDto::getId, Function.identity()));
+        List<BookDto> rows = ids.stream().map(booksById::get).filter(Objects::nonNull).toList();
+
+        Long total = withTotal ? (long) page.total() : null;
+        return toSlice(rows, pageSize, position, total, book -> BookCursor.after(BookSort.RELEVANCE,
+                Double.toString(hitsById.get(book.getId()).score()), book.getId()));
+    }
+
+    // wiersze w kolejności pobrania (przy kierunku wstecz - od końca); o jeden więcej niż strona = jest dalej
+    private BookSlice toSlice(List<BookDto> rows, int pageSize, BookCursor position, Long total,
+                              Function<BookDto, BookCursor> cursorOf) {
+        boolean backward = position != null && position.backward();
+        boolean more = rows.size() > pageSize;
+        List<BookDto> content = new ArrayList<>(more ? rows.subList(0, pageSize) : rows);
+        if (backward) {
+            Collections.reverse(content);
+        }
+
+        boolean hasNext = backward || more;
+        boolean hasPrevious = backward ? more : position != null;
+        String nextCursor = null;
+        String previousCursor = null;
+        if (!content.isEmpty()) {
+            BookCursor last = cursorOf.apply(content.get(content.size() - 1));
+            BookCursor first = cursorOf.apply(content.get(0));
+            nextCursor = hasNext ? last.encode() : null;
+            previousCursor = hasPrevious ? BookCursor.before(first.sort(), first.key(), first.id()).encode() : null;
+        }
+
+        return BookSlice.builder()
+                .content(content)
+                .size(pageSize)
+                .hasNext(nextCursor != null)
+                .hasPrevious(previousCursor != null)
+                .nextCursor(nextCursor)
+                .previousCursor(previousCursor)
+                .approximateTotal(total)
+                .build();
+    }
+
+    // pobranie szczegółów książki (cache unieważniany po id przy zmianach książki i recenzji);
+    // książka z autorem w jednym zapytaniu, więc trafienie w cache nie otwiera transakcji
     public BookDto getBookById(Long id) {
-        Book book = bookRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Książka nie znaleziona: " + id));
-        return mapToDto(book);
+        return bookCache.getDetails(id, () -> {
+            Book book = bookRepository.findWithAuthorById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Książka nie znaleziona: " + id));
+            return mapToDto(book);
+        });
     }
 
-    // przykład użycia naszego DAO (JdbcTemplate)
+    // histogram ocen (tylko niezerowe kubełki, od najwyższej oceny) z zagregowanej tabeli
     public List<RatingStatDto> getBookRatingStats(Long bookId) {
         if (!bookRepository.existsById(bookId)) {
             throw new ResourceNotFoundException("Książka nie istnieje");
         }
-        return bookStatisticsDao.getRatingDistribution(bookId);
+        BookRatingSummary summary = bookRatingSummaryService.getSummary(bookId);
+
+        List<RatingStatDto> stats = new ArrayList<>();
+        for (int rating = BookRatingSummary.MAX_RATING; rating >= BookRatingSummary.MIN_RATING; rating--) {
+            long count = summary.getStars(rating);
+            if (count > 0) {
+                stats.add(new RatingStatDto(rating, count));
+            }
+        }
+        return stats;
     }
 
     // metoda pomocnicza: mapowanie Entity -> DTO
     private BookDto mapToDto(Book book) {
-        // pobieramy średnią ocenę z repozytorium recenzji
-        Double avgRating = reviewRepository.getAverageRatingForBook(book.getId());
+        // średnia i liczba ocen z zagregowanej tabeli (bez skanowania recenzji)
+        BookRatingSummary summary = bookRatingSummaryService.getSummary(book.getId());
         
         return BookDto.builder()
                 .id(book.getId())
@@ -77,13 +212,20 @@ public class BookService {
                 .coverImage(book.getCoverImage())
                 .authorName(book.getAuthor().getFirstName() + " " + book.getAuthor().getLastName())
                 .description(book.getDescription())
-                .averageRating(avgRating != null ? avgRating : 0.0)
+                .averageRating(summary.getAverageRating())
+                .ratingCount(summary.getRatingCount())
                 .build();
     }
 
     @Transactional
     public void saveBook(@Valid @NotNull Book book) {
+        boolean isNew = book.getId() == null;
         bookRepository.save(book);
+        bookSearchIndex.reindexBook(book.getId());
+        bookCache.evictBook(book.getId());
+        if (isNew) {
+            bookCache.evictBookCount();
+        }
     }
 
     @Transactional
@@ -91,68 +233,64 @@ public class BookService {
         if (!bookRepository.existsById(id)) {
              throw new ResourceNotFoundException("Nie można usunąć. Książka nie istnieje: " + id);
         }
+        // recenzje usuwane razem z książką - najpierw odjęte od podsumowań czytelników
+        readingStatsService.removeBook(id);
         bookRepository.deleteById(id);
+        bookRatingSummaryService.deleteSummary(id);
+        bookSearchIndex.removeBook(id);
+        bookCache.evictBook(id);
+        bookCache.evictBookCount();
+        popularBooksService.remove(id);
     }
 
     public Book findEntityById(Long id) {
-        return bookRepository.findById(id)
+        return bookRepository.findWithAuthorById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Książka nie znaleziona"));
     }
 
-    public byte[] exportBooksToCsv() {
-        List<Book> books = bookRepository.findAll();
-        
-        StringBuilder csvBuilder = new StringBuilder();
-        csvBuilder.append("ID;Tytul;Autor;ISBN;Ocena\n");
-
-        for (Book book : books) {
-            csvBuilder.append(book.getId()).append(";");
-            csvBuilder.append(book.getTitle().replace(";", "")).append(";"); 
-            csvBuilder.append(book.getAuthor().getFirstName())
-                      .append(" ")
-                      .append(book.getAuthor().getLastName()).append(";");
-            csvBuilder.append(book.getIsbn()).append(";");
-            Double avg = reviewRepository.getAverageRatingForBook(book.getId());
-            csvBuilder.append(avg != null ? avg : 0.0).append("\n");
+    // eksport CSV strumieniowany prosto do odpowiedzi - pamięć stała niezależnie od rozmiaru katalogu
+    @Transactional(readOnly = true)
+    public void exportBooksToCsv(OutputStream outputStream) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write("ID;Tytul;Autor;ISBN;Ocena\n");
+        // nagłówek od razu trafia do klienta, zanim baza zwróci pierwsze wiersze
+        writer.flush();
+
+        try {
+            bookExportDao.forEachBookExportRow(row -> {
+                try {
+                    writer.write(row.getId() + ";"
+                            + row.getTitle().replace(";", "") + ";"
+                            + row.getAuthorName() + ";"
+                            + row.getIsbn() + ";"
+                            + row.getAverageRating() + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // klient przerwał pobieranie - kursor zamykany razem z zapytaniem
+            throw e.getCause();
         }
-        
-        return csvBuilder.toString().getBytes(StandardCharsets.UTF_8);
+        writer.flush();
     }
 
-    // 6 najpopularniejszych książek
-    public List<Book> getMostPopularBooks() {
-        return bookRepository.findMostPopularBooks(PageRequest.of(0, 6));
+    // najpopularniejsze książki - gotowy ranking z pamięci (PopularBooksService)
+    public List<BookDto> getMostPopularBooks() {
+        return popularBooksService.getPopularBooks();
     }
 
     public BookStatsDto getBookStatistics(Long bookId) {
-        Double avg = reviewRepository.getAverageRatingForBook(bookId);
-        if (avg == null) avg = 0.0;
-        
-        long ratingCount = reviewRepository.countByBookId(bookId);
-        long readerCount = shelfRepository.countReadersByBookId(bookId);
-
-        // rozkład ocen
-        List<Object[]> distributionRaw = reviewRepository.getRatingDistribution(bookId);
-        Map<Integer, Long> distribution = new HashMap<>();
-        
-        for (int i = 1; i <= 10; i++) {
-            distribution.put(i, 0L);
-        }
+        return bookCache.getStats(bookId, () -> {
+            BookRatingSummary summary = bookRatingSummaryService.getSummary(bookId);
+            long readerCount = shelfRepository.countReadersByBookId(bookId);
 
-        for (Object[] row : distributionRaw) {
-            Integer rating = ((Number) row[0]).intValue();
-            Long count = (Long) row[1];
-            
-            if (rating >= 1 && rating <= 10) {
-                distribution.put(rating, count);
-            }
-        }
-
-        return BookStatsDto.builder()
-                .averageRating(Math.round(avg * 100.0) / 100.0)
-                .ratingCount(ratingCount)
-                .readerCount(readerCount)
-                .ratingDistribution(distribution)
-                .build();
+            return BookStatsDto.builder()
+                    .averageRating(Math.round(summary.getAverageRating() * 100.0) / 100.0)
+                    .ratingCount(summary.getRatingCount())
+                    .readerCount(readerCount)
+                    .ratingDistribution(summary.getDistribution())
+                    .build();
+        });
     }
 }
@@ -0,0 +1,107 @@
+package com.booklovers.community.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.booklovers.community.config.AsyncConfig;
+import com.booklovers.community.dto.BookDetailsView;
+import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookStatsDto;
+import com.booklovers.community.dto.ProfileView;
+import com.booklovers.community.dto.ReadingChallengeDto;
+import com.booklovers.community.dto.ReviewFeedItemDto;
+import com.booklovers.community.model.Shelf;
+import com.booklovers.community.model.User;
+import com.booklovers.community.service.ReviewService.FeedSort;
+
+// strony książki i profilu składane z niezależnych odczytów uruchamianych równolegle na puli pageQueryExecutor,
+// każdy w osobnej transakcji tylko do odczytu - czas strony to najwolniejszy odczyt, a nie suma wszystkich;
+// encje wracają odłączone, więc odczyty muszą pobrać wszystko, czego potrzebuje widok
+@Service
+public class PageViewService {
+    private final BookService bookService;
+    private final ReviewService reviewService;
+    private final ShelfService shelfService;
+    private final UserService userService;
+    private final TaskExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public PageViewService(BookService bookService,
+            ReviewService reviewService,
+            ShelfService shelfService,
+            UserService userService,
+            @Qualifier(AsyncConfig.PAGE_QUERY_EXECUTOR) TaskExecutor executor,
+            PlatformTransactionManager transactionManager) {
+        this.bookService = bookService;
+        this.reviewService = reviewService;
+        this.shelfService = shelfService;
+        this.userService = userService;
+        this.executor = executor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // szczegóły książki: książka, strona recenzji, statystyki i (dla zalogowanego) jego półki;
+    // książka (zwykle z cache, bez transakcji) wczytywana najpierw - nieistniejące id kończy się 404
+    // bez zajmowania wątków i połączeń pozostałymi odczytami
+    public BookDetailsView getBookDetails(Long bookId, FeedSort reviewSort, int reviewPage, int reviewPageSize, String username) {
+        BookDto book = bookService.getBookById(bookId);
+        CompletableFuture<Slice<ReviewFeedItemDto>> reviews =
+                read(() -> reviewService.getReviewFeed(bookId, reviewSort, reviewPage, reviewPageSize));
+        CompletableFuture<BookStatsDto> stats = read(() -> bookService.getBookStatistics(bookId));
+        CompletableFuture<List<Shelf>> userShelves = username != null
+                ? read(() -> shelfService.getUserShelves(username))
+                : CompletableFuture.completedFuture(null);
+
+        awaitAll(reviews, stats, userShelves);
+        return BookDetailsView.builder()
+                .book(book)
+                .reviews(reviews.join())
+                .stats(stats.join())
+                .userShelves(userShelves.join())
+                .build();
+    }
+
+    // profil: użytkownik, półki z książkami i wyzwanie czytelnicze na dany rok
+    public ProfileView getProfile(String username, int year) {
+        CompletableFuture<User> user = read(() -> userService.findByUsername(username));
+        CompletableFuture<List<Shelf>> shelves = read(() -> shelfService.getUserShelvesWithBooks(username));
+        CompletableFuture<ReadingChallengeDto> challenge = read(() -> shelfService.getReadingChallenge(username, year));
+
+        awaitAll(user, shelves, challenge);
+        return ProfileView.builder()
+                .user(user.join())
+                .shelves(shelves.join())
+                .challenge(challenge.join())
+                .build();
+    }
+
+    private <T> CompletableFuture<T> read(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), executor);
+    }
+
+    // czeka na wszystkie odczyty; błąd odczytu (np. ResourceNotFoundException) wychodzi bez opakowania,
+    // żeby obsługa wyjątków kontrolera działała jak przy wywołaniu bezpośrednim
+    private static void awaitAll(CompletableFuture<?>... reads) {
+        try {
+            CompletableFuture.allOf(reads).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.booklovers.community.service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.booklovers.community.dao.BookStatisticsDao;
+import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.repository.BookRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// ranking najpopularniejszych książek liczony w tle i serwowany z pamięci (strona główna nie wykonuje żadnej agregacji)
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PopularBooksService {
+    private final BookRepository bookRepository;
+    private final BookStatisticsDao bookStatisticsDao;
+
+    @Value("${booklovers.popular-books.size:6}")
+    private int size = 6;
+
+    // 0 = bez wygaszania, liczy się sama liczba recenzji
+    @Value("${booklovers.popular-books.half-life-days:0}")
+    private double halfLifeDays;
+
+    // 0 = bez półek w rankingu
+    @Value("${booklovers.popular-books.shelf-weight:0}")
+    private double shelfWeight;
+
+    // niemutowalna migawka podmieniana atomowo przy każdym odświeżeniu
+    private volatile List<BookDto> ranking = List.of();
+
+    public List<BookDto> getPopularBooks() {
+        return ranking;
+    }
+
+    // po starcie (po odbudowie agregatów ocen) i cyklicznie co skonfigurowany interwał
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @Scheduled(fixedDelayString = "${booklovers.popular-books.refresh-interval:PT5M}",
+            initialDelayString = "${booklovers.popular-books.refresh-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public List<BookDto> refresh() {
+        Map<Long, Double> scores = new HashMap<>(bookStatisticsDao.sumReviewScores(LocalDate.now(), halfLifeDays));
+        if (shelfWeight > 0) {
+            bookStatisticsDao.countShelfEntriesPerBook()
+                    .forEach((bookId, count) -> scores.merge(bookId, count * shelfWeight, Double::sum));
+        }
+
+        List<Long> topIds = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        // ranking może być krótszy niż size - dopełniamy książkami bez aktywności (jak LEFT JOIN w starym zapytaniu)
+        if (topIds.size() < size) {
+            // wśród size + scores.size() pierwszych id jest co najmniej size książek spoza scores
+            List<Long> filler = bookRepository.findIdsOrderedById(PageRequest.of(0, size + scores.size())).stream()
+                    .filter(id -> !scores.containsKey(id))
+                    .limit(size - topIds.size())
+                    .toList();
+            topIds = Stream.concat(topIds.stream(), filler.stream()).toList();
+        }
+
+        List<BookDto> refreshed = List.of();
+        if (!topIds.isEmpty()) {
+            Map<Long, BookDto> booksById = bookRepository.findBookDtosByIds(topIds).stream()
+                    .collect(Collectors.toMap(BookDto::getId, Function.identity()));
+            refreshed = topIds.stream().map(booksById::get).filter(Objects::nonNull).toList();
+        }
+
+        ranking = refreshed;
+        log.info("Odświeżono ranking popularnych książek ({} pozycji)", refreshed.size());
+        return refreshed;
+    }
+
+    // usunięta książka znika z rankingu bez czekania na odświeżenie - po commicie usunięcia (jak BookCache),
+    // wycofane usunięcie zostawia ją w rankingu
+    public void remove(Long bookId) {
+        afterCommit(() -> ranking = ranking.stream().filter(book -> !bookId.equals(book.getId())).toList());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.booklovers.community.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.booklovers.community.config.AsyncConfig;
+import com.booklovers.community.dao.ShelfBookDao;
+import com.booklovers.community.dto.ImportJobDto;
+import com.booklovers.community.exception.ResourceNotFoundException;
+import com.booklovers.community.model.Shelf;
+import com.booklovers.community.model.ShelfBook;
+import com.booklovers.community.model.User;
+import com.booklovers.community.repository.BookRepository;
+import com.booklovers.community.repository.ShelfRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+// import profilu z backupu JSON jako zadanie w tle: parsowanie strumieniowe, tytuły rozwiązywane paczkami (IN),
+// wpisy shelf_books wstawiane wsadowo; każda paczka w osobnej krótkiej transakcji
+@Slf4j
+@Service
+public class ProfileImportService {
+    public static final int TITLE_BATCH_SIZE = 1000;
+
+    public enum ImportStatus { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final UserService userService;
+    private final ShelfRepository shelfRepository;
+    private final BookRepository bookRepository;
+    private final ShelfBookDao shelfBookDao;
+    private final BookCache bookCache;
+    private final TaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    // zakończone zadania są widoczne jeszcze przez jakiś czas
+    private final Cache<String, ImportJob> jobs;
+
+    public ProfileImportService(UserService userService, ShelfRepository shelfRepository, BookRepository bookRepository,
+            ShelfBookDao shelfBookDao, BookCache bookCache,
+            @Qualifier(AsyncConfig.PROFILE_IMPORT_EXECUTOR) TaskExecutor executor,
+            PlatformTransactionManager transactionManager,
+            @Value("${booklovers.import.job-retention:PT1H}") Duration jobRetention) {
+        this.userService = userService;
+        this.shelfRepository = shelfRepository;
+        this.bookRepository = bookRepository;
+        this.shelfBookDao = shelfBookDao;
+        this.bookCache = bookCache;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobs = Caffeine.newBuilder().expireAfterWrite(jobRetention).build();
+    }
+
+    // plik z żądania zapisujemy na dysk (multipart znika po zakończeniu żądania), resztę robi pula w tle
+    public ImportJobDto submit(String username, MultipartFile file) {
+        User user = userService.findByUsername(username);
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), username);
+
+        Path backupFile;
+        try {
+            backupFile = Files.createTempFile("profile-import-", ".json");
+        } catch (IOException e) {
+            throw new RuntimeException("Błąd podczas importu danych: " + e.getMessage(), e);
+        }
+        try {
+            file.transferTo(backupFile);
+        } catch (IOException e) {
+            deleteQuietly(backupFile);
+            throw new RuntimeException("Błąd podczas importu danych: " + e.getMessage(), e);
+        }
+
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, user, backupFile));
+        } catch (TaskRejectedException e) {
+            jobs.invalidate(job.id);
+            deleteQuietly(backupFile);
+            throw new RuntimeException("Zbyt wiele importów w toku, spróbuj ponownie później", e);
+        }
+        return job.toDto();
+    }
+
+    // stan zadania - tylko dla właściciela
+    public ImportJobDto getJob(String jobId, String username) {
+        ImportJob job = jobs.getIfPresent(jobId);
+        if (job == null || !job.username.equals(username)) {
+            throw new ResourceNotFoundException("Nie znaleziono zadania importu: " + jobId);
+        }
+        return job.toDto();
+    }
+
+    void run(ImportJob job, User user, Path backupFile) {
+        job.status = ImportStatus.RUNNING;
+        try (InputStream in = Files.newInputStream(backupFile); JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Niepoprawny format pliku backupu");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("shelves".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        importShelf(parser, job, user);
+                    }
+                } else {
+                    // pozostałe sekcje (recenzje, bio) są pomijane bez wczytywania do pamięci
+                    parser.skipChildren();
+                }
+            }
+            job.finish(ImportStatus.COMPLETED, null);
+            log.info("Import profilu {} zakończony: dodano {} książek, nie znaleziono {}",
+                    job.username, job.booksAdded.get(), job.booksNotFound.get());
+        } catch (Exception e) {
+            log.warn("Import profilu {} nie powiódł się", job.username, e);
+            job.finish(ImportStatus.FAILED, "Błąd podczas importu danych: " + e.getMessage());
+        } finally {
+            deleteQuietly(backupFile);
+        }
+    }
+
+    // jedna półka: tytuły przetwarzane paczkami po TITLE_BATCH_SIZE w trakcie czytania tablicy "books"
+    private void importShelf(JsonParser parser, ImportJob job, User user) throws IOException {
+        String name = null;
+        ShelfTarget target = null;
+        List<String> pending = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("name".equals(field) && value == JsonToken.VALUE_STRING) {
+                name = parser.getText();
+            } else if ("books".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                        pending.add(parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                    // nazwa zwykle poprzedza listę książek; jeśli nie, tytuły czekają do końca obiektu
+                    if (name != null && pending.size() >= TITLE_BATCH_SIZE) {
+                        target = target != null ? target : resolveShelf(name, user);
+                        addBooks(target, pending, job);
+                        pending = new ArrayList<>();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (name == null || name.isBlank()) {
+            log.warn("Import profilu {}: pominięto półkę bez nazwy", job.username);
+            return;
+        }
+        target = target != null ? target : resolveShelf(name, user);
+        addBooks(target, pending, job);
+        job.shelvesProcessed.incrementAndGet();
+    }
+
+    private ShelfTarget resolveShelf(String name, User user) {
+        return transactionTemplate.execute(status -> {
+            Shelf shelf = shelfRepository.findByNameAndUserId(name, user.getId())
+                    .orElseGet(() -> {
+                        Shelf newShelf = new Shelf();
+                        newShelf.setName(name);
+                        newShelf.setUser(user);
+                        newShelf.setBooks(new ArrayList<>());
+                        return shelfRepository.save(newShelf);
+                    });
+            // obecne książki półki jako zbiór - sprawdzanie duplikatów w O(1)
+            return new ShelfTarget(shelf.getId(), shelfBookDao.findBookIds(shelf.getId()));
+        });
+    }
+
+    private void addBooks(ShelfTarget target, List<String> titles, ImportJob job) {
+        if (titles.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Long> idsByTitle = new HashMap<>();
+            for (Object[] row : bookRepository.findTitleIdPairsByTitleIn(new LinkedHashSet<>(titles))) {
+                idsByTitle.putIfAbsent((String) row[0], (Long) row[1]);
+            }
+
+            Set<Long> toInsert = new LinkedHashSet<>();
+            int notFound = 0;
+            for (String title : titles) {
+                Long bookId = idsByTitle.get(title);
+                if (bookId == null) {
+                    notFound++;
+                } else if (target.bookIds.add(bookId)) {
+                    toInsert.add(bookId);
+                }
+            }
+
+            // data przeczytania z pliku jest nieznana - import nie może zaliczyć całej historii do bieżącego roku wyzwania
+            Set<Long> inserted = shelfBookDao.insertBooks(target.shelfId, toInsert, ShelfBook.UNKNOWN_ADDED_AT);
+            bookCache.evictStats(inserted);
+            job.titlesProcessed.addAndGet(titles.size());
+            job.booksAdded.addAndGet(inserted.size());
+            job.booksNotFound.addAndGet(notFound);
+        });
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Nie udało się usunąć pliku tymczasowego {}", path, e);
+        }
+    }
+
+    private record ShelfTarget(Long shelfId, Set<Long> bookIds) {
+    }
+
+    // stan zadania aktualizowany przez wątek importu, odczytywany przez endpoint statusu
+    static class ImportJob {
+        private final String id;
+        private final String username;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong shelvesProcessed = new AtomicLong();
+        private final AtomicLong titlesProcessed = new AtomicLong();
+        private final AtomicLong booksAdded = new AtomicLong();
+        private final AtomicLong booksNotFound = new AtomicLong();
+        private volatile ImportStatus status = ImportStatus.QUEUED;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        ImportJob(String id, String username) {
+            this.id = id;
+            this.username = username;
+        }
+
+        void finish(ImportStatus finalStatus, String errorMessage) {
+            this.error = errorMessage;
+            this.finishedAt = LocalDateTime.now();
+            this.status = finalStatus;
+        }
+
+        ImportJobDto toDto() {
+            return ImportJobDto.builder()
+                    .id(id)
+                    .status(status.name())
+                    .shelvesProcessed(shelvesProcessed.get())
+                    .titlesProcessed(titlesProcessed.get())
+                    .booksAdded(booksAdded.get())
+                    .booksNotFound(booksNotFound.get())
+                    .error(error)
+                    .createdAt(createdAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.booklovers.community.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.booklovers.community.dao.BookStatisticsDao;
+import com.booklovers.community.dto.YearInReviewDto;
+import com.booklovers.community.model.User;
+import com.booklovers.community.model.UserReadingMonth;
+import com.booklovers.community.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// utrzymanie tabeli user_reading_monthly - podsumowanie roku czytelnika bez skanowania recenzji
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReadingStatsService {
+    private final BookStatisticsDao bookStatisticsDao;
+    private final UserRepository userRepository;
+
+    // wywoływane w transakcji dodania recenzji
+    @Transactional
+    public void recordReview(Long userId, LocalDateTime reviewedAt, int rating) {
+        if (userId != null && reviewedAt != null) {
+            bookStatisticsDao.applyReadingDelta(userId, reviewedAt, rating, 1);
+        }
+    }
+
+    // wywoływane w transakcji usunięcia recenzji (recenzje anonimowe nie mają podsumowania)
+    @Transactional
+    public void removeReview(Long userId, LocalDateTime reviewedAt, int rating) {
+        if (userId != null && reviewedAt != null) {
+            bookStatisticsDao.applyReadingDelta(userId, reviewedAt, rating, -1);
+        }
+    }
+
+    // przed usunięciem książki razem z jej recenzjami
+    @Transactional
+    public void removeBook(Long bookId) {
+        bookStatisticsDao.subtractBookFromReadingMonths(bookId);
+    }
+
+    // przy usunięciu konta (recenzje zostają jako anonimowe)
+    @Transactional
+    public void deleteForUser(Long userId) {
+        bookStatisticsDao.deleteReadingMonths(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public YearInReviewDto getYearInReview(String username, int year) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
+
+        long[] booksRead = new long[13];
+        long[] ratingSum = new long[13];
+        for (UserReadingMonth row : bookStatisticsDao.findReadingMonths(user.getId(), year)) {
+            int month = row.getId().getReadMonth();
+            booksRead[month] = row.getBooksRead();
+            ratingSum[month] = row.getRatingSum();
+        }
+
+        List<YearInReviewDto.Month> months = new ArrayList<>(12);
+        long totalBooks = 0;
+        long totalRatings = 0;
+        for (int month = 1; month <= 12; month++) {
+            months.add(new YearInReviewDto.Month(month, booksRead[month], average(ratingSum[month], booksRead[month])));
+            totalBooks += booksRead[month];
+            totalRatings += ratingSum[month];
+        }
+
+        return YearInReviewDto.builder()
+                .year(year)
+                .booksRead(totalBooks)
+                .averageRating(average(totalRatings, totalBooks))
+                .months(months)
+                .build();
+    }
+
+    // zadanie uzgadniające: odbudowa podsumowań od zera (przy starcie i cyklicznie)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${booklovers.reading-stats.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuildAll() {
+        int rows = bookStatisticsDao.rebuildReadingMonths();
+        log.info("Odbudowano {} miesięcznych podsumowań czytelników", rows);
+    }
+
+    private static double average(long sum, long count) {
+        return count > 0 ? Math.round(sum * 100.0 / count) / 100.0 : 0.0;
+    }
+}
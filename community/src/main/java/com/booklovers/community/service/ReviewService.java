@@ -1,16 +1,34 @@
 package com.booklovers.community.service;
 
-import java.util.List;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import com.booklovers.community.dao.ReviewModerationDao;
+import com.booklovers.community.dto.ReviewFeedItemDto;
+import com.booklovers.community.dto.ReviewFilter;
+import com.booklovers.community.dto.ReviewModerationDto;
 import com.booklovers.community.model.Book;
 import com.booklovers.community.model.Review;
 import com.booklovers.community.model.User;
 import com.booklovers.community.repository.BookRepository;
 import com.booklovers.community.repository.ReviewRepository;
 import com.booklovers.community.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.Max;
@@ -24,13 +42,43 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 @Validated
 public class ReviewService {
+    public static final int MAX_FEED_SIZE = 50;
+
+    // kolejność recenzji pod książką
+    public enum FeedSort {
+        NEWEST(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"))),
+        // model nie ma głosów "pomocna" - najbardziej pomocne to najwyżej ocenione, potem najnowsze
+        HELPFUL(Sort.by(Sort.Order.desc("rating"), Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+
+        private final Sort sort;
+
+        FeedSort(Sort sort) {
+            this.sort = sort;
+        }
+    }
+
+    // NDJSON: jeden obiekt recenzji na linię
+    private static final ObjectWriter NDJSON_WRITER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build()
+            .writerFor(ReviewModerationDto.class)
+            .withRootValueSeparator("");
     
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
+    private final BookRatingSummaryService bookRatingSummaryService;
+    private final BookCache bookCache;
+    private final ReviewModerationDao reviewModerationDao;
+    private final ReadingStatsService readingStatsService;
 
-    public List<Review> getReviewsForBook(Long bookId) {
-        return reviewRepository.findByBookId(bookId);
+    // jedna strona recenzji książki (bez wczytywania wszystkich i bez doczytywania autorów)
+    public Slice<ReviewFeedItemDto> getReviewFeed(Long bookId, FeedSort sort, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_FEED_SIZE);
+        FeedSort order = sort != null ? sort : FeedSort.NEWEST;
+        return reviewRepository.findFeedByBookId(bookId, PageRequest.of(Math.max(page, 0), pageSize, order.sort));
     }
 
     @Transactional
@@ -56,14 +104,45 @@ public class ReviewService {
                 .build();
 
         reviewRepository.save(review);
+        bookRatingSummaryService.recordRating(bookId, rating);
+        readingStatsService.recordReview(user.getId(), review.getCreatedAt(), rating);
+        bookCache.evictBook(bookId);
+    }
+
+    // lista moderacji: jedna strona z filtrami, kolejność od najnowszych (sortowanie z Pageable pomijane)
+    public Page<ReviewModerationDto> getReviewsForModeration(ReviewFilter filter, Pageable pageable) {
+        return reviewModerationDao.findPage(filter != null ? filter : new ReviewFilter(), pageable);
     }
 
-    public List<Review> getAllReviews() {
-        return reviewRepository.findAll();
+    // wszystkie recenzje spełniające filtr jako NDJSON, zapisywane wiersz po wierszu z kursora
+    @Transactional
+    public void exportReviewsForModeration(ReviewFilter filter, OutputStream outputStream) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(outputStream);
+        try (JsonGenerator json = NDJSON_WRITER.createGenerator(buffered)) {
+            reviewModerationDao.forEach(filter != null ? filter : new ReviewFilter(), review -> {
+                try {
+                    NDJSON_WRITER.writeValue(json, review);
+                    json.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // klient przerwał pobieranie
+            throw e.getCause();
+        }
+        buffered.flush();
     }
 
     @Transactional
     public void deleteReview(Long id) {
+        reviewRepository.findById(id).ifPresent(review -> {
+            bookRatingSummaryService.removeRating(review.getBook().getId(), review.getRating());
+            if (review.getUser() != null) {
+                readingStatsService.removeReview(review.getUser().getId(), review.getCreatedAt(), review.getRating());
+            }
+            bookCache.evictBook(review.getBook().getId());
+        });
         reviewRepository.deleteById(id);
     }
 
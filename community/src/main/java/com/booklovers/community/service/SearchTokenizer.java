@@ -0,0 +1,46 @@
+package com.booklovers.community.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// tokenizacja tekstu dla indeksu wyszukiwania: małe litery, bez polskich znaków diakrytycznych
+public final class SearchTokenizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern NON_ISBN = Pattern.compile("[^0-9x]");
+
+    private SearchTokenizer() {
+    }
+
+    // "Wiedźmin: Krew elfów" -> [wiedzmin, krew, elfow]
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    public static String normalize(String text) {
+        // ł/Ł nie rozkłada się w NFD, więc zamieniamy je ręcznie
+        String lower = text.toLowerCase(Locale.ROOT).replace('ł', 'l');
+        return DIACRITICS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    // "978-83-7578-063-5" -> "9788375780635" (ISBN da się wtedy znaleźć z myślnikami i bez)
+    public static String compactIsbn(String isbn) {
+        if (isbn == null) {
+            return "";
+        }
+        return NON_ISBN.matcher(isbn.toLowerCase(Locale.ROOT)).replaceAll("");
+    }
+}
@@ -1,18 +1,34 @@
 package com.booklovers.community.service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
-import com.booklovers.community.model.Book;
+import com.booklovers.community.dao.ShelfBookDao;
+import com.booklovers.community.dto.ReadingChallengeDto;
+import com.booklovers.community.dto.ShelfBatchRequest;
+import com.booklovers.community.dto.ShelfBatchResponse;
 import com.booklovers.community.model.Shelf;
+import com.booklovers.community.model.ShelfBookId;
 import com.booklovers.community.model.User;
 import com.booklovers.community.repository.BookRepository;
+import com.booklovers.community.repository.ShelfBookRepository;
 import com.booklovers.community.repository.ShelfRepository;
 import com.booklovers.community.repository.UserRepository;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -20,11 +36,18 @@ import lombok.RequiredArgsConstructor;
 @Service
 @RequiredArgsConstructor
 @Validated
+@Timed(value = "booklovers.service", description = "Czas wywołań metod serwisu")
 public class ShelfService {
     
+    public static final String READ_SHELF_NAME = "Przeczytane";
+    public static final int READING_CHALLENGE_TARGET = 52;
+
     private final ShelfRepository shelfRepository;
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
+    private final ShelfBookRepository shelfBookRepository;
+    private final ShelfBookDao shelfBookDao;
+    private final BookCache bookCache;
 
     public List<Shelf> getUserShelves(@NotBlank String username) {
         User user = userRepository.findByUsername(username)
@@ -32,27 +55,26 @@ public class ShelfService {
         return shelfRepository.findAllByUserId(user.getId());
     }
 
+    // półki razem z zawartością (książki z autorami) - dla widoków, które ją wyświetlają
+    public List<Shelf> getUserShelvesWithBooks(@NotBlank String username) {
+        return shelfRepository.findAllWithBooksByUsername(username);
+    }
+
+    // członkostwo sprawdzane i wstawiane po kluczu (shelf_id, book_id), bez ładowania kolekcji półki
     @Transactional
     public void addBookToShelf(@NotNull Long shelfId, @NotNull Long bookId, @NotBlank String username) {
-        Shelf shelf = shelfRepository.findById(shelfId)
-                .orElseThrow(() -> new RuntimeException("Półka nie istnieje"));
-
-        if (!shelf.getUser().getUsername().equals(username)) {
-            throw new RuntimeException("Nie masz dostępu do tej półki");
-        }
-
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Książka nie istnieje"));
+        getShelfAndValidateOwner(shelfId, username);
+        requireBookExists(bookId);
 
-        if (!shelf.getBooks().contains(book)) {
-            shelf.getBooks().add(book);
-            shelfRepository.save(shelf);
+        if (shelfBookDao.insertBookIfAbsent(shelfId, bookId, LocalDateTime.now())) {
+            bookCache.evictStats(bookId);
         }
     }
     
     // usuwanie wszystkich półek użytkownika (np. przy usuwaniu konta)
     @Transactional
     public void deleteAllByUserId(Long userId) {
+        bookCache.evictStats(shelfRepository.findBookIdsByUserId(userId));
         shelfRepository.deleteAllByUserId(userId);
     }
 
@@ -70,26 +92,47 @@ public class ShelfService {
         Shelf shelf = new Shelf();
         shelf.setName(shelfName);
         shelf.setUser(user);
-        shelf.setBooks(new java.util.ArrayList<>());
+        shelf.setBooks(new ArrayList<>());
         shelfRepository.save(shelf);
     }
 
     @Transactional
     public void removeBookFromShelf(@NotNull Long shelfId, @NotNull Long bookId, @NotBlank String username) {
-        Shelf shelf = getShelfAndValidateOwner(shelfId, username);
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Książka nie istnieje"));
+        getShelfAndValidateOwner(shelfId, username);
+        requireBookExists(bookId);
 
-        if (shelf.getBooks().contains(book)) {
-            shelf.getBooks().remove(book);
-            shelfRepository.save(shelf);
+        if (shelfBookRepository.deleteMembership(shelfId, bookId) > 0) {
+            bookCache.evictStats(bookId);
         }
     }
 
+    // własność obu półek sprawdzana jednym zapytaniem, wiersz shelf_books przenoszony jednym UPDATE-em;
+    // dwa równoległe przeniesienia tej samej książki: drugie czeka na blokadę wiersza i po commicie pierwszego
+    // nie znajduje już wiersza na półce źródłowej - kończy się błędem, zamiast dokładać książkę na swoją półkę docelową
     @Transactional
     public void moveBook(@NotNull Long sourceShelfId, @NotNull Long targetShelfId, @NotNull Long bookId, @NotBlank String username) {
-        removeBookFromShelf(sourceShelfId, bookId, username);
-        addBookToShelf(targetShelfId, bookId, username);
+        validateOwner(new HashSet<>(Arrays.asList(sourceShelfId, targetShelfId)), username);
+
+        if (sourceShelfId.equals(targetShelfId)) {
+            requireOnShelf(shelfBookRepository.existsById(new ShelfBookId(sourceShelfId, bookId)), bookId);
+            return;
+        }
+        if (shelfBookRepository.moveMembership(sourceShelfId, targetShelfId, bookId) > 0) {
+            bookCache.evictStats(bookId);
+            return;
+        }
+
+        // książka już jest na docelowej - zostaje tylko usunięta ze źródłowej
+        boolean removed = shelfBookRepository.deleteMembership(sourceShelfId, bookId) > 0;
+        requireOnShelf(removed, bookId);
+        bookCache.evictStats(bookId);
+    }
+
+    private void requireOnShelf(boolean onShelf, Long bookId) {
+        if (!onShelf) {
+            requireBookExists(bookId);
+            throw new RuntimeException("Książki nie ma na półce źródłowej");
+        }
     }
 
     private Shelf getShelfAndValidateOwner(Long shelfId, String username) {
@@ -101,12 +144,129 @@ public class ShelfService {
         return shelf;
     }
 
-    public int getBooksReadCount(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // operacja zbiorcza w jednej transakcji: stan półki czytany jednym zapytaniem, zmiany wysyłane jako JDBC batch;
+    // statusy i licznik zmian z wierszy faktycznie zmienionych przez batch - równoległa zmiana półki między odczytem
+    // a zapisem daje ALREADY_ON_SHELF / NOT_ON_SHELF zamiast zgłoszenia zmiany, której nie było
+    @Transactional
+    public ShelfBatchResponse applyBatch(@NotNull Long shelfId, @NotNull @Valid ShelfBatchRequest request, @NotBlank String username) {
+        ShelfBatchRequest.Action action = request.getAction();
+        Long targetShelfId = request.getTargetShelfId();
+        if (action == ShelfBatchRequest.Action.MOVE) {
+            if (targetShelfId == null || targetShelfId.equals(shelfId)) {
+                throw new RuntimeException("Wskaż inną półkę docelową");
+            }
+            validateOwner(Set.of(shelfId, targetShelfId), username);
+        } else {
+            validateOwner(Set.of(shelfId), username);
+        }
+
+        Set<Long> requested = new LinkedHashSet<>(request.getBookIds());
+        Set<Long> existing = new HashSet<>(bookRepository.findExistingIds(requested));
+        Set<Long> onShelf = shelfBookDao.findBookIds(shelfId, requested);
+        Set<Long> onTarget = action == ShelfBatchRequest.Action.MOVE
+                ? shelfBookDao.findBookIds(targetShelfId, requested)
+                : Set.of();
+
+        List<ShelfBatchResponse.ItemResult> results = new ArrayList<>(request.getBookIds().size());
+        Map<Long, ShelfBatchResponse.ItemResult> planned = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        List<Long> toInsert = new ArrayList<>();
+        List<Long> toDelete = new ArrayList<>();
+        for (Long bookId : request.getBookIds()) {
+            ShelfBatchResponse.Status status;
+            if (!seen.add(bookId)) {
+                status = ShelfBatchResponse.Status.DUPLICATE;
+            } else if (!existing.contains(bookId)) {
+                status = ShelfBatchResponse.Status.BOOK_NOT_FOUND;
+            } else if (action == ShelfBatchRequest.Action.ADD) {
+                status = onShelf.contains(bookId) ? ShelfBatchResponse.Status.ALREADY_ON_SHELF : ShelfBatchResponse.Status.ADDED;
+                if (status == ShelfBatchResponse.Status.ADDED) {
+                    toInsert.add(bookId);
+                }
+            } else if (!onShelf.contains(bookId)) {
+                status = ShelfBatchResponse.Status.NOT_ON_SHELF;
+            } else {
+                toDelete.add(bookId);
+                status = ShelfBatchResponse.Status.REMOVED;
+                if (action == ShelfBatchRequest.Action.MOVE) {
+                    // książka już na półce docelowej - wystarczy usunąć ją ze źródłowej
+                    if (!onTarget.contains(bookId)) {
+                        toInsert.add(bookId);
+                    }
+                    status = ShelfBatchResponse.Status.MOVED;
+                }
+            }
+            ShelfBatchResponse.ItemResult result = new ShelfBatchResponse.ItemResult(bookId, status);
+            results.add(result);
+            if (status != ShelfBatchResponse.Status.DUPLICATE) {
+                planned.put(bookId, result);
+            }
+        }
+
+        Set<Long> deleted = shelfBookDao.deleteBooks(shelfId, toDelete);
+        for (Long bookId : toDelete) {
+            if (!deleted.contains(bookId)) {
+                planned.get(bookId).setStatus(ShelfBatchResponse.Status.NOT_ON_SHELF);
+            }
+        }
+        // przenoszone są tylko książki, które faktycznie zniknęły z półki źródłowej
+        toInsert.removeIf(bookId -> action == ShelfBatchRequest.Action.MOVE && !deleted.contains(bookId));
+        Set<Long> inserted = shelfBookDao.insertBooks(action == ShelfBatchRequest.Action.MOVE ? targetShelfId : shelfId,
+                toInsert, LocalDateTime.now());
+        if (action == ShelfBatchRequest.Action.ADD) {
+            for (Long bookId : toInsert) {
+                if (!inserted.contains(bookId)) {
+                    planned.get(bookId).setStatus(ShelfBatchResponse.Status.ALREADY_ON_SHELF);
+                }
+            }
+        }
+
+        Set<Long> changed = new LinkedHashSet<>(deleted);
+        changed.addAll(inserted);
+        bookCache.evictStats(changed);
+
+        return ShelfBatchResponse.builder()
+                .shelfId(shelfId)
+                .action(action)
+                .changed(changed.size())
+                .results(results)
+                .build();
+    }
 
-        return shelfRepository.findByNameAndUserId("Przeczytane", user.getId())
-                .map(shelf -> shelf.getBooks().size())
+    private void validateOwner(Set<Long> shelfIds, String username) {
+        List<Object[]> owners = shelfRepository.findOwnerUsernames(shelfIds);
+        if (owners.size() < shelfIds.size()) {
+            throw new RuntimeException("Półka nie istnieje");
+        }
+        for (Object[] owner : owners) {
+            if (!username.equals(owner[1])) {
+                throw new RuntimeException("Nie masz dostępu do tej półki");
+            }
+        }
+    }
+
+    private void requireBookExists(Long bookId) {
+        if (!bookRepository.existsById(bookId)) {
+            throw new RuntimeException("Książka nie istnieje");
+        }
+    }
+
+    // liczniki półki "Przeczytane" liczone COUNT-em na shelf_books, bez ładowania książek
+    public int getBooksReadCount(@NotBlank String username) {
+        return shelfRepository.findIdByUsernameAndName(username, READ_SHELF_NAME)
+                .map(shelfId -> (int) shelfBookRepository.countByIdShelfId(shelfId))
                 .orElse(0);
     }
+
+    public ReadingChallengeDto getReadingChallenge(@NotBlank String username, int year) {
+        LocalDateTime from = LocalDate.of(year, 1, 1).atStartOfDay();
+        long booksRead = shelfRepository.findIdByUsernameAndName(username, READ_SHELF_NAME)
+                .map(shelfId -> shelfBookRepository.countAddedBetween(shelfId, from, from.plusYears(1)))
+                .orElse(0L);
+        return ReadingChallengeDto.builder()
+                .year(year)
+                .booksRead(booksRead)
+                .target(READING_CHALLENGE_TARGET)
+                .build();
+    }
 }
@@ -1,6 +1,8 @@
 package com.booklovers.community.service;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -10,18 +12,18 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.booklovers.community.dao.BookStatisticsDao;
-import com.booklovers.community.dto.UserBackupDto;
+import com.booklovers.community.dao.ProfileBackupDao;
 import com.booklovers.community.dto.UserRegisterDto;
-import com.booklovers.community.model.Book;
-import com.booklovers.community.model.Review;
 import com.booklovers.community.model.Shelf;
 import com.booklovers.community.model.User;
-import com.booklovers.community.repository.BookRepository;
 import com.booklovers.community.repository.ReviewRepository;
 import com.booklovers.community.repository.ShelfRepository;
 import com.booklovers.community.repository.UserRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.booklovers.community.security.AuthenticationCache;
+import com.booklovers.community.security.TokenRevocationService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
@@ -39,7 +41,16 @@ public class UserService {
     private final BookStatisticsDao bookStatisticsDao;
     private final FileStorageService fileStorageService;
     private final ReviewRepository reviewRepository;
-    private final BookRepository bookRepository;
+    private final BookCache bookCache;
+    private final AuthenticationCache authenticationCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final ProfileBackupDao profileBackupDao;
+    private final ReadingStatsService readingStatsService;
+
+    // wspólna, bezstanowa fabryka generatorów JSON (zamiast nowego ObjectMappera przy każdym backupie)
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
 
     @Transactional
     public User registerUser(@Valid @NotNull UserRegisterDto dto) {
@@ -110,6 +121,11 @@ public class UserService {
             .orElseThrow(() -> new RuntimeException("User not found"));
         user.setEnabled(!user.isEnabled());
         userRepository.save(user);
+        // zablokowany użytkownik nie może dalej logować się z cache ani wydanymi wcześniej tokenami
+        authenticationCache.evict(user.getUsername());
+        if (!user.isEnabled()) {
+            tokenRevocationService.revokeAllForUser(user.getUsername());
+        }
     }
     
     // lista użytkowników
@@ -117,90 +133,86 @@ public class UserService {
         return userRepository.findAll();
     }
 
-    // usuwanie z anonimizacją (admin)
+    // usuwanie z anonimizacją (admin) - recenzje zostają, więc agregaty ocen książek się nie zmieniają
     @Transactional
     public void deleteUserByAdmin(Long userId) {
+        userRepository.findById(userId).ifPresent(user -> {
+            authenticationCache.evict(user.getUsername());
+            tokenRevocationService.revokeAllForUser(user.getUsername());
+        });
         reviewRepository.anonymizeReviewsByUserId(userId);
+        readingStatsService.deleteForUser(userId);
+        // usunięte półki zmieniają liczbę czytelników książek
+        bookCache.evictStats(shelfRepository.findBookIdsByUserId(userId));
         shelfRepository.deleteAllByUserId(userId);
         userRepository.deleteById(userId);
     }
 
-    // generowanie JSON
-    public byte[] generateProfileBackup(String username) {
-        try {
-            User user = findByUsername(username);
-            
-            List<Shelf> shelves = shelfRepository.findAllByUserId(user.getId());
-            List<Review> reviews = reviewRepository.findAllByUserId(user.getId());
-
-            List<UserBackupDto.ShelfBackupDto> shelvesDto = shelves.stream()
-                .map(s -> UserBackupDto.ShelfBackupDto.builder()
-                        .name(s.getName())
-                        .books(s.getBooks().stream().map(Book::getTitle).toList())
-                        .build())
-                .toList();
-
-            List<UserBackupDto.ReviewBackupDto> reviewsDto = reviews.stream()
-                .map(r -> UserBackupDto.ReviewBackupDto.builder()
-                        .bookTitle(r.getBook().getTitle())
-                        .rating(r.getRating())
-                        .content(r.getContent())
-                        .createdAt(r.getCreatedAt() != null ? r.getCreatedAt().toString() : "")
-                        .build())
-                .toList();
-
-            UserBackupDto backupDto = UserBackupDto.builder()
-                    .username(user.getUsername())
-                    .email(user.getEmail())
-                    .bio(user.getBio())
-                    .joinDate(user.getCreatedAt() != null ? user.getCreatedAt().toString() : "")
-                    .shelves(shelvesDto)
-                    .reviews(reviewsDto)
-                    .build();
-
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new JavaTimeModule()); 
-            
-            return mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(backupDto);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Błąd podczas generowania backupu", e);
+    // backup profilu (JSON) zapisywany strumieniowo - półki i recenzje trafiają do wyjścia wiersz po wierszu
+    @Transactional(readOnly = true)
+    public void writeProfileBackup(User user, OutputStream outputStream) throws IOException {
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(outputStream)) {
+            json.useDefaultPrettyPrinter();
+            json.writeStartObject();
+            json.writeStringField("username", user.getUsername());
+            json.writeStringField("email", user.getEmail());
+            json.writeStringField("bio", user.getBio());
+            json.writeStringField("joinDate", user.getCreatedAt() != null ? user.getCreatedAt().toString() : "");
+
+            json.writeArrayFieldStart("shelves");
+            Long[] currentShelf = { null };
+            profileBackupDao.forEachShelfEntry(user.getId(), entry -> write(() -> {
+                if (!entry.shelfId().equals(currentShelf[0])) {
+                    if (currentShelf[0] != null) {
+                        json.writeEndArray();
+                        json.writeEndObject();
+                    }
+                    currentShelf[0] = entry.shelfId();
+                    json.writeStartObject();
+                    json.writeStringField("name", entry.shelfName());
+                    json.writeArrayFieldStart("books");
+                }
+                if (entry.bookTitle() != null) {
+                    json.writeString(entry.bookTitle());
+                }
+            }));
+            if (currentShelf[0] != null) {
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("reviews");
+            profileBackupDao.forEachReview(user.getId(), review -> write(() -> {
+                json.writeStartObject();
+                json.writeStringField("bookTitle", review.bookTitle());
+                if (review.rating() != null) {
+                    json.writeNumberField("rating", review.rating());
+                } else {
+                    json.writeNullField("rating");
+                }
+                json.writeStringField("content", review.content());
+                json.writeStringField("createdAt", review.createdAt() != null ? review.createdAt().toString() : "");
+                json.writeEndObject();
+            }));
+            json.writeEndArray();
+
+            json.writeEndObject();
+        } catch (UncheckedIOException e) {
+            // klient przerwał pobieranie
+            throw e.getCause();
         }
     }
 
-    @Transactional
-    public void importProfile(String username, MultipartFile file) {
+    private interface JsonWrite {
+        void run() throws IOException;
+    }
+
+    private static void write(JsonWrite action) {
         try {
-            User user = findByUsername(username);
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new JavaTimeModule());
-
-            UserBackupDto backup = mapper.readValue(file.getInputStream(), UserBackupDto.class);
-
-            if (backup.getShelves() != null) {
-                for (UserBackupDto.ShelfBackupDto shelfDto : backup.getShelves()) {
-                    
-                    Shelf shelf = shelfRepository.findByNameAndUserId(shelfDto.getName(), user.getId())
-                            .orElseGet(() -> {
-                                Shelf newShelf = new Shelf();
-                                newShelf.setName(shelfDto.getName());
-                                newShelf.setUser(user);
-                                newShelf.setBooks(new ArrayList<>());
-                                return shelfRepository.save(newShelf);
-                            });
-
-                    for (String bookTitle : shelfDto.getBooks()) {
-                        bookRepository.findByTitle(bookTitle).ifPresent(book -> {
-                            if (!shelf.getBooks().contains(book)) {
-                                shelf.getBooks().add(book);
-                            }
-                        });
-                    }
-                    shelfRepository.save(shelf);
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Błąd podczas importu danych: " + e.getMessage(), e);
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 }
@@ -0,0 +1,53 @@
+-- schemat bazowy - tabele, które ddl-auto: update zakładało przed wprowadzeniem migracji;
+-- istniejąca baza jest w tej wersji, więc dostaje ją bez wykonywania (spring.flyway.baseline-on-migrate),
+-- a wszystko dodane później (tabele pochodne, klucz shelf_books, indeksy) zakładają kolejne wersje
+
+CREATE TABLE IF NOT EXISTS authors (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    first_name VARCHAR(50) NOT NULL,
+    last_name VARCHAR(50) NOT NULL,
+    bio TEXT
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255) NOT NULL,
+    enabled BOOLEAN NOT NULL,
+    bio VARCHAR(1000),
+    avatar VARCHAR(255),
+    created_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS books (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title VARCHAR(100) NOT NULL,
+    isbn VARCHAR(255) NOT NULL UNIQUE,
+    description TEXT,
+    cover_image VARCHAR(255),
+    author_id BIGINT NOT NULL REFERENCES authors (id)
+);
+
+CREATE TABLE IF NOT EXISTS reviews (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    rating INTEGER NOT NULL CHECK (rating >= 1 AND rating <= 10),
+    content TEXT NOT NULL,
+    created_at TIMESTAMP(6),
+    book_id BIGINT NOT NULL REFERENCES books (id),
+    user_id BIGINT REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS shelves (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(50) NOT NULL,
+    is_system_shelf BOOLEAN NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users (id)
+);
+
+-- tabela złączeniowa Shelf.books w postaci z ddl-auto: bez klucza głównego (klucz i added_at dodają V4 i V5)
+CREATE TABLE IF NOT EXISTS shelf_books (
+    shelf_id BIGINT NOT NULL REFERENCES shelves (id),
+    book_id BIGINT NOT NULL REFERENCES books (id)
+);
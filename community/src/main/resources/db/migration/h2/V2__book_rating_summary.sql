@@ -0,0 +1,17 @@
+-- zdenormalizowane agregaty ocen książki; wypełnia je odbudowa przy starcie (BookRatingSummaryService)
+
+CREATE TABLE IF NOT EXISTS book_rating_summary (
+    book_id BIGINT NOT NULL PRIMARY KEY,
+    rating_sum BIGINT NOT NULL,
+    rating_count BIGINT NOT NULL,
+    stars_1 BIGINT NOT NULL,
+    stars_2 BIGINT NOT NULL,
+    stars_3 BIGINT NOT NULL,
+    stars_4 BIGINT NOT NULL,
+    stars_5 BIGINT NOT NULL,
+    stars_6 BIGINT NOT NULL,
+    stars_7 BIGINT NOT NULL,
+    stars_8 BIGINT NOT NULL,
+    stars_9 BIGINT NOT NULL,
+    stars_10 BIGINT NOT NULL
+);
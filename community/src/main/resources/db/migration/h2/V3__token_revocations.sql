@@ -0,0 +1,12 @@
+-- odwołane tokeny API (jti) i odwołania wszystkich tokenów użytkownika (username)
+
+CREATE TABLE IF NOT EXISTS token_revocations (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    jti VARCHAR(64),
+    username VARCHAR(50),
+    revoked_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- synchronizacja instancji czyta wpisy nowsze niż ostatnio widziany
+CREATE INDEX IF NOT EXISTS idx_token_revocations_revoked_at ON token_revocations (revoked_at);
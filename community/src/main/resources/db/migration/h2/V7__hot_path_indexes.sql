@@ -0,0 +1,15 @@
+-- indeksy dla gorących zapytań
+-- reviews.book_id / reviews.user_id: prefiksy idx_reviews_book_created_at i idx_reviews_user_created_at
+-- shelf_books.book_id: prefiks klucza głównego (book_id, shelf_id) - ShelfRepository.countReadersByBookId
+-- H2 sam indeksuje kolumny kluczy obcych (np. books.author_id)
+
+-- indeksy zadeklarowane w encjach (@Table(indexes = ...)): stronicowanie po kursorze, kanał recenzji, moderacja
+CREATE INDEX IF NOT EXISTS idx_books_title_id ON books (title, id);
+CREATE INDEX IF NOT EXISTS idx_reviews_created_at_id ON reviews (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_reviews_book_created_at ON reviews (book_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_reviews_book_rating ON reviews (book_id, rating, created_at);
+CREATE INDEX IF NOT EXISTS idx_reviews_user_created_at ON reviews (user_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_shelf_books_shelf_added_at ON shelf_books (shelf_id, added_at);
+
+-- ShelfRepository.findIdByUsernameAndName, półki użytkownika
+CREATE INDEX IF NOT EXISTS idx_shelves_user_name ON shelves (user_id, name);
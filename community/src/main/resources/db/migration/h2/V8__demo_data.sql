@@ -1,3 +1,5 @@
+-- dane demonstracyjne bazy deweloperskiej H2 (dawniej data.sql)
+
 -- 1. Dodawanie Autorów
 INSERT INTO authors (id, first_name, last_name, bio) VALUES 
 (1, 'Andrzej', 'Sapkowski', 'Polski pisarz fantasy, twórca Wiedźmina.'),
@@ -0,0 +1,8 @@
+-- jeden wpis na token: zapis odwołania przy odświeżeniu to zarazem zużycie refresh tokenu,
+-- więc drugi zapis tego samego jti (równoległe odświeżenie na innej instancji) kończy się naruszeniem klucza;
+-- wpisy dla użytkownika (jti = NULL) klucz pomija
+DELETE FROM token_revocations
+WHERE jti IS NOT NULL
+  AND EXISTS (SELECT 1 FROM token_revocations older WHERE older.jti = token_revocations.jti AND older.id < token_revocations.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_token_revocations_jti ON token_revocations (jti);
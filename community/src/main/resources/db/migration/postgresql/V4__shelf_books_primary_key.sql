@@ -0,0 +1,8 @@
+-- klucz złożony shelf_books (ShelfBook/ShelfBookId); kolumna wiodąca book_id obsługuje też liczenie czytelników książki
+-- ddl-auto nie zakładało klucza, więc ta sama książka mogła trafić na półkę kilka razy - zostaje jeden wiersz na parę
+
+DELETE FROM shelf_books sb
+USING shelf_books dup
+WHERE dup.shelf_id = sb.shelf_id AND dup.book_id = sb.book_id AND dup.ctid < sb.ctid;
+
+ALTER TABLE shelf_books ADD CONSTRAINT pk_shelf_books PRIMARY KEY (book_id, shelf_id);
@@ -0,0 +1,6 @@
+-- chwila dodania książki na półkę (wyzwanie czytelnicze)
+-- dla wierszy sprzed migracji jest nieznana: dostają wartość umowną 1970-01-01 zamiast czasu migracji,
+-- żeby nie liczyły się jako przeczytane w roku wdrożenia - wyzwanie pokazuje tylko bieżące lata, więc zostają poza nim;
+-- nowe wiersze dostają CURRENT_TIMESTAMP
+ALTER TABLE shelf_books ADD COLUMN added_at TIMESTAMP(6) DEFAULT TIMESTAMP '1970-01-01 00:00:00' NOT NULL;
+ALTER TABLE shelf_books ALTER COLUMN added_at SET DEFAULT CURRENT_TIMESTAMP;
@@ -0,0 +1,10 @@
+-- miesięczne podsumowania czytania per użytkownik; wypełnia je odbudowa przy starcie (ReadingStatsService)
+
+CREATE TABLE IF NOT EXISTS user_reading_monthly (
+    user_id BIGINT NOT NULL,
+    read_year INTEGER NOT NULL,
+    read_month INTEGER NOT NULL,
+    books_read BIGINT NOT NULL,
+    rating_sum BIGINT NOT NULL,
+    PRIMARY KEY (user_id, read_year, read_month)
+);
@@ -0,0 +1,18 @@
+-- indeksy dla gorących zapytań, zakładane CONCURRENTLY (bez blokady zapisu) - patrz V7__hot_path_indexes.sql.conf
+-- reviews.book_id / reviews.user_id: prefiksy idx_reviews_book_created_at i idx_reviews_user_created_at
+-- shelf_books.book_id: prefiks klucza głównego (book_id, shelf_id) - ShelfRepository.countReadersByBookId
+-- wyszukiwanie książek idzie przez indeks w pamięci (BookSearchIndex), więc bez indeksów trigramowych dla LIKE '%q%'
+
+-- indeksy zadeklarowane w encjach (@Table(indexes = ...)): stronicowanie po kursorze, kanał recenzji, moderacja
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_title_id ON books (title, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviews_created_at_id ON reviews (created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviews_book_created_at ON reviews (book_id, created_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviews_book_rating ON reviews (book_id, rating, created_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviews_user_created_at ON reviews (user_id, created_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_shelf_books_shelf_added_at ON shelf_books (shelf_id, added_at);
+
+-- ShelfRepository.findIdByUsernameAndName, półki użytkownika
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_shelves_user_name ON shelves (user_id, name);
+
+-- PostgreSQL nie indeksuje kluczy obcych automatycznie (złączenia books-authors, usuwanie autora)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_author_id ON books (author_id);
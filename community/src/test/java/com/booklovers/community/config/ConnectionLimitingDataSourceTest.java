@@ -0,0 +1,84 @@
+package com.booklovers.community.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ConnectionLimitingDataSourceTest {
+
+    private JdbcDataSource target;
+
+    @BeforeEach
+    void setUp() {
+        target = new JdbcDataSource();
+        target.setURL("jdbc:h2:mem:limiter;DB_CLOSE_DELAY=-1");
+    }
+
+    // po wyczerpaniu limitu kolejny wątek czeka i po acquireTimeout dostaje błąd przejściowy
+    @Test
+    void shouldFailWhenLimitExhaustedAfterTimeout() throws Exception {
+        // given
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(50));
+
+        // when & then
+        try (Connection held = dataSource.getConnection()) {
+            assertThat(dataSource.getAvailablePermits()).isZero();
+            assertThatThrownBy(dataSource::getConnection)
+                    .isInstanceOf(SQLTransientConnectionException.class)
+                    .hasMessageContaining("Brak wolnego połączenia z bazą po 50 ms (limit 1");
+        }
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    // czekający wątek dostaje połączenie, gdy inny je zamknie
+    @Test
+    void shouldHandOverPermitWhenConnectionClosed() throws Exception {
+        // given
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofSeconds(5));
+        Connection held = dataSource.getConnection();
+        boolean[] acquired = new boolean[1];
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                acquired[0] = connection.isValid(1);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.getWaitingThreads() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // when
+        held.close();
+        waiter.join(5000);
+
+        // then
+        assertThat(acquired[0]).isTrue();
+        assertThat(dataSource.getWaitingThreads()).isZero();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    // wielokrotne close() zwalnia miejsce tylko raz
+    @Test
+    void shouldReleasePermitOnlyOnceOnRepeatedClose() throws Exception {
+        // given
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 2, Duration.ofMillis(50));
+        Connection connection = dataSource.getConnection();
+
+        // when
+        connection.close();
+        connection.close();
+
+        // then
+        assertThat(connection.isClosed()).isTrue();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+        assertThat(connection.unwrap(Connection.class)).isSameAs(connection);
+    }
+}
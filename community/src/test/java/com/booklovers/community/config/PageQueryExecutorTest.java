@@ -0,0 +1,63 @@
+package com.booklovers.community.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+// jedno połączenie w puli i jeden wątek pageQueryExecutor: nadmiarowe odczyty strony idą w wątku żądania (CallerRunsPolicy);
+// wątek żądania nie może przy tym trzymać połączenia (open-in-view), bo odczyty na puli czekałyby na nie do timeoutu;
+// Flyway dostaje własne połączenie (migracja trzyma dwa naraz), więc baza w pamięci musi przetrwać jego zamknięcie
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pagequerydb;DB_CLOSE_DELAY=-1",
+        "spring.flyway.url=${spring.datasource.url}",
+        "spring.flyway.user=${spring.datasource.username}",
+        "spring.flyway.password=${spring.datasource.password}",
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "spring.datasource.hikari.connection-timeout=2000",
+        "booklovers.page-queries.threads=1"
+})
+@AutoConfigureMockMvc
+public class PageQueryExecutorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldRenderConcurrentPagesWithSingleConnection() throws Exception {
+        // given
+        ExecutorService pages = Executors.newFixedThreadPool(2);
+        Callable<Integer> bookPages = () -> {
+            int status = 0;
+            for (int i = 0; i < 5; i++) {
+                status = Math.max(status, mockMvc.perform(get("/books/" + (i % 3 + 1))).andReturn().getResponse().getStatus());
+            }
+            return status;
+        };
+
+        // when
+        List<Future<Integer>> results;
+        try {
+            results = pages.invokeAll(List.of(bookPages, bookPages), 30, TimeUnit.SECONDS);
+        } finally {
+            pages.shutdownNow();
+        }
+
+        // then
+        for (Future<Integer> result : results) {
+            assertThat(result.isCancelled()).isFalse();
+            assertThat(result.get()).isEqualTo(200);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.booklovers.community.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.booklovers.community.repository.BookRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// tryb wątków wirtualnych: DataSource za ogranicznikiem o rozmiarze puli Hikari, JPA działa przez niego
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+public class VirtualThreadsConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldLimitConnectionsToPoolSize() throws Exception {
+        // when
+        ConnectionLimitingDataSource limiter = dataSource.unwrap(ConnectionLimitingDataSource.class);
+        Integer one = jdbcTemplate.queryForObject("select 1", Integer.class);
+        bookRepository.count();
+
+        // then
+        assertThat(limiter.getMaxConcurrent()).isEqualTo(10);
+        assertThat(one).isEqualTo(1);
+        assertThat(limiter.getAvailablePermits()).isEqualTo(10);
+        assertThat(meterRegistry.get("booklovers.datasource.limiter.available").gauge().value()).isEqualTo(10);
+    }
+}
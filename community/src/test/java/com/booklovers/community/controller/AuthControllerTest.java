@@ -1,21 +1,35 @@
 package com.booklovers.community.controller;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.booklovers.community.dto.RefreshTokenRequest;
+import com.booklovers.community.dto.TokenRequest;
 import com.booklovers.community.dto.UserRegisterDto;
 import com.booklovers.community.model.User;
+import com.booklovers.community.security.TokenRevocationService;
+import com.booklovers.community.security.TokenService;
 import com.booklovers.community.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -37,6 +51,18 @@ public class AuthControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private TokenService tokenService;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
     // poprawna rejestracja (201 Created)
     @Test
     @WithMockUser 
@@ -174,4 +200,114 @@ public class AuthControllerTest {
                 .andExpect(status().isBadRequest()); 
                 // HttpMessageNotReadableException: Required request body is missing
     }
+
+    // wydanie tokenów po jednorazowej weryfikacji hasła
+    @Test
+    @WithMockUser
+    void shouldIssueTokensForValidCredentials() throws Exception {
+        // given
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated("api", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(authenticationManager.authenticate(any())).thenReturn(authentication);
+        when(tokenService.issue(eq("api"), any())).thenReturn(new TokenService.TokenPair("access", "refresh", 900));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TokenRequest("api", "Haslo123!")))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("access"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh"))
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(900));
+    }
+
+    // błędne hasło - 401 Unauthorized
+    @Test
+    @WithMockUser
+    void shouldReturnUnauthorizedForBadCredentials() throws Exception {
+        // given
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Złe dane logowania"));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TokenRequest("api", "zle")))
+                        .with(csrf()))
+                .andExpect(status().isUnauthorized());
+        verify(tokenService, never()).issue(any(), any());
+    }
+
+    // odświeżenie - rotacja refresh tokenu
+    @Test
+    @WithMockUser
+    void shouldRotateRefreshToken() throws Exception {
+        // given
+        TokenService.TokenClaims claims = new TokenService.TokenClaims("jti", "api", List.of("ROLE_USER"), TokenService.REFRESH, 0, 1);
+        when(tokenService.verify("old-refresh", TokenService.REFRESH)).thenReturn(claims);
+        when(userDetailsService.loadUserByUsername("api")).thenReturn(
+                new org.springframework.security.core.userdetails.User("api", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        when(tokenService.issue(eq("api"), any())).thenReturn(new TokenService.TokenPair("access2", "refresh2", 900));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("old-refresh")))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").value("refresh2"));
+        verify(tokenRevocationService).consumeRefreshToken(claims);
+    }
+
+    // ponowne użycie zużytego refresh tokenu (np. równolegle na innej instancji) - bez nowych tokenów
+    @Test
+    @WithMockUser
+    void shouldRejectReusedRefreshToken() throws Exception {
+        // given
+        TokenService.TokenClaims claims = new TokenService.TokenClaims("jti", "api", List.of("ROLE_USER"), TokenService.REFRESH, 0, 1);
+        when(tokenService.verify("old-refresh", TokenService.REFRESH)).thenReturn(claims);
+        when(userDetailsService.loadUserByUsername("api")).thenReturn(
+                new org.springframework.security.core.userdetails.User("api", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        doThrow(new BadCredentialsException("Token został już użyty")).when(tokenRevocationService).consumeRefreshToken(claims);
+
+        // when & then
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("old-refresh")))
+                        .with(csrf()))
+                .andExpect(status().isUnauthorized());
+        verify(tokenService, never()).issue(any(), any());
+    }
+
+    // zablokowane konto nie odświeży tokenu
+    @Test
+    @WithMockUser
+    void shouldNotRefreshTokenForBlockedUser() throws Exception {
+        // given
+        when(tokenService.verify("old-refresh", TokenService.REFRESH))
+                .thenReturn(new TokenService.TokenClaims("jti", "api", List.of("ROLE_USER"), TokenService.REFRESH, 0, 1));
+        when(userDetailsService.loadUserByUsername("api")).thenReturn(
+                new org.springframework.security.core.userdetails.User("api", "hash", false, true, true, true, List.of()));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("old-refresh")))
+                        .with(csrf()))
+                .andExpect(status().isUnauthorized());
+        verify(tokenService, never()).issue(any(), any());
+    }
+
+    // odwołanie tokenu (204 No Content)
+    @Test
+    @WithMockUser
+    void shouldRevokeToken() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/revoke")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("some-token")))
+                        .with(csrf()))
+                .andExpect(status().isNoContent());
+        verify(tokenRevocationService).revokeToken("some-token");
+    }
 }
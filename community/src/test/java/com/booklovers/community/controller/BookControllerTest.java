@@ -29,11 +29,13 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookSlice;
 import com.booklovers.community.dto.RatingStatDto;
 import com.booklovers.community.model.Author;
 import com.booklovers.community.model.Book;
 import com.booklovers.community.repository.BookRepository;
 import com.booklovers.community.security.SecurityConfig;
+import com.booklovers.community.service.BookCursor.BookSort;
 import com.booklovers.community.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -69,6 +71,31 @@ public class BookControllerTest {
                 .andExpect(jsonPath("$.content[0].title").value("Test Book"));
     }
 
+    // przewijanie kursorem - parametry przekazane do serwisu, kursory w odpowiedzi
+    @Test
+    @WithMockUser
+    void shouldScrollBooksWithCursor() throws Exception {
+        // given
+        BookSlice slice = BookSlice.builder()
+                .content(List.of(BookDto.builder().id(5L).title("Test Book").build()))
+                .size(1)
+                .hasNext(true)
+                .nextCursor("abc")
+                .build();
+        when(bookService.scrollBooks(null, "xyz", 1, BookSort.TITLE, false)).thenReturn(slice);
+
+        // when & then
+        mockMvc.perform(get("/api/v1/books/scroll")
+                        .param("cursor", "xyz")
+                        .param("size", "1")
+                        .param("sort", "TITLE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(5))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("abc"))
+                .andExpect(jsonPath("$.empty").doesNotExist());
+    }
+
     // wyszukiwanie (Search)
     @Test
     @WithMockUser
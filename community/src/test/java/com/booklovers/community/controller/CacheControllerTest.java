@@ -0,0 +1,88 @@
+package com.booklovers.community.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.booklovers.community.dto.CacheStatsDto;
+import com.booklovers.community.security.SecurityConfig;
+import com.booklovers.community.security.TokenService;
+import com.booklovers.community.service.BookCache;
+
+@WebMvcTest(CacheController.class)
+@Import(SecurityConfig.class)
+public class CacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @MockitoBean
+    private BookCache bookCache;
+
+    // statystyki cache (Admin)
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturnCacheStatisticsForAdmin() throws Exception {
+        // given
+        CacheStatsDto stats = CacheStatsDto.builder()
+                .name("bookDetails").size(3).hitCount(10).missCount(5).hitRate(10.0 / 15).evictionCount(1)
+                .build();
+        when(bookCache.getStatistics()).thenReturn(List.of(stats));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/admin/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("bookDetails"))
+                .andExpect(jsonPath("$[0].hitCount").value(10))
+                .andExpect(jsonPath("$[0].evictionCount").value(1));
+    }
+
+    // zwykły użytkownik nie ma dostępu (403)
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldForbidCacheStatisticsForRegularUser() throws Exception {
+        mockMvc.perform(get("/api/v1/admin/cache"))
+                .andExpect(status().isForbidden());
+    }
+
+    // token Bearer zamiast sesji/Basic - role z tokenu, bez bazy
+    @Test
+    void shouldAuthenticateWithBearerToken() throws Exception {
+        // given
+        String token = tokenService.issue("admin", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))).accessToken();
+        when(bookCache.getStatistics()).thenReturn(List.of());
+
+        // when & then
+        mockMvc.perform(get("/api/v1/admin/cache").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    // odwołany token - 401
+    @Test
+    void shouldRejectRevokedBearerToken() throws Exception {
+        // given
+        String token = tokenService.issue("blocked-admin", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))).accessToken();
+        tokenService.revokeTokensIssuedBefore("blocked-admin", Instant.now().plusSeconds(1));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/admin/cache").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+}
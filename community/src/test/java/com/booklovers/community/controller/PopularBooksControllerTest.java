@@ -0,0 +1,54 @@
+package com.booklovers.community.controller;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.security.SecurityConfig;
+import com.booklovers.community.service.PopularBooksService;
+
+@WebMvcTest(PopularBooksController.class)
+@Import(SecurityConfig.class)
+public class PopularBooksControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PopularBooksService popularBooksService;
+
+    // ręczne odświeżenie rankingu (Admin)
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRefreshRankingForAdmin() throws Exception {
+        // given
+        when(popularBooksService.refresh()).thenReturn(List.of(BookDto.builder().id(1L).title("Lalka").build()));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/admin/popular-books/refresh"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Lalka"));
+        verify(popularBooksService).refresh();
+    }
+
+    // zwykły użytkownik nie może odświeżać rankingu (403)
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldForbidRefreshForRegularUser() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/popular-books/refresh"))
+                .andExpect(status().isForbidden());
+    }
+}
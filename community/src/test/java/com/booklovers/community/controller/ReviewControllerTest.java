@@ -1,23 +1,39 @@
 package com.booklovers.community.controller;
 
 import com.booklovers.community.dto.CreateReviewRequest;
+import com.booklovers.community.dto.ReviewFeedItemDto;
+import com.booklovers.community.dto.ReviewFilter;
+import com.booklovers.community.dto.ReviewModerationDto;
 import com.booklovers.community.model.Review;
 import com.booklovers.community.service.ReviewService;
+import com.booklovers.community.service.ReviewService.FeedSort;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -58,15 +74,37 @@ class ReviewControllerTest {
     void shouldReturnReviewsForBook() throws Exception {
         // given
         Long bookId = 100L;
-        List<Review> reviews = Arrays.asList(review1, review2);
-        when(reviewService.getReviewsForBook(bookId)).thenReturn(reviews);
+        List<ReviewFeedItemDto> reviews = Arrays.asList(
+                ReviewFeedItemDto.builder().id(1L).rating(5).content("Super książka!").username("jan").avatar("/uploads/jan.png").build(),
+                ReviewFeedItemDto.builder().id(2L).rating(3).content("Taka sobie.").build());
+        when(reviewService.getReviewFeed(bookId, FeedSort.NEWEST, 0, 20))
+                .thenReturn(new SliceImpl<>(reviews, PageRequest.of(0, 20), true));
 
         // when & then
         mockMvc.perform(get("/api/v1/books/{bookId}/reviews", bookId))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.size()").value(2))
-                .andExpect(jsonPath("$[0].content").value("Super książka!"));
+                .andExpect(jsonPath("$.content.size()").value(2))
+                .andExpect(jsonPath("$.content[0].content").value("Super książka!"))
+                .andExpect(jsonPath("$.content[0].avatar").value("/uploads/jan.png"))
+                .andExpect(jsonPath("$.last").value(false));
+    }
+
+    @Test
+    void shouldPassSortAndPageOfReviewFeed() throws Exception {
+        // given
+        when(reviewService.getReviewFeed(100L, FeedSort.HELPFUL, 2, 10))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(2, 10), false));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/books/{bookId}/reviews", 100L)
+                        .param("sort", "HELPFUL")
+                        .param("page", "2")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()").value(0));
+
+        verify(reviewService).getReviewFeed(100L, FeedSort.HELPFUL, 2, 10);
     }
 
     @Test
@@ -116,14 +154,66 @@ class ReviewControllerTest {
     }
 
     @Test
-    void shouldReturnAllReviewsForAdmin() throws Exception {
+    void shouldReturnReviewsPageForAdmin() throws Exception {
         // given
-        when(reviewService.getAllReviews()).thenReturn(Arrays.asList(review1, review2));
+        List<ReviewModerationDto> reviews = Arrays.asList(
+                ReviewModerationDto.builder().id(1L).bookTitle("Hobbit").username("jan").rating(5).build(),
+                ReviewModerationDto.builder().id(2L).bookTitle("Hobbit").rating(3).build());
+        when(reviewService.getReviewsForModeration(any(ReviewFilter.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(reviews, PageRequest.of(0, 2), 7));
 
         // when & then
-        mockMvc.perform(get("/api/v1/admin/reviews"))
+        mockMvc.perform(get("/api/v1/admin/reviews")
+                        .param("bookId", "6")
+                        .param("minRating", "3")
+                        .param("from", "2024-01-01")
+                        .param("page", "0")
+                        .param("size", "2"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()").value(2));
+                .andExpect(jsonPath("$.content.size()").value(2))
+                .andExpect(jsonPath("$.content[0].bookTitle").value("Hobbit"))
+                .andExpect(jsonPath("$.totalElements").value(7));
+
+        verify(reviewService).getReviewsForModeration(
+                argThat(f -> f.getBookId() == 6L && f.getMinRating() == 3 && LocalDate.of(2024, 1, 1).equals(f.getFrom())),
+                argThat(p -> p.getPageNumber() == 0 && p.getPageSize() == 2));
+    }
+
+    @Test
+    void shouldStreamReviewsAsNdjsonForAdmin() throws Exception {
+        // given
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(reviewService).exportReviewsForModeration(any(ReviewFilter.class), any(OutputStream.class));
+
+        // when
+        var result = mockMvc.perform(get("/api/v1/admin/reviews/export").param("username", "jan"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+        verify(reviewService).exportReviewsForModeration(argThat(f -> "jan".equals(f.getUsername())), any(OutputStream.class));
+    }
+
+    // eksport wszystkich recenzji nie jest przerywany po domyślnych 30 s żądania asynchronicznego
+    @Test
+    void shouldStreamReviewsWithConfiguredAsyncTimeout(@Value("${spring.mvc.async.request-timeout}") Duration asyncTimeout)
+            throws Exception {
+        // when
+        var result = mockMvc.perform(get("/api/v1/admin/reviews/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        assertThat(result.getRequest().getAsyncContext().getTimeout())
+                .isEqualTo(asyncTimeout.toMillis())
+                .isGreaterThan(Duration.ofSeconds(30).toMillis());
     }
 
     @Test
@@ -1,5 +1,7 @@
 package com.booklovers.community.controller;
 
+import com.booklovers.community.dto.ShelfBatchRequest;
+import com.booklovers.community.dto.ShelfBatchResponse;
 import com.booklovers.community.model.Shelf;
 import com.booklovers.community.service.ShelfService;
 import org.junit.jupiter.api.Test;
@@ -7,12 +9,16 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.security.Principal;
 import java.util.Arrays;
+import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,7 +47,7 @@ class ShelfControllerTest {
         shelf.setId(1L);
         shelf.setName("Do przeczytania");
         
-        when(shelfService.getUserShelves(username)).thenReturn(Arrays.asList(shelf));
+        when(shelfService.getUserShelvesWithBooks(username)).thenReturn(Arrays.asList(shelf));
 
         // when & then
         mockMvc.perform(get("/api/v1/shelves")
@@ -156,4 +162,42 @@ class ShelfControllerTest {
         
         verify(shelfService).moveBook(sourceShelfId, targetShelfId, bookId, username);
     }
+
+    @Test
+    void shouldApplyBatchAndReturnPerItemResults() throws Exception {
+        // given
+        String username = "user1";
+        ShelfBatchResponse response = ShelfBatchResponse.builder()
+                .shelfId(1L)
+                .action(ShelfBatchRequest.Action.ADD)
+                .changed(1)
+                .results(List.of(
+                        new ShelfBatchResponse.ItemResult(10L, ShelfBatchResponse.Status.ADDED),
+                        new ShelfBatchResponse.ItemResult(99L, ShelfBatchResponse.Status.BOOK_NOT_FOUND)))
+                .build();
+        when(shelfService.applyBatch(eq(1L), any(ShelfBatchRequest.class), eq(username))).thenReturn(response);
+
+        // when & then
+        mockMvc.perform(post("/api/v1/shelves/{shelfId}/books:batch", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"action\": \"ADD\", \"bookIds\": [10, 99]}")
+                .principal(mockPrincipal(username)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("ADDED"))
+                .andExpect(jsonPath("$.results[1].bookId").value(99))
+                .andExpect(jsonPath("$.results[1].status").value("BOOK_NOT_FOUND"));
+    }
+
+    @Test
+    void shouldRejectBatchWithoutBooks() throws Exception {
+        // when & then
+        mockMvc.perform(post("/api/v1/shelves/{shelfId}/books:batch", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"action\": \"REMOVE\", \"bookIds\": []}")
+                .principal(mockPrincipal("user1")))
+                .andExpect(status().isBadRequest());
+
+        verify(shelfService, never()).applyBatch(any(), any(), any());
+    }
 }
@@ -1,11 +1,17 @@
 package com.booklovers.community.controller;
 
+import com.booklovers.community.dto.ImportJobDto;
 import com.booklovers.community.dto.UserRegisterDto;
+import com.booklovers.community.dto.YearInReviewDto;
+import com.booklovers.community.model.User;
+import com.booklovers.community.service.ProfileImportService;
+import com.booklovers.community.service.ReadingStatsService;
 import com.booklovers.community.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.HttpHeaders;
@@ -13,9 +19,16 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -32,6 +45,12 @@ class UserControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private ProfileImportService profileImportService;
+
+    @MockitoBean
+    private ReadingStatsService readingStatsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -86,21 +105,91 @@ class UserControllerTest {
         // given
         String username = "exportUser";
         byte[] fakeJsonContent = "{ \"data\": \"backup\" }".getBytes();
-        
+        User user = User.builder().id(1L).username(username).build();
+
         Principal mockPrincipal = Mockito.mock(Principal.class);
         when(mockPrincipal.getName()).thenReturn(username);
-        
-        when(userService.generateProfileBackup(username)).thenReturn(fakeJsonContent);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(fakeJsonContent);
+            return null;
+        }).when(userService).writeProfileBackup(eq(user), any(OutputStream.class));
 
         // when & then
-        mockMvc.perform(get("/api/v1/users/profile/export")
+        MvcResult result = mockMvc.perform(get("/api/v1/users/profile/export")
                 .principal(mockPrincipal))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"backup_exportUser.json\""))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(content().bytes(fakeJsonContent));
     }
 
+    // duży backup nie jest przerywany po domyślnych 30 s żądania asynchronicznego
+    @Test
+    void shouldExportProfileWithConfiguredAsyncTimeout(@Value("${spring.mvc.async.request-timeout}") Duration asyncTimeout)
+            throws Exception {
+        // given
+        User user = User.builder().id(1L).username("exportUser").build();
+        Principal mockPrincipal = Mockito.mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("exportUser");
+        when(userService.findByUsername("exportUser")).thenReturn(user);
+
+        // when
+        MvcResult result = mockMvc.perform(get("/api/v1/users/profile/export")
+                .principal(mockPrincipal))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        assertThat(result.getRequest().getAsyncContext().getTimeout())
+                .isEqualTo(asyncTimeout.toMillis())
+                .isGreaterThan(Duration.ofSeconds(30).toMillis());
+    }
+
+    @Test
+    void shouldExportProfileGzippedWhenClientAcceptsIt() throws Exception {
+        // given
+        String username = "exportUser";
+        byte[] fakeJsonContent = "{ \"data\": \"backup\" }".getBytes();
+        User user = User.builder().id(1L).username(username).build();
+
+        Principal mockPrincipal = Mockito.mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn(username);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(fakeJsonContent);
+            return null;
+        }).when(userService).writeProfileBackup(eq(user), any(OutputStream.class));
+
+        // when
+        MvcResult result = mockMvc.perform(get("/api/v1/users/profile/export")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8")
+                .principal(mockPrincipal))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+
+        // then - po rozpakowaniu ta sama treść
+        byte[] compressed = response.getResponse().getContentAsByteArray();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(fakeJsonContent);
+        }
+    }
+
     @Test
     void shouldImportProfileSuccessfully() throws Exception {
         // given
@@ -112,14 +201,51 @@ class UserControllerTest {
                 "file", "backup.json", "application/json", "{...}".getBytes()
         );
 
-        doNothing().when(userService).importProfile(eq(username), any());
+        when(profileImportService.submit(eq(username), any()))
+                .thenReturn(ImportJobDto.builder().id("job-1").status("QUEUED").build());
 
-        // when & then
+        // when & then - import w tle, 202 Accepted ze wskazaniem zadania
         mockMvc.perform(multipart("/api/v1/users/profile/import")
                 .file(backupFile)
                 .principal(mockPrincipal))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/v1/users/profile/import/job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void shouldReturnImportJobStatus() throws Exception {
+        // given
+        Principal mockPrincipal = Mockito.mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("importUser");
+        when(profileImportService.getJob("job-1", "importUser"))
+                .thenReturn(ImportJobDto.builder().id("job-1").status("COMPLETED").booksAdded(42).build());
+
+        // when & then
+        mockMvc.perform(get("/api/v1/users/profile/import/job-1").principal(mockPrincipal))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.booksAdded").value(42));
+    }
+
+    @Test
+    void shouldReturnYearInReview() throws Exception {
+        // given
+        Principal mockPrincipal = Mockito.mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("reader");
+        when(readingStatsService.getYearInReview("reader", 2024)).thenReturn(YearInReviewDto.builder()
+                .year(2024)
+                .booksRead(3)
+                .averageRating(7.0)
+                .months(List.of(new YearInReviewDto.Month(1, 3, 7.0)))
+                .build());
+
+        // when & then
+        mockMvc.perform(get("/api/v1/users/profile/year-in-review").param("year", "2024").principal(mockPrincipal))
                 .andExpect(status().isOk())
-                .andExpect(content().string("Profil zaimportowany pomyślnie"));
+                .andExpect(jsonPath("$.booksRead").value(3))
+                .andExpect(jsonPath("$.months[0].month").value(1))
+                .andExpect(jsonPath("$.months[0].averageRating").value(7.0));
     }
 
     @Test
@@ -139,7 +265,7 @@ class UserControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Plik jest pusty"));
         
-        verify(userService, never()).importProfile(any(), any());
+        verify(profileImportService, never()).submit(any(), any());
     }
 
     @Test
@@ -151,8 +277,8 @@ class UserControllerTest {
         
         MockMultipartFile file = new MockMultipartFile("file", "test.json", "json", "dane".getBytes());
 
-        doThrow(new RuntimeException("Zły format pliku"))
-                .when(userService).importProfile(eq(username), any());
+        when(profileImportService.submit(eq(username), any()))
+                .thenThrow(new RuntimeException("Zły format pliku"));
 
         // when & then
         mockMvc.perform(multipart("/api/v1/users/profile/import")
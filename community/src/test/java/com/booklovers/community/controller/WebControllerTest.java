@@ -1,38 +1,63 @@
 package com.booklovers.community.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import com.booklovers.community.dto.BookDetailsView;
 import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookSlice;
 import com.booklovers.community.dto.BookStatsDto;
+import com.booklovers.community.dto.ImportJobDto;
+import com.booklovers.community.dto.ProfileView;
+import com.booklovers.community.dto.ReadingChallengeDto;
+import com.booklovers.community.dto.ReviewFeedItemDto;
+import com.booklovers.community.dto.ReviewFilter;
+import com.booklovers.community.dto.ReviewModerationDto;
 import com.booklovers.community.dto.UserRegisterDto;
 import com.booklovers.community.model.Author;
 import com.booklovers.community.model.Book;
@@ -40,8 +65,12 @@ import com.booklovers.community.model.User;
 import com.booklovers.community.repository.AuthorRepository;
 import com.booklovers.community.security.SecurityConfig;
 import com.booklovers.community.service.AuthorService;
+import com.booklovers.community.service.BookCursor.BookSort;
 import com.booklovers.community.service.BookService;
+import com.booklovers.community.service.PageViewService;
+import com.booklovers.community.service.ProfileImportService;
 import com.booklovers.community.service.ReviewService;
+import com.booklovers.community.service.ReviewService.FeedSort;
 import com.booklovers.community.service.ShelfService;
 import com.booklovers.community.service.UserService;
 
@@ -64,6 +93,10 @@ public class WebControllerTest {
     private AuthorService authorService;
     @MockitoBean
     private AuthorRepository authorRepository;
+    @MockitoBean
+    private ProfileImportService profileImportService;
+    @MockitoBean
+    private PageViewService pageViewService;
 
     // Strona główna
     @Test
@@ -136,7 +169,8 @@ public class WebControllerTest {
     @Test
     @WithMockUser
     void shouldListBooksWithoutQuery() throws Exception {
-        when(bookService.getAllBooks(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
+        when(bookService.scrollBooks("", null, 10, BookSort.ID, true))
+                .thenReturn(BookSlice.builder().content(Collections.emptyList()).build());
 
         mockMvc.perform(get("/books"))
                 .andExpect(status().isOk())
@@ -147,19 +181,25 @@ public class WebControllerTest {
     @Test
     @WithMockUser
     void shouldSearchBooksWithQuery() throws Exception {
-        when(bookService.searchBooks(anyString(), any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
+        BookSlice slice = BookSlice.builder()
+                .content(List.of(BookDto.builder().id(3L).title("Wiedźmin").authorName("Andrzej Sapkowski").build()))
+                .hasNext(true)
+                .nextCursor("nastepna")
+                .approximateTotal(12L)
+                .build();
+        when(bookService.scrollBooks("Wiedźmin", "kursor", 10, BookSort.ID, true)).thenReturn(slice);
 
-        mockMvc.perform(get("/books").param("query", "Wiedźmin"))
+        mockMvc.perform(get("/books").param("query", "Wiedźmin").param("cursor", "kursor"))
                 .andExpect(status().isOk())
-                .andExpect(model().attribute("query", "Wiedźmin"));
+                .andExpect(model().attribute("query", "Wiedźmin"))
+                .andExpect(content().string(containsString("cursor=nastepna")))
+                .andExpect(content().string(containsString("ok. 12 książek")));
     }
 
     // Szczegóły książki - Bez zalogowanego użytkownika (branch principal == null)
     @Test
     void shouldShowBookDetailsWithoutUser() throws Exception {
         // given
-        when(bookService.getBookById(anyLong())).thenReturn(new BookDto());
-        
         BookStatsDto emptyStats = BookStatsDto.builder()
                 .ratingCount(0L) 
                 .averageRating(0.0)
@@ -167,12 +207,20 @@ public class WebControllerTest {
                 .ratingDistribution(new java.util.HashMap<>()) 
                 .build();
         
-        when(bookService.getBookStatistics(anyLong())).thenReturn(emptyStats);
+        when(pageViewService.getBookDetails(1L, FeedSort.HELPFUL, 1, 20, null)).thenReturn(BookDetailsView.builder()
+                .book(new BookDto())
+                .stats(emptyStats)
+                .reviews(new SliceImpl<>(
+                        List.of(ReviewFeedItemDto.builder().id(5L).rating(9).content("Świetna").username("jan").build()),
+                        PageRequest.of(1, 20), true))
+                .build());
 
         // when & then
-        mockMvc.perform(get("/books/1"))
+        mockMvc.perform(get("/books/1").param("reviewSort", "HELPFUL").param("reviewPage", "1"))
                 .andExpect(status().isOk())
-                .andExpect(model().attributeDoesNotExist("userShelves"));
+                .andExpect(model().attributeDoesNotExist("userShelves"))
+                .andExpect(content().string(containsString("Świetna")))
+                .andExpect(content().string(containsString("reviewSort=HELPFUL&amp;reviewPage=2")));
     }
 
     // Szczegóły książki - Z zalogowanym użytkownikiem (branch principal != null)
@@ -186,8 +234,12 @@ public class WebControllerTest {
                 .ratingDistribution(new java.util.HashMap<>()) 
                 .build();
 
-        when(bookService.getBookById(anyLong())).thenReturn(new BookDto());
-        when(bookService.getBookStatistics(anyLong())).thenReturn(safeStats);
+        when(pageViewService.getBookDetails(1L, FeedSort.NEWEST, 0, 20, "user")).thenReturn(BookDetailsView.builder()
+                .book(new BookDto())
+                .stats(safeStats)
+                .reviews(new SliceImpl<>(List.of(), PageRequest.of(0, 20), false))
+                .userShelves(List.of())
+                .build());
 
         // when & then
         mockMvc.perform(get("/books/1"))
@@ -222,12 +274,17 @@ public class WebControllerTest {
     @Test
     @WithMockUser(username = "user")
     void shouldShowProfile() throws Exception {
-        when(userService.findByUsername("user")).thenReturn(new User());
-        when(shelfService.getBooksReadCount("user")).thenReturn(5);
+        when(pageViewService.getProfile(eq("user"), anyInt())).thenReturn(ProfileView.builder()
+                .user(new User())
+                .shelves(List.of())
+                .challenge(ReadingChallengeDto.builder().year(2026).booksRead(5).target(52).build())
+                .build());
 
         mockMvc.perform(get("/profile"))
                 .andExpect(status().isOk())
-                .andExpect(view().name("profile"));
+                .andExpect(view().name("profile"))
+                .andExpect(model().attribute("booksReadYear", 5L))
+                .andExpect(model().attribute("challengeProgress", 9));
     }
 
     // Aktualizacja profilu
@@ -248,11 +305,22 @@ public class WebControllerTest {
     @Test
     @WithMockUser(username = "user")
     void shouldExportProfile() throws Exception {
-        when(userService.generateProfileBackup("user")).thenReturn(new byte[0]);
-
-        mockMvc.perform(get("/profile/export"))
+        User user = User.builder().id(1L).username("user").build();
+        when(userService.findByUsername("user")).thenReturn(user);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userService).writeProfileBackup(eq(user), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/profile/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(header().exists(HttpHeaders.CONTENT_DISPOSITION));
+                .andExpect(header().exists(HttpHeaders.CONTENT_DISPOSITION))
+                .andExpect(content().string("{}"));
     }
 
     // Tworzenie półki - Sukces
@@ -307,10 +375,11 @@ public class WebControllerTest {
     @WithMockUser(username = "user")
     void shouldImportProfileSuccessfully() throws Exception {
         MockMultipartFile file = new MockMultipartFile("file", "backup.json", "json", "{data}".getBytes());
+        when(profileImportService.submit(anyString(), any())).thenReturn(ImportJobDto.builder().id("job-1").build());
 
         mockMvc.perform(multipart("/profile/import").file(file).with(csrf()))
                 .andExpect(status().is3xxRedirection())
-                .andExpect(redirectedUrl("/profile?imported=true"));
+                .andExpect(redirectedUrl("/profile?importJob=job-1"));
     }
 
     // Import profilu - Pusty plik (branch if file.isEmpty)
@@ -329,7 +398,7 @@ public class WebControllerTest {
     @WithMockUser(username = "user")
     void shouldHandleImportException() throws Exception {
         MockMultipartFile file = new MockMultipartFile("file", "backup.json", "json", "{data}".getBytes());
-        doThrow(new RuntimeException("Fail")).when(userService).importProfile(anyString(), any());
+        when(profileImportService.submit(anyString(), any())).thenThrow(new RuntimeException("Fail"));
 
         mockMvc.perform(multipart("/profile/import").file(file).with(csrf()))
                 .andExpect(status().is3xxRedirection())
@@ -501,9 +570,18 @@ public class WebControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void shouldManageReviews() throws Exception {
-        mockMvc.perform(get("/admin/reviews"))
+        ReviewModerationDto review = ReviewModerationDto.builder()
+                .id(1L).bookId(6L).bookTitle("Hobbit").rating(8).content("Świetna").build();
+        when(reviewService.getReviewsForModeration(any(ReviewFilter.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(review), PageRequest.of(1, 50), 51));
+
+        mockMvc.perform(get("/admin/reviews").param("page", "1").param("minRating", "8"))
                 .andExpect(status().isOk())
-                .andExpect(view().name("admin/reviews"));
+                .andExpect(view().name("admin/reviews"))
+                .andExpect(content().string(containsString("Anonim")));
+
+        verify(reviewService).getReviewsForModeration(argThat(f -> f.getMinRating() == 8),
+                argThat(p -> p.getPageNumber() == 1 && p.getPageSize() == 50));
     }
 
     // Admin - Usuwanie recenzji
@@ -519,10 +597,34 @@ public class WebControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void shouldExportBooks() throws Exception {
-        when(bookService.exportBooksToCsv()).thenReturn(new byte[0]);
-        mockMvc.perform(get("/admin/books/export"))
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("ID;Tytul;Autor;ISBN;Ocena\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bookService).exportBooksToCsv(any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/admin/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(header().exists(HttpHeaders.CONTENT_DISPOSITION));
+                .andExpect(header().exists(HttpHeaders.CONTENT_DISPOSITION))
+                .andExpect(content().string(containsString("ID;Tytul;Autor;ISBN;Ocena")));
+    }
+
+    // eksport strumieniowy dostaje limit żądań asynchronicznych z konfiguracji, a nie domyślne 30 s kontenera
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldExportBooksWithConfiguredAsyncTimeout(@Value("${spring.mvc.async.request-timeout}") Duration asyncTimeout)
+            throws Exception {
+        MvcResult result = mockMvc.perform(get("/admin/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(result.getRequest().getAsyncContext().getTimeout())
+                .isEqualTo(asyncTimeout.toMillis())
+                .isGreaterThan(Duration.ofSeconds(30).toMillis());
     }
 
     // Admin - Usuwanie użytkownika
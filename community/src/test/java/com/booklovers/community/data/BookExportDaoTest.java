@@ -0,0 +1,51 @@
+package com.booklovers.community.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.booklovers.community.dao.BookExportDao;
+import com.booklovers.community.dto.BookExportRow;
+
+@DataJpaTest
+@Import(BookExportDao.class)
+public class BookExportDaoTest {
+    @Autowired
+    private BookExportDao bookExportDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // jedno zapytanie: autor i średnia z agregatu, książki bez ocen z 0.0
+    @Test
+    void shouldStreamBooksWithAuthorAndAverageRating() {
+        // given
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (5000, 'Bolesław', 'Prus')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (5000000, 'Lalka', 'ISBN-LALKA', 5000)");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (5000001, 'Faraon', 'ISBN-FARAON', 5000)");
+        jdbcTemplate.update("INSERT INTO book_rating_summary (book_id, rating_sum, rating_count, stars_1, stars_2, stars_3, "
+                + "stars_4, stars_5, stars_6, stars_7, stars_8, stars_9, stars_10) VALUES (5000000, 17, 2, 0, 0, 0, 0, 0, 0, 0, 1, 1, 0)");
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+
+        // when
+        List<BookExportRow> rows = new ArrayList<>();
+        bookExportDao.forEachBookExportRow(rows::add);
+
+        // then
+        assertThat(rows).hasSize(total.intValue());
+        BookExportRow lalka = rows.stream().filter(r -> r.getId() == 5000000L).findFirst().orElseThrow();
+        assertThat(lalka.getAuthorName()).isEqualTo("Bolesław Prus");
+        assertThat(lalka.getAverageRating()).isEqualTo(8.5);
+        BookExportRow faraon = rows.stream().filter(r -> r.getId() == 5000001L).findFirst().orElseThrow();
+        assertThat(faraon.getAverageRating()).isEqualTo(0.0);
+        // kolejność po id - stabilny plik eksportu
+        assertThat(rows).extracting(BookExportRow::getId).isSorted();
+    }
+}
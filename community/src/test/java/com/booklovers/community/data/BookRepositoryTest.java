@@ -2,6 +2,7 @@ package com.booklovers.community.data;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -9,10 +10,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
+import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookSearchDocument;
 import com.booklovers.community.model.Author;
 import com.booklovers.community.model.Book;
+import com.booklovers.community.model.BookRatingSummary;
 import com.booklovers.community.repository.AuthorRepository;
+import com.booklovers.community.repository.BookRatingSummaryRepository;
 import com.booklovers.community.repository.BookRepository;
 
 @DataJpaTest
@@ -24,6 +30,9 @@ class BookRepositoryTest {
     @Autowired
     private AuthorRepository authorRepository;
 
+    @Autowired
+    private BookRatingSummaryRepository bookRatingSummaryRepository;
+
     // zapis
     @Test
     void shouldSaveBook() {
@@ -69,37 +78,35 @@ class BookRepositoryTest {
         assertThat(exists).isTrue();
     }
 
-    // custom @Query searchBooks
+    // findByTitle (Sukces)
     @Test
-    void shouldSearchBooksByPartialTitle() {
+    void shouldFindBookByTitle() {
         // given
-        Author author = Author.builder().firstName("George").lastName("Orwell").build();
-        authorRepository.save(author);
-        
-        bookRepository.save(Book.builder().title("Rok 1984").isbn("9780155658110").author(author).build());
-        bookRepository.save(Book.builder().title("Folwark Zwierzęcy").isbn("9780194267533").author(author).build());
+        Author author = authorRepository.save(Author.builder().firstName("J.R.R.").lastName("Tolkien").build());
+        bookRepository.save(Book.builder().title("Hobbit").isbn("9780261102217").author(author).build());
 
         // when
-        Page<Book> result = bookRepository.searchBooks("198", PageRequest.of(0, 10));
+        Optional<Book> found = bookRepository.findByTitle("Hobbit");
 
         // then
-        assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getTitle()).isEqualTo("Rok 1984");
+        assertThat(found).isPresent();
+        assertThat(found.get().getIsbn()).isEqualTo("9780261102217");
     }
 
-    // findByTitle (Sukces)
+    // rozwiązywanie wielu tytułów jednym zapytaniem (import profilu)
     @Test
-    void shouldFindBookByTitle() {
+    void shouldFindTitleIdPairsByTitleIn() {
         // given
-        Author author = authorRepository.save(Author.builder().firstName("J.R.R.").lastName("Tolkien").build());
-        bookRepository.save(Book.builder().title("Hobbit").isbn("9780261102217").author(author).build());
+        Author author = authorRepository.save(Author.builder().firstName("Andrzej").lastName("Sapkowski").build());
+        Book first = bookRepository.save(Book.builder().title("Chrzest ognia").isbn("9788375780635").author(author).build());
+        Book second = bookRepository.save(Book.builder().title("Czas pogardy").isbn("9788375780642").author(author).build());
 
         // when
-        Optional<Book> found = bookRepository.findByTitle("Hobbit");
+        List<Object[]> pairs = bookRepository.findTitleIdPairsByTitleIn(List.of("Chrzest ognia", "Czas pogardy", "Nie ma"));
 
         // then
-        assertThat(found).isPresent();
-        assertThat(found.get().getIsbn()).isEqualTo("9780261102217");
+        assertThat(pairs).extracting(row -> row[0]).containsExactlyInAnyOrder("Chrzest ognia", "Czas pogardy");
+        assertThat(pairs).extracting(row -> row[1]).containsExactlyInAnyOrder(first.getId(), second.getId());
     }
 
     // existsByAuthorId (Prawda/Fałsz)
@@ -120,47 +127,97 @@ class BookRepositoryTest {
         assertThat(exists2).isFalse();
     }
 
-    // searchBooks - po nazwisku autora
+    // projekcja DTO - autor, średnia i liczba ocen (z book_rating_summary) w jednym zapytaniu
     @Test
-    void shouldSearchBooksByAuthorLastName() {
+    void shouldReturnBookDtosWithAggregatedRatings() {
+        // given
+        Author author = authorRepository.save(Author.builder().firstName("Andrzej").lastName("Sapkowski").build());
+        Book rated = bookRepository.save(Book.builder().title("Chrzest ognia").isbn("9788375780659").author(author).build());
+        Book unrated = bookRepository.save(Book.builder().title("Czas pogardy").isbn("9788375780666").author(author).build());
+
+        bookRatingSummaryRepository.save(BookRatingSummary.builder()
+                .bookId(rated.getId()).ratingSum(14).ratingCount(2).stars8(1).stars6(1).build());
+
+        // when
+        Page<BookDto> result = bookRepository.findAllBookDtos(PageRequest.of(0, 50, Sort.by("title")));
+
+        // then
+        assertThat(result.getTotalElements()).isEqualTo(bookRepository.count());
+        BookDto ratedDto = result.getContent().stream().filter(b -> b.getId().equals(rated.getId())).findFirst().orElseThrow();
+        BookDto unratedDto = result.getContent().stream().filter(b -> b.getId().equals(unrated.getId())).findFirst().orElseThrow();
+
+        assertThat(ratedDto.getTitle()).isEqualTo("Chrzest ognia");
+        assertThat(ratedDto.getAuthorName()).isEqualTo("Andrzej Sapkowski");
+        assertThat(ratedDto.getAverageRating()).isEqualTo(7.0);
+        assertThat(ratedDto.getRatingCount()).isEqualTo(2L);
+
+        assertThat(unratedDto.getAverageRating()).isEqualTo(0.0);
+        assertThat(unratedDto.getRatingCount()).isEqualTo(0L);
+    }
+
+    // DTO dla wybranych książek (strona wyników z indeksu wyszukiwania)
+    @Test
+    void shouldFindBookDtosByIds() {
         // given
         Author author = authorRepository.save(Author.builder().firstName("Stephen").lastName("King").build());
-        bookRepository.save(Book.builder().title("To").isbn("9780261102217").author(author).build());
+        Book shining = bookRepository.save(Book.builder().title("Lśnienie").isbn("9780261102217").author(author).build());
+        bookRepository.save(Book.builder().title("Christine").isbn("9780007129706").author(author).build());
 
         // when
-        Page<Book> result = bookRepository.searchBooks("King", PageRequest.of(0, 10));
+        List<BookDto> result = bookRepository.findBookDtosByIds(List.of(shining.getId()));
 
         // then
-        assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getAuthor().getLastName()).isEqualTo("King");
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getTitle()).isEqualTo("Lśnienie");
+        assertThat(result.get(0).getAuthorName()).isEqualTo("Stephen King");
     }
 
-    // searchBooks - po ISBN
+    // dane do indeksu wyszukiwania dla książek autora
     @Test
-    void shouldSearchBooksByIsbn() {
+    void shouldFindSearchDocumentsByAuthorId() {
         // given
-        Author author = authorRepository.save(Author.builder().firstName("AB").lastName("BC").build());
-        bookRepository.save(Book.builder().title("Książka").isbn("9780261102217").author(author).build());
+        Author author = authorRepository.save(Author.builder().firstName("Olga").lastName("Tokarczuk").build());
+        bookRepository.save(Book.builder().title("Bieguni").isbn("9780261102217").description("Podróże").author(author).build());
 
         // when
-        Page<Book> result = bookRepository.searchBooks("978026", PageRequest.of(0, 10));
+        List<BookSearchDocument> result = bookRepository.findSearchDocumentsByAuthorId(author.getId());
 
         // then
-        assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getIsbn()).isEqualTo("9780261102217");
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getAuthorName()).isEqualTo("Olga Tokarczuk");
+        assertThat(result.get(0).getDescription()).isEqualTo("Podróże");
     }
 
-    // searchBooks - ignorowanie wielkości liter (Case Insensitive)
+    // stronicowanie kursorem po (tytuł, id) - remis tytułów rozstrzyga id, w obu kierunkach
     @Test
-    void shouldSearchBooksCaseInsensitive() {
+    void shouldSeekBookDtosByTitleAndId() {
         // given
-        Author author = authorRepository.save(Author.builder().firstName("Adam").lastName("Mickiewicz").build());
-        bookRepository.save(Book.builder().title("Pan Tadeusz").isbn("9780261102217").author(author).build());
+        Author author = authorRepository.save(Author.builder().firstName("Key").lastName("Set").build());
+        Book a = bookRepository.save(Book.builder().title("Keyset A").isbn("9788375780673").author(author).build());
+        Book b1 = bookRepository.save(Book.builder().title("Keyset B").isbn("9788375780680").author(author).build());
+        Book b2 = bookRepository.save(Book.builder().title("Keyset B").isbn("9788375780697").author(author).build());
 
-        // when 
-        Page<Book> result = bookRepository.searchBooks("pan", PageRequest.of(0, 10));
+        // when
+        List<BookDto> after = bookRepository.findBookDtosAfterTitle("Keyset A", a.getId(), PageRequest.ofSize(2));
+        List<BookDto> before = bookRepository.findBookDtosBeforeTitle("Keyset B", b2.getId(), PageRequest.ofSize(2));
+
+        // then
+        assertThat(after).extracting(BookDto::getId).containsExactly(b1.getId(), b2.getId());
+        assertThat(before).extracting(BookDto::getId).containsExactly(b1.getId(), a.getId());
+    }
+
+    // stronicowanie kursorem po id - strona po ostatnim widzianym id, bez OFFSET
+    @Test
+    void shouldSeekBookDtosById() {
+        // when
+        List<BookDto> firstPage = bookRepository.findBookDtosAfterId(0L, PageRequest.ofSize(3));
+        List<BookDto> nextPage = bookRepository.findBookDtosAfterId(firstPage.get(2).getId(), PageRequest.ofSize(3));
+        List<BookDto> previousPage = bookRepository.findBookDtosBeforeId(nextPage.get(0).getId(), PageRequest.ofSize(3));
 
         // then
-        assertThat(result.getContent()).hasSize(1);
+        assertThat(firstPage).extracting(BookDto::getId).isSorted();
+        assertThat(nextPage.get(0).getId()).isGreaterThan(firstPage.get(2).getId());
+        assertThat(previousPage).extracting(BookDto::getId)
+                .containsExactly(firstPage.get(2).getId(), firstPage.get(1).getId(), firstPage.get(0).getId());
     }
-}
\ No newline at end of file
+}
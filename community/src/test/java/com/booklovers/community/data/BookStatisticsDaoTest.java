@@ -2,17 +2,29 @@ package com.booklovers.community.data;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.within;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.booklovers.community.dao.BookStatisticsDao;
 import com.booklovers.community.dto.RatingStatDto;
+import com.booklovers.community.model.UserReadingMonth;
 
 @DataJpaTest
 @Import(BookStatisticsDao.class)
@@ -23,6 +35,9 @@ public class BookStatisticsDaoTest {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     // RowMapper (getRatingDistribution)
     @Test
     void shouldGetRatingDistributionUsingRowMapper() {
@@ -57,12 +72,16 @@ public class BookStatisticsDaoTest {
         jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (1000000, 'Test Book', 'ISBN-TEST', 1000)");
         // Dodajemy recenzję z konkretną datą (rok 2023)
         jdbcTemplate.update("INSERT INTO reviews (id, rating, content, user_id, book_id, created_at) VALUES (10, 5, 'Super', 1000, 1000000, '2023-05-01 12:00:00')");
+        // granice roku - poza zakresem [2023-01-01, 2024-01-01)
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, user_id, book_id, created_at) VALUES (11, 5, 'Stara', 1000, 1000000, '2022-12-31 23:59:59')");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, user_id, book_id, created_at) VALUES (12, 5, 'Nowa', 1000, 1000000, '2024-01-01 00:00:00')");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, user_id, book_id, created_at) VALUES (13, 5, 'Sylwester', 1000, 1000000, '2023-12-31 23:59:59')");
 
         // when
         int count = bookStatisticsDao.countBooksReadInYear(1000L, 2023);
 
         // then
-        assertThat(count).isEqualTo(1);
+        assertThat(count).isEqualTo(2);
     }
 
     // aktualizacja opisu książki (Sukces)
@@ -128,4 +147,205 @@ public class BookStatisticsDaoTest {
         assertThat(countDeletedUser).isEqualTo(0); // Recenzje tego usera zniknęły
         assertThat(countOtherUser).isEqualTo(1);   // Recenzje innego usera zostały
     }
+
+    // przyrostowa aktualizacja agregatu ocen (pierwsza ocena tworzy wiersz)
+    @Test
+    void shouldApplyRatingDeltasToSummary() {
+        // given
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (6000, 'A', 'B')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (6000000, 'B', 'ISBN-SUM', 6000)");
+
+        // when
+        bookStatisticsDao.applyRatingDelta(6000000L, 8, 1);
+        bookStatisticsDao.applyRatingDelta(6000000L, 8, 1);
+        bookStatisticsDao.applyRatingDelta(6000000L, 3, 1);
+        bookStatisticsDao.applyRatingDelta(6000000L, 8, -1);
+
+        // then
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM book_rating_summary WHERE book_id = ?", 6000000L);
+        assertThat(((Number) row.get("RATING_SUM")).longValue()).isEqualTo(11);
+        assertThat(((Number) row.get("RATING_COUNT")).longValue()).isEqualTo(2);
+        assertThat(((Number) row.get("STARS_8")).longValue()).isEqualTo(1);
+        assertThat(((Number) row.get("STARS_3")).longValue()).isEqualTo(1);
+    }
+
+    // dwie równoległe pierwsze oceny książki - obie przechodzą NOT EXISTS, druga nie może wycofać recenzji błędem klucza
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldApplyConcurrentFirstRatings() throws Exception {
+        // given
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (6200, 'Race', 'Author')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (6200000, 'Wyścig', 'ISBN-RACE', 6200)");
+        try {
+            // when
+            raceInTransactions(() -> bookStatisticsDao.applyRatingDelta(6200000L, 8, 1),
+                    () -> bookStatisticsDao.applyRatingDelta(6200000L, 4, 1));
+
+            // then
+            Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM book_rating_summary WHERE book_id = ?", 6200000L);
+            assertThat(((Number) row.get("RATING_COUNT")).longValue()).isEqualTo(2);
+            assertThat(((Number) row.get("RATING_SUM")).longValue()).isEqualTo(12);
+        } finally {
+            jdbcTemplate.update("DELETE FROM book_rating_summary WHERE book_id = 6200000");
+            jdbcTemplate.update("DELETE FROM books WHERE id = 6200000");
+            jdbcTemplate.update("DELETE FROM authors WHERE id = 6200");
+        }
+    }
+
+    // dwie równoległe pierwsze recenzje czytelnika w tym samym miesiącu
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldApplyConcurrentFirstReadingsInMonth() throws Exception {
+        // given
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) VALUES (6200, 'racer', 'race@t.pl', 'pass', 'USER', true)");
+        LocalDateTime reviewedAt = LocalDateTime.of(2024, 6, 10, 12, 0);
+        try {
+            // when
+            raceInTransactions(() -> bookStatisticsDao.applyReadingDelta(6200L, reviewedAt, 7, 1),
+                    () -> bookStatisticsDao.applyReadingDelta(6200L, reviewedAt.plusDays(1), 5, 1));
+
+            // then
+            List<UserReadingMonth> months = bookStatisticsDao.findReadingMonths(6200L, 2024);
+            assertThat(months).hasSize(1);
+            assertThat(months.get(0).getBooksRead()).isEqualTo(2);
+            assertThat(months.get(0).getRatingSum()).isEqualTo(12);
+        } finally {
+            jdbcTemplate.update("DELETE FROM user_reading_monthly WHERE user_id = 6200");
+            jdbcTemplate.update("DELETE FROM users WHERE id = 6200");
+        }
+    }
+
+    // ocena spoza zakresu 1-10 (Błąd)
+    @Test
+    void shouldRejectRatingOutOfRange() {
+        // when
+        Throwable thrown = catchThrowable(() -> bookStatisticsDao.applyRatingDelta(1L, 11, 1));
+
+        // then
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // zadanie uzgadniające - odbudowa agregatów z tabeli reviews
+    @Test
+    void shouldRebuildRatingSummariesFromReviews() {
+        // given
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (7000, 'A', 'B')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (7000000, 'Rated', 'ISBN-R1', 7000)");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (7000001, 'Unrated', 'ISBN-R2', 7000)");
+        jdbcTemplate.update("INSERT INTO reviews (rating, content, book_id) VALUES (10, 'Super', 7000000)");
+        jdbcTemplate.update("INSERT INTO reviews (rating, content, book_id) VALUES (4, 'Słaba', 7000000)");
+        // rozjechany agregat, który odbudowa ma naprawić
+        bookStatisticsDao.applyRatingDelta(7000000L, 1, 1);
+
+        // when
+        bookStatisticsDao.rebuildRatingSummaries();
+
+        // then
+        Map<String, Object> rated = jdbcTemplate.queryForMap("SELECT * FROM book_rating_summary WHERE book_id = ?", 7000000L);
+        assertThat(((Number) rated.get("RATING_SUM")).longValue()).isEqualTo(14);
+        assertThat(((Number) rated.get("RATING_COUNT")).longValue()).isEqualTo(2);
+        assertThat(((Number) rated.get("STARS_1")).longValue()).isEqualTo(0);
+        assertThat(((Number) rated.get("STARS_10")).longValue()).isEqualTo(1);
+
+        Integer unratedCount = jdbcTemplate.queryForObject("SELECT rating_count FROM book_rating_summary WHERE book_id = ?", Integer.class, 7000001L);
+        assertThat(unratedCount).isEqualTo(0);
+    }
+
+    // ranking popularności - recenzje ważone wiekiem i liczba wpisów na półkach
+    @Test
+    void shouldSumDecayedReviewScoresAndShelfEntries() {
+        // given
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (4000, 'Pop', 'Author')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (4000000, 'Popular', 'ISBN-POP', 4000)");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) VALUES (4000, 'popular', 'p@t.pl', 'pass', 'USER', true)");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, user_id, book_id, created_at) VALUES (4000, 5, 'Dziś', 4000, 4000000, '2024-03-11 10:00:00')");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, user_id, book_id, created_at) VALUES (4001, 5, 'Dawno', 4000, 4000000, '2024-03-01 10:00:00')");
+        jdbcTemplate.update("INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (4000, 'Półka', false, 4000)");
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (4000, 4000000)");
+        LocalDate today = LocalDate.of(2024, 3, 11);
+
+        // when
+        Map<Long, Double> plain = bookStatisticsDao.sumReviewScores(today, 0);
+        Map<Long, Double> decayed = bookStatisticsDao.sumReviewScores(today, 10);
+        Map<Long, Long> shelves = bookStatisticsDao.countShelfEntriesPerBook();
+
+        // then - recenzja sprzed 10 dni (jeden okres półtrwania) waży 0.5
+        assertThat(plain.get(4000000L)).isEqualTo(2.0);
+        assertThat(decayed.get(4000000L)).isCloseTo(1.5, within(1e-9));
+        assertThat(shelves.get(4000000L)).isEqualTo(1L);
+    }
+
+    // miesięczne podsumowanie czytelnika: delty, odjęcie książki i odbudowa z recenzji
+    @Test
+    void shouldMaintainAndRebuildReadingMonths() {
+        // given
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (6100, 'Month', 'Author')");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) VALUES (6100, 'monthly', 'm@t.pl', 'pass', 'USER', true)");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (6100000, 'Styczeń', 'ISBN-M1', 6100)");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (6100001, 'Marzec', 'ISBN-M2', 6100)");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, user_id, book_id, created_at) VALUES (6101, 8, 'A', 6100, 6100000, '2024-01-05 10:00:00')");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, user_id, book_id, created_at) VALUES (6102, 6, 'B', 6100, 6100001, '2024-01-20 10:00:00')");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, user_id, book_id, created_at) VALUES (6103, 9, 'C', 6100, 6100001, '2024-03-02 10:00:00')");
+
+        // when - przyrostowo, tak jak przy dodawaniu recenzji
+        bookStatisticsDao.applyReadingDelta(6100L, LocalDateTime.of(2024, 1, 5, 10, 0), 8, 1);
+        bookStatisticsDao.applyReadingDelta(6100L, LocalDateTime.of(2024, 1, 20, 10, 0), 6, 1);
+        bookStatisticsDao.applyReadingDelta(6100L, LocalDateTime.of(2024, 3, 2, 10, 0), 9, 1);
+        List<UserReadingMonth> incremental = bookStatisticsDao.findReadingMonths(6100L, 2024);
+
+        // then
+        assertThat(incremental).extracting(m -> m.getId().getReadMonth()).containsExactly(1, 3);
+        assertThat(incremental.get(0).getBooksRead()).isEqualTo(2);
+        assertThat(incremental.get(0).getRatingSum()).isEqualTo(14);
+
+        // when - odjęcie książki "Marzec" (recenzje B i C)
+        bookStatisticsDao.subtractBookFromReadingMonths(6100001L);
+        List<UserReadingMonth> afterBookRemoval = bookStatisticsDao.findReadingMonths(6100L, 2024);
+
+        // then - pusty marzec nie jest zwracany
+        assertThat(afterBookRemoval).hasSize(1);
+        assertThat(afterBookRemoval.get(0).getBooksRead()).isEqualTo(1);
+        assertThat(afterBookRemoval.get(0).getRatingSum()).isEqualTo(8);
+
+        // when - odbudowa z tabeli reviews przywraca stan zgodny z recenzjami
+        bookStatisticsDao.rebuildReadingMonths();
+        List<UserReadingMonth> rebuilt = bookStatisticsDao.findReadingMonths(6100L, 2024);
+
+        // then
+        assertThat(rebuilt).extracting(UserReadingMonth::getBooksRead).containsExactly(2L, 1L);
+        assertThat(rebuilt).extracting(UserReadingMonth::getRatingSum).containsExactly(14L, 9L);
+
+        // when - usunięcie konta
+        bookStatisticsDao.deleteReadingMonths(6100L);
+
+        // then
+        assertThat(bookStatisticsDao.findReadingMonths(6100L, 2024)).isEmpty();
+    }
+
+    // pierwsza transakcja wykonuje zapis i czeka z commitem, aż druga wykona swój (zablokowany na tym samym kluczu)
+    private void raceInTransactions(Runnable first, Runnable second) throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        CompletableFuture<Void> firstTx = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            first.run();
+            firstWritten.countDown();
+            await(commitFirst);
+        }));
+        assertThat(firstWritten.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> secondTx = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> second.run()));
+        // druga transakcja zdąży dojść do INSERT i czekać na blokadę wiersza pierwszej
+        Thread.sleep(300);
+        commitFirst.countDown();
+        firstTx.get(10, TimeUnit.SECONDS);
+        secondTx.get(10, TimeUnit.SECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
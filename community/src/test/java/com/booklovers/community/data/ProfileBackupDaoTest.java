@@ -0,0 +1,53 @@
+package com.booklovers.community.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.booklovers.community.dao.ProfileBackupDao;
+
+@DataJpaTest
+@Import(ProfileBackupDao.class)
+public class ProfileBackupDaoTest {
+    @Autowired
+    private ProfileBackupDao profileBackupDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // półki (także pusta) i recenzje użytkownika czytane kursorem
+    @Test
+    void shouldStreamShelvesAndReviewsOfUser() {
+        // given
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (7000, 'Backup', 'Author')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (7000000, 'A', 'ISBN-BA', 7000)");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (7000001, 'B', 'ISBN-BB', 7000)");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) VALUES (7000, 'backup', 'b@b.pl', 'pass', 'USER', true)");
+        jdbcTemplate.update("INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (7000, 'Pełna', false, 7000)");
+        jdbcTemplate.update("INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (7001, 'Pusta', false, 7000)");
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (7000, 7000000)");
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (7000, 7000001)");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, book_id, user_id) VALUES (7000, 4, 'Dobra', 7000001, 7000)");
+
+        List<ProfileBackupDao.ShelfEntry> shelves = new ArrayList<>();
+        List<ProfileBackupDao.ReviewEntry> reviews = new ArrayList<>();
+
+        // when
+        profileBackupDao.forEachShelfEntry(7000L, shelves::add);
+        profileBackupDao.forEachReview(7000L, reviews::add);
+
+        // then
+        assertThat(shelves).extracting(ProfileBackupDao.ShelfEntry::shelfName)
+                .containsExactly("Pełna", "Pełna", "Pusta");
+        assertThat(shelves).extracting(ProfileBackupDao.ShelfEntry::bookTitle)
+                .containsExactlyInAnyOrder("A", "B", null);
+        assertThat(reviews).containsExactly(new ProfileBackupDao.ReviewEntry("B", 4, "Dobra", null));
+    }
+}
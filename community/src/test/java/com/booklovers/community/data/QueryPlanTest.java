@@ -0,0 +1,62 @@
+package com.booklovers.community.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// plany gorących zapytań na schemacie z migracji Flyway - żadne nie może czytać całej tabeli
+@DataJpaTest
+public class QueryPlanTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("ReviewRepository.findByBookId",
+                        "SELECT * FROM reviews WHERE book_id = 1"),
+                Arguments.of("ReviewRepository.findAllByUserId",
+                        "SELECT * FROM reviews WHERE user_id = 1"),
+                Arguments.of("ReviewRepository.countByBookId",
+                        "SELECT COUNT(*) FROM reviews WHERE book_id = 1"),
+                Arguments.of("ReviewRepository.getAverageRatingForBook",
+                        "SELECT AVG(rating) FROM reviews WHERE book_id = 1"),
+                Arguments.of("BookStatisticsDao.getRatingDistribution",
+                        "SELECT rating, COUNT(*) FROM reviews WHERE book_id = 1 GROUP BY rating ORDER BY rating DESC"),
+                Arguments.of("ReviewRepository.findFeedByBookId",
+                        "SELECT r.id, r.rating, r.content, r.created_at, u.username, u.avatar FROM reviews r "
+                                + "LEFT JOIN users u ON u.id = r.user_id WHERE r.book_id = 1 "
+                                + "ORDER BY r.created_at DESC, r.id DESC LIMIT 21"),
+                Arguments.of("BookStatisticsDao.countBooksReadInYear",
+                        "SELECT COUNT(*) FROM reviews WHERE user_id = 1 "
+                                + "AND created_at >= TIMESTAMP '2024-01-01 00:00:00' AND created_at < TIMESTAMP '2025-01-01 00:00:00'"),
+                Arguments.of("BookStatisticsDao.findReadingMonths",
+                        "SELECT read_month, books_read, rating_sum FROM user_reading_monthly "
+                                + "WHERE user_id = 1 AND read_year = 2024 AND books_read > 0 ORDER BY read_month"),
+                Arguments.of("ShelfRepository.countReadersByBookId",
+                        "SELECT COUNT(s.id) FROM shelves s JOIN shelf_books sb ON sb.shelf_id = s.id WHERE sb.book_id = 1"),
+                Arguments.of("ShelfRepository.findBookIdsByUserId",
+                        "SELECT DISTINCT sb.book_id FROM shelves s JOIN shelf_books sb ON sb.shelf_id = s.id WHERE s.user_id = 1"),
+                Arguments.of("ShelfRepository.findIdByUsernameAndName",
+                        "SELECT s.id FROM shelves s JOIN users u ON u.id = s.user_id WHERE u.username = 'jan' AND s.name = 'Przeczytane'"),
+                Arguments.of("ShelfBookRepository.countAddedBetween",
+                        "SELECT COUNT(*) FROM shelf_books WHERE shelf_id = 1 "
+                                + "AND added_at >= TIMESTAMP '2024-01-01 00:00:00' AND added_at < TIMESTAMP '2025-01-01 00:00:00'"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void shouldUseIndexForHotQuery(String name, String sql) {
+        // when
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+        // then
+        assertThat(plan).as(name + "\n" + plan).doesNotContainIgnoringCase("tableScan");
+    }
+}
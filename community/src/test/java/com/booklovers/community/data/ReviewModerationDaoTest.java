@@ -0,0 +1,104 @@
+package com.booklovers.community.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.booklovers.community.dao.ReviewModerationDao;
+import com.booklovers.community.dto.ReviewFilter;
+import com.booklovers.community.dto.ReviewModerationDto;
+
+@DataJpaTest
+@Import(ReviewModerationDao.class)
+public class ReviewModerationDaoTest {
+    @Autowired
+    private ReviewModerationDao reviewModerationDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (9000, 'Mod', 'Author')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (9000000, 'Moderowana', 'ISBN-MOD', 9000)");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) VALUES (9000, 'moderowany', 'm@m.pl', 'pass', 'USER', true)");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, book_id, user_id, created_at) VALUES (9001, 2, 'Słaba', 9000000, 9000, TIMESTAMP '2024-01-10 10:00:00')");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, book_id, user_id, created_at) VALUES (9002, 8, 'Dobra', 9000000, 9000, TIMESTAMP '2024-02-15 10:00:00')");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, book_id, user_id, created_at) VALUES (9003, 9, 'Świetna', 9000000, NULL, TIMESTAMP '2024-02-29 23:30:00')");
+        jdbcTemplate.update("INSERT INTO reviews (id, rating, content, book_id, user_id, created_at) VALUES (9004, 10, 'Arcydzieło', 9000000, 9000, TIMESTAMP '2024-03-01 00:00:00')");
+    }
+
+    // strona od najnowszych, z tytułem książki i autorem recenzji (anonim = null) oraz liczbą wszystkich
+    @Test
+    void shouldReturnNewestFirstPageWithTotal() {
+        // when
+        Page<ReviewModerationDto> page = reviewModerationDao.findPage(
+                ReviewFilter.builder().bookId(9000000L).build(), PageRequest.of(0, 3));
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.getContent()).extracting(ReviewModerationDto::getId).containsExactly(9004L, 9003L, 9002L);
+        assertThat(page.getContent().get(0).getBookTitle()).isEqualTo("Moderowana");
+        assertThat(page.getContent().get(0).getUsername()).isEqualTo("moderowany");
+        assertThat(page.getContent().get(1).getUsername()).isNull();
+        assertThat(page.getContent().get(1).getUserId()).isNull();
+    }
+
+    // filtry łączone: użytkownik, zakres ocen i dat (data końcowa włącznie)
+    @Test
+    void shouldCombineFilters() {
+        // given
+        ReviewFilter filter = ReviewFilter.builder()
+                .username("moderowany")
+                .minRating(5)
+                .maxRating(9)
+                .from(LocalDate.of(2024, 2, 1))
+                .to(LocalDate.of(2024, 2, 29))
+                .build();
+
+        // when
+        Page<ReviewModerationDto> page = reviewModerationDao.findPage(filter, PageRequest.of(0, 10));
+
+        // then
+        assertThat(page.getContent()).extracting(ReviewModerationDto::getId).containsExactly(9002L);
+        assertThat(page.getTotalElements()).isEqualTo(1);
+    }
+
+    // dalsza strona zaczyna się za poprzednią
+    @Test
+    void shouldReturnSecondPage() {
+        // when
+        Page<ReviewModerationDto> page = reviewModerationDao.findPage(
+                ReviewFilter.builder().bookId(9000000L).build(), PageRequest.of(1, 3));
+
+        // then
+        assertThat(page.getContent()).extracting(ReviewModerationDto::getId).containsExactly(9001L);
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.getTotalPages()).isEqualTo(2);
+    }
+
+    // eksport kursorem - ta sama kolejność i filtry co lista
+    @Test
+    void shouldStreamFilteredReviews() {
+        // given
+        List<ReviewModerationDto> rows = new ArrayList<>();
+
+        // when
+        reviewModerationDao.forEach(ReviewFilter.builder().bookId(9000000L).minRating(9).build(), rows::add);
+
+        // then
+        assertThat(rows).extracting(ReviewModerationDto::getId).containsExactly(9004L, 9003L);
+        assertThat(rows).extracting(ReviewModerationDto::getContent).containsExactly("Arcydzieło", "Świetna");
+    }
+}
@@ -9,6 +9,11 @@ import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import com.booklovers.community.dto.ReviewFeedItemDto;
 
 import com.booklovers.community.model.Author;
 import com.booklovers.community.model.Book;
@@ -218,4 +223,41 @@ public class ReviewRepositoryTest {
         // then
         assertThat(count).isEqualTo(2L);
     }
+
+    // strona recenzji książki z nazwą i avatarem autora (także recenzja anonimowa), kolejność wg Pageable
+    @Test
+    void shouldFindFeedPageWithAuthors() {
+        // given
+        Author author = authorRepository.save(Author.builder().firstName("Feed").lastName("Author").build());
+        Book book = bookRepository.save(Book.builder().title("Feed").isbn("9780261103344").author(author).build());
+        User user = userRepository.save(User.builder()
+                .username("sam")
+                .email("sam@shire.pl")
+                .password("pass")
+                .role("USER")
+                .avatar("/uploads/sam.png")
+                .build());
+
+        reviewRepository.saveAll(List.of(
+                Review.builder().rating(6).content("Pierwsza").book(book).user(user).build(),
+                Review.builder().rating(9).content("Druga").book(book).build(),
+                Review.builder().rating(7).content("Trzecia").book(book).user(user).build()));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        Slice<ReviewFeedItemDto> first = reviewRepository.findFeedByBookId(book.getId(),
+                PageRequest.of(0, 2, Sort.by(Sort.Order.desc("rating"), Sort.Order.desc("id"))));
+        Slice<ReviewFeedItemDto> second = reviewRepository.findFeedByBookId(book.getId(),
+                PageRequest.of(1, 2, Sort.by(Sort.Order.desc("rating"), Sort.Order.desc("id"))));
+
+        // then
+        assertThat(first.getContent()).extracting(ReviewFeedItemDto::getContent).containsExactly("Druga", "Trzecia");
+        assertThat(first.getContent().get(0).getUsername()).isNull();
+        assertThat(first.getContent().get(1).getUsername()).isEqualTo("sam");
+        assertThat(first.getContent().get(1).getAvatar()).isEqualTo("/uploads/sam.png");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting(ReviewFeedItemDto::getContent).containsExactly("Pierwsza");
+        assertThat(second.hasNext()).isFalse();
+    }
 }
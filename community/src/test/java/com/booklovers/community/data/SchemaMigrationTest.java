@@ -0,0 +1,86 @@
+package com.booklovers.community.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+// aktualizacja bazy sprzed migracji (schemat V1 z ddl-auto) do bieżącej wersji, z danymi, które ddl-auto dopuszczało
+public class SchemaMigrationTest {
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:schema_migration", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    void shouldUpgradeBaselineDatabaseWithDuplicatedShelfBooks() {
+        // given
+        flyway("1").migrate();
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (100, 'Jan', 'Kowalski')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (100, 'Tytuł', 'isbn-100', 100)");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) "
+                + "VALUES (100, 'czytelnik', 'czytelnik@test.pl', 'x', 'ROLE_USER', true)");
+        jdbcTemplate.update("INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (100, 'Przeczytane', true, 100)");
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (100, 100), (100, 100)");
+
+        // when
+        flyway(null).migrate();
+
+        // then
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shelf_books", Long.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.table_constraints "
+                + "WHERE table_name = 'SHELF_BOOKS' AND constraint_type = 'PRIMARY KEY'", Long.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+                + "WHERE table_name IN ('BOOK_RATING_SUMMARY', 'TOKEN_REVOCATIONS', 'USER_READING_MONTHLY')", Long.class))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldKeepHistoricalShelfBooksOutOfReadingYears() {
+        // given
+        flyway("4").migrate();
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (100, 'Jan', 'Kowalski')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (100, 'Tytuł', 'isbn-100', 100), "
+                + "(101, 'Drugi tytuł', 'isbn-101', 100)");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) "
+                + "VALUES (100, 'czytelnik', 'czytelnik@test.pl', 'x', 'ROLE_USER', true)");
+        jdbcTemplate.update("INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (100, 'Przeczytane', true, 100)");
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (100, 100)");
+
+        // when
+        flyway(null).migrate();
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (100, 101)");
+
+        // then
+        assertThat(jdbcTemplate.queryForObject("SELECT added_at FROM shelf_books WHERE book_id = 100", LocalDateTime.class))
+                .isEqualTo(LocalDateTime.of(1970, 1, 1, 0, 0));
+        assertThat(jdbcTemplate.queryForObject("SELECT added_at FROM shelf_books WHERE book_id = 101", LocalDateTime.class))
+                .isAfter(LocalDateTime.now().minusMinutes(1));
+    }
+
+    private Flyway flyway(String target) {
+        var configuration = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/h2");
+        if (target != null) {
+            configuration.target(target);
+        }
+        return configuration.load();
+    }
+}
@@ -0,0 +1,107 @@
+package com.booklovers.community.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.booklovers.community.dao.ShelfBookDao;
+import com.booklovers.community.model.ShelfBook;
+
+@DataJpaTest
+@Import(ShelfBookDao.class)
+public class ShelfBookDaoTest {
+    @Autowired
+    private ShelfBookDao shelfBookDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // wstawianie wsadowe i odczyt zawartości półki
+    @Test
+    void shouldBatchInsertAndReadShelfBooks() {
+        // given
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (6000, 'Batch', 'Author')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (6000000, 'A', 'ISBN-A', 6000)");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (6000001, 'B', 'ISBN-B', 6000)");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) VALUES (6000, 'batch', 'b@t.pl', 'pass', 'USER', true)");
+        jdbcTemplate.update("INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (6000, 'Półka', false, 6000)");
+
+        // when
+        Set<Long> inserted = shelfBookDao.insertBooks(6000L, List.of(6000000L, 6000001L), LocalDateTime.of(2024, 5, 1, 12, 0));
+
+        // then
+        assertThat(inserted).containsExactly(6000000L, 6000001L);
+        assertThat(shelfBookDao.findBookIds(6000L)).containsExactlyInAnyOrder(6000000L, 6000001L);
+        assertThat(jdbcTemplate.queryForList("SELECT added_at FROM shelf_books WHERE shelf_id = 6000", LocalDateTime.class))
+                .containsOnly(LocalDateTime.of(2024, 5, 1, 12, 0));
+        assertThat(shelfBookDao.insertBooks(6000L, List.of(), LocalDateTime.now())).isEmpty();
+    }
+
+    // odczyt tylko wskazanych książek półki i usuwanie wsadowe
+    @Test
+    void shouldFindSelectedBooksAndBatchDelete() {
+        // given
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (6100, 'Batch', 'Author')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (6100000, 'A', 'ISBN-DA', 6100)");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (6100001, 'B', 'ISBN-DB', 6100)");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) VALUES (6100, 'batchdel', 'd@t.pl', 'pass', 'USER', true)");
+        jdbcTemplate.update("INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (6100, 'Półka', false, 6100)");
+        shelfBookDao.insertBooks(6100L, List.of(6100000L, 6100001L), LocalDateTime.now());
+
+        // when
+        Set<Long> selected = shelfBookDao.findBookIds(6100L, List.of(6100001L, 42L));
+        Set<Long> deleted = shelfBookDao.deleteBooks(6100L, List.of(6100000L, 42L));
+
+        // then
+        assertThat(selected).containsExactly(6100001L);
+        assertThat(deleted).containsExactly(6100000L);
+        assertThat(shelfBookDao.findBookIds(6100L)).containsExactly(6100001L);
+        assertThat(shelfBookDao.findBookIds(6100L, List.of())).isEmpty();
+    }
+
+    // wiersze z importu z umowną datą - nie wchodzą do bieżącego roku wyzwania
+    @Test
+    void shouldInsertImportedBooksWithUnknownAddedAt() {
+        // given
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (6200, 'Batch', 'Author')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (6200000, 'A', 'ISBN-IA', 6200)");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) VALUES (6200, 'batchimp', 'i@t.pl', 'pass', 'USER', true)");
+        jdbcTemplate.update("INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (6200, 'Przeczytane', true, 6200)");
+
+        // when
+        Set<Long> inserted = shelfBookDao.insertBooks(6200L, List.of(6200000L), ShelfBook.UNKNOWN_ADDED_AT);
+
+        // then - ponowny import tej samej książki nic nie wstawia
+        assertThat(inserted).containsExactly(6200000L);
+        assertThat(shelfBookDao.insertBooks(6200L, List.of(6200000L), ShelfBook.UNKNOWN_ADDED_AT)).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT added_at FROM shelf_books WHERE shelf_id = 6200", LocalDateTime.class))
+                .isEqualTo(LocalDateTime.of(1970, 1, 1, 0, 0));
+    }
+
+    // pojedyncze dodanie - drugie wywołanie dla tej samej książki nic nie wstawia
+    @Test
+    void shouldInsertSingleBookOnlyWhenAbsent() {
+        // given
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (6300, 'Batch', 'Author')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (6300000, 'A', 'ISBN-SA', 6300)");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) VALUES (6300, 'single', 's@t.pl', 'pass', 'USER', true)");
+        jdbcTemplate.update("INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (6300, 'Półka', false, 6300)");
+
+        // when
+        boolean first = shelfBookDao.insertBookIfAbsent(6300L, 6300000L, LocalDateTime.now());
+        boolean second = shelfBookDao.insertBookIfAbsent(6300L, 6300000L, LocalDateTime.now());
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(shelfBookDao.findBookIds(6300L)).containsExactly(6300000L);
+    }
+}
@@ -0,0 +1,113 @@
+package com.booklovers.community.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.booklovers.community.model.ShelfBook;
+import com.booklovers.community.model.ShelfBookId;
+import com.booklovers.community.repository.ShelfBookRepository;
+
+@DataJpaTest
+public class ShelfBookRepositoryTest {
+    @Autowired
+    private ShelfBookRepository shelfBookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO authors (id, first_name, last_name) VALUES (8000, 'Member', 'Author')");
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (8000000, 'A', 'ISBN-MA', 8000)");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, enabled) VALUES (8000, 'member', 'm@m.pl', 'pass', 'USER', true)");
+        jdbcTemplate.update("INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (8000, 'Półka', false, 8000)");
+        jdbcTemplate.update("INSERT INTO shelves (id, name, is_system_shelf, user_id) VALUES (8001, 'Docelowa', false, 8000)");
+    }
+
+    // dodanie, sprawdzenie i usunięcie jednego wiersza po kluczu (shelf_id, book_id)
+    @Test
+    void shouldAddCheckAndRemoveSingleMembership() {
+        // given
+        ShelfBookId id = new ShelfBookId(8000L, 8000000L);
+
+        // when
+        shelfBookRepository.saveAndFlush(ShelfBook.of(8000L, 8000000L));
+
+        // then
+        assertThat(shelfBookRepository.existsById(id)).isTrue();
+        assertThat(shelfBookRepository.deleteMembership(8000L, 8000000L)).isEqualTo(1);
+        assertThat(shelfBookRepository.deleteMembership(8000L, 8000000L)).isZero();
+        assertThat(shelfBookRepository.existsById(id)).isFalse();
+    }
+
+    // klucz złożony nie pozwala dodać tej samej książki dwa razy
+    @Test
+    void shouldRejectDuplicateMembership() {
+        // given
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (8000, 8000000)");
+
+        // when
+        Throwable thrown = catchThrowable(() ->
+                jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (8000, 8000000)"));
+
+        // then
+        assertThat(thrown).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    // przeniesienie wiersza jednym UPDATE-em; ponowne przeniesienie nic już nie zmienia
+    @Test
+    void shouldMoveMembershipWithSingleUpdate() {
+        // given
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (8000, 8000000)");
+
+        // when
+        int moved = shelfBookRepository.moveMembership(8000L, 8001L, 8000000L);
+
+        // then
+        assertThat(moved).isEqualTo(1);
+        assertThat(shelfBookRepository.existsById(new ShelfBookId(8000L, 8000000L))).isFalse();
+        assertThat(shelfBookRepository.existsById(new ShelfBookId(8001L, 8000000L))).isTrue();
+        assertThat(shelfBookRepository.moveMembership(8000L, 8001L, 8000000L)).isZero();
+    }
+
+    // książka jest już na półce docelowej - UPDATE niczego nie rusza (brak naruszenia klucza)
+    @Test
+    void shouldNotMoveWhenBookAlreadyOnTargetShelf() {
+        // given
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (8000, 8000000)");
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (8001, 8000000)");
+
+        // when
+        int moved = shelfBookRepository.moveMembership(8000L, 8001L, 8000000L);
+
+        // then
+        assertThat(moved).isZero();
+        assertThat(shelfBookRepository.existsById(new ShelfBookId(8000L, 8000000L))).isTrue();
+    }
+
+    // liczniki półki: wszystkie wiersze i tylko dodane w danym roku
+    @Test
+    void shouldCountShelfBooksTotalAndPerYear() {
+        // given
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (8000001, 'B', 'ISBN-MB', 8000)");
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id, added_at) VALUES (8000, 8000000, TIMESTAMP '2024-12-31 23:59:00')");
+        jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) VALUES (8000, 8000001)");
+
+        LocalDateTime thisYear = LocalDateTime.now().withDayOfYear(1).toLocalDate().atStartOfDay();
+
+        // when & then
+        assertThat(shelfBookRepository.countByIdShelfId(8000L)).isEqualTo(2);
+        assertThat(shelfBookRepository.countAddedBetween(8000L, thisYear, thisYear.plusYears(1))).isEqualTo(1);
+        assertThat(shelfBookRepository.countAddedBetween(8000L,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 1, 0, 0))).isEqualTo(1);
+    }
+}
@@ -7,9 +7,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import com.booklovers.community.model.Author;
 import com.booklovers.community.model.Book;
@@ -36,6 +38,9 @@ public class ShelfRepositoryTest {
     @Autowired
     private AuthorRepository authorRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     // pobieranie wszystkich półek danego użytkownika
     @Test
     void shouldFindAllShelvesByUserId() {
@@ -57,6 +62,34 @@ public class ShelfRepositoryTest {
                 .containsExactlyInAnyOrder("Przeczytane", "Chcę przeczytać");
     }
 
+    // półki z zawartością - książki i autorzy załadowani od razu (bez N+1 w widoku profilu)
+    @Test
+    void shouldFindShelvesWithBooksAndAuthorsByUsername() {
+        // given
+        User user = userRepository.save(User.builder().username("reader").email("reader@test.pl").password("pass").role("ROLE_USER").build());
+        User other = userRepository.save(User.builder().username("other").email("other@test.pl").password("pass").role("ROLE_USER").build());
+        Author author = authorRepository.save(Author.builder().firstName("J.R.R.").lastName("Tolkien").build());
+        Book hobbit = bookRepository.save(Book.builder().title("Hobbit").isbn("9780261103344").author(author).build());
+        Book silmarillion = bookRepository.save(Book.builder().title("Silmarillion").isbn("9780261102736").author(author).build());
+
+        Shelf read = Shelf.builder().name("Przeczytane").user(user).books(new ArrayList<>(List.of(hobbit, silmarillion))).build();
+        shelfRepository.save(read);
+        shelfRepository.save(Shelf.builder().name("Chcę przeczytać").user(user).build());
+        shelfRepository.save(Shelf.builder().name("Przeczytane").user(other).books(new ArrayList<>(List.of(hobbit))).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<Shelf> shelves = shelfRepository.findAllWithBooksByUsername("reader");
+
+        // then
+        assertThat(shelves).extracting(Shelf::getName).containsExactly("Przeczytane", "Chcę przeczytać");
+        assertThat(Hibernate.isInitialized(shelves.get(0).getBooks())).isTrue();
+        assertThat(shelves.get(0).getBooks()).extracting(Book::getTitle).containsExactlyInAnyOrder("Hobbit", "Silmarillion");
+        assertThat(Hibernate.isInitialized(shelves.get(0).getBooks().get(0).getAuthor())).isTrue();
+        assertThat(shelves.get(1).getBooks()).isEmpty();
+    }
+
     // zwracanie pustej listy, gdy user nie ma półek
     @Test
     void shouldReturnEmptyListWhenUserHasNoShelves() {
@@ -199,4 +232,21 @@ public class ShelfRepositoryTest {
         // then
         assertThat(count).isEqualTo(2);
     }
+
+    // właściciele kilku półek jednym zapytaniem (walidacja przenoszenia)
+    @Test
+    void shouldFindOwnerUsernamesOfShelves() {
+        // given
+        User jan = userRepository.save(User.builder().username("owner1").email("o1@test.pl").password("pass").role("ROLE_USER").build());
+        User anna = userRepository.save(User.builder().username("owner2").email("o2@test.pl").password("pass").role("ROLE_USER").build());
+        Shelf first = shelfRepository.save(Shelf.builder().name("Pierwsza").user(jan).build());
+        Shelf second = shelfRepository.save(Shelf.builder().name("Druga").user(anna).build());
+
+        // when
+        List<Object[]> owners = shelfRepository.findOwnerUsernames(List.of(first.getId(), second.getId(), -1L));
+
+        // then
+        assertThat(owners).hasSize(2);
+        assertThat(owners).extracting(row -> row[1]).containsExactlyInAnyOrder("owner1", "owner2");
+    }
 }
@@ -0,0 +1,128 @@
+package com.booklovers.community.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import com.booklovers.community.dto.UserRegisterDto;
+import com.booklovers.community.model.Shelf;
+import com.booklovers.community.repository.UserRepository;
+import com.booklovers.community.service.ReviewService;
+import com.booklovers.community.service.ShelfService;
+import com.booklovers.community.service.UserService;
+
+// budżety zapytań (@QueryBudget) gorących endpointów na prawdziwej bazie (dane demonstracyjne + czytelnik z półkami);
+// enforce=true - przekroczenie budżetu kończy żądanie wyjątkiem, więc regresja N+1 wywraca test
+@SpringBootTest(properties = "booklovers.query-guard.enforce=true")
+@AutoConfigureMockMvc
+public class QueryBudgetTest {
+    private static final String READER = "budget_reader";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ShelfService shelfService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private RequestPostProcessor reader;
+    private Long wantToReadShelfId;
+
+    @BeforeEach
+    void setUp() {
+        // czytelnik z pełną półką "Przeczytane" i recenzją - widoki mają co doczytywać
+        if (!userRepository.existsByUsername(READER)) {
+            UserRegisterDto dto = new UserRegisterDto();
+            dto.setUsername(READER);
+            dto.setEmail("budget_reader@test.pl");
+            dto.setPassword("haslo12345");
+            userService.registerUser(dto);
+
+            Long readShelfId = shelfService.getUserShelves(READER).get(0).getId();
+            // książka 6 zostaje wolna - na niej testowane są zmiany półek
+            for (long bookId = 1; bookId <= 5; bookId++) {
+                shelfService.addBookToShelf(readShelfId, bookId, READER);
+            }
+            reviewService.addReview(1L, READER, 8, "Świetna książka");
+        }
+        wantToReadShelfId = shelfService.getUserShelves(READER).stream()
+                .filter(shelf -> shelf.getName().equals("Chcę przeczytać"))
+                .map(Shelf::getId)
+                .findFirst()
+                .orElseThrow();
+        reader = user(READER);
+    }
+
+    // strony Thymeleaf (łącznie z doczytywaniem w widoku)
+    @Test
+    void webPagesShouldStayWithinQueryBudget() throws Exception {
+        mockMvc.perform(get("/")).andExpect(status().isOk());
+        mockMvc.perform(get("/books")).andExpect(status().isOk());
+        mockMvc.perform(get("/books").param("query", "wiedźmin")).andExpect(status().isOk());
+        mockMvc.perform(get("/books/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/books/2").with(reader)).andExpect(status().isOk());
+        mockMvc.perform(get("/profile").with(reader)).andExpect(status().isOk());
+    }
+
+    // REST API książek i recenzji
+    @Test
+    void bookApiShouldStayWithinQueryBudget() throws Exception {
+        mockMvc.perform(get("/api/v1/books")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/books/scroll")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/books/search").param("query", "harry")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/books/3")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/books/1/stats")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/books/1/reviews")).andExpect(status().isOk());
+    }
+
+    // półki - odczyt z zawartością i zmiany
+    @Test
+    void shelfApiShouldStayWithinQueryBudget() throws Exception {
+        mockMvc.perform(get("/api/v1/shelves").with(reader)).andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/shelves/" + wantToReadShelfId + "/books").param("bookId", "6").with(reader))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/shelves/" + wantToReadShelfId + "/books/6").with(reader))
+                .andExpect(status().isNoContent());
+    }
+
+    // DAO na JdbcTemplate liczą się do budżetu tak samo jak zapytania Hibernate
+    @Test
+    void jdbcTemplateQueriesShouldBeCounted() {
+        // given
+        queryCounter.start();
+
+        // when
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+        userRepository.existsByUsername(READER);
+        QueryCounter.Queries queries = queryCounter.stop();
+
+        // then
+        assertThat(queries.total()).isEqualTo(2);
+    }
+}
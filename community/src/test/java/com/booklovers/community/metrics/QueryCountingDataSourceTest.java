@@ -0,0 +1,60 @@
+package com.booklovers.community.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+// liczenie na poziomie JDBC - zapytania JdbcTemplate (DAO) trafiają do tego samego pomiaru co zapytania Hibernate
+public class QueryCountingDataSourceTest {
+    private SingleConnectionDataSource target;
+    private QueryCounter queryCounter;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        target = new SingleConnectionDataSource("jdbc:h2:mem:query_counting", "sa", "", true);
+        queryCounter = new QueryCounter();
+        jdbcTemplate = new JdbcTemplate(new QueryCountingDataSource(target, queryCounter));
+        jdbcTemplate.execute("CREATE TABLE items (id BIGINT PRIMARY KEY)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        target.destroy();
+    }
+
+    @Test
+    void shouldCountPreparedPlainAndBatchedStatements() {
+        // given
+        queryCounter.start();
+
+        // when
+        jdbcTemplate.batchUpdate("INSERT INTO items (id) VALUES (?)", List.of(new Object[] { 1 }, new Object[] { 2 }));
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE id > ?", Long.class, 0);
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE id > ?", Long.class, 1);
+        jdbcTemplate.execute("DELETE FROM items");
+        QueryCounter.Queries queries = queryCounter.stop();
+
+        // then
+        assertThat(queries.total()).isEqualTo(4);
+        assertThat(queries.repeated(2)).containsExactly(Map.entry("SELECT COUNT(*) FROM items WHERE id > ?", 2));
+    }
+
+    // bez rozpoczętego pomiaru nic nie jest zbierane
+    @Test
+    void shouldIgnoreStatementsOutsideMeasurement() {
+        // when
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Long.class);
+        QueryCounter.Queries queries = queryCounter.stop();
+
+        // then
+        assertThat(queries.total()).isZero();
+    }
+}
@@ -0,0 +1,158 @@
+package com.booklovers.community.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.booklovers.community.exception.QueryBudgetExceededException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class RequestQueryMetricsFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueryCounter queryCounter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queryCounter = new QueryCounter();
+    }
+
+    // zapytania wykonane w czasie żądania trafiają do rozkładu z wzorcem uri
+    @Test
+    void shouldRecordQueriesPerRequestByUriPattern() throws Exception {
+        // given
+        RequestQueryMetricsFilter filter = filter(false);
+        MockFilterChain chain = chainExecuting("/books/{id}", null,
+                "select * from books where id=?", "select * from reviews where book_id=?", "select * from shelves where user_id=?");
+
+        // when
+        filter.doFilter(new MockHttpServletRequest("GET", "/books/5"), new MockHttpServletResponse(), chain);
+
+        // then
+        DistributionSummary summary = meterRegistry.get(RequestQueryMetricsFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/books/{id}")
+                .summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(3);
+    }
+
+    // zapytania poza żądaniem (np. zadania w tle) nie są liczone do następnego żądania
+    @Test
+    void shouldIgnoreQueriesOutsideRequest() throws Exception {
+        // given
+        RequestQueryMetricsFilter filter = filter(false);
+        queryCounter.record("select count(*) from books");
+
+        // when
+        filter.doFilter(new MockHttpServletRequest("GET", "/missing"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // then
+        DistributionSummary summary = meterRegistry.get(RequestQueryMetricsFilter.METRIC_NAME)
+                .tag("uri", "UNKNOWN")
+                .summary();
+        assertThat(summary.totalAmount()).isZero();
+        assertThat(queryCounter.stop().total()).isZero();
+    }
+
+    // tryb enforce - przekroczenie @QueryBudget handlera kończy żądanie wyjątkiem z powtórzonym zapytaniem
+    @Test
+    void shouldFailRequestOverBudgetInEnforceMode() throws Exception {
+        // given
+        RequestQueryMetricsFilter filter = filter(true);
+        HandlerMethod handler = new HandlerMethod(new BudgetedHandler(), "show");
+        MockFilterChain chain = chainExecuting("/books/{id}", handler,
+                "select * from books where id=1", "select * from authors where id=7",
+                "select * from authors where id=8", "select * from authors where id=9");
+
+        // when & then
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/books/1"), new MockHttpServletResponse(), chain))
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageContaining("GET /books/{id} wykonało 4 zapytań SQL przy budżecie 2")
+                .hasMessageContaining("3x select * from authors where id=?");
+    }
+
+    // bez enforce przekroczenie budżetu jest tylko logowane
+    @Test
+    void shouldOnlyLogOverBudgetWithoutEnforce() throws Exception {
+        // given
+        RequestQueryMetricsFilter filter = filter(false);
+        HandlerMethod handler = new HandlerMethod(new BudgetedHandler(), "show");
+        MockFilterChain chain = chainExecuting("/books/{id}", handler, "select 1", "select 2", "select 3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(new MockHttpServletRequest("GET", "/books/1"), response, chain);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    // kształt zapytania - literały i listy IN zastąpione "?"
+    @Test
+    void shouldNormalizeStatementShape() {
+        assertThat(QueryCounter.shape("select b.id from books b where b.id in (?, ?,?) and b.title = 'Hobbit'   limit 20"))
+                .isEqualTo("select b.id from books b where b.id in (?) and b.title = ? limit ?");
+        assertThat(QueryCounter.shape("select a1_0.id from authors a1_0 where a1_0.id=42"))
+                .isEqualTo("select a1_0.id from authors a1_0 where a1_0.id=?");
+    }
+
+    // zapytania z wątku puli (propagate) liczą się do pomiaru żądania; wątek wykonujący zadanie sam (CallerRuns) go nie traci
+    @Test
+    void shouldCountQueriesFromPropagatedTasks() throws Exception {
+        // given
+        queryCounter.start();
+        Runnable task = queryCounter.propagate(() -> queryCounter.record("select * from reviews where book_id=1"));
+
+        // when
+        Thread worker = Thread.ofPlatform().start(task);
+        worker.join();
+        task.run();
+        queryCounter.record("select * from books where id=1");
+
+        // then
+        QueryCounter.Queries queries = queryCounter.stop();
+        assertThat(queries.total()).isEqualTo(3);
+        assertThat(queries.repeated(2)).containsExactly(Map.entry("select * from reviews where book_id=?", 2));
+    }
+
+    private RequestQueryMetricsFilter filter(boolean enforce) {
+        return new RequestQueryMetricsFilter(queryCounter, new QueryGuard(3, 0, enforce), meterRegistry);
+    }
+
+    // servlet udający DispatcherServlet: ustawia wzorzec i handler, wykonuje podane zapytania
+    private MockFilterChain chainExecuting(String pattern, HandlerMethod handler, String... statements) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+                req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+                for (String sql : statements) {
+                    queryCounter.record(sql);
+                }
+            }
+        });
+    }
+
+    static class BudgetedHandler {
+        @QueryBudget(2)
+        public String show() {
+            return "book-details";
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.booklovers.community.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingAuthenticationProviderTest {
+    @Mock
+    private UserDetailsService userDetailsService;
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private AuthenticationCache authenticationCache;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        authenticationCache = new AuthenticationCache(Duration.ofMinutes(1), 100);
+        provider = new CachingAuthenticationProvider(userDetailsService, passwordEncoder, authenticationCache);
+    }
+
+    private void givenUser(String username, String hash, boolean enabled) {
+        when(userDetailsService.loadUserByUsername(username)).thenReturn(new User(username, hash, enabled, true, true, true,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    // drugie żądanie z tym samym hasłem nie odpytuje bazy ani BCrypt
+    @Test
+    void shouldSkipPasswordCheckForCachedCredentials() {
+        // given
+        givenUser("api", "hash", true);
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+
+        // when
+        Authentication first = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("api", "secret"));
+        Authentication second = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("api", "secret"));
+
+        // then
+        assertThat(first.isAuthenticated()).isTrue();
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getName()).isEqualTo("api");
+        assertThat(second.getCredentials()).isNull();
+        assertThat(second.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        verify(userDetailsService, times(1)).loadUserByUsername("api");
+        verify(passwordEncoder, times(1)).matches("secret", "hash");
+    }
+
+    // inne hasło nie trafia w cache
+    @Test
+    void shouldVerifyDifferentPasswordAgainstDatabase() {
+        // given
+        givenUser("api", "hash", true);
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+        when(passwordEncoder.matches("wrong", "hash")).thenReturn(false);
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("api", "secret"));
+
+        // when
+        Throwable thrown = catchThrowable(() ->
+                provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("api", "wrong")));
+
+        // then
+        assertThat(thrown).isInstanceOf(BadCredentialsException.class);
+    }
+
+    // po unieważnieniu (np. blokada konta) pełna weryfikacja
+    @Test
+    void shouldReauthenticateAfterEviction() {
+        // given
+        givenUser("api", "hash", true);
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("api", "secret"));
+        givenUser("api", "hash", false);
+
+        // when
+        authenticationCache.evict("api");
+        Throwable thrown = catchThrowable(() ->
+                provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("api", "secret")));
+
+        // then
+        assertThat(thrown).isInstanceOf(DisabledException.class);
+        assertThat(authenticationCache.size()).isZero();
+    }
+
+    // unieważnienie w trakcie weryfikacji (blokada zatwierdzona, gdy baza zwróciła jeszcze stary stan) - wynik nie trafia do cache
+    @Test
+    void shouldNotCacheAuthenticationStartedBeforeEviction() {
+        // given
+        givenUser("api", "hash", true);
+        when(passwordEncoder.matches("secret", "hash")).thenAnswer(invocation -> {
+            authenticationCache.evict("api");
+            return true;
+        });
+
+        // when
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("api", "secret"));
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("api", "secret"));
+
+        // then
+        assertThat(authenticationCache.size()).isZero();
+        verify(userDetailsService, times(2)).loadUserByUsername("api");
+    }
+}
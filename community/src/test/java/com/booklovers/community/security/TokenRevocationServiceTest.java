@@ -0,0 +1,106 @@
+package com.booklovers.community.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.booklovers.community.model.TokenRevocation;
+import com.booklovers.community.repository.TokenRevocationRepository;
+
+// odwołania na prawdziwej bazie - unikalny jti wykrywa ponowne użycie refresh tokenu także między instancjami;
+// bez transakcji testu, bo każdy zapis idzie we własnej transakcji repozytorium
+@DataJpaTest
+@Import({ TokenRevocationService.class, AuthenticationCache.class, TokenRevocationServiceTest.Tokens.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TokenRevocationServiceTest {
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    @TestConfiguration
+    static class Tokens {
+        @Bean
+        TokenService tokenService() {
+            return new TokenService("test-secret", Duration.ofMinutes(15), Duration.ofDays(7), Clock.systemUTC());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenRevocationRepository.deleteAll();
+    }
+
+    // drugi zapis tego samego jti (np. druga instancja przed synchronizacją odwołań) jest odrzucany
+    @Test
+    void shouldRejectSecondUseOfRefreshToken() {
+        // given
+        String refresh = tokenService.issue("reader", List.of()).refreshToken();
+        TokenService.TokenClaims claims = tokenService.verify(refresh, TokenService.REFRESH);
+        tokenRevocationService.consumeRefreshToken(claims);
+
+        // when
+        Throwable thrown = catchThrowable(() -> tokenRevocationService.consumeRefreshToken(claims));
+
+        // then
+        assertThat(thrown).isInstanceOf(BadCredentialsException.class).hasMessage("Token został już użyty");
+        assertThat(tokenRevocationRepository.count()).isEqualTo(1);
+    }
+
+    // wylogowanie jest idempotentne
+    @Test
+    void shouldIgnoreRepeatedRevocation() {
+        // given
+        String refresh = tokenService.issue("reader", List.of()).refreshToken();
+        tokenRevocationService.revokeToken(refresh);
+
+        // when
+        tokenRevocationService.revokeToken(refresh);
+
+        // then
+        assertThat(tokenRevocationRepository.count()).isEqualTo(1);
+        assertThat(catchThrowable(() -> tokenService.verify(refresh, TokenService.REFRESH)))
+                .hasMessage("Token został unieważniony");
+    }
+
+    // blokada konta na innej instancji: wpis dla użytkownika wczytany przy synchronizacji czyści też cache logowań
+    @Test
+    void shouldEvictCachedCredentialsOnSynchronizedUserRevocation() {
+        // given
+        authenticationCache.put("reader", "secret", UsernamePasswordAuthenticationToken.authenticated("reader", null, List.of()),
+                authenticationCache.generation("reader"));
+        tokenRevocationRepository.save(TokenRevocation.builder()
+                .username("reader")
+                .revokedAt(tokenService.now())
+                .expiresAt(tokenService.now().plus(tokenService.getRefreshTtl()))
+                .build());
+
+        // when
+        tokenRevocationService.synchronize();
+
+        // then
+        assertThat(authenticationCache.get("reader", "secret")).isNull();
+    }
+}
@@ -0,0 +1,120 @@
+package com.booklovers.community.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+public class TokenServiceTest {
+    private static final Instant NOW = Instant.parse("2025-01-10T12:00:00Z");
+
+    private TokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new TokenService("test-secret", Duration.ofMinutes(15), Duration.ofDays(7), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    // token dostępowy weryfikowany bez bazy - role w claimach
+    @Test
+    void shouldIssueAndVerifyAccessToken() {
+        // when
+        TokenService.TokenPair pair = tokenService.issue("reader", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        TokenService.TokenClaims claims = tokenService.verify(pair.accessToken(), TokenService.ACCESS);
+
+        // then
+        assertThat(claims.sub()).isEqualTo("reader");
+        assertThat(claims.roles()).containsExactly("ROLE_USER");
+        assertThat(pair.expiresIn()).isEqualTo(900);
+    }
+
+    // zmieniony payload lub podpis innym kluczem
+    @Test
+    void shouldRejectTamperedToken() {
+        // given
+        String token = tokenService.issue("reader", List.of()).accessToken();
+        TokenService other = new TokenService("other-secret", Duration.ofMinutes(15), Duration.ofDays(7), Clock.fixed(NOW, ZoneOffset.UTC));
+        String forged = other.issue("admin", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))).accessToken();
+        String swapped = forged.substring(0, forged.indexOf('.')) + token.substring(token.indexOf('.'));
+
+        // when & then
+        assertThat(catchThrowable(() -> tokenService.verify(forged, TokenService.ACCESS))).isInstanceOf(BadCredentialsException.class);
+        assertThat(catchThrowable(() -> tokenService.verify(swapped, TokenService.ACCESS))).isInstanceOf(BadCredentialsException.class);
+        assertThat(catchThrowable(() -> tokenService.verify("smieci", TokenService.ACCESS))).isInstanceOf(BadCredentialsException.class);
+    }
+
+    // refresh token nie zastępuje tokenu dostępowego
+    @Test
+    void shouldRejectWrongTokenType() {
+        // given
+        String refresh = tokenService.issue("reader", List.of()).refreshToken();
+
+        // when
+        Throwable thrown = catchThrowable(() -> tokenService.verify(refresh, TokenService.ACCESS));
+
+        // then
+        assertThat(thrown).isInstanceOf(BadCredentialsException.class).hasMessage("Nieprawidłowy typ tokenu");
+    }
+
+    // wygasły token
+    @Test
+    void shouldRejectExpiredToken() {
+        // given
+        String token = tokenService.issue("reader", List.of()).accessToken();
+        TokenService later = new TokenService("test-secret", Duration.ofMinutes(15), Duration.ofDays(7),
+                Clock.fixed(NOW.plus(Duration.ofMinutes(16)), ZoneOffset.UTC));
+
+        // when
+        Throwable thrown = catchThrowable(() -> later.verify(token, TokenService.ACCESS));
+
+        // then
+        assertThat(thrown).isInstanceOf(BadCredentialsException.class).hasMessage("Token wygasł");
+    }
+
+    // odwołanie pojedynczego tokenu i wszystkich tokenów użytkownika (blokada konta)
+    @Test
+    void shouldRejectRevokedTokens() {
+        // given
+        TokenService.TokenPair pair = tokenService.issue("reader", List.of());
+        TokenService.TokenClaims refreshClaims = tokenService.parse(pair.refreshToken());
+
+        // when
+        tokenService.revokeToken(refreshClaims.jti(), refreshClaims.expiresAt());
+        tokenService.revokeTokensIssuedBefore("reader", NOW);
+
+        // then
+        assertThat(catchThrowable(() -> tokenService.verify(pair.refreshToken(), TokenService.REFRESH)))
+                .hasMessage("Token został unieważniony");
+        assertThat(catchThrowable(() -> tokenService.verify(pair.accessToken(), TokenService.ACCESS)))
+                .hasMessage("Token został unieważniony");
+    }
+
+    // bez sekretu aplikacja nie startuje - losowy klucz tylko w profilu dev
+    @Test
+    void shouldRequireSecretOutsideDevProfile() {
+        // given
+        SecurityConfig config = new SecurityConfig();
+        MockEnvironment production = new MockEnvironment();
+        MockEnvironment dev = new MockEnvironment();
+        dev.setActiveProfiles(SecurityConfig.DEV_PROFILE);
+
+        // when
+        Throwable thrown = catchThrowable(() -> config.tokenService("", Duration.ofMinutes(15), Duration.ofDays(7), production));
+        TokenService devTokens = config.tokenService("", Duration.ofMinutes(15), Duration.ofDays(7), dev);
+
+        // then
+        assertThat(thrown).isInstanceOf(IllegalStateException.class);
+        String token = devTokens.issue("reader", List.of()).accessToken();
+        assertThat(devTokens.verify(token, TokenService.ACCESS).sub()).isEqualTo("reader");
+    }
+}
@@ -29,6 +29,12 @@ public class AuthorServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookCache bookCache;
+
     @InjectMocks
     private AuthorService authorService;
 
@@ -96,6 +102,7 @@ public class AuthorServiceTest {
 
         // then
         verify(authorRepository).save(author);
+        verify(bookSearchIndex).reindexAuthor(author.getId());
     }
 
     // test usuwania autora - Sukces (brak książek)
@@ -0,0 +1,154 @@
+package com.booklovers.community.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookStatsDto;
+import com.booklovers.community.dto.CacheStatsDto;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+public class BookCacheTest {
+
+    private CaffeineCacheManager cacheManager;
+    private BookCache bookCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager(BookCache.BOOK_DETAILS, BookCache.BOOK_STATS, BookCache.BOOK_COUNT);
+        cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).recordStats());
+        bookCache = new BookCache(cacheManager);
+    }
+
+    // unieważnienie książki usuwa tylko jej wpisy (DTO i statystyki)
+    @Test
+    void shouldEvictOnlyGivenBook() {
+        // given
+        cacheManager.getCache(BookCache.BOOK_DETAILS).put(1L, "book-1");
+        cacheManager.getCache(BookCache.BOOK_DETAILS).put(2L, "book-2");
+        cacheManager.getCache(BookCache.BOOK_STATS).put(1L, "stats-1");
+
+        // when
+        bookCache.evictBook(1L);
+
+        // then
+        assertThat(cacheManager.getCache(BookCache.BOOK_DETAILS).get(1L)).isNull();
+        assertThat(cacheManager.getCache(BookCache.BOOK_STATS).get(1L)).isNull();
+        assertThat(cacheManager.getCache(BookCache.BOOK_DETAILS).get(2L)).isNotNull();
+    }
+
+    // zmiana półek - unieważniamy tylko statystyki
+    @Test
+    void shouldEvictOnlyStatsWhenShelvesChange() {
+        // given
+        cacheManager.getCache(BookCache.BOOK_DETAILS).put(1L, "book-1");
+        cacheManager.getCache(BookCache.BOOK_STATS).put(1L, "stats-1");
+
+        // when
+        bookCache.evictStats(List.of(1L));
+
+        // then
+        assertThat(cacheManager.getCache(BookCache.BOOK_STATS).get(1L)).isNull();
+        assertThat(cacheManager.getCache(BookCache.BOOK_DETAILS).get(1L)).isNotNull();
+    }
+
+    // przybliżona liczba książek - COUNT tylko przy pustym cache i po dodaniu/usunięciu książki
+    @Test
+    void shouldCacheApproximateBookCountUntilEvicted() {
+        // given
+        AtomicInteger counted = new AtomicInteger();
+
+        // when
+        long first = bookCache.getApproximateBookCount(() -> 100L + counted.incrementAndGet());
+        long second = bookCache.getApproximateBookCount(() -> 100L + counted.incrementAndGet());
+        bookCache.evictBookCount();
+        long third = bookCache.getApproximateBookCount(() -> 100L + counted.incrementAndGet());
+
+        // then
+        assertThat(first).isEqualTo(101L);
+        assertThat(second).isEqualTo(101L);
+        assertThat(third).isEqualTo(102L);
+    }
+
+    // trafienie w cache nie wczytuje danych ponownie
+    @Test
+    void shouldLoadDetailsOnlyOnMiss() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        BookDto book = BookDto.builder().id(1L).title("Hobbit").build();
+
+        // when
+        bookCache.getDetails(1L, () -> {
+            loads.incrementAndGet();
+            return book;
+        });
+        BookDto cached = bookCache.getDetails(1L, () -> {
+            loads.incrementAndGet();
+            return book;
+        });
+
+        // then
+        assertThat(cached).isSameAs(book);
+        assertThat(loads).hasValue(1);
+    }
+
+    // odczyt rozpoczęty przed unieważnieniem (np. commit recenzji w trakcie) nie zapisuje starych statystyk
+    @Test
+    void shouldNotCacheStatsLoadedBeforeEviction() {
+        // given
+        BookStatsDto stale = BookStatsDto.builder().ratingCount(1L).build();
+
+        // when
+        BookStatsDto loaded = bookCache.getStats(1L, () -> {
+            bookCache.evictStats(1L);
+            return stale;
+        });
+
+        // then
+        assertThat(loaded).isSameAs(stale);
+        assertThat(cacheManager.getCache(BookCache.BOOK_STATS).get(1L)).isNull();
+    }
+
+    // to samo przy unieważnieniu całego cache (przeliczenie ocen)
+    @Test
+    void shouldNotCacheDetailsLoadedBeforeClear() {
+        // given
+        BookDto stale = BookDto.builder().id(1L).title("Hobbit").build();
+
+        // when
+        bookCache.getDetails(1L, () -> {
+            bookCache.evictAll();
+            return stale;
+        });
+        BookDto reloaded = bookCache.getDetails(1L, () -> BookDto.builder().id(1L).title("Hobbit, czyli tam i z powrotem").build());
+
+        // then
+        assertThat(reloaded.getTitle()).isEqualTo("Hobbit, czyli tam i z powrotem");
+        assertThat(cacheManager.getCache(BookCache.BOOK_DETAILS).get(1L).get()).isSameAs(reloaded);
+    }
+
+    // liczniki trafień i chybień
+    @Test
+    void shouldReportHitAndMissCounters() {
+        // given
+        cacheManager.getCache(BookCache.BOOK_DETAILS).put(1L, "book-1");
+        cacheManager.getCache(BookCache.BOOK_DETAILS).get(1L); // trafienie
+        cacheManager.getCache(BookCache.BOOK_DETAILS).get(2L); // chybienie
+
+        // when
+        List<CacheStatsDto> stats = bookCache.getStatistics();
+
+        // then
+        CacheStatsDto details = stats.stream().filter(s -> s.getName().equals(BookCache.BOOK_DETAILS)).findFirst().orElseThrow();
+        assertThat(details.getHitCount()).isEqualTo(1);
+        assertThat(details.getMissCount()).isEqualTo(1);
+        assertThat(details.getHitRate()).isEqualTo(0.5);
+        assertThat(details.getSize()).isEqualTo(1);
+    }
+}
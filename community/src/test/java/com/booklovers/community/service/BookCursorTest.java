@@ -0,0 +1,41 @@
+package com.booklovers.community.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+public class BookCursorTest {
+
+    // kodowanie i dekodowanie - tytuł z separatorem i polskimi znakami przechodzi bez zmian
+    @Test
+    void shouldRoundTripCursor() {
+        // given
+        BookCursor cursor = BookCursor.before(BookCursor.BookSort.TITLE, "Władca | Pierścieni", 42L);
+
+        // when
+        String token = cursor.encode();
+
+        // then
+        assertThat(token).doesNotContain("Władca").doesNotContain("=");
+        assertThat(BookCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    // nieznana wersja lub uszkodzona treść - błąd z czytelnym komunikatem
+    @Test
+    void shouldRejectTamperedCursor() {
+        // given
+        String foreignVersion = Base64.getUrlEncoder().encodeToString("v9|ID|F|1|".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().encodeToString("v1|ID|F|abc|".getBytes(StandardCharsets.UTF_8));
+
+        // when & then
+        for (String token : new String[] { foreignVersion, badId, "%%%" }) {
+            Throwable thrown = catchThrowable(() -> BookCursor.decode(token));
+            assertThat(thrown).isInstanceOf(RuntimeException.class)
+                    .hasMessage("Nieprawidłowy kursor stronicowania");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.booklovers.community.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.booklovers.community.dao.BookStatisticsDao;
+import com.booklovers.community.model.BookRatingSummary;
+import com.booklovers.community.repository.BookRatingSummaryRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class BookRatingSummaryServiceTest {
+    @Mock
+    private BookRatingSummaryRepository bookRatingSummaryRepository;
+    @Mock
+    private BookStatisticsDao bookStatisticsDao;
+    @Mock
+    private BookCache bookCache;
+
+    @InjectMocks
+    private BookRatingSummaryService bookRatingSummaryService;
+
+    // brak wiersza agregatu - pusty agregat zamiast nulla
+    @Test
+    void shouldReturnEmptySummaryWhenBookHasNoRow() {
+        // given
+        when(bookRatingSummaryRepository.findById(5L)).thenReturn(Optional.empty());
+
+        // when
+        BookRatingSummary summary = bookRatingSummaryService.getSummary(5L);
+
+        // then
+        assertThat(summary.getBookId()).isEqualTo(5L);
+        assertThat(summary.getRatingCount()).isZero();
+        assertThat(summary.getAverageRating()).isEqualTo(0.0);
+        assertThat(summary.getDistribution()).hasSize(10);
+    }
+
+    // dodanie i usunięcie oceny
+    @Test
+    void shouldApplyPositiveAndNegativeDeltas() {
+        // when
+        bookRatingSummaryService.recordRating(1L, 7);
+        bookRatingSummaryService.removeRating(1L, 3);
+
+        // then
+        verify(bookStatisticsDao).applyRatingDelta(1L, 7, 1);
+        verify(bookStatisticsDao).applyRatingDelta(1L, 3, -1);
+    }
+
+    // zadanie uzgadniające
+    @Test
+    void shouldRebuildAllSummaries() {
+        // when
+        bookRatingSummaryService.rebuildAll();
+
+        // then
+        verify(bookStatisticsDao).rebuildRatingSummaries();
+        verify(bookCache).evictAll();
+    }
+}
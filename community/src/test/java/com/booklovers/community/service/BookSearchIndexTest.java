@@ -0,0 +1,203 @@
+package com.booklovers.community.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.booklovers.community.dto.BookSearchDocument;
+import com.booklovers.community.repository.BookRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class BookSearchIndexTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchIndex.index(new BookSearchDocument(1L, "Ostatnie życzenie", "Andrzej Sapkowski", "978-83-7578-063-5", "Zbiór opowiadań o Wiedźminie Geralcie."));
+        bookSearchIndex.index(new BookSearchDocument(2L, "Krew elfów", "Andrzej Sapkowski", "978-83-7578-065-9", "Pierwsza powieść z sagi o Wiedźminie."));
+        bookSearchIndex.index(new BookSearchDocument(3L, "Wiedźmin. Edycja kolekcjonerska", "Jan Kowalski", "978-83-0000-000-1", null));
+        bookSearchIndex.index(new BookSearchDocument(4L, "Władca Pierścieni", "J.R.R. Tolkien", "978-83-244-0401-6", "Początek wielkiej wojny o pierścień."));
+    }
+
+    // polskie znaki - zapytanie bez ogonków trafia w tytuł z ogonkami i odwrotnie
+    @Test
+    void shouldMatchIgnoringPolishDiacritics() {
+        assertThat(bookSearchIndex.search("wladca")).containsExactly(4L);
+        assertThat(bookSearchIndex.search("ŻYCZENIE")).containsExactly(1L);
+        assertThat(bookSearchIndex.search("elfow")).containsExactly(2L);
+    }
+
+    // ranking - trafienie w tytule wyżej niż w opisie
+    @Test
+    void shouldRankTitleMatchesAboveDescriptionMatches() {
+        // when
+        List<Long> result = bookSearchIndex.search("wiedźmin");
+
+        // then
+        assertThat(result).first().isEqualTo(3L);
+        assertThat(result).containsExactlyInAnyOrder(3L, 1L, 2L);
+    }
+
+    // wszystkie słowa zapytania muszą pasować (AND) + dopasowanie prefiksu
+    @Test
+    void shouldRequireAllTokensAndSupportPrefixes() {
+        assertThat(bookSearchIndex.search("sapkow krew")).containsExactly(2L);
+        assertThat(bookSearchIndex.search("sapkowski tolkien")).isEmpty();
+    }
+
+    // ISBN z myślnikami i bez
+    @Test
+    void shouldFindByIsbnWithAndWithoutHyphens() {
+        assertThat(bookSearchIndex.search("978-83-244-0401-6")).containsExactly(4L);
+        assertThat(bookSearchIndex.search("9788324404016")).containsExactly(4L);
+        assertThat(bookSearchIndex.search("97883757806")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    // krótki prefiks rozwija się na wszystkie pasujące termy, także gdy jest ich dużo (jak dawne LIKE)
+    @Test
+    void shouldExpandPrefixToAllMatchingTerms() {
+        // given
+        for (long id = 100; id < 200; id++) {
+            bookSearchIndex.index(new BookSearchDocument(id, "Harcerz" + id, "Anna Nowak", "isbn-" + id, null));
+        }
+
+        // when
+        List<Long> result = bookSearchIndex.search("harc");
+
+        // then
+        assertThat(result).hasSize(100).contains(100L, 199L);
+    }
+
+    // strona rankingu - te same trafienia co w pełnym rankingu, liczba wszystkich trafień bez względu na stronę
+    @Test
+    void shouldReturnRankedPageWithTotal() {
+        // given
+        List<Long> ranking = bookSearchIndex.search("wiedźmin");
+
+        // when
+        BookSearchIndex.HitPage first = bookSearchIndex.searchPage("wiedźmin", 0, 2);
+        BookSearchIndex.HitPage second = bookSearchIndex.searchPage("wiedźmin", 2, 2);
+        BookSearchIndex.HitPage beyond = bookSearchIndex.searchPage("wiedźmin", 10, 2);
+
+        // then
+        assertThat(first.hits()).extracting(BookSearchIndex.Hit::bookId).containsExactlyElementsOf(ranking.subList(0, 2));
+        assertThat(second.hits()).extracting(BookSearchIndex.Hit::bookId).containsExactlyElementsOf(ranking.subList(2, 3));
+        assertThat(beyond.hits()).isEmpty();
+        assertThat(first.total()).isEqualTo(3);
+        assertThat(beyond.total()).isEqualTo(3);
+    }
+
+    // strona za kursorem i przed nim (wstecz - od trafienia najbliższego kursorowi)
+    @Test
+    void shouldReturnHitsAroundCursor() {
+        // given
+        BookSearchIndex.HitPage all = bookSearchIndex.searchPage("wiedźmin", 0, 3);
+        BookSearchIndex.Hit middle = all.hits().get(1);
+
+        // when
+        BookSearchIndex.HitPage after = bookSearchIndex.searchAfter("wiedźmin", middle, false, 5);
+        BookSearchIndex.HitPage before = bookSearchIndex.searchAfter("wiedźmin", all.hits().get(2), true, 5);
+
+        // then
+        assertThat(after.hits()).containsExactly(all.hits().get(2));
+        assertThat(before.hits()).containsExactly(middle, all.hits().get(0));
+        assertThat(after.total()).isEqualTo(3);
+    }
+
+    // usunięcie książki z indeksu
+    @Test
+    void shouldRemoveBookFromIndex() {
+        // when
+        bookSearchIndex.remove(4L);
+
+        // then
+        assertThat(bookSearchIndex.search("tolkien")).isEmpty();
+        assertThat(bookSearchIndex.size()).isEqualTo(3);
+    }
+
+    // ponowna indeksacja po zmianie tytułu usuwa stare termy
+    @Test
+    void shouldReplaceTermsWhenBookIsReindexed() {
+        // given
+        when(bookRepository.findSearchDocument(2L))
+                .thenReturn(Optional.of(new BookSearchDocument(2L, "Czas pogardy", "Andrzej Sapkowski", "978-83-7578-065-9", null)));
+
+        // when
+        bookSearchIndex.reindexBook(2L);
+
+        // then
+        assertThat(bookSearchIndex.search("krew")).isEmpty();
+        assertThat(bookSearchIndex.search("pogardy")).containsExactly(2L);
+    }
+
+    // książka usunięta z bazy znika z indeksu przy ponownej indeksacji
+    @Test
+    void shouldDropBookMissingInDatabaseOnReindex() {
+        // given
+        when(bookRepository.findSearchDocument(1L)).thenReturn(Optional.empty());
+
+        // when
+        bookSearchIndex.reindexBook(1L);
+
+        // then
+        assertThat(bookSearchIndex.search("życzenie")).isEmpty();
+    }
+
+    // zmiany z transakcji trafiają do indeksu dopiero po commicie, a po wycofaniu wcale
+    @Test
+    void shouldApplyIndexChangesOnlyAfterCommit() {
+        // given
+        when(bookRepository.findSearchDocument(2L))
+                .thenReturn(Optional.of(new BookSearchDocument(2L, "Czas pogardy", "Andrzej Sapkowski", "978-83-7578-065-9", null)));
+
+        // when - transakcja wycofana
+        inTransaction(false, () -> bookSearchIndex.removeBook(4L));
+
+        // then
+        assertThat(bookSearchIndex.search("tolkien")).containsExactly(4L);
+
+        // when - transakcja zatwierdzona
+        inTransaction(true, () -> {
+            bookSearchIndex.reindexBook(2L);
+            assertThat(bookSearchIndex.search("pogardy")).isEmpty();
+        });
+
+        // then
+        assertThat(bookSearchIndex.search("pogardy")).containsExactly(2L);
+    }
+
+    private static void inTransaction(boolean commit, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            if (commit) {
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+            }
+        } finally {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+    }
+}
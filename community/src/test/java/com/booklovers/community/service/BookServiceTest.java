@@ -2,29 +2,42 @@ package com.booklovers.community.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
+import com.booklovers.community.dao.BookExportDao;
 import com.booklovers.community.dao.BookStatisticsDao;
 import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookSlice;
+import com.booklovers.community.dto.BookExportRow;
+import com.booklovers.community.dto.RatingStatDto;
 import com.booklovers.community.exception.ResourceNotFoundException;
 import com.booklovers.community.model.Author;
 import com.booklovers.community.model.Book;
+import com.booklovers.community.model.BookRatingSummary;
 import com.booklovers.community.repository.BookRepository;
 import com.booklovers.community.repository.ReviewRepository;
 import com.booklovers.community.repository.ShelfRepository;
@@ -48,6 +61,24 @@ public class BookServiceTest {
     @Mock
     private ShelfRepository shelfRepository;
 
+    @Mock
+    private BookRatingSummaryService bookRatingSummaryService;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookCache bookCache;
+
+    @Mock
+    private PopularBooksService popularBooksService;
+
+    @Mock
+    private BookExportDao bookExportDao;
+
+    @Mock
+    private ReadingStatsService readingStatsService;
+
     @InjectMocks
     private BookService bookService;
 
@@ -57,27 +88,27 @@ public class BookServiceTest {
     @InjectMocks
     private FileStorageService fileStorageService;
 
-    // generowanie CSV
+    // generowanie CSV - wiersze z kursora zapisywane od razu do strumienia
     @Test
-    void shouldExportBooksToCsvFormat() {
+    void shouldExportBooksToCsvFormat() throws Exception {
         // given
-        Author author = Author.builder().firstName("Adam").lastName("Mickiewicz").build();
-        
-        Book b1 = Book.builder().id(1L).title("Pan Tadeusz").isbn("123").author(author).build();
-        Book b2 = Book.builder().id(2L).title("Dziady").isbn("456").author(author).build();
-
-        when(bookRepository.findAll()).thenReturn(List.of(b1, b2));
-        when(reviewRepository.getAverageRatingForBook(1L)).thenReturn(8.5);
-        when(reviewRepository.getAverageRatingForBook(2L)).thenReturn(null);
+        doAnswer(invocation -> {
+            Consumer<BookExportRow> consumer = invocation.getArgument(0);
+            consumer.accept(new BookExportRow(1L, "Pan Tadeusz", "Adam Mickiewicz", "123", 8.5));
+            consumer.accept(new BookExportRow(2L, "Dziady; cz. III", "Adam Mickiewicz", "456", 0.0));
+            return null;
+        }).when(bookExportDao).forEachBookExportRow(any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
 
         // when
-        byte[] csvBytes = bookService.exportBooksToCsv();
-        String csvContent = new String(csvBytes, StandardCharsets.UTF_8);
+        bookService.exportBooksToCsv(out);
+        String csvContent = out.toString(StandardCharsets.UTF_8);
 
         // then
-        assertThat(csvContent).contains("ID;Tytul;Autor;ISBN;Ocena");
+        assertThat(csvContent).startsWith("ID;Tytul;Autor;ISBN;Ocena\n");
         assertThat(csvContent).contains("1;Pan Tadeusz;Adam Mickiewicz;123;8.5");
-        assertThat(csvContent).contains("2;Dziady;Adam Mickiewicz;456;0.0");
+        assertThat(csvContent).contains("2;Dziady cz. III;Adam Mickiewicz;456;0.0");
+        verify(bookRepository, never()).findAll();
     }
 
     // pobieranie książki po ID
@@ -93,8 +124,10 @@ public class BookServiceTest {
                 .author(author)
                 .build();
 
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
-        when(reviewRepository.getAverageRatingForBook(bookId)).thenReturn(9.5);
+        when(bookCache.getDetails(eq(bookId), any())).thenAnswer(BookServiceTest::loadThroughCache);
+        when(bookRepository.findWithAuthorById(bookId)).thenReturn(Optional.of(book));
+        when(bookRatingSummaryService.getSummary(bookId))
+                .thenReturn(BookRatingSummary.builder().bookId(bookId).ratingSum(19).ratingCount(2).stars9(1).stars10(1).build());
 
         // when
         BookDto result = bookService.getBookById(bookId);
@@ -103,6 +136,8 @@ public class BookServiceTest {
         assertThat(result.getTitle()).isEqualTo("Hobbit");
         assertThat(result.getAuthorName()).isEqualTo("J.R.R. Tolkien");
         assertThat(result.getAverageRating()).isEqualTo(9.5);
+        assertThat(result.getRatingCount()).isEqualTo(2L);
+        verify(reviewRepository, never()).getAverageRatingForBook(anyLong());
     }
 
     // pobieranie nieistniejącej książki (Błąd)
@@ -110,7 +145,8 @@ public class BookServiceTest {
     void shouldThrowExceptionWhenBookNotFound() {
         // given
         Long bookId = 999L;
-        when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+        when(bookCache.getDetails(eq(bookId), any())).thenAnswer(BookServiceTest::loadThroughCache);
+        when(bookRepository.findWithAuthorById(bookId)).thenReturn(Optional.empty());
 
         // when
         Throwable thrown = catchThrowable(() -> bookService.getBookById(bookId));
@@ -131,7 +167,12 @@ public class BookServiceTest {
         bookService.deleteBook(bookId);
 
         // then
+        verify(readingStatsService).removeBook(bookId);
         verify(bookRepository).deleteById(bookId);
+        verify(bookRatingSummaryService).deleteSummary(bookId);
+        verify(bookSearchIndex).removeBook(bookId);
+        verify(bookCache).evictBook(bookId);
+        verify(popularBooksService).remove(bookId);
     }
 
     // usuwanie nieistniejącej książki (Błąd)
@@ -149,40 +190,132 @@ public class BookServiceTest {
         verify(bookRepository, never()).deleteById(anyLong());
     }
 
-    // wyszukiwanie (Paginacja)
+    // wyszukiwanie (Paginacja) - kolejność trafności z indeksu, DTO tylko dla bieżącej strony
     @Test
-    void shouldSearchBooksAndMapToDto() {
+    void shouldSearchBooksUsingIndexRanking() {
         // given
         String query = "Wiedźmin";
-        PageRequest pageable = PageRequest.of(0, 10);
-        
-        Author author = Author.builder().firstName("A").lastName("S").build();
-        Book book = Book.builder().id(1L).title("Wiedźmin").author(author).build();
-        
-        Page<Book> bookPage = new PageImpl<>(List.of(book));
+        PageRequest pageable = PageRequest.of(0, 2);
 
-        when(bookRepository.searchBooks(query, pageable)).thenReturn(bookPage);
-        when(reviewRepository.getAverageRatingForBook(1L)).thenReturn(null); 
+        BookDto first = BookDto.builder().id(3L).title("Wiedźmin").authorName("A S").averageRating(0.0).ratingCount(0L).build();
+        BookDto second = BookDto.builder().id(1L).title("Wiedźmin 2").authorName("A S").averageRating(0.0).ratingCount(0L).build();
+
+        when(bookSearchIndex.searchPage(query, 0, 2)).thenReturn(new BookSearchIndex.HitPage(List.of(
+                new BookSearchIndex.Hit(3L, 5.0),
+                new BookSearchIndex.Hit(1L, 2.0)), 3));
+        // baza zwraca wiersze w innej kolejności niż ranking
+        when(bookRepository.findBookDtosByIds(List.of(3L, 1L))).thenReturn(List.of(second, first));
 
         // when
         Page<BookDto> result = bookService.searchBooks(query, pageable);
 
         // then
-        assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getTitle()).isEqualTo("Wiedźmin");
-        assertThat(result.getContent().get(0).getAverageRating()).isEqualTo(0.0);
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting(BookDto::getId).containsExactly(3L, 1L);
+    }
+
+    // wyszukiwanie - strona poza zakresem wyników
+    @Test
+    void shouldReturnEmptyPageWhenSearchOffsetExceedsResults() {
+        // given
+        when(bookSearchIndex.searchPage("hobbit", 50, 10)).thenReturn(new BookSearchIndex.HitPage(List.of(), 1));
+
+        // when
+        Page<BookDto> result = bookService.searchBooks("hobbit", PageRequest.of(5, 10));
+
+        // then
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        verify(bookRepository, never()).findBookDtosByIds(any());
+    }
+
+    // stronicowanie kursorem - pierwsza strona po id, o jeden wiersz więcej mówi, że jest następna
+    @Test
+    void shouldScrollFirstPageByIdWithoutCount() {
+        // given
+        BookDto b1 = BookDto.builder().id(1L).title("A").build();
+        BookDto b2 = BookDto.builder().id(2L).title("B").build();
+        BookDto b3 = BookDto.builder().id(3L).title("C").build();
+        when(bookRepository.findBookDtosAfterId(0L, PageRequest.ofSize(3))).thenReturn(List.of(b1, b2, b3));
+
+        // when
+        BookSlice slice = bookService.scrollBooks(null, null, 2, BookCursor.BookSort.ID, false);
+
+        // then
+        assertThat(slice.getContent()).extracting(BookDto::getId).containsExactly(1L, 2L);
+        assertThat(slice.isHasNext()).isTrue();
+        assertThat(slice.isHasPrevious()).isFalse();
+        assertThat(BookCursor.decode(slice.getNextCursor())).isEqualTo(BookCursor.after(BookCursor.BookSort.ID, "", 2L));
+        assertThat(slice.getApproximateTotal()).isNull();
+        verify(bookRepository, never()).count();
+        verify(bookRepository, never()).findAllBookDtos(any());
+    }
+
+    // stronicowanie kursorem wstecz po tytule - wiersze malejąco z bazy, na stronie rosnąco
+    @Test
+    void shouldScrollBackwardByTitle() {
+        // given
+        String cursor = BookCursor.before(BookCursor.BookSort.TITLE, "M", 10L).encode();
+        BookDto l = BookDto.builder().id(8L).title("L").build();
+        BookDto k = BookDto.builder().id(9L).title("K").build();
+        when(bookRepository.findBookDtosBeforeTitle("M", 10L, PageRequest.ofSize(3))).thenReturn(List.of(l, k));
+        when(bookCache.getApproximateBookCount(any())).thenReturn(1234L);
+
+        // when
+        BookSlice slice = bookService.scrollBooks("", cursor, 2, BookCursor.BookSort.ID, true);
+
+        // then
+        assertThat(slice.getContent()).extracting(BookDto::getTitle).containsExactly("K", "L");
+        assertThat(slice.isHasPrevious()).isFalse();
+        assertThat(slice.isHasNext()).isTrue();
+        assertThat(BookCursor.decode(slice.getNextCursor())).isEqualTo(BookCursor.after(BookCursor.BookSort.TITLE, "L", 8L));
+        assertThat(slice.getApproximateTotal()).isEqualTo(1234L);
+    }
+
+    // stronicowanie kursorem wyników wyszukiwania - pozycja (ocena, id) w rankingu z indeksu
+    @Test
+    void shouldScrollSearchResultsAfterCursor() {
+        // given
+        when(bookSearchIndex.searchAfter("wiedźmin", new BookSearchIndex.Hit(1L, 2.0), false, 3))
+                .thenReturn(new BookSearchIndex.HitPage(List.of(
+                        new BookSearchIndex.Hit(7L, 2.0),
+                        new BookSearchIndex.Hit(2L, 1.0)), 4));
+        BookDto seven = BookDto.builder().id(7L).title("Siedem").build();
+        BookDto two = BookDto.builder().id(2L).title("Dwa").build();
+        when(bookRepository.findBookDtosByIds(List.of(7L, 2L))).thenReturn(List.of(two, seven));
+        String cursor = BookCursor.after(BookCursor.BookSort.RELEVANCE, "2.0", 1L).encode();
+
+        // when
+        BookSlice slice = bookService.scrollBooks("wiedźmin", cursor, 2, null, true);
+
+        // then
+        assertThat(slice.getContent()).extracting(BookDto::getId).containsExactly(7L, 2L);
+        assertThat(slice.isHasNext()).isFalse();
+        assertThat(slice.isHasPrevious()).isTrue();
+        assertThat(BookCursor.decode(slice.getPreviousCursor())).isEqualTo(BookCursor.before(BookCursor.BookSort.RELEVANCE, "2.0", 7L));
+        assertThat(slice.getApproximateTotal()).isEqualTo(4L);
+    }
+
+    // uszkodzony kursor - czytelny błąd zamiast wyjątku parsowania
+    @Test
+    void shouldRejectMalformedCursor() {
+        // when
+        Throwable thrown = catchThrowable(() -> bookService.scrollBooks(null, "nie-kursor", 10, null, false));
+
+        // then
+        assertThat(thrown).isInstanceOf(RuntimeException.class)
+                .hasMessage("Nieprawidłowy kursor stronicowania");
     }
 
-    // pobieranie wszystkich książek (paginacja)
+    // pobieranie wszystkich książek (paginacja) - bez zapytań per książka
     @Test
-    void shouldReturnAllBooksPageMappedToDto() {
+    void shouldReturnAllBooksPageFromDtoProjection() {
         // given
         PageRequest pageable = PageRequest.of(0, 5);
-        Author author = Author.builder().firstName("Test").lastName("Author").build();
-        Book book = Book.builder().id(1L).title("Book 1").author(author).build();
-        Page<Book> bookPage = new PageImpl<>(List.of(book));
+        BookDto dto = BookDto.builder().id(1L).title("Book 1").authorName("Test Author").averageRating(7.5).ratingCount(2L).build();
+        Page<BookDto> dtoPage = new PageImpl<>(List.of(dto));
 
-        when(bookRepository.findAll(pageable)).thenReturn(bookPage);
+        when(bookRepository.findAllBookDtos(pageable)).thenReturn(dtoPage);
 
         // when
         Page<BookDto> result = bookService.getAllBooks(pageable);
@@ -190,7 +323,9 @@ public class BookServiceTest {
         // then
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getTitle()).isEqualTo("Book 1");
-        verify(bookRepository).findAll(pageable);
+        assertThat(result.getContent().get(0).getAverageRating()).isEqualTo(7.5);
+        verify(bookRepository).findAllBookDtos(pageable);
+        verify(reviewRepository, never()).getAverageRatingForBook(anyLong());
     }
 
     // zapis książki
@@ -205,6 +340,7 @@ public class BookServiceTest {
 
         // then
         verify(bookRepository).save(book);
+        verify(bookSearchIndex).reindexBook(book.getId());
     }
 
     // pobieranie encji (nie DTO) - sukces
@@ -213,7 +349,7 @@ public class BookServiceTest {
         // given
         Long id = 1L;
         Book book = new Book();
-        when(bookRepository.findById(id)).thenReturn(Optional.of(book));
+        when(bookRepository.findWithAuthorById(id)).thenReturn(Optional.of(book));
 
         // when
         Book result = bookService.findEntityById(id);
@@ -227,7 +363,7 @@ public class BookServiceTest {
     void shouldThrowExceptionWhenEntityNotFound() {
         // given
         Long id = 99L;
-        when(bookRepository.findById(id)).thenReturn(Optional.empty());
+        when(bookRepository.findWithAuthorById(id)).thenReturn(Optional.empty());
 
         // when
         Throwable thrown = catchThrowable(() -> bookService.findEntityById(id));
@@ -236,63 +372,62 @@ public class BookServiceTest {
         assertThat(thrown).isInstanceOf(ResourceNotFoundException.class);
     }
 
-    // najpopularniejsze książki
+    // najpopularniejsze książki - z rankingu w pamięci, bez zapytania do bazy
     @Test
     void shouldReturnMostPopularBooks() {
         // given
-        PageRequest pageRequest = PageRequest.of(0, 6);
-        List<Book> books = List.of(new Book(), new Book());
-        when(bookRepository.findMostPopularBooks(pageRequest)).thenReturn(books);
+        List<BookDto> books = List.of(new BookDto(), new BookDto());
+        when(popularBooksService.getPopularBooks()).thenReturn(books);
 
         // when
-        List<Book> result = bookService.getMostPopularBooks();
+        List<BookDto> result = bookService.getMostPopularBooks();
 
         // then
         assertThat(result).hasSize(2);
-        verify(bookRepository).findMostPopularBooks(pageRequest);
+        verifyNoInteractions(bookRepository);
     }
 
-    // statystyki książki (Dobre dane)
+    // statystyki książki (Dobre dane) - z zagregowanej tabeli, bez skanowania recenzji
     @Test
     void shouldReturnCorrectBookStatistics() {
         // given
         Long bookId = 1L;
-        
-        when(reviewRepository.getAverageRatingForBook(bookId)).thenReturn(4.5);
-        
-        when(reviewRepository.countByBookId(bookId)).thenReturn(100L);
+        BookRatingSummary summary = BookRatingSummary.builder()
+                .bookId(bookId)
+                .ratingSum(11)
+                .ratingCount(3)
+                .stars5(2) // Ocena 5, 2 głosy
+                .stars1(1) // Ocena 1, 1 głos
+                .build();
+
+        when(bookCache.getStats(eq(bookId), any())).thenAnswer(BookServiceTest::loadThroughCache);
+        when(bookRatingSummaryService.getSummary(bookId)).thenReturn(summary);
         when(shelfRepository.countReadersByBookId(bookId)).thenReturn(50L);
-        
-        List<Object[]> histogram = List.of(
-            new Object[]{5, 2L}, // Ocena 5, 2 głosy
-            new Object[]{1, 1L}  // Ocena 1, 1 głos
-        );
-        when(reviewRepository.getRatingDistribution(bookId)).thenReturn(histogram);
 
         // when
         var stats = bookService.getBookStatistics(bookId);
 
         // then
-        assertThat(stats.getAverageRating()).isEqualTo(4.5);
-        assertThat(stats.getRatingCount()).isEqualTo(100L);
+        assertThat(stats.getAverageRating()).isEqualTo(3.67);
+        assertThat(stats.getRatingCount()).isEqualTo(3L);
         assertThat(stats.getReaderCount()).isEqualTo(50L);
         
         // Sprawdzanie mapy rozkładu
         assertThat(stats.getRatingDistribution().get(5)).isEqualTo(2L);
         assertThat(stats.getRatingDistribution().get(1)).isEqualTo(1L);
         assertThat(stats.getRatingDistribution().get(3)).isEqualTo(0L); 
+        verify(reviewRepository, never()).getRatingDistribution(anyLong());
     }
 
-    // statystyki książki (brak danych / wartości null)
+    // statystyki książki (brak danych - pusty agregat)
     @Test
     void shouldHandleNullValuesInStatistics() {
         // given
         Long bookId = 2L;
 
-        when(reviewRepository.getAverageRatingForBook(bookId)).thenReturn(null); // Brak ocen
-        when(reviewRepository.countByBookId(bookId)).thenReturn(0L);
+        when(bookCache.getStats(eq(bookId), any())).thenAnswer(BookServiceTest::loadThroughCache);
+        when(bookRatingSummaryService.getSummary(bookId)).thenReturn(BookRatingSummary.empty(bookId)); // Brak ocen
         when(shelfRepository.countReadersByBookId(bookId)).thenReturn(0L);
-        when(reviewRepository.getRatingDistribution(bookId)).thenReturn(List.of()); // Pusty histogram
 
         // when
         var stats = bookService.getBookStatistics(bookId);
@@ -302,4 +437,28 @@ public class BookServiceTest {
         assertThat(stats.getRatingCount()).isEqualTo(0L);
         assertThat(stats.getRatingDistribution()).hasSize(10); 
     }
+
+    // histogram ocen dla API - tylko niezerowe kubełki, malejąco
+    @Test
+    void shouldReturnRatingStatsFromSummary() {
+        // given
+        Long bookId = 3L;
+        when(bookRepository.existsById(bookId)).thenReturn(true);
+        when(bookRatingSummaryService.getSummary(bookId))
+                .thenReturn(BookRatingSummary.builder().bookId(bookId).ratingSum(14).ratingCount(3).stars4(1).stars5(2).build());
+
+        // when
+        List<RatingStatDto> stats = bookService.getBookRatingStats(bookId);
+
+        // then
+        assertThat(stats).extracting(RatingStatDto::getRating).containsExactly(5, 4);
+        assertThat(stats).extracting(RatingStatDto::getCount).containsExactly(2L, 1L);
+        verify(bookStatisticsDao, never()).getRatingDistribution(anyLong());
+    }
+
+    // BookCache jako mock - chybienie, wartość wczytywana przez przekazany loader
+    private static Object loadThroughCache(InvocationOnMock invocation) {
+        Supplier<?> loader = invocation.getArgument(1);
+        return loader.get();
+    }
 }
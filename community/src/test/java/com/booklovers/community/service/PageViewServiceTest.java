@@ -0,0 +1,139 @@
+package com.booklovers.community.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import com.booklovers.community.dto.BookDetailsView;
+import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.dto.BookStatsDto;
+import com.booklovers.community.dto.ProfileView;
+import com.booklovers.community.dto.ReadingChallengeDto;
+import com.booklovers.community.dto.ReviewFeedItemDto;
+import com.booklovers.community.exception.ResourceNotFoundException;
+import com.booklovers.community.model.Shelf;
+import com.booklovers.community.model.User;
+import com.booklovers.community.service.ReviewService.FeedSort;
+
+@ExtendWith(MockitoExtension.class)
+public class PageViewServiceTest {
+    @Mock
+    private BookService bookService;
+    @Mock
+    private ReviewService reviewService;
+    @Mock
+    private ShelfService shelfService;
+    @Mock
+    private UserService userService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PageViewService pageViewService;
+
+    @BeforeEach
+    void setUp() {
+        pageViewService = new PageViewService(bookService, reviewService, shelfService, userService,
+                new SimpleAsyncTaskExecutor("page-query-"), transactionManager);
+    }
+
+    // odczyty strony książki (po wczytaniu samej książki) biegną równolegle - każdy czeka na barierze, aż wystartują oba
+    @Test
+    void shouldRunBookDetailsReadsConcurrently() {
+        // given
+        CyclicBarrier allStarted = new CyclicBarrier(2);
+        BookDto book = BookDto.builder().id(1L).title("Hobbit").build();
+        BookStatsDto stats = BookStatsDto.builder().averageRating(8.0).ratingCount(2L).build();
+        SliceImpl<ReviewFeedItemDto> reviews = new SliceImpl<>(List.of(), PageRequest.of(0, 20), false);
+        when(bookService.getBookById(1L)).thenReturn(book);
+        when(bookService.getBookStatistics(1L)).thenAnswer(invocation -> awaitThen(allStarted, stats));
+        when(reviewService.getReviewFeed(1L, FeedSort.NEWEST, 0, 20)).thenAnswer(invocation -> awaitThen(allStarted, reviews));
+
+        // when
+        BookDetailsView view = pageViewService.getBookDetails(1L, FeedSort.NEWEST, 0, 20, null);
+
+        // then
+        assertThat(view.getBook()).isSameAs(book);
+        assertThat(view.getStats()).isSameAs(stats);
+        assertThat(view.getReviews()).isSameAs(reviews);
+        assertThat(view.getUserShelves()).isNull();
+        verifyNoInteractions(shelfService);
+    }
+
+    // każdy odczyt we własnej transakcji tylko do odczytu
+    @Test
+    void shouldRunEachProfileReadInOwnReadOnlyTransaction() {
+        // given
+        User user = User.builder().username("jan").build();
+        List<Shelf> shelves = List.of(Shelf.builder().name("Przeczytane").build());
+        ReadingChallengeDto challenge = ReadingChallengeDto.builder().year(2026).booksRead(3).target(52).build();
+        when(userService.findByUsername("jan")).thenReturn(user);
+        when(shelfService.getUserShelvesWithBooks("jan")).thenReturn(shelves);
+        when(shelfService.getReadingChallenge("jan", 2026)).thenReturn(challenge);
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+
+        // when
+        ProfileView view = pageViewService.getProfile("jan", 2026);
+
+        // then
+        assertThat(view.getUser()).isSameAs(user);
+        assertThat(view.getShelves()).isSameAs(shelves);
+        assertThat(view.getChallenge()).isSameAs(challenge);
+        verify(transactionManager, times(3)).getTransaction(definitions.capture());
+        assertThat(definitions.getAllValues()).allMatch(TransactionDefinition::isReadOnly);
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    // nieistniejąca książka - 404 bez uruchamiania pozostałych odczytów strony
+    @Test
+    void shouldNotFanOutForMissingBook() {
+        // given
+        when(bookService.getBookById(99L)).thenThrow(new ResourceNotFoundException("Nie znaleziono książki"));
+
+        // when & then
+        assertThatThrownBy(() -> pageViewService.getBookDetails(99L, FeedSort.NEWEST, 0, 20, "jan"))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Nie znaleziono książki");
+        verify(bookService, never()).getBookStatistics(any());
+        verifyNoInteractions(reviewService, shelfService, transactionManager);
+    }
+
+    // błąd jednego z równoległych odczytów wychodzi bez opakowania CompletionException (404 z GlobalExceptionHandler)
+    @Test
+    void shouldRethrowReadFailureUnwrapped() {
+        // given
+        when(userService.findByUsername("jan")).thenThrow(new ResourceNotFoundException("Nie znaleziono użytkownika"));
+        when(shelfService.getUserShelvesWithBooks("jan")).thenReturn(List.of());
+        when(shelfService.getReadingChallenge("jan", 2026)).thenReturn(ReadingChallengeDto.builder().build());
+
+        // when & then
+        assertThatThrownBy(() -> pageViewService.getProfile("jan", 2026))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Nie znaleziono użytkownika");
+    }
+
+    private static <T> T awaitThen(CyclicBarrier barrier, T result) throws Exception {
+        barrier.await(5, TimeUnit.SECONDS);
+        return result;
+    }
+}
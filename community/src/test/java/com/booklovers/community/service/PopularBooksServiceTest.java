@@ -0,0 +1,152 @@
+package com.booklovers.community.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.booklovers.community.dao.BookStatisticsDao;
+import com.booklovers.community.dto.BookDto;
+import com.booklovers.community.repository.BookRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class PopularBooksServiceTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private BookStatisticsDao bookStatisticsDao;
+
+    @InjectMocks
+    private PopularBooksService popularBooksService;
+
+    private BookDto book(Long id) {
+        return BookDto.builder().id(id).title("Książka " + id).authorName("Autor").build();
+    }
+
+    // ranking wg liczby recenzji, serwowany z pamięci
+    @Test
+    void shouldRankByReviewScoreAndServeFromMemory() {
+        // given
+        ReflectionTestUtils.setField(popularBooksService, "size", 2);
+        when(bookStatisticsDao.sumReviewScores(any(LocalDate.class), anyDouble()))
+                .thenReturn(Map.of(1L, 1.0, 2L, 5.0, 3L, 3.0));
+        // repozytorium zwraca DTO w dowolnej kolejności
+        when(bookRepository.findBookDtosByIds(List.of(2L, 3L))).thenReturn(List.of(book(3L), book(2L)));
+
+        // when
+        popularBooksService.refresh();
+        List<BookDto> result = popularBooksService.getPopularBooks();
+
+        // then
+        assertThat(result).extracting(BookDto::getId).containsExactly(2L, 3L);
+        verify(bookStatisticsDao, never()).countShelfEntriesPerBook();
+    }
+
+    // półki doliczane z wagą
+    @Test
+    void shouldBlendShelfCountsWithWeight() {
+        // given
+        ReflectionTestUtils.setField(popularBooksService, "size", 2);
+        ReflectionTestUtils.setField(popularBooksService, "shelfWeight", 0.5);
+        when(bookStatisticsDao.sumReviewScores(any(LocalDate.class), anyDouble()))
+                .thenReturn(Map.of(1L, 2.0, 2L, 1.0));
+        when(bookStatisticsDao.countShelfEntriesPerBook()).thenReturn(Map.of(2L, 4L));
+        when(bookRepository.findBookDtosByIds(List.of(2L, 1L))).thenReturn(List.of(book(1L), book(2L)));
+
+        // when
+        List<BookDto> result = popularBooksService.refresh();
+
+        // then - książka 2: 1 + 4 * 0.5 = 3 > 2
+        assertThat(result).extracting(BookDto::getId).containsExactly(2L, 1L);
+    }
+
+    // za mało aktywnych książek - dopełnienie książkami bez recenzji
+    @Test
+    void shouldFillRankingWithInactiveBooks() {
+        // given
+        ReflectionTestUtils.setField(popularBooksService, "size", 3);
+        when(bookStatisticsDao.sumReviewScores(any(LocalDate.class), anyDouble())).thenReturn(Map.of(5L, 1.0));
+        when(bookRepository.findIdsOrderedById(any(Pageable.class))).thenReturn(List.of(1L, 2L, 5L, 7L));
+        when(bookRepository.findBookDtosByIds(anyList())).thenReturn(List.of(book(1L), book(2L), book(5L)));
+
+        // when
+        List<BookDto> result = popularBooksService.refresh();
+
+        // then
+        assertThat(result).extracting(BookDto::getId).containsExactly(5L, 1L, 2L);
+    }
+
+    // usunięta książka znika z rankingu bez odświeżania
+    @Test
+    void shouldRemoveDeletedBookFromRanking() {
+        // given
+        ReflectionTestUtils.setField(popularBooksService, "size", 2);
+        when(bookStatisticsDao.sumReviewScores(any(LocalDate.class), anyDouble())).thenReturn(Map.of(1L, 2.0, 2L, 1.0));
+        when(bookRepository.findBookDtosByIds(List.of(1L, 2L))).thenReturn(List.of(book(1L), book(2L)));
+        popularBooksService.refresh();
+
+        // when
+        popularBooksService.remove(1L);
+
+        // then
+        assertThat(popularBooksService.getPopularBooks()).extracting(BookDto::getId).containsExactly(2L);
+    }
+
+    // w transakcji książka znika z rankingu dopiero po commicie usunięcia, po wycofaniu zostaje
+    @Test
+    void shouldRemoveBookFromRankingOnlyAfterCommit() {
+        // given
+        ReflectionTestUtils.setField(popularBooksService, "size", 2);
+        when(bookStatisticsDao.sumReviewScores(any(LocalDate.class), anyDouble())).thenReturn(Map.of(1L, 2.0, 2L, 1.0));
+        when(bookRepository.findBookDtosByIds(List.of(1L, 2L))).thenReturn(List.of(book(1L), book(2L)));
+        popularBooksService.refresh();
+
+        // when - transakcja wycofana
+        inTransaction(false, () -> popularBooksService.remove(1L));
+
+        // then
+        assertThat(popularBooksService.getPopularBooks()).extracting(BookDto::getId).containsExactly(1L, 2L);
+
+        // when - transakcja zatwierdzona
+        inTransaction(true, () -> {
+            popularBooksService.remove(1L);
+            assertThat(popularBooksService.getPopularBooks()).extracting(BookDto::getId).containsExactly(1L, 2L);
+        });
+
+        // then
+        assertThat(popularBooksService.getPopularBooks()).extracting(BookDto::getId).containsExactly(2L);
+    }
+
+    private static void inTransaction(boolean commit, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            if (commit) {
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+            }
+        } finally {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+    }
+}
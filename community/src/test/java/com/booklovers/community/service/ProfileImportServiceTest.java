@@ -0,0 +1,253 @@
+package com.booklovers.community.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.booklovers.community.dao.ShelfBookDao;
+import com.booklovers.community.dto.ImportJobDto;
+import com.booklovers.community.exception.ResourceNotFoundException;
+import com.booklovers.community.model.Shelf;
+import com.booklovers.community.model.ShelfBook;
+import com.booklovers.community.model.User;
+import com.booklovers.community.repository.BookRepository;
+import com.booklovers.community.repository.ShelfRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class ProfileImportServiceTest {
+    @Mock
+    private UserService userService;
+    @Mock
+    private ShelfRepository shelfRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private ShelfBookDao shelfBookDao;
+    @Mock
+    private BookCache bookCache;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProfileImportService profileImportService;
+    private final User user = User.builder().id(5L).username("importUser").build();
+
+    @BeforeEach
+    void setUp() {
+        // zadanie wykonywane od razu w wątku testu
+        TaskExecutor executor = Runnable::run;
+        profileImportService = new ProfileImportService(userService, shelfRepository, bookRepository, shelfBookDao,
+                bookCache, executor, transactionManager, Duration.ofHours(1));
+    }
+
+    private MockMultipartFile backup(String json) {
+        return new MockMultipartFile("file", "backup.json", "application/json", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Shelf shelf(Long id, String name) {
+        return Shelf.builder().id(id).name(name).user(user).books(new ArrayList<>()).build();
+    }
+
+    // sukces - istniejąca półka, książki rozwiązane jednym zapytaniem IN, brakujące pominięte
+    @Test
+    void shouldImportBooksIntoExistingShelf() {
+        // given
+        when(userService.findByUsername("importUser")).thenReturn(user);
+        when(shelfRepository.findByNameAndUserId("Fantasy", 5L)).thenReturn(Optional.of(shelf(1L, "Fantasy")));
+        when(shelfBookDao.findBookIds(1L)).thenReturn(new HashSet<>());
+        when(bookRepository.findTitleIdPairsByTitleIn(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[] { "Hobbit", 100L }));
+        when(shelfBookDao.insertBooks(1L, Set.of(100L), ShelfBook.UNKNOWN_ADDED_AT)).thenReturn(Set.of(100L));
+
+        // when
+        ImportJobDto job = profileImportService.submit("importUser", backup("""
+                { "username": "importUser", "shelves": [ { "name": "Fantasy", "books": ["Hobbit", "Nieistniejąca Książka"] } ],
+                  "reviews": [ { "bookTitle": "Hobbit", "rating": 9 } ] }
+                """));
+        ImportJobDto status = profileImportService.getJob(job.getId(), "importUser");
+
+        // then
+        assertThat(status.getStatus()).isEqualTo("COMPLETED");
+        assertThat(status.getBooksAdded()).isEqualTo(1);
+        assertThat(status.getBooksNotFound()).isEqualTo(1);
+        assertThat(status.getShelvesProcessed()).isEqualTo(1);
+        verify(shelfBookDao).insertBooks(1L, Set.of(100L), ShelfBook.UNKNOWN_ADDED_AT);
+        verify(bookCache).evictStats(Set.of(100L));
+        verify(bookRepository, never()).findByTitle(any());
+    }
+
+    // nowa półka tworzona, gdy użytkownik jej nie ma
+    @Test
+    void shouldCreateMissingShelf() {
+        // given
+        when(userService.findByUsername("importUser")).thenReturn(user);
+        when(shelfRepository.findByNameAndUserId("Inne", 5L)).thenReturn(Optional.empty());
+        when(shelfRepository.save(any(Shelf.class))).thenAnswer(i -> {
+            Shelf saved = i.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
+        when(bookRepository.findTitleIdPairsByTitleIn(anyCollection())).thenReturn(List.of());
+
+        // when
+        profileImportService.submit("importUser", backup("{ \"shelves\": [ { \"books\": [\"Brak\"], \"name\": \"Inne\" } ] }"));
+
+        // then
+        ArgumentCaptor<Shelf> captor = ArgumentCaptor.forClass(Shelf.class);
+        verify(shelfRepository).save(captor.capture());
+        assertThat(captor.getValue().getName()).isEqualTo("Inne");
+        assertThat(captor.getValue().getUser()).isEqualTo(user);
+    }
+
+    // książka już na półce lub zdublowana w pliku - bez ponownego wstawienia
+    @Test
+    void shouldNotAddDuplicateBooks() {
+        // given
+        when(userService.findByUsername("importUser")).thenReturn(user);
+        when(shelfRepository.findByNameAndUserId("Fantasy", 5L)).thenReturn(Optional.of(shelf(1L, "Fantasy")));
+        when(shelfBookDao.findBookIds(1L)).thenReturn(new HashSet<>(Set.of(100L)));
+        when(bookRepository.findTitleIdPairsByTitleIn(anyCollection())).thenReturn(List.<Object[]>of(
+                new Object[] { "Wiedźmin", 100L }, new Object[] { "Hobbit", 200L }));
+        when(shelfBookDao.insertBooks(1L, Set.of(200L), ShelfBook.UNKNOWN_ADDED_AT)).thenReturn(Set.of(200L));
+
+        // when
+        ImportJobDto job = profileImportService.submit("importUser",
+                backup("{ \"shelves\": [ { \"name\": \"Fantasy\", \"books\": [\"Wiedźmin\", \"Hobbit\", \"Hobbit\"] } ] }"));
+
+        // then
+        verify(shelfBookDao).insertBooks(1L, Set.of(200L), ShelfBook.UNKNOWN_ADDED_AT);
+        assertThat(profileImportService.getJob(job.getId(), "importUser").getBooksAdded()).isEqualTo(1);
+    }
+
+    // duży backup - tytuły rozwiązywane paczkami, nie po jednym
+    @Test
+    void shouldResolveTitlesInBatches() {
+        // given
+        when(userService.findByUsername("importUser")).thenReturn(user);
+        when(shelfRepository.findByNameAndUserId("Wszystko", 5L)).thenReturn(Optional.of(shelf(1L, "Wszystko")));
+        when(shelfBookDao.findBookIds(1L)).thenReturn(new HashSet<>());
+        when(bookRepository.findTitleIdPairsByTitleIn(anyCollection())).thenReturn(List.of());
+        String titles = IntStream.range(0, 2500).mapToObj(i -> "\"Tytuł " + i + "\"").collect(Collectors.joining(","));
+
+        // when
+        ImportJobDto job = profileImportService.submit("importUser",
+                backup("{ \"shelves\": [ { \"name\": \"Wszystko\", \"books\": [" + titles + "] } ] }"));
+
+        // then - 1000 + 1000 + 500
+        verify(bookRepository, org.mockito.Mockito.times(3)).findTitleIdPairsByTitleIn(anyCollection());
+        assertThat(profileImportService.getJob(job.getId(), "importUser").getTitlesProcessed()).isEqualTo(2500);
+    }
+
+    // brak sekcji shelves
+    @Test
+    void shouldHandleImportWithNoShelvesInJson() {
+        // given
+        when(userService.findByUsername("importUser")).thenReturn(user);
+
+        // when
+        ImportJobDto job = profileImportService.submit("importUser", backup("{\"username\": \"user\", \"email\": \"u@u.pl\"}"));
+
+        // then
+        assertThat(profileImportService.getJob(job.getId(), "importUser").getStatus()).isEqualTo("COMPLETED");
+        verify(shelfRepository, never()).findByNameAndUserId(any(), any());
+        verify(shelfBookDao, never()).insertBooks(any(), anyCollection(), any());
+    }
+
+    // uszkodzony plik - zadanie kończy się błędem
+    @Test
+    void shouldMarkJobAsFailedForMalformedJson() {
+        // given
+        when(userService.findByUsername("importUser")).thenReturn(user);
+
+        // when
+        ImportJobDto job = profileImportService.submit("importUser", backup("{\"shelves\": [ {\"name\": "));
+        ImportJobDto status = profileImportService.getJob(job.getId(), "importUser");
+
+        // then
+        assertThat(status.getStatus()).isEqualTo("FAILED");
+        assertThat(status.getError()).contains("Błąd podczas importu danych");
+        assertThat(status.getFinishedAt()).isNotNull();
+    }
+
+    // błąd zapisu przesłanego pliku
+    @Test
+    void shouldThrowExceptionWhenUploadCannotBeStored() throws IOException {
+        // given
+        when(userService.findByUsername("importUser")).thenReturn(user);
+        MockMultipartFile file = mock(MockMultipartFile.class);
+        Path[] target = new Path[1];
+        doAnswer(invocation -> {
+            target[0] = invocation.getArgument(0);
+            throw new IOException("Corrupted file");
+        }).when(file).transferTo(any(Path.class));
+
+        // when
+        Throwable thrown = catchThrowable(() -> profileImportService.submit("importUser", file));
+
+        // then - plik tymczasowy usunięty
+        assertThat(thrown).isInstanceOf(RuntimeException.class).hasMessageContaining("Błąd podczas importu danych");
+        assertThat(target[0]).isNotNull().doesNotExist();
+    }
+
+    // pełna kolejka zadań
+    @Test
+    void shouldRejectImportWhenQueueIsFull() {
+        // given
+        when(userService.findByUsername("importUser")).thenReturn(user);
+        TaskExecutor busy = task -> {
+            throw new TaskRejectedException("full");
+        };
+        ProfileImportService service = new ProfileImportService(userService, shelfRepository, bookRepository, shelfBookDao,
+                bookCache, busy, transactionManager, Duration.ofHours(1));
+
+        // when
+        Throwable thrown = catchThrowable(() -> service.submit("importUser", backup("{}")));
+
+        // then
+        assertThat(thrown).hasMessage("Zbyt wiele importów w toku, spróbuj ponownie później");
+    }
+
+    // stan zadania widoczny tylko dla właściciela
+    @Test
+    void shouldHideJobFromOtherUsers() {
+        // given
+        when(userService.findByUsername("importUser")).thenReturn(user);
+        ImportJobDto job = profileImportService.submit("importUser", backup("{}"));
+
+        // when
+        Throwable thrown = catchThrowable(() -> profileImportService.getJob(job.getId(), "intruz"));
+
+        // then
+        assertThat(thrown).isInstanceOf(ResourceNotFoundException.class);
+        verify(userService, never()).findByUsername(eq("intruz"));
+    }
+}
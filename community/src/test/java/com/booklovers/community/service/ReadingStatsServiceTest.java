@@ -0,0 +1,109 @@
+package com.booklovers.community.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.booklovers.community.dao.BookStatisticsDao;
+import com.booklovers.community.dto.YearInReviewDto;
+import com.booklovers.community.model.User;
+import com.booklovers.community.model.UserReadingMonth;
+import com.booklovers.community.model.UserReadingMonthId;
+import com.booklovers.community.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class ReadingStatsServiceTest {
+    @Mock
+    private BookStatisticsDao bookStatisticsDao;
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private ReadingStatsService readingStatsService;
+
+    // podsumowanie roku - 12 miesięcy, puste uzupełnione zerami, średnie z sum ocen
+    @Test
+    void shouldBuildYearInReviewFromMonthlyRollup() {
+        // given
+        when(userRepository.findByUsername("jan")).thenReturn(Optional.of(User.builder().id(4L).username("jan").build()));
+        when(bookStatisticsDao.findReadingMonths(4L, 2024)).thenReturn(List.of(
+                UserReadingMonth.builder().id(new UserReadingMonthId(4L, 2024, 1)).booksRead(2).ratingSum(15).build(),
+                UserReadingMonth.builder().id(new UserReadingMonthId(4L, 2024, 12)).booksRead(1).ratingSum(6).build()));
+
+        // when
+        YearInReviewDto result = readingStatsService.getYearInReview("jan", 2024);
+
+        // then
+        assertThat(result.getYear()).isEqualTo(2024);
+        assertThat(result.getBooksRead()).isEqualTo(3);
+        assertThat(result.getAverageRating()).isEqualTo(7.0);
+        assertThat(result.getMonths()).hasSize(12);
+        assertThat(result.getMonths().get(0).getBooksRead()).isEqualTo(2);
+        assertThat(result.getMonths().get(0).getAverageRating()).isEqualTo(7.5);
+        assertThat(result.getMonths().get(5).getBooksRead()).isZero();
+        assertThat(result.getMonths().get(5).getAverageRating()).isEqualTo(0.0);
+        assertThat(result.getMonths().get(11).getMonth()).isEqualTo(12);
+    }
+
+    // nieznany użytkownik
+    @Test
+    void shouldThrowWhenUserNotFound() {
+        // given
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        // when
+        Throwable thrown = catchThrowable(() -> readingStatsService.getYearInReview("ghost", 2024));
+
+        // then
+        assertThat(thrown).isInstanceOf(RuntimeException.class).hasMessage("Użytkownik nie znaleziony");
+    }
+
+    // dodanie i usunięcie recenzji; recenzje anonimowe pomijane
+    @Test
+    void shouldApplyReadingDeltas() {
+        // given
+        LocalDateTime at = LocalDateTime.of(2024, 2, 3, 10, 0);
+
+        // when
+        readingStatsService.recordReview(4L, at, 8);
+        readingStatsService.removeReview(4L, at, 8);
+
+        // then
+        verify(bookStatisticsDao).applyReadingDelta(4L, at, 8, 1);
+        verify(bookStatisticsDao).applyReadingDelta(4L, at, 8, -1);
+    }
+
+    @Test
+    void shouldSkipAnonymousReviews() {
+        // when
+        readingStatsService.removeReview(null, LocalDateTime.now(), 5);
+
+        // then
+        verifyNoInteractions(bookStatisticsDao);
+    }
+
+    // zadanie uzgadniające
+    @Test
+    void shouldRebuildAllMonths() {
+        // given
+        when(bookStatisticsDao.rebuildReadingMonths()).thenReturn(3);
+
+        // when
+        readingStatsService.rebuildAll();
+
+        // then
+        verify(bookStatisticsDao).rebuildReadingMonths();
+    }
+}
@@ -3,12 +3,19 @@ package com.booklovers.community.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +24,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import com.booklovers.community.dao.ReviewModerationDao;
+import com.booklovers.community.dto.ReviewFeedItemDto;
+import com.booklovers.community.dto.ReviewFilter;
+import com.booklovers.community.dto.ReviewModerationDto;
 import com.booklovers.community.model.Book;
 import com.booklovers.community.model.Review;
 import com.booklovers.community.model.User;
@@ -32,29 +51,60 @@ public class ReviewServiceTest {
     private UserRepository userRepository;
     @Mock
     private BookRepository bookRepository;
+    @Mock
+    private BookRatingSummaryService bookRatingSummaryService;
+    @Mock
+    private BookCache bookCache;
+    @Mock
+    private ReviewModerationDao reviewModerationDao;
+    @Mock
+    private ReadingStatsService readingStatsService;
 
     @InjectMocks
     private ReviewService reviewService;
 
-    // pobieranie recenzji dla konkretnej książki 
+    // pobieranie strony recenzji dla konkretnej książki
     @Test
-    void shouldReturnReviewsForSpecificBook() {
+    void shouldReturnReviewFeedPageForSpecificBook() {
         // given
         Long bookId = 100L;
-        Review r1 = Review.builder().content("Super").build();
-        Review r2 = Review.builder().content("Słaba").build();
-        
-        when(reviewRepository.findByBookId(bookId)).thenReturn(List.of(r1, r2));
+        ReviewFeedItemDto r1 = ReviewFeedItemDto.builder().content("Super").username("jan").build();
+        ReviewFeedItemDto r2 = ReviewFeedItemDto.builder().content("Słaba").build();
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        when(reviewRepository.findFeedByBookId(eq(bookId), pageable.capture()))
+                .thenReturn(new SliceImpl<>(List.of(r1, r2)));
+
+        // when
+        Slice<ReviewFeedItemDto> result = reviewService.getReviewFeed(bookId, ReviewService.FeedSort.NEWEST, 1, 20);
+
+        // then
+        assertThat(result.getContent()).containsExactly(r1, r2);
+        assertThat(pageable.getValue().getPageNumber()).isEqualTo(1);
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(20);
+        assertThat(pageable.getValue().getSort()).isEqualTo(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+    }
+
+    // "najbardziej pomocne" - wg oceny; rozmiar strony przycięty do limitu, brak sortowania = najnowsze
+    @Test
+    void shouldCapFeedSizeAndSortByRatingForHelpful() {
+        // given
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        when(reviewRepository.findFeedByBookId(eq(7L), pageable.capture())).thenReturn(new SliceImpl<>(List.of()));
 
         // when
-        List<Review> result = reviewService.getReviewsForBook(bookId);
+        reviewService.getReviewFeed(7L, ReviewService.FeedSort.HELPFUL, -3, 10_000);
+        reviewService.getReviewFeed(7L, null, 0, 0);
 
         // then
-        assertThat(result).hasSize(2);
-        assertThat(result).contains(r1, r2);
+        Pageable helpful = pageable.getAllValues().get(0);
+        assertThat(helpful.getPageNumber()).isZero();
+        assertThat(helpful.getPageSize()).isEqualTo(ReviewService.MAX_FEED_SIZE);
+        assertThat(helpful.getSort().getOrderFor("rating")).isNotNull();
+        Pageable defaults = pageable.getAllValues().get(1);
+        assertThat(defaults.getPageSize()).isEqualTo(1);
+        assertThat(defaults.getSort().iterator().next().getProperty()).isEqualTo("createdAt");
     }
 
-    // dodawanie recenzji (Sukces)
     @Test
     void shouldAddReviewSuccessfully() {
         // given
@@ -63,7 +113,7 @@ public class ReviewServiceTest {
         Integer rating = 8;
         String content = "Bardzo dobra książka";
 
-        User user = User.builder().username(username).build();
+        User user = User.builder().id(3L).username(username).build();
         Book book = Book.builder().id(bookId).title("Tytuł").build();
 
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
@@ -78,6 +128,9 @@ public class ReviewServiceTest {
 
         Review savedReview = captor.getValue();
         assertThat(savedReview.getUser()).isEqualTo(user);
+        verify(bookRatingSummaryService).recordRating(bookId, rating);
+        verify(readingStatsService).recordReview(3L, savedReview.getCreatedAt(), rating);
+        verify(bookCache).evictBook(bookId);
         assertThat(savedReview.getBook()).isEqualTo(book);
         assertThat(savedReview.getRating()).isEqualTo(rating);
         assertThat(savedReview.getContent()).isEqualTo(content);
@@ -126,17 +179,49 @@ public class ReviewServiceTest {
         verify(reviewRepository, never()).save(any());
     }
 
-    // pobieranie wszystkich recenzji
+    // lista moderacji - strona z DAO, brak filtra = pusty filtr
+    @Test
+    void shouldGetReviewsForModerationPage() {
+        // given
+        PageRequest pageable = PageRequest.of(0, 2);
+        Page<ReviewModerationDto> page = new PageImpl<>(
+                List.of(ReviewModerationDto.builder().id(1L).build(), ReviewModerationDto.builder().id(2L).build()),
+                pageable, 5);
+        when(reviewModerationDao.findPage(any(ReviewFilter.class), eq(pageable))).thenReturn(page);
+
+        // when
+        Page<ReviewModerationDto> result = reviewService.getReviewsForModeration(null, pageable);
+
+        // then
+        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.getTotalElements()).isEqualTo(5);
+    }
+
+    // eksport moderacji - jedna linia JSON na recenzję
     @Test
-    void shouldGetAllReviews() {
+    @SuppressWarnings("unchecked")
+    void shouldExportReviewsForModerationAsNdjson() throws Exception {
         // given
-        when(reviewRepository.findAll()).thenReturn(List.of(new Review(), new Review()));
+        ReviewFilter filter = ReviewFilter.builder().minRating(8).build();
+        doAnswer(invocation -> {
+            Consumer<ReviewModerationDto> consumer = invocation.getArgument(1);
+            consumer.accept(ReviewModerationDto.builder().id(1L).bookTitle("Hobbit").username("jan").rating(9)
+                    .content("Świetna").createdAt(LocalDateTime.of(2024, 5, 1, 12, 0)).build());
+            consumer.accept(ReviewModerationDto.builder().id(2L).bookTitle("Krew elfów").rating(8).build());
+            return null;
+        }).when(reviewModerationDao).forEach(eq(filter), any(Consumer.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
 
         // when
-        List<Review> result = reviewService.getAllReviews();
+        reviewService.exportReviewsForModeration(filter, out);
 
         // then
-        assertThat(result).hasSize(2);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{").contains("\"bookTitle\":\"Hobbit\"")
+                .contains("\"createdAt\":\"2024-05-01T12:00:00\"");
+        assertThat(lines[1]).startsWith("{").contains("\"username\":null");
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("}\n");
     }
 
     // usuwanie recenzji
@@ -152,6 +237,27 @@ public class ReviewServiceTest {
         verify(reviewRepository).deleteById(reviewId);
     }
 
+    // usuwanie recenzji - aktualizacja agregatu ocen książki
+    @Test
+    void shouldRemoveRatingFromSummaryWhenDeletingReview() {
+        // given
+        Long reviewId = 56L;
+        Book book = Book.builder().id(7L).build();
+        LocalDateTime createdAt = LocalDateTime.of(2024, 4, 1, 8, 0);
+        Review review = Review.builder().id(reviewId).book(book).user(User.builder().id(3L).build())
+                .rating(9).createdAt(createdAt).build();
+        when(reviewRepository.findById(reviewId)).thenReturn(Optional.of(review));
+
+        // when
+        reviewService.deleteReview(reviewId);
+
+        // then
+        verify(bookRatingSummaryService).removeRating(7L, 9);
+        verify(readingStatsService).removeReview(3L, createdAt, 9);
+        verify(bookCache).evictBook(7L);
+        verify(reviewRepository).deleteById(reviewId);
+    }
+
     // test błędu zapisu (np. błąd bazy danych)
     @Test
     void shouldThrowExceptionWhenDatabaseFailsToSaveReview() {
@@ -177,5 +283,6 @@ public class ReviewServiceTest {
         // then
         assertThat(thrown).isInstanceOf(RuntimeException.class)
                 .hasMessage("DB Error");
+        verify(bookRatingSummaryService, never()).recordRating(any(), anyInt());
     }
 }
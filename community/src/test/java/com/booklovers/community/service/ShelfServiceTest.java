@@ -4,13 +4,17 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,10 +23,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import com.booklovers.community.model.Book;
+import com.booklovers.community.dao.ShelfBookDao;
+import com.booklovers.community.dto.ReadingChallengeDto;
+import com.booklovers.community.dto.ShelfBatchRequest;
+import com.booklovers.community.dto.ShelfBatchResponse;
 import com.booklovers.community.model.Shelf;
+import com.booklovers.community.model.ShelfBookId;
 import com.booklovers.community.model.User;
 import com.booklovers.community.repository.BookRepository;
+import com.booklovers.community.repository.ShelfBookRepository;
 import com.booklovers.community.repository.ShelfRepository;
 import com.booklovers.community.repository.UserRepository;
 
@@ -34,6 +43,12 @@ public class ShelfServiceTest {
     private UserRepository userRepository;
     @Mock
     private BookRepository bookRepository;
+    @Mock
+    private ShelfBookRepository shelfBookRepository;
+    @Mock
+    private ShelfBookDao shelfBookDao;
+    @Mock
+    private BookCache bookCache;
 
     @InjectMocks
     private ShelfService shelfService;
@@ -61,6 +76,22 @@ public class ShelfServiceTest {
         assertThat(result.get(0).getName()).isEqualTo("Przeczytane");
     }
 
+    // pobieranie półek z zawartością - jedno zapytanie po nazwie użytkownika
+    @Test
+    void shouldReturnUserShelvesWithBooks() {
+        // given
+        String username = "jan_kowalski";
+        List<Shelf> shelves = List.of(Shelf.builder().name("Przeczytane").build());
+        when(shelfRepository.findAllWithBooksByUsername(username)).thenReturn(shelves);
+
+        // when
+        List<Shelf> result = shelfService.getUserShelvesWithBooks(username);
+
+        // then
+        assertThat(result).isSameAs(shelves);
+        verifyNoInteractions(userRepository);
+    }
+
     // pobieranie półek (Błąd - User nie istnieje)
     @Test
     void shouldThrowExceptionWhenGettingShelvesForNonExistentUser() {
@@ -76,7 +107,7 @@ public class ShelfServiceTest {
                 .hasMessage("User not found");
     }
 
-    // dodawanie książki do półki (Sukces)
+    // dodawanie książki do półki (Sukces) - jeden wiersz shelf_books, bez ładowania kolekcji
     @Test
     void shouldAddBookToShelfSuccessfully() {
         // given
@@ -88,20 +119,19 @@ public class ShelfServiceTest {
         Shelf shelf = Shelf.builder()
                 .id(shelfId)
                 .user(user)
-                .books(new ArrayList<>()) 
                 .build();
-        
-        Book book = Book.builder().id(bookId).title("Wiedźmin").build();
 
         when(shelfRepository.findById(shelfId)).thenReturn(Optional.of(shelf));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookRepository.existsById(bookId)).thenReturn(true);
+        when(shelfBookDao.insertBookIfAbsent(eq(shelfId), eq(bookId), any(LocalDateTime.class))).thenReturn(true);
 
         // when
         shelfService.addBookToShelf(shelfId, bookId, username);
 
         // then
-        assertThat(shelf.getBooks()).contains(book);
-        verify(shelfRepository).save(shelf);
+        verify(shelfBookDao).insertBookIfAbsent(eq(shelfId), eq(bookId), any(LocalDateTime.class));
+        verify(shelfRepository, never()).save(any());
+        verify(bookCache).evictStats(bookId);
     }
 
     // blokada dostępu (Próba dodania do cudzej półki)
@@ -125,8 +155,8 @@ public class ShelfServiceTest {
         assertThat(thrown).isInstanceOf(RuntimeException.class)
                 .hasMessage("Nie masz dostępu do tej półki");
         
-        verify(bookRepository, never()).findById(any());
-        verify(shelfRepository, never()).save(any());
+        verify(bookRepository, never()).existsById(any());
+        verify(shelfBookDao, never()).insertBookIfAbsent(any(), any(), any());
     }
 
     // dodawanie książki, która już jest na półce (Unikanie duplikatów)
@@ -138,26 +168,20 @@ public class ShelfServiceTest {
         Long bookId = 2L;
         
         User user = User.builder().username(username).build();
-        Book book = Book.builder().id(bookId).build();
-        
-        List<Book> booksOnShelf = new ArrayList<>();
-        booksOnShelf.add(book);
-        
         Shelf shelf = Shelf.builder()
                 .id(shelfId)
                 .user(user)
-                .books(booksOnShelf)
                 .build();
 
         when(shelfRepository.findById(shelfId)).thenReturn(Optional.of(shelf));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookRepository.existsById(bookId)).thenReturn(true);
+        when(shelfBookDao.insertBookIfAbsent(eq(shelfId), eq(bookId), any(LocalDateTime.class))).thenReturn(false);
 
         // when
         shelfService.addBookToShelf(shelfId, bookId, username);
 
         // then
-        assertThat(shelf.getBooks()).hasSize(1);
-        verify(shelfRepository, never()).save(any());
+        verify(bookCache, never()).evictStats(bookId);
     }
 
     // błąd - Półka nie istnieje
@@ -183,7 +207,7 @@ public class ShelfServiceTest {
         Shelf shelf = Shelf.builder().id(1L).user(user).build();
 
         when(shelfRepository.findById(1L)).thenReturn(Optional.of(shelf));
-        when(bookRepository.findById(999L)).thenReturn(Optional.empty());
+        when(bookRepository.existsById(999L)).thenReturn(false);
 
         // when
         Throwable thrown = catchThrowable(() -> shelfService.addBookToShelf(1L, 999L, username));
@@ -247,25 +271,40 @@ public class ShelfServiceTest {
         Long bookId = 100L;
         
         User user = User.builder().username(username).build();
-        Book book = Book.builder().id(bookId).title("Hobbit").build();
-        
-        List<Book> books = new ArrayList<>(); 
-        books.add(book);
-        
-        Shelf shelf = Shelf.builder().id(shelfId).user(user).books(books).build();
+        Shelf shelf = Shelf.builder().id(shelfId).user(user).build();
 
         when(shelfRepository.findById(shelfId)).thenReturn(Optional.of(shelf));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookRepository.existsById(bookId)).thenReturn(true);
+        when(shelfBookRepository.deleteMembership(shelfId, bookId)).thenReturn(1);
 
         // when
         shelfService.removeBookFromShelf(shelfId, bookId, username);
 
         // then
-        assertThat(shelf.getBooks()).isEmpty();
-        verify(shelfRepository).save(shelf);
+        verify(shelfBookRepository).deleteMembership(shelfId, bookId);
+        verify(shelfRepository, never()).save(any());
+        verify(bookCache).evictStats(bookId);
     }
 
-    // przenoszenie książki (sukces)
+    // usuwanie książki, której nie ma na półce (nic do unieważnienia)
+    @Test
+    void shouldNotEvictStatsWhenRemovedBookWasNotOnShelf() {
+        // given
+        String username = "jan";
+        Shelf shelf = Shelf.builder().id(1L).user(User.builder().username(username).build()).build();
+
+        when(shelfRepository.findById(1L)).thenReturn(Optional.of(shelf));
+        when(bookRepository.existsById(100L)).thenReturn(true);
+        when(shelfBookRepository.deleteMembership(1L, 100L)).thenReturn(0);
+
+        // when
+        shelfService.removeBookFromShelf(1L, 100L, username);
+
+        // then
+        verify(bookCache, never()).evictStats(100L);
+    }
+
+    // przenoszenie książki (sukces) - jedno zapytanie o właścicieli, jeden UPDATE
     @Test
     void shouldMoveBookBetweenShelves() {
         // given
@@ -273,48 +312,240 @@ public class ShelfServiceTest {
         Long sourceShelfId = 1L;
         Long targetShelfId = 2L;
         Long bookId = 50L;
-        
-        User user = User.builder().username(username).build();
-        Book book = Book.builder().id(bookId).build();
-        
-        Shelf sourceShelf = Shelf.builder().id(sourceShelfId).user(user).books(new ArrayList<>(List.of(book))).build();
-        Shelf targetShelf = Shelf.builder().id(targetShelfId).user(user).books(new ArrayList<>()).build();
 
-        when(shelfRepository.findById(sourceShelfId)).thenReturn(Optional.of(sourceShelf));
-        when(shelfRepository.findById(targetShelfId)).thenReturn(Optional.of(targetShelf));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(shelfRepository.findOwnerUsernames(Set.of(sourceShelfId, targetShelfId)))
+                .thenReturn(List.of(new Object[] { sourceShelfId, username }, new Object[] { targetShelfId, username }));
+        when(shelfBookRepository.moveMembership(sourceShelfId, targetShelfId, bookId)).thenReturn(1);
 
         // when
         shelfService.moveBook(sourceShelfId, targetShelfId, bookId, username);
 
         // then
-        assertThat(sourceShelf.getBooks()).doesNotContain(book);
-        verify(shelfRepository).save(sourceShelf);
-        
-        // Książka dodana do docelowej
-        assertThat(targetShelf.getBooks()).contains(book);
-        verify(shelfRepository).save(targetShelf);
+        verify(shelfRepository, never()).findById(any());
+        verify(shelfBookRepository, never()).deleteMembership(any(), any());
+        verify(shelfBookRepository, never()).save(any());
+        verify(bookCache).evictStats(bookId);
     }
 
-    // licznik przeczytanych książek (gdy półka istnieje)
+    // przenoszenie książki, która już jest na półce docelowej - zostaje tylko usunięta ze źródłowej
     @Test
-    void shouldReturnCorrectBooksReadCount() {
+    void shouldOnlyRemoveFromSourceWhenBookAlreadyOnTargetShelf() {
         // given
         String username = "jan";
-        Long userId = 1L;
-        User user = User.builder().id(userId).username(username).build();
-        
-        List<Book> readBooks = List.of(new Book(), new Book(), new Book()); 
-        Shelf readShelf = Shelf.builder().name("Przeczytane").books(readBooks).build();
+        when(shelfRepository.findOwnerUsernames(Set.of(1L, 2L)))
+                .thenReturn(List.of(new Object[] { 1L, username }, new Object[] { 2L, username }));
+        when(shelfBookRepository.moveMembership(1L, 2L, 50L)).thenReturn(0);
+        when(shelfBookRepository.deleteMembership(1L, 50L)).thenReturn(1);
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(shelfRepository.findByNameAndUserId("Przeczytane", userId)).thenReturn(Optional.of(readShelf));
+        // when
+        shelfService.moveBook(1L, 2L, 50L, username);
+
+        // then
+        verify(shelfBookRepository, never()).save(any());
+        verify(bookCache).evictStats(50L);
+    }
+
+    // przenoszenie książki, której nie ma na półce źródłowej (np. przegrane równoległe przeniesienie) - błąd,
+    // książka nie trafia na półkę docelową
+    @Test
+    void shouldRejectMoveWhenBookIsNotOnSourceShelf() {
+        // given
+        String username = "jan";
+        when(shelfRepository.findOwnerUsernames(Set.of(1L, 2L)))
+                .thenReturn(List.of(new Object[] { 1L, username }, new Object[] { 2L, username }));
+        when(shelfBookRepository.moveMembership(1L, 2L, 50L)).thenReturn(0);
+        when(shelfBookRepository.deleteMembership(1L, 50L)).thenReturn(0);
+        when(bookRepository.existsById(50L)).thenReturn(true);
+
+        // when
+        Throwable thrown = catchThrowable(() -> shelfService.moveBook(1L, 2L, 50L, username));
+
+        // then
+        assertThat(thrown).isInstanceOf(RuntimeException.class).hasMessage("Książki nie ma na półce źródłowej");
+        verify(shelfBookRepository, never()).save(any());
+        verify(bookCache, never()).evictStats(50L);
+    }
+
+    // przenoszenie na tę samą półkę - nic się nie zmienia
+    @Test
+    void shouldIgnoreMoveToSameShelf() {
+        // given
+        String username = "jan";
+        when(shelfRepository.findOwnerUsernames(Set.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[] { 1L, username }));
+        when(shelfBookRepository.existsById(new ShelfBookId(1L, 50L))).thenReturn(true);
+
+        // when
+        shelfService.moveBook(1L, 1L, 50L, username);
+
+        // then
+        verify(shelfBookRepository, never()).moveMembership(any(), any(), any());
+        verify(shelfBookRepository, never()).deleteMembership(any(), any());
+        verify(bookCache, never()).evictStats(50L);
+    }
+
+    // przenoszenie na cudzą półkę - brak dostępu, nic nie jest zmieniane
+    @Test
+    void shouldNotMoveBookToSomeoneElseShelf() {
+        // given
+        when(shelfRepository.findOwnerUsernames(Set.of(1L, 2L)))
+                .thenReturn(List.of(new Object[] { 1L, "jan" }, new Object[] { 2L, "anna" }));
+
+        // when
+        Throwable thrown = catchThrowable(() -> shelfService.moveBook(1L, 2L, 50L, "jan"));
+
+        // then
+        assertThat(thrown).isInstanceOf(RuntimeException.class)
+                .hasMessage("Nie masz dostępu do tej półki");
+        verify(shelfBookRepository, never()).moveMembership(any(), any(), any());
+    }
+
+    // operacja zbiorcza ADD - jeden odczyt stanu, jeden batch INSERT, status dla każdej pozycji
+    @Test
+    void shouldAddManyBooksInOneBatch() {
+        // given
+        String username = "jan";
+        when(shelfRepository.findOwnerUsernames(Set.of(1L))).thenReturn(List.<Object[]>of(new Object[] { 1L, username }));
+        when(bookRepository.findExistingIds(Set.of(10L, 11L, 12L, 99L))).thenReturn(List.of(10L, 11L, 12L));
+        when(shelfBookDao.findBookIds(1L, Set.of(10L, 11L, 12L, 99L))).thenReturn(Set.of(11L));
+        when(shelfBookDao.insertBooks(eq(1L), eq(List.of(10L, 12L)), any(LocalDateTime.class))).thenReturn(Set.of(10L, 12L));
+        ShelfBatchRequest request = ShelfBatchRequest.builder()
+                .action(ShelfBatchRequest.Action.ADD)
+                .bookIds(List.of(10L, 11L, 12L, 99L, 10L))
+                .build();
+
+        // when
+        ShelfBatchResponse response = shelfService.applyBatch(1L, request, username);
+
+        // then
+        assertThat(response.getResults()).extracting(ShelfBatchResponse.ItemResult::getStatus).containsExactly(
+                ShelfBatchResponse.Status.ADDED,
+                ShelfBatchResponse.Status.ALREADY_ON_SHELF,
+                ShelfBatchResponse.Status.ADDED,
+                ShelfBatchResponse.Status.BOOK_NOT_FOUND,
+                ShelfBatchResponse.Status.DUPLICATE);
+        assertThat(response.getChanged()).isEqualTo(2);
+        verify(shelfBookDao).insertBooks(eq(1L), eq(List.of(10L, 12L)), any(LocalDateTime.class));
+        verify(shelfBookDao).deleteBooks(1L, List.of());
+    }
+
+    // operacja zbiorcza MOVE - usunięcie z półki źródłowej, wstawienie na docelową tylko brakujących
+    @Test
+    void shouldMoveManyBooksInOneBatch() {
+        // given
+        String username = "jan";
+        when(shelfRepository.findOwnerUsernames(Set.of(1L, 2L)))
+                .thenReturn(List.of(new Object[] { 1L, username }, new Object[] { 2L, username }));
+        when(bookRepository.findExistingIds(Set.of(10L, 11L, 12L))).thenReturn(List.of(10L, 11L, 12L));
+        when(shelfBookDao.findBookIds(1L, Set.of(10L, 11L, 12L))).thenReturn(Set.of(10L, 11L));
+        when(shelfBookDao.findBookIds(2L, Set.of(10L, 11L, 12L))).thenReturn(Set.of(11L));
+        when(shelfBookDao.deleteBooks(1L, List.of(10L, 11L))).thenReturn(Set.of(10L, 11L));
+        when(shelfBookDao.insertBooks(eq(2L), eq(List.of(10L)), any(LocalDateTime.class))).thenReturn(Set.of(10L));
+        ShelfBatchRequest request = ShelfBatchRequest.builder()
+                .action(ShelfBatchRequest.Action.MOVE)
+                .bookIds(List.of(10L, 11L, 12L))
+                .targetShelfId(2L)
+                .build();
+
+        // when
+        ShelfBatchResponse response = shelfService.applyBatch(1L, request, username);
+
+        // then
+        assertThat(response.getResults()).extracting(ShelfBatchResponse.ItemResult::getStatus).containsExactly(
+                ShelfBatchResponse.Status.MOVED,
+                ShelfBatchResponse.Status.MOVED,
+                ShelfBatchResponse.Status.NOT_ON_SHELF);
+        verify(shelfBookDao).deleteBooks(1L, List.of(10L, 11L));
+        verify(shelfBookDao).insertBooks(eq(2L), eq(List.of(10L)), any(LocalDateTime.class));
+    }
+
+    // równoległa zmiana półki między odczytem a batchem - statusy i licznik z wierszy faktycznie zmienionych
+    @Test
+    void shouldReportOnlyRowsChangedByBatch() {
+        // given
+        String username = "jan";
+        when(shelfRepository.findOwnerUsernames(Set.of(1L, 2L)))
+                .thenReturn(List.of(new Object[] { 1L, username }, new Object[] { 2L, username }));
+        when(bookRepository.findExistingIds(Set.of(10L, 11L))).thenReturn(List.of(10L, 11L));
+        when(shelfBookDao.findBookIds(1L, Set.of(10L, 11L))).thenReturn(Set.of(10L, 11L));
+        when(shelfBookDao.findBookIds(2L, Set.of(10L, 11L))).thenReturn(Set.of());
+        // 11 w międzyczasie zniknęło z półki źródłowej
+        when(shelfBookDao.deleteBooks(1L, List.of(10L, 11L))).thenReturn(Set.of(10L));
+        when(shelfBookDao.insertBooks(eq(2L), eq(List.of(10L)), any(LocalDateTime.class))).thenReturn(Set.of(10L));
+        ShelfBatchRequest request = ShelfBatchRequest.builder()
+                .action(ShelfBatchRequest.Action.MOVE)
+                .bookIds(List.of(10L, 11L))
+                .targetShelfId(2L)
+                .build();
+
+        // when
+        ShelfBatchResponse response = shelfService.applyBatch(1L, request, username);
+
+        // then
+        assertThat(response.getResults()).extracting(ShelfBatchResponse.ItemResult::getStatus).containsExactly(
+                ShelfBatchResponse.Status.MOVED,
+                ShelfBatchResponse.Status.NOT_ON_SHELF);
+        assertThat(response.getChanged()).isEqualTo(1);
+        verify(bookCache).evictStats(Set.of(10L));
+    }
+
+    // równoległe dodanie tej samej książki - batch jej nie wstawia, status ALREADY_ON_SHELF
+    @Test
+    void shouldReportBookAddedConcurrentlyAsAlreadyOnShelf() {
+        // given
+        String username = "jan";
+        when(shelfRepository.findOwnerUsernames(Set.of(1L))).thenReturn(List.<Object[]>of(new Object[] { 1L, username }));
+        when(bookRepository.findExistingIds(Set.of(10L, 12L))).thenReturn(List.of(10L, 12L));
+        when(shelfBookDao.findBookIds(1L, Set.of(10L, 12L))).thenReturn(Set.of());
+        when(shelfBookDao.insertBooks(eq(1L), eq(List.of(10L, 12L)), any(LocalDateTime.class))).thenReturn(Set.of(12L));
+        ShelfBatchRequest request = ShelfBatchRequest.builder()
+                .action(ShelfBatchRequest.Action.ADD)
+                .bookIds(List.of(10L, 12L))
+                .build();
+
+        // when
+        ShelfBatchResponse response = shelfService.applyBatch(1L, request, username);
+
+        // then
+        assertThat(response.getResults()).extracting(ShelfBatchResponse.ItemResult::getStatus).containsExactly(
+                ShelfBatchResponse.Status.ALREADY_ON_SHELF,
+                ShelfBatchResponse.Status.ADDED);
+        assertThat(response.getChanged()).isEqualTo(1);
+    }
+
+    // operacja zbiorcza na cudzej półce - nic nie jest czytane ani zmieniane
+    @Test
+    void shouldRejectBatchOnSomeoneElseShelf() {
+        // given
+        when(shelfRepository.findOwnerUsernames(Set.of(1L))).thenReturn(List.<Object[]>of(new Object[] { 1L, "anna" }));
+        ShelfBatchRequest request = ShelfBatchRequest.builder()
+                .action(ShelfBatchRequest.Action.REMOVE)
+                .bookIds(List.of(10L))
+                .build();
+
+        // when
+        Throwable thrown = catchThrowable(() -> shelfService.applyBatch(1L, request, "jan"));
+
+        // then
+        assertThat(thrown).isInstanceOf(RuntimeException.class)
+                .hasMessage("Nie masz dostępu do tej półki");
+        verify(shelfBookDao, never()).deleteBooks(any(), any());
+    }
+
+    // licznik przeczytanych książek (gdy półka istnieje) - COUNT, bez ładowania książek
+    @Test
+    void shouldReturnCorrectBooksReadCount() {
+        // given
+        String username = "jan";
+        when(shelfRepository.findIdByUsernameAndName(username, "Przeczytane")).thenReturn(Optional.of(7L));
+        when(shelfBookRepository.countByIdShelfId(7L)).thenReturn(3L);
 
         // when
         int count = shelfService.getBooksReadCount(username);
 
         // then
         assertThat(count).isEqualTo(3);
+        verify(shelfRepository, never()).findByNameAndUserId(any(), any());
     }
 
     // licznik przeczytanych książek (gdy półka nie istnieje - np. błąd danych)
@@ -322,17 +553,33 @@ public class ShelfServiceTest {
     void shouldReturnZeroIfReadShelfNotFound() {
         // given
         String username = "jan";
-        Long userId = 1L;
-        User user = User.builder().id(userId).username(username).build();
-
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(shelfRepository.findByNameAndUserId("Przeczytane", userId)).thenReturn(Optional.empty());
+        when(shelfRepository.findIdByUsernameAndName(username, "Przeczytane")).thenReturn(Optional.empty());
 
         // when
         int count = shelfService.getBooksReadCount(username);
 
         // then
         assertThat(count).isEqualTo(0);
+        verify(shelfBookRepository, never()).countByIdShelfId(any());
+    }
+
+    // wyzwanie czytelnicze - książki dodane na "Przeczytane" w danym roku
+    @Test
+    void shouldReturnReadingChallengeForYear() {
+        // given
+        String username = "jan";
+        when(shelfRepository.findIdByUsernameAndName(username, "Przeczytane")).thenReturn(Optional.of(7L));
+        when(shelfBookRepository.countAddedBetween(7L, LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0)))
+                .thenReturn(13L);
+
+        // when
+        ReadingChallengeDto challenge = shelfService.getReadingChallenge(username, 2025);
+
+        // then
+        assertThat(challenge.getYear()).isEqualTo(2025);
+        assertThat(challenge.getBooksRead()).isEqualTo(13);
+        assertThat(challenge.getTarget()).isEqualTo(52);
+        assertThat(challenge.getProgressPercent()).isEqualTo(25);
     }
 
     // usuwanie wszystkich półek użytkownika
@@ -3,18 +3,21 @@ package com.booklovers.community.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,15 +29,19 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.booklovers.community.dao.BookStatisticsDao;
+import com.booklovers.community.dao.ProfileBackupDao;
 import com.booklovers.community.dto.UserRegisterDto;
 import com.booklovers.community.model.Book;
 import com.booklovers.community.model.Review;
 import com.booklovers.community.model.Shelf;
 import com.booklovers.community.model.User;
-import com.booklovers.community.repository.BookRepository;
 import com.booklovers.community.repository.ReviewRepository;
 import com.booklovers.community.repository.ShelfRepository;
 import com.booklovers.community.repository.UserRepository;
+import com.booklovers.community.security.AuthenticationCache;
+import com.booklovers.community.security.TokenRevocationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest {
@@ -52,7 +59,15 @@ public class UserServiceTest {
     @Mock
     private ReviewRepository reviewRepository;
     @Mock
-    private BookRepository bookRepository;
+    private BookCache bookCache;
+    @Mock
+    private AuthenticationCache authenticationCache;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    @Mock
+    private ProfileBackupDao profileBackupDao;
+    @Mock
+    private ReadingStatsService readingStatsService;
 
     @InjectMocks
     private UserService userService;
@@ -188,7 +203,7 @@ public class UserServiceTest {
     void shouldToggleUserBlockStatus() {
         // given
         Long userId = 1L;
-        User user = User.builder().id(userId).enabled(true).build(); 
+        User user = User.builder().id(userId).username("blocked").enabled(true).build(); 
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
@@ -198,6 +213,8 @@ public class UserServiceTest {
         // then
         assertThat(user.isEnabled()).isFalse(); 
         verify(userRepository).save(user);
+        verify(authenticationCache).evict("blocked");
+        verify(tokenRevocationService).revokeAllForUser("blocked");
     }
     
     // pobieranie statystyk (DAO)
@@ -252,126 +269,54 @@ public class UserServiceTest {
     void shouldDeleteUserByAdmin() {
         // given
         Long userId = 10L;
+        when(userRepository.findById(userId)).thenReturn(Optional.of(User.builder().id(userId).username("removed").build()));
 
         // when
         userService.deleteUserByAdmin(userId);
 
         // then
+        verify(authenticationCache).evict("removed");
+        verify(tokenRevocationService).revokeAllForUser("removed");
         verify(reviewRepository).anonymizeReviewsByUserId(userId);
+        verify(readingStatsService).deleteForUser(userId);
         verify(shelfRepository).deleteAllByUserId(userId);
         verify(userRepository).deleteById(userId);
     }
 
-    // generowania backupu (JSON)
+    // generowania backupu (JSON) - strumieniowo z kursorów DAO
     @Test
     void shouldGenerateProfileBackup() throws Exception {
         // given
-        String username = "testuser";
-        User user = User.builder().id(1L).username(username).email("test@test.pl").build();
-        
-        Book book = Book.builder().title("Wiedźmin").build();
-        Shelf shelf = Shelf.builder().name("Ulubione").books(List.of(book)).build();
-        Review review = Review.builder().book(book).rating(5).content("Super").build();
-
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(shelfRepository.findAllByUserId(user.getId())).thenReturn(List.of(shelf));
-        when(reviewRepository.findAllByUserId(user.getId())).thenReturn(List.of(review));
-
-        // when
-        byte[] result = userService.generateProfileBackup(username);
-
-        // then
-        assertThat(result).isNotEmpty();
-        String jsonContent = new String(result);
-
-        assertThat(jsonContent).contains("testuser");
-        assertThat(jsonContent).contains("Wiedźmin"); // tytuł książki z półki i recenzji
-        assertThat(jsonContent).contains("Ulubione"); // nazwa półki
-        assertThat(jsonContent).contains("Super");    // treść recenzji
-    }
-
-    // test importu - sukces (dodanie książki do półki)
-    @Test
-    void shouldImportProfileAndAddBooks() throws IOException {
-        // given
-        String username = "importUser";
-        User user = User.builder().id(5L).username(username).build();
-        
-        String json = """
-            {
-              "username": "importUser",
-              "shelves": [
-                {
-                  "name": "Do przeczytania",
-                  "books": ["Hobbit"]
-                }
-              ]
-            }
-            """;
-        
-        MultipartFile file = mock(MultipartFile.class);
-        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
-
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        
-        Shelf existingShelf = Shelf.builder()
-                .name("Do przeczytania")
-                .user(user)
-                .books(new ArrayList<>())
-                .build();
-        when(shelfRepository.findByNameAndUserId("Do przeczytania", user.getId()))
-                .thenReturn(Optional.of(existingShelf));
-        
-        Book book = Book.builder().id(100L).title("Hobbit").build();
-        when(bookRepository.findByTitle("Hobbit")).thenReturn(Optional.of(book));
-
-        // when
-        userService.importProfile(username, file);
-
-        // then
-        verify(bookRepository).findByTitle("Hobbit");
-        verify(shelfRepository).save(existingShelf);
-        assertThat(existingShelf.getBooks()).contains(book);
-    }
-
-    // test importu - walidacja (książka nie istnieje w bazie -> pomijamy)
-    @Test
-    void shouldSkipBookIfNotFoundInDatabaseDuringImport() throws IOException {
-        // given
-        String username = "importUser";
-        User user = User.builder().id(5L).username(username).build();
-        
-        String json = """
-            {
-              "shelves": [
-                {
-                  "name": "Inne",
-                  "books": ["Nieistniejąca Książka"]
-                }
-              ]
-            }
-            """;
-        
-        MultipartFile file = mock(MultipartFile.class);
-        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-
-        when(shelfRepository.findByNameAndUserId("Inne", user.getId())).thenReturn(Optional.empty());
-        when(shelfRepository.save(any(Shelf.class))).thenAnswer(i -> i.getArguments()[0]); 
-
-        when(bookRepository.findByTitle("Nieistniejąca Książka")).thenReturn(Optional.empty());
+        User user = User.builder().id(1L).username("testuser").email("test@test.pl").build();
+
+        doAnswer(invocation -> {
+            Consumer<ProfileBackupDao.ShelfEntry> consumer = invocation.getArgument(1);
+            consumer.accept(new ProfileBackupDao.ShelfEntry(10L, "Ulubione", "Wiedźmin"));
+            consumer.accept(new ProfileBackupDao.ShelfEntry(10L, "Ulubione", "Krew elfów"));
+            consumer.accept(new ProfileBackupDao.ShelfEntry(11L, "Pusta", null));
+            return null;
+        }).when(profileBackupDao).forEachShelfEntry(eq(1L), any());
+        doAnswer(invocation -> {
+            Consumer<ProfileBackupDao.ReviewEntry> consumer = invocation.getArgument(1);
+            consumer.accept(new ProfileBackupDao.ReviewEntry("Wiedźmin", 5, "Super", LocalDateTime.of(2024, 1, 2, 3, 4)));
+            return null;
+        }).when(profileBackupDao).forEachReview(eq(1L), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
 
         // when
-        userService.importProfile(username, file);
+        userService.writeProfileBackup(user, out);
 
         // then
-        verify(bookRepository).findByTitle("Nieistniejąca Książka");
-        
-        ArgumentCaptor<Shelf> shelfCaptor = ArgumentCaptor.forClass(Shelf.class);
-        verify(shelfRepository, times(2)).save(shelfCaptor.capture());
-        
-        Shelf finalShelfState = shelfCaptor.getAllValues().get(1);
-        assertThat(finalShelfState.getBooks()).isEmpty();
+        JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+        assertThat(json.get("username").asText()).isEqualTo("testuser");
+        assertThat(json.get("shelves")).hasSize(2);
+        assertThat(json.get("shelves").get(0).get("name").asText()).isEqualTo("Ulubione");
+        assertThat(json.get("shelves").get(0).get("books")).hasSize(2);
+        assertThat(json.get("shelves").get(1).get("books")).isEmpty();
+        assertThat(json.get("reviews").get(0).get("bookTitle").asText()).isEqualTo("Wiedźmin");
+        assertThat(json.get("reviews").get(0).get("rating").asInt()).isEqualTo(5);
+        assertThat(json.get("reviews").get(0).get("createdAt").asText()).isEqualTo("2024-01-02T03:04");
     }
 
     // updateUserProfile - User Not Found 
@@ -405,102 +350,33 @@ public class UserServiceTest {
                 .hasMessage("User not found");
     }
 
-    // generateProfileBackup - null dates & Exception catch (pokrywa gałęzie ternarne i blok try-catch)
+    // backup - puste daty (gałęzie ternarne) i przerwany zapis
     @Test
-    void shouldHandleNullDatesAndExceptionsInBackup() {
-        String username = "userWithNullDates";
-        User user = User.builder().username(username).createdAt(null).build(); // User bez daty
-        Review review = Review.builder().book(Book.builder().title("B").build()).createdAt(null).build(); // Recenzja bez daty
+    void shouldHandleNullDatesAndWriteErrorsInBackup() throws Exception {
+        User user = User.builder().id(2L).username("userWithNullDates").createdAt(null).build(); // User bez daty
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(shelfRepository.findAllByUserId(any())).thenReturn(List.of());
-        when(reviewRepository.findAllByUserId(any())).thenReturn(List.of(review));
+        doAnswer(invocation -> {
+            Consumer<ProfileBackupDao.ReviewEntry> consumer = invocation.getArgument(1);
+            consumer.accept(new ProfileBackupDao.ReviewEntry("B", null, null, null)); // Recenzja bez daty
+            return null;
+        }).when(profileBackupDao).forEachReview(eq(2L), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userService.writeProfileBackup(user, out);
+        String json = out.toString(StandardCharsets.UTF_8);
 
-        byte[] result = userService.generateProfileBackup(username);
-        String json = new String(result);
-        
         assertThat(json).contains("\"joinDate\" : \"\"");
         assertThat(json).contains("\"createdAt\" : \"\"");
 
-        when(userRepository.findByUsername(username)).thenThrow(new RuntimeException("Database error"));
-        
-        Throwable thrown = catchThrowable(() -> userService.generateProfileBackup(username));
-        assertThat(thrown).isInstanceOf(RuntimeException.class)
-                .hasMessage("Błąd podczas generowania backupu");
-    }
-
-    // importProfile - Exception catch (pokrywa blok try-catch np. przy błędzie IO)
-    @Test
-    void shouldThrowExceptionWhenImportFails() throws IOException {
-        // given
-        String username = "user";
-        MultipartFile file = mock(MultipartFile.class);
-
-        when(file.getInputStream()).thenThrow(new IOException("Corrupted file"));
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(new User()));
-
-        // when
-        Throwable thrown = catchThrowable(() -> userService.importProfile(username, file));
-
-        // then
-        assertThat(thrown).isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("Błąd podczas importu danych");
-    }
-
-    // importProfile - Null Shelves (pokrywa if (backup.getShelves() != null))
-    @Test
-    void shouldHandleImportWithNoShelvesInJson() throws IOException {
-        // given
-        String username = "user";
-        User user = User.builder().id(1L).username(username).build();
-        String json = "{\"username\": \"user\", \"email\": \"u@u.pl\"}"; 
-        
-        MultipartFile file = mock(MultipartFile.class);
-        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-
-        // when
-        userService.importProfile(username, file);
-
-        // then
-        verify(shelfRepository, never()).findByNameAndUserId(any(), any());
-        verify(shelfRepository, never()).save(any());
-    }
-
-    // importProfile - Book Already Exists (pokrywa if (!shelf.getBooks().contains(book)))
-    @Test
-    void shouldNotAddDuplicateBookToShelfDuringImport() throws IOException {
-        // given
-        String username = "user";
-        User user = User.builder().id(1L).build();
-        Book book = Book.builder().id(100L).title("Wiedźmin").build();
-        
-        Shelf shelf = Shelf.builder()
-                .name("Fantasy")
-                .user(user)
-                .books(new ArrayList<>(List.of(book))) 
-                .build();
-
-        String json = """
-            {
-              "shelves": [
-                { "name": "Fantasy", "books": ["Wiedźmin"] }
-              ]
+        // klient zamknął połączenie - IOException z wyjścia trafia do wywołującego bez opakowania
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
             }
-            """;
+        };
 
-        MultipartFile file = mock(MultipartFile.class);
-        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
-        
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(shelfRepository.findByNameAndUserId("Fantasy", user.getId())).thenReturn(Optional.of(shelf));
-        when(bookRepository.findByTitle("Wiedźmin")).thenReturn(Optional.of(book));
-
-        // when
-        userService.importProfile(username, file);
-
-        // then
-        verify(shelfRepository).save(shelf);
-        assertThat(shelf.getBooks()).hasSize(1); 
+        Throwable thrown = catchThrowable(() -> userService.writeProfileBackup(user, broken));
+        assertThat(thrown).isInstanceOf(IOException.class);
     }
 }